@@ -2,7 +2,13 @@ package fr.mrcraftcod.simulator;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.converters.FileConverter;
+import fr.mrcraftcod.simulator.metrics.SequentialStoppingRule;
+import fr.mrcraftcod.simulator.sweep.WorkerFarm;
 import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * The parameters of the program.
@@ -17,7 +23,7 @@ public class CLIParameters{
 	@Parameter(names = {
 			"-c",
 			"--config"
-	}, description = "Path to the json configuration", converter = FileConverter.class, required = true)
+	}, description = "Path to the json configuration", converter = FileConverter.class)
 	private File jsonConfigFile;
 	
 	@SuppressWarnings("FieldMayBeFinal")
@@ -25,13 +31,68 @@ public class CLIParameters{
 	private boolean CLI = false;
 	
 	@SuppressWarnings("FieldMayBeFinal")
-	@Parameter(names = {"--replication"}, description = "The number of replications (only in CLI mode)")
+	@Parameter(names = {"--replication"}, description = "The number of replications, or the maximum number of replications with --precision (only in CLI mode)")
 	private int replication = 1;
 	
+	@Parameter(names = {"--precision"}, description = "Keep launching replications until the 95% confidence interval of the mean of the metrics is narrower than this fraction of the mean, for example 0.05 (only in CLI mode)")
+	private Double precision;
+	@SuppressWarnings("FieldMayBeFinal")
+	@Parameter(names = {"--precision-metrics"}, description = "The metrics that should reach the precision, defaults to all the metrics of the replications")
+	private List<String> precisionMetrics = new ArrayList<>();
+	@SuppressWarnings("FieldMayBeFinal")
+	@Parameter(names = {"--min-replication"}, description = "The number of replications run before checking the precision")
+	private int minReplication = SequentialStoppingRule.DEFAULT_MIN_REPLICATIONS;
+	@SuppressWarnings("FieldMayBeFinal")
+	@Parameter(names = {"--time-budget"}, description = "The number of seconds after which no more replications of a configuration are launched, 0 for no limit")
+	private long timeBudget = 0;
 	@SuppressWarnings("FieldMayBeFinal")
 	@Parameter(names = {"--run-name"}, description = "The name of the run")
 	private String runName = "" + System.currentTimeMillis();
 	
+	@Parameter(names = {"--sweep"}, description = "Glob of the json configurations to run in the same JVM, each with the number of replications given (implies --cli)")
+	private String sweep;
+	
+	@SuppressWarnings("FieldMayBeFinal")
+	@Parameter(names = {"--parallelism"}, description = "The number of replications run at the same time in a sweep or a server")
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	
+	@SuppressWarnings("FieldMayBeFinal")
+	@Parameter(names = {"--engine-threads"}, description = "The number of threads running the events of the tours of different regions in parallel in each replication, 1 to run the events one by one (only in CLI mode)")
+	private int engineThreads = 1;
+	
+	@SuppressWarnings("FieldMayBeFinal")
+	@Parameter(names = {"--workers"}, description = "Run the replications of the sweep in this number of separate JVMs, restarting the ones that crash, instead of running them in this JVM")
+	private int workers = 0;
+	
+	@SuppressWarnings("FieldMayBeFinal")
+	@Parameter(names = {"--worker-port"}, description = "Run as a worker of a sweep started with --workers, connecting to this port", hidden = true)
+	private int workerPort = 0;
+	
+	@SuppressWarnings("FieldMayBeFinal")
+	@Parameter(names = {"--worker-timeout"}, description = "The number of seconds a replication can run in a worker before the worker is killed and started again, 0 for no limit")
+	private long workerTimeout = WorkerFarm.DEFAULT_JOB_TIMEOUT.toSeconds();
+	
+	@Parameter(names = {"--server"}, description = "Run a headless server accepting simulation jobs over HTTP on this local port, 0 for any free port")
+	private Integer serverPort;
+	
+	@Parameter(names = {"--export"}, description = "Write the materialised environment of the configuration as a binary instance to this path instead of running the simulation", converter = FileConverter.class)
+	private File exportFile;
+	
+	@SuppressWarnings("FieldMayBeFinal")
+	@Parameter(names = {"--journal"}, description = "Write the metric events of each replication in a binary journal that can be replayed with --replay (only in CLI mode)")
+	private boolean journal = false;
+	
+	@Parameter(names = {"--replay"}, description = "Play a journal written with --journal in the UI, or feed it to the metric listeners in CLI mode, instead of running the simulation", converter = FileConverter.class)
+	private File replayFile;
+	
+	@SuppressWarnings("FieldMayBeFinal")
+	@Parameter(names = {"--replay-metrics"}, description = "The classes of the metric listeners to feed when replaying, defaults to the metrics of the configuration")
+	private List<String> replayMetrics = new ArrayList<>();
+	
+	@SuppressWarnings("FieldMayBeFinal")
+	@Parameter(names = {"--compare"}, description = "The classes of the routers to compare on the same replications of the configuration, the first one being the reference (implies --cli)")
+	private List<String> compare = new ArrayList<>();
+	
 	/**
 	 * Get the json file for the simulation configuration.
 	 *
@@ -50,6 +111,18 @@ public class CLIParameters{
 		return replication;
 	}
 	
+	/**
+	 * Get the rule deciding how many replications of a configuration are run.
+	 *
+	 * @return The rule running {@link #getReplication()} replications, stopping earlier once the precision is reached if one was given or once the time budget is exceeded.
+	 */
+	public SequentialStoppingRule getStoppingRule(){
+		if(Objects.isNull(precision)){
+			return new SequentialStoppingRule(0, replication, Double.NaN, List.of(), Duration.ofSeconds(timeBudget));
+		}
+		return new SequentialStoppingRule(Math.min(minReplication, replication), replication, precision, precisionMetrics, Duration.ofSeconds(timeBudget));
+	}
+	
 	/**
 	 * Get if the program should be run in the console.
 	 *
@@ -67,4 +140,112 @@ public class CLIParameters{
 	public String getRunName(){
 		return runName;
 	}
+	
+	/**
+	 * Get the file to export the binary instance to.
+	 *
+	 * @return The export file, or null if no export was requested.
+	 */
+	public File getExportFile(){
+		return exportFile;
+	}
+	
+	/**
+	 * Get the glob of the configurations of the sweep.
+	 *
+	 * @return The glob, or null if no sweep was requested.
+	 */
+	public String getSweep(){
+		return sweep;
+	}
+	
+	/**
+	 * Get the number of replications to run at the same time in a sweep.
+	 *
+	 * @return The parallelism.
+	 */
+	public int getParallelism(){
+		return parallelism;
+	}
+	
+	/**
+	 * Get if the metric events should be written in a journal.
+	 *
+	 * @return True if a journal should be written, false otherwise.
+	 */
+	public boolean isJournal(){
+		return journal;
+	}
+	
+	/**
+	 * Get the journal to replay.
+	 *
+	 * @return The journal, or null if no replay was requested.
+	 */
+	public File getReplayFile(){
+		return replayFile;
+	}
+	
+	/**
+	 * Get the classes of the metric listeners to feed when replaying.
+	 *
+	 * @return The class names, empty to use the metrics of the configuration.
+	 */
+	public List<String> getReplayMetrics(){
+		return replayMetrics;
+	}
+	
+	/**
+	 * Get the classes of the routers to compare.
+	 *
+	 * @return The class names, empty if no comparison was requested.
+	 */
+	public List<String> getCompare(){
+		return compare;
+	}
+	
+	/**
+	 * Get the number of worker JVMs to run the replications of a sweep in.
+	 *
+	 * @return The number of workers, 0 to run the replications in this JVM.
+	 */
+	public int getWorkers(){
+		return workers;
+	}
+	
+	/**
+	 * Get the port of the coordinator to connect to as a worker.
+	 *
+	 * @return The port, 0 if not running as a worker.
+	 */
+	public int getWorkerPort(){
+		return workerPort;
+	}
+	
+	/**
+	 * Get the time a replication can run in a worker before the worker is considered stuck.
+	 *
+	 * @return The timeout, zero for no limit.
+	 */
+	public Duration getWorkerTimeout(){
+		return Duration.ofSeconds(workerTimeout);
+	}
+	
+	/**
+	 * Get the port of the simulation server to run.
+	 *
+	 * @return The port, or null if no server was requested.
+	 */
+	public Integer getServerPort(){
+		return serverPort;
+	}
+	
+	/**
+	 * Get the number of threads running the events of a replication.
+	 *
+	 * @return The number of threads.
+	 */
+	public int getEngineThreads(){
+		return engineThreads;
+	}
 }
@@ -1,15 +1,22 @@
 package fr.mrcraftcod.simulator;
 
+import fr.mrcraftcod.simulator.metrics.DepletionTracker;
+import fr.mrcraftcod.simulator.metrics.ReplicationResults;
+import fr.mrcraftcod.simulator.metrics.recording.RecordingPolicy;
 import fr.mrcraftcod.simulator.simulation.Simulator;
 import fr.mrcraftcod.simulator.utils.Identifiable;
+import fr.mrcraftcod.simulator.utils.RandomStreams;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Random;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -21,11 +28,15 @@ import java.util.stream.Collectors;
  */
 public class Environment{
 	private static final Logger LOGGER = LoggerFactory.getLogger(Environment.class);
+	private static final AtomicLong LAST_CREATION_TIMESTAMP = new AtomicLong(0);
 	private final List<Identifiable> elements;
-	private final Random random;
+	private RandomStreams randomStreams;
 	private final long creationTimestamp;
 	private final Simulator simulator;
+	private final ReplicationResults results;
 	private final Path configurationPath;
+	private DepletionTracker depletionTracker;
+	private Map<String, RecordingPolicy> recordingPolicies;
 	private Long seed;
 	private int end;
 	private final String name;
@@ -37,11 +48,13 @@ public class Environment{
 	 * @param name              The name of the run.
 	 */
 	public Environment(final Path configurationPath, final String name){
-		this.creationTimestamp = System.currentTimeMillis();
+		this.creationTimestamp = LAST_CREATION_TIMESTAMP.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
 		this.configurationPath = configurationPath;
 		this.name = name;
 		this.elements = new LinkedList<>();
-		this.random = new Random();
+		this.randomStreams = new RandomStreams(new SplittableRandom().nextLong());
+		this.results = new ReplicationResults();
+		this.recordingPolicies = Map.of();
 		this.simulator = new Simulator(this);
 	}
 	
@@ -127,16 +140,34 @@ public class Environment{
 	public void setSeed(final Long seed){
 		LOGGER.info("The seed to be used for random generation is: {}", seed);
 		this.seed = seed;
-		this.getRandom().setSeed(seed);
+		this.randomStreams = new RandomStreams(seed);
 	}
 	
 	/**
-	 * Get the random object of this environment.
+	 * Get the random stream of a subsystem of this environment.
 	 *
-	 * @return The random object.
+	 * @param subsystem The name of the subsystem, see {@link RandomStreams}.
+	 *
+	 * @return The random stream.
+	 *
+	 * @see RandomStreams#get(String)
+	 */
+	public SplittableRandom getRandom(final String subsystem){
+		return randomStreams.get(subsystem);
+	}
+	
+	/**
+	 * Get a new random stream for an index of a subsystem of this environment.
+	 *
+	 * @param subsystem The name of the subsystem, see {@link RandomStreams}.
+	 * @param index     The index inside the subsystem.
+	 *
+	 * @return The random stream.
+	 *
+	 * @see RandomStreams#get(String, long)
 	 */
-	public Random getRandom(){
-		return this.random;
+	public SplittableRandom getRandom(final String subsystem, final long index){
+		return randomStreams.get(subsystem, index);
 	}
 	
 	/**
@@ -162,6 +193,7 @@ public class Environment{
 	
 	/**
 	 * Get the creation timestamp of this environment.
+	 * Timestamps are unique among the environments created in the same JVM, so runs created in the same millisecond don't share a metric folder.
 	 *
 	 * @return The creation timestamp.
 	 */
@@ -169,6 +201,48 @@ public class Environment{
 		return creationTimestamp;
 	}
 	
+	/**
+	 * Get the results measured in this environment.
+	 *
+	 * @return The results.
+	 */
+	public ReplicationResults getResults(){
+		return results;
+	}
+	
+	/**
+	 * Set the recording policies of the metric listeners.
+	 *
+	 * @param recordingPolicies The policies, by name of listener class.
+	 */
+	public void setRecordingPolicies(final Map<String, ? extends RecordingPolicy> recordingPolicies){
+		this.recordingPolicies = Map.copyOf(recordingPolicies);
+	}
+	
+	/**
+	 * Get the recording policy of a metric listener.
+	 *
+	 * @param listenerClass The class of the listener.
+	 *
+	 * @return The policy, empty if the listener should record everything.
+	 */
+	public Optional<RecordingPolicy> getRecordingPolicy(final Class<?> listenerClass){
+		return Optional.ofNullable(recordingPolicies.get(listenerClass.getName()));
+	}
+	
+	/**
+	 * Get the tracker of the depleted sensors, shared by everything measuring depletion.
+	 * It is created on the first call and tracks the sensors in the environment at that moment.
+	 *
+	 * @return The tracker.
+	 */
+	public synchronized DepletionTracker getDepletionTracker(){
+		if(Objects.isNull(depletionTracker)){
+			depletionTracker = new DepletionTracker(this);
+		}
+		return depletionTracker;
+	}
+	
 	/**
 	 * Get the simulator for this environment.
 	 *
@@ -3,22 +3,31 @@ package fr.mrcraftcod.simulator;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.ParameterException;
 import fr.mrcraftcod.simulator.jfx.MainApplication;
-import fr.mrcraftcod.simulator.jfx.utils.JFXUtils;
-import javafx.application.Platform;
-import javafx.embed.swing.JFXPanel;
-import org.json.JSONObject;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.MetricEventListener;
+import fr.mrcraftcod.simulator.metrics.ReplicationAggregator;
+import fr.mrcraftcod.simulator.metrics.journal.EventJournal;
+import fr.mrcraftcod.simulator.metrics.journal.JournalReplayer;
+import fr.mrcraftcod.simulator.metrics.journal.RunRecording;
+import fr.mrcraftcod.simulator.sweep.RouterComparison;
+import fr.mrcraftcod.simulator.sweep.SimulationServer;
+import fr.mrcraftcod.simulator.sweep.SweepRunner;
+import fr.mrcraftcod.simulator.sweep.WorkerFarm;
+import fr.mrcraftcod.simulator.utils.BinaryInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import javax.swing.SwingUtilities;
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Constructor;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Properties;
-import java.util.Random;
+import java.util.stream.Collectors;
 
 /**
  * Main class of the program.
@@ -37,6 +46,7 @@ public class Main{
 	}
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(Main.class);
+	private static final Duration CLI_PROGRESS_INTERVAL = Duration.ofSeconds(10);
 	
 	/**
 	 * MainApplication function.
@@ -55,38 +65,88 @@ public class Main{
 			System.exit(1);
 		}
 		
-		var kontinue = true;
-		try{
-			System.loadLibrary("jniortools");
-		}
-		catch(final Throwable e){
-			kontinue = false;
-			LOGGER.error("Failed to load ORTools library", e);
-			SwingUtilities.invokeLater(() -> {
-				new JFXPanel(); // this will prepare JavaFX toolkit and environment
-				Platform.runLater(() -> {
-					//noinspection SpellCheckingInspection
-					JFXUtils.displayExceptionAlert(e, "Simulator error", "Error while starting", "The simulator could not be initialized because ortools was not found. Please add library path with java argument -Djava.library.path=/path/to/folder");
-					System.exit(1);
-				});
-			});
+		if(parameters.getWorkerPort() > 0){
+			runWorker(parameters);
+			return;
 		}
 		
-		if(kontinue){
-			if(!parameters.isCLI()){
-				MainApplication.main(args, loadParameters(Paths.get(parameters.getJsonConfigFile().toURI()), parameters.getRunName()));
+		if(Objects.nonNull(parameters.getServerPort())){
+			runServer(parameters);
+			return;
+		}
+		
+		if(Objects.isNull(parameters.getJsonConfigFile()) && Objects.isNull(parameters.getSweep()) && Objects.isNull(parameters.getReplayFile())){
+			LOGGER.error("A configuration (-c), a sweep (--sweep) or a journal to replay (--replay) must be given");
+			System.exit(1);
+		}
+		
+		if(Objects.nonNull(parameters.getReplayFile())){
+			if(!replayJournal(parameters, args)){
+				System.exit(1);
 			}
-			else{
-				final var random = getSeedFromConfig(Paths.get(parameters.getJsonConfigFile().toURI())).map(Random::new).orElseGet(Random::new);
-				for(var i = 0; i < parameters.getReplication(); i++){
-					LOGGER.info("Replication {}/{}", i + 1, parameters.getReplication());
-					final var simulationParameters = loadParameters(random, Paths.get(parameters.getJsonConfigFile().toURI()), parameters.getRunName());
-					if(Objects.nonNull(simulationParameters)){
-						simulationParameters.getEnvironment().getSimulator().setRunning(true);
-						simulationParameters.getEnvironment().getSimulator().run();
-						simulationParameters.getEnvironment().getSimulator().stop();
+			return;
+		}
+		
+		if(Objects.nonNull(parameters.getExportFile())){
+			final var configuration = loadConfiguration(Paths.get(parameters.getJsonConfigFile().toURI()));
+			if(Objects.isNull(configuration) || !exportConfiguration(configuration, Paths.get(parameters.getExportFile().toURI()), parameters.getRunName())){
+				System.exit(1);
+			}
+			return;
+		}
+		
+		if(Objects.nonNull(parameters.getSweep())){
+			runSweep(parameters);
+		}
+		else if(!parameters.getCompare().isEmpty()){
+			runComparison(parameters);
+		}
+		else{
+			final var configuration = loadConfiguration(Paths.get(parameters.getJsonConfigFile().toURI()));
+			if(Objects.nonNull(configuration)){
+				if(!parameters.isCLI()){
+					MainApplication.main(args, createParameters(configuration, configuration.getSeedOrDefault(), parameters.getRunName()));
+				}
+				else if(configuration.getGrid().isPresent()){
+					runSweep(parameters, List.of(configuration.getPath()));
+				}
+				else{
+					final var aggregator = new ReplicationAggregator();
+					final var name = configuration.getPath().getFileName().toString();
+					final var stoppingRule = parameters.getStoppingRule();
+					final var start = System.nanoTime();
+					var replication = 0;
+					for(; stoppingRule.shouldContinue(aggregator, name, replication, Duration.ofNanos(System.nanoTime() - start)); replication++){
+						LOGGER.info("Replication {}/{}", replication + 1, stoppingRule.getMaxReplications());
+						final var simulationParameters = createParameters(configuration, configuration.getReplicationSeed(replication), parameters.getRunName());
+						if(Objects.nonNull(simulationParameters)){
+							if(parameters.isJournal()){
+								try{
+									simulationParameters.getEnvironment().getSimulator().getMetricEventDispatcher().addListener(new EventJournal(simulationParameters.getEnvironment()));
+								}
+								catch(final IOException e){
+									LOGGER.error("Failed to create the event journal", e);
+								}
+							}
+							simulationParameters.getEnvironment().getSimulator().setProgressInterval(CLI_PROGRESS_INTERVAL);
+							simulationParameters.getEnvironment().getSimulator().setEngineThreads(parameters.getEngineThreads());
+							simulationParameters.getEnvironment().getSimulator().setRunning(true);
+							simulationParameters.getEnvironment().getSimulator().run();
+							simulationParameters.getEnvironment().getSimulator().stop();
+							aggregator.add(name, simulationParameters.getEnvironment().getResults().getValues());
+						}
+						LOGGER.info("Replication {}/{} done", replication + 1, stoppingRule.getMaxReplications());
+					}
+					LOGGER.info("Ran {} replications, precision reached: {}", replication, stoppingRule.isPrecisionReached(aggregator, name));
+					final var summaryPath = MetricEvent.getAllMetricSaveFolder(parameters.getRunName()).resolve("replications.csv");
+					try{
+						Files.createDirectories(summaryPath.getParent());
+						aggregator.writeSummary(summaryPath);
+						LOGGER.info("Replication results written in {}", summaryPath);
+					}
+					catch(final IOException e){
+						LOGGER.error("Failed to write the replication results to {}", summaryPath, e);
 					}
-					LOGGER.info("Replication {}/{} done", i + 1, parameters.getReplication());
 				}
 			}
 		}
@@ -109,60 +169,198 @@ public class Main{
 	}
 	
 	/**
-	 * Load the parameters of the simulation.
+	 * Load the configuration of the simulation.
 	 *
 	 * @param path The path to the configuration file.
-	 * @param name The nam of the run.
 	 *
-	 * @return The simulation parameters.
+	 * @return The configuration, or null if it couldn't be loaded.
 	 */
-	private static SimulationParameters loadParameters(final Path path, final String name){
-		SimulationParameters simulationParameters = null;
+	private static SimulationConfiguration loadConfiguration(final Path path){
 		try{
-			simulationParameters = SimulationParameters.loadFomFile(path, name);
-			LOGGER.trace("Params: {}", simulationParameters);
+			return SimulationConfiguration.load(path);
 		}
 		catch(final Exception e){
-			LOGGER.error("Failed to load parameters", e);
+			LOGGER.error("Failed to load configuration", e);
+		}
+		return null;
+	}
+	
+	/**
+	 * Run every replication of the configurations matching the sweep glob.
+	 *
+	 * @param parameters The parameters of the program.
+	 */
+	private static void runSweep(final CLIParameters parameters){
+		try{
+			final var configurations = SweepRunner.resolveGlob(parameters.getSweep());
+			if(configurations.isEmpty()){
+				LOGGER.error("No configuration matches {}", parameters.getSweep());
+				System.exit(1);
+			}
+			runSweep(parameters, configurations);
+		}
+		catch(final IOException e){
+			LOGGER.error("Failed to list the configurations of the sweep", e);
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * Run every replication of some configurations.
+	 *
+	 * @param parameters     The parameters of the program.
+	 * @param configurations The paths of the configurations.
+	 */
+	private static void runSweep(final CLIParameters parameters, final List<Path> configurations){
+		try{
+			LOGGER.info("Sweeping {} configurations with {} replications each", configurations.size(), parameters.getReplication());
+			if(parameters.getWorkers() > 0){
+				final var workerFarm = new WorkerFarm(configurations, parameters.getReplication(), parameters.getWorkers(), parameters.getRunName());
+				workerFarm.setStoppingRule(parameters.getStoppingRule());
+				workerFarm.setJournal(parameters.isJournal());
+				workerFarm.setJobTimeout(parameters.getWorkerTimeout());
+				workerFarm.run();
+				return;
+			}
+			final var sweepRunner = new SweepRunner(configurations, parameters.getReplication(), parameters.getParallelism(), parameters.getRunName());
+			sweepRunner.setStoppingRule(parameters.getStoppingRule());
+			sweepRunner.setJournal(parameters.isJournal());
+			sweepRunner.run();
+		}
+		catch(final Exception e){
+			LOGGER.error("Failed to run sweep", e);
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * Run a simulation server until the JVM is stopped.
+	 *
+	 * @param parameters The parameters of the program.
+	 */
+	private static void runServer(final CLIParameters parameters){
+		try{
+			final var server = new SimulationServer(parameters.getServerPort(), parameters.getParallelism(), parameters.getRunName());
+			Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+			server.start();
+		}
+		catch(final IOException e){
+			LOGGER.error("Failed to start the simulation server", e);
+			System.exit(1);
 		}
-		return simulationParameters;
 	}
 	
 	/**
-	 * Get the seed configured in the parameters.
+	 * Run the replications sent by the coordinator of a sweep.
 	 *
-	 * @param path The path to the parameters file.
+	 * @param parameters The parameters of the program.
+	 */
+	private static void runWorker(final CLIParameters parameters){
+		try{
+			WorkerFarm.runWorker(parameters.getWorkerPort(), parameters.getRunName(), parameters.isJournal());
+		}
+		catch(final IOException e){
+			LOGGER.error("Lost the connection to the coordinator", e);
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * Run the replications of the configuration with each of the routers to compare.
 	 *
-	 * @return The seed.
+	 * @param parameters The parameters of the program.
 	 */
-	private static Optional<Long> getSeedFromConfig(final Path path){
+	private static void runComparison(final CLIParameters parameters){
+		final var configuration = loadConfiguration(Paths.get(parameters.getJsonConfigFile().toURI()));
+		if(Objects.isNull(configuration)){
+			System.exit(1);
+		}
 		try{
-			final var json = new JSONObject(Files.readString(path));
-			if(json.has("seed")){
-				return Optional.of(json.getLong("seed"));
+			final var routerComparison = new RouterComparison(configuration, RouterComparison.getRouterClasses(parameters.getCompare()), parameters.getReplication(), parameters.getRunName());
+			routerComparison.setStoppingRule(parameters.getStoppingRule());
+			routerComparison.run();
+		}
+		catch(final Exception e){
+			LOGGER.error("Failed to run comparison", e);
+			System.exit(1);
+		}
+	}
+	
+	/**
+	 * Feed a journal to metric listeners in CLI mode, or open it in the UI otherwise.
+	 * The configuration defaults to the one copied in the metric folder of the run the journal is from.
+	 *
+	 * @param parameters The parameters of the program.
+	 * @param args       The arguments of the program.
+	 *
+	 * @return True if the journal was replayed, false otherwise.
+	 */
+	private static boolean replayJournal(final CLIParameters parameters, final String[] args){
+		final var journal = Paths.get(parameters.getReplayFile().toURI());
+		final var configurationPath = Objects.isNull(parameters.getJsonConfigFile()) ? journal.toAbsolutePath().getParent().getParent().resolve("config.json") : Paths.get(parameters.getJsonConfigFile().toURI());
+		final var configuration = loadConfiguration(configurationPath);
+		if(Objects.isNull(configuration)){
+			return false;
+		}
+		try{
+			if(!parameters.isCLI()){
+				final var environment = JournalReplayer.createEnvironment(journal, configuration, parameters.getRunName());
+				MainApplication.replay(args, RunRecording.load(journal, environment));
+				return true;
 			}
+			final List<Constructor<? extends MetricEventListener>> listeners;
+			if(parameters.getReplayMetrics().isEmpty()){
+				listeners = configuration.getMetricConstructors();
+			}
+			else{
+				listeners = new ArrayList<>();
+				for(final var klassName : parameters.getReplayMetrics()){
+					listeners.add(SimulationConfiguration.getMetricConstructor(klassName));
+				}
+			}
+			JournalReplayer.replay(journal, configuration, listeners, parameters.getRunName());
+			return true;
+		}
+		catch(final Exception e){
+			LOGGER.error("Failed to replay journal {}", journal, e);
+		}
+		return false;
+	}
+	
+	/**
+	 * Write the materialised environment of a configuration as a binary instance.
+	 *
+	 * @param configuration The configuration to export.
+	 * @param path          The path of the binary instance.
+	 * @param name          The nam of the run.
+	 *
+	 * @return True if the instance was written, false otherwise.
+	 */
+	private static boolean exportConfiguration(final SimulationConfiguration configuration, final Path path, final String name){
+		try{
+			final var simulationParameters = new SimulationParameters(configuration.getPath(), name).fillElementsFromConfiguration(configuration, configuration.getSeedOrDefault());
+			BinaryInstance.write(simulationParameters.getEnvironment(), configuration.getMetricConstructors().stream().map(Constructor::getDeclaringClass).collect(Collectors.toList()), path);
+			return true;
 		}
 		catch(final Exception e){
-			LOGGER.error("Failed to load seed from parameters", e);
+			LOGGER.error("Failed to export configuration", e);
 		}
-		return Optional.empty();
+		return false;
 	}
 	
 	/**
-	 * Load the parameters of the simulation.
+	 * Create the parameters of a simulation from its configuration.
 	 *
-	 * @param random A random object that'll be used to generate a seed.
-	 * @param path   The path to the configuration file.
-	 * @param name   The nam of the run.
+	 * @param configuration The configuration of the simulation.
+	 * @param seed          The seed to use for this run.
+	 * @param name          The nam of the run.
 	 *
 	 * @return The simulation parameters.
 	 */
-	private static SimulationParameters loadParameters(final Random random, final Path path, final String name){
+	private static SimulationParameters createParameters(final SimulationConfiguration configuration, final long seed, final String name){
 		SimulationParameters simulationParameters = null;
 		try{
-			final var json = new JSONObject(Files.readString(path));
-			json.put("seed", random.nextLong());
-			simulationParameters = new SimulationParameters(path, name).fillFromJson(json);
+			simulationParameters = configuration.createParameters(seed, name);
 			LOGGER.trace("Params: {}", simulationParameters);
 		}
 		catch(final Exception e){
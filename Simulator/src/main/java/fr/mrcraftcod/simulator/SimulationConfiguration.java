@@ -0,0 +1,386 @@
+package fr.mrcraftcod.simulator;
+
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import fr.mrcraftcod.simulator.metrics.MetricEventListener;
+import fr.mrcraftcod.simulator.metrics.recording.RecordingPolicy;
+import fr.mrcraftcod.simulator.routing.Router;
+import fr.mrcraftcod.simulator.sweep.ParameterGrid;
+import fr.mrcraftcod.simulator.utils.BinaryInstance;
+import fr.mrcraftcod.simulator.utils.ElementTemplate;
+import fr.mrcraftcod.simulator.utils.JSONElementTemplate;
+import fr.mrcraftcod.simulator.utils.JSONUtils;
+import fr.mrcraftcod.simulator.utils.RandomStreams;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * A configuration of a simulation parsed once from its file.
+ * <p>
+ * The file is only read and parsed when the configuration is loaded, the classes and constructors it refers to are resolved at the same time.
+ * Each call to {@link #createParameters(long, String)} then only instantiates the elements from their templates, making it cheap to build a new environment for every replication.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-02.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-02
+ */
+@SuppressWarnings("WeakerAccess")
+public class SimulationConfiguration{
+	private final Path path;
+	private final Long seed;
+	private final long replicationSeed;
+	private final int end;
+	private final List<ElementTemplate> elementTemplates;
+	private final List<Constructor<? extends MetricEventListener>> metricConstructors;
+	private final Map<String, RecordingPolicy> recordingPolicies;
+	private final ParameterGrid grid;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param path The path the configuration was read from.
+	 * @param json The JSON of the configuration.
+	 *
+	 * @throws SettingsParserException If the configuration itself is incorrect.
+	 */
+	public SimulationConfiguration(final Path path, final JSONObject json) throws SettingsParserException{
+		this(path, json.has("seed") ? json.getLong("seed") : null, json.getInt("end"), getElementTemplates(json), getMetricConstructors(json), getRecordingPolicies(json), json.has("grid") ? ParameterGrid.fromJSON(json.getJSONArray("grid")) : null);
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param path               The path the configuration was read from.
+	 * @param seed               The seed declared by the configuration, null if none.
+	 * @param end                The end date of the simulation.
+	 * @param elementTemplates   The templates of the elements of the environment.
+	 * @param metricConstructors The constructors of the metric listeners to attach.
+	 *
+	 * @throws SettingsParserException If the configuration itself is incorrect.
+	 */
+	public SimulationConfiguration(final Path path, final Long seed, final int end, final List<ElementTemplate> elementTemplates, final List<Constructor<? extends MetricEventListener>> metricConstructors) throws SettingsParserException{
+		this(path, seed, end, elementTemplates, metricConstructors, Map.of());
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param path               The path the configuration was read from.
+	 * @param seed               The seed declared by the configuration, null if none.
+	 * @param end                The end date of the simulation.
+	 * @param elementTemplates   The templates of the elements of the environment.
+	 * @param metricConstructors The constructors of the metric listeners to attach.
+	 * @param recordingPolicies  The recording policies of the metric listeners, by name of listener class.
+	 *
+	 * @throws SettingsParserException If the configuration itself is incorrect.
+	 */
+	public SimulationConfiguration(final Path path, final Long seed, final int end, final List<ElementTemplate> elementTemplates, final List<Constructor<? extends MetricEventListener>> metricConstructors, final Map<String, ? extends RecordingPolicy> recordingPolicies) throws SettingsParserException{
+		this(path, seed, end, elementTemplates, metricConstructors, recordingPolicies, null);
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param path               The path the configuration was read from.
+	 * @param seed               The seed declared by the configuration, null if none.
+	 * @param end                The end date of the simulation.
+	 * @param elementTemplates   The templates of the elements of the environment.
+	 * @param metricConstructors The constructors of the metric listeners to attach.
+	 * @param recordingPolicies  The recording policies of the metric listeners, by name of listener class.
+	 * @param grid               The grid of parameters to run the configuration with, null if none.
+	 *
+	 * @throws SettingsParserException If the configuration itself is incorrect.
+	 */
+	public SimulationConfiguration(final Path path, final Long seed, final int end, final List<ElementTemplate> elementTemplates, final List<Constructor<? extends MetricEventListener>> metricConstructors, final Map<String, ? extends RecordingPolicy> recordingPolicies, final ParameterGrid grid) throws SettingsParserException{
+		this(path, seed, Objects.isNull(seed) ? new SplittableRandom().nextLong() : seed, end, elementTemplates, metricConstructors, recordingPolicies, grid);
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param path               The path the configuration was read from.
+	 * @param seed               The seed declared by the configuration, null if none.
+	 * @param replicationSeed    The seed the seeds of the replications are derived from.
+	 * @param end                The end date of the simulation.
+	 * @param elementTemplates   The templates of the elements of the environment.
+	 * @param metricConstructors The constructors of the metric listeners to attach.
+	 * @param recordingPolicies  The recording policies of the metric listeners, by name of listener class.
+	 * @param grid               The grid of parameters to run the configuration with, null if none.
+	 *
+	 * @throws SettingsParserException If the configuration itself is incorrect.
+	 */
+	private SimulationConfiguration(final Path path, final Long seed, final long replicationSeed, final int end, final List<ElementTemplate> elementTemplates, final List<Constructor<? extends MetricEventListener>> metricConstructors, final Map<String, ? extends RecordingPolicy> recordingPolicies, final ParameterGrid grid) throws SettingsParserException{
+		this.path = path;
+		this.seed = seed;
+		this.replicationSeed = replicationSeed;
+		this.end = end;
+		this.elementTemplates = new ArrayList<>(elementTemplates);
+		this.metricConstructors = new ArrayList<>(metricConstructors);
+		this.recordingPolicies = new LinkedHashMap<>(recordingPolicies);
+		this.grid = grid;
+		if(Objects.nonNull(grid)){
+			for(final var axis : grid.getAxes()){
+				if(elementTemplates.stream().noneMatch(axis::appliesTo)){
+					throw new SettingsParserException("The grid parameter " + axis.getName() + " doesn't apply to any element");
+				}
+			}
+		}
+		if(elementTemplates.stream().filter(template -> Router.class.isAssignableFrom(template.getElementClass())).mapToInt(ElementTemplate::getCount).sum() > 1){
+			throw new SettingsParserException("Only one router should be declared");
+		}
+	}
+	
+	/**
+	 * Get the templates of the elements declared in a JSON configuration.
+	 *
+	 * @param json The JSON of the configuration.
+	 *
+	 * @return The templates.
+	 *
+	 * @throws SettingsParserException If an element declaration is incorrect.
+	 */
+	private static List<ElementTemplate> getElementTemplates(final JSONObject json) throws SettingsParserException{
+		final var elementTemplates = new ArrayList<ElementTemplate>();
+		for(final var elementObj : json.optJSONArray("environment")){
+			if(!(elementObj instanceof JSONObject)){
+				throw new SettingsParserException("\"environment\" should be a list of object");
+			}
+			elementTemplates.add(new JSONElementTemplate((JSONObject) elementObj));
+		}
+		return elementTemplates;
+	}
+	
+	/**
+	 * Get the constructors of the metric listeners declared in a JSON configuration.
+	 *
+	 * @param json The JSON of the configuration.
+	 *
+	 * @return The constructors.
+	 *
+	 * @throws SettingsParserException If a metric class couldn't be loaded.
+	 */
+	private static List<Constructor<? extends MetricEventListener>> getMetricConstructors(final JSONObject json) throws SettingsParserException{
+		final var metricConstructors = new ArrayList<Constructor<? extends MetricEventListener>>();
+		if(json.has("metrics")){
+			final var metrics = json.getJSONArray("metrics");
+			for(var i = 0; i < metrics.length(); i++){
+				metricConstructors.add(getMetricConstructor(metrics.getString(i)));
+			}
+		}
+		return metricConstructors;
+	}
+	
+	/**
+	 * Get the recording policies of the metric listeners declared in a JSON configuration.
+	 *
+	 * @param json The JSON of the configuration.
+	 *
+	 * @return The policies, by name of listener class.
+	 *
+	 * @throws SettingsParserException If a policy is incorrect.
+	 */
+	private static Map<String, RecordingPolicy> getRecordingPolicies(final JSONObject json) throws SettingsParserException{
+		final var recordingPolicies = new LinkedHashMap<String, RecordingPolicy>();
+		final var recording = json.optJSONObject("recording");
+		if(Objects.nonNull(recording)){
+			for(final var klassName : recording.keySet()){
+				final var policy = recording.optJSONObject(klassName);
+				if(Objects.isNull(policy)){
+					throw new SettingsParserException("The recording policy of " + klassName + " should be an object");
+				}
+				recordingPolicies.put(klassName, RecordingPolicy.fromJSON(policy));
+			}
+		}
+		return recordingPolicies;
+	}
+	
+	/**
+	 * Get the constructor of a metric listener.
+	 *
+	 * @param klassName The name of the class of the listener.
+	 *
+	 * @return The constructor taking an {@link Environment}.
+	 *
+	 * @throws SettingsParserException If the class couldn't be loaded.
+	 */
+	public static Constructor<? extends MetricEventListener> getMetricConstructor(final String klassName) throws SettingsParserException{
+		try{
+			@SuppressWarnings("unchecked") final var klass = (Class<MetricEventListener>) Class.forName(klassName);
+			return JSONUtils.getEnvironmentConstructor(klass);
+		}
+		catch(final ClassNotFoundException e){
+			throw new SettingsParserException("Metric class " + klassName + " not found");
+		}
+		catch(final Exception e){
+			throw new SettingsParserException("Error instantiating new class " + klassName);
+		}
+	}
+	
+	/**
+	 * Loads a configuration from a file.
+	 * Binary instances are recognized by their header and mapped into memory, any other file is streamed into the JSON parser rather than being read as a whole string first.
+	 *
+	 * @param path The path of the file.
+	 *
+	 * @return The configuration.
+	 *
+	 * @throws SettingsParserException If the configuration itself is incorrect.
+	 * @throws IOException             If the file couldn't be read.
+	 */
+	public static SimulationConfiguration load(final Path path) throws SettingsParserException, IOException{
+		if(BinaryInstance.isBinaryInstance(path)){
+			return BinaryInstance.read(path);
+		}
+		try(final var reader = Files.newBufferedReader(path)){
+			return new SimulationConfiguration(path, new JSONObject(new JSONTokener(reader)));
+		}
+	}
+	
+	/**
+	 * Create new parameters for a simulation, using the seed of the configuration.
+	 *
+	 * @param name The name of the run.
+	 *
+	 * @return The parameters.
+	 *
+	 * @throws SettingsParserException If the elements couldn't be created.
+	 * @see #getSeedOrDefault()
+	 */
+	public SimulationParameters createParameters(final String name) throws SettingsParserException{
+		return createParameters(getSeedOrDefault(), name);
+	}
+	
+	/**
+	 * Create new parameters for a simulation.
+	 *
+	 * @param seed The seed to use for the random generation.
+	 * @param name The name of the run.
+	 *
+	 * @return The parameters.
+	 *
+	 * @throws SettingsParserException If the elements couldn't be created.
+	 */
+	public SimulationParameters createParameters(final long seed, final String name) throws SettingsParserException{
+		return new SimulationParameters(getPath(), name).fillFromConfiguration(this, seed);
+	}
+	
+	/**
+	 * Get the configuration at a point of its grid.
+	 * The replications keep the same seeds whatever the point, and as each subsystem draws from its own random stream, every point runs on the same topology for a given replication.
+	 *
+	 * @param point The point of the grid.
+	 *
+	 * @return A configuration without grid, its elements having the parameters of the point.
+	 *
+	 * @throws SettingsParserException If the parameters couldn't be applied.
+	 */
+	public SimulationConfiguration atGridPoint(final ParameterGrid.Point point) throws SettingsParserException{
+		final var templates = new ArrayList<ElementTemplate>(elementTemplates.size());
+		for(final var template : elementTemplates){
+			templates.add(point.apply(template));
+		}
+		return new SimulationConfiguration(path, seed, replicationSeed, end, templates, metricConstructors, recordingPolicies, null);
+	}
+	
+	@Override
+	public String toString(){
+		return new ToStringBuilder(this).append("path", path).append("seed", seed).append("end", end).append("elementTemplates", elementTemplates).toString();
+	}
+	
+	/**
+	 * Get the path the configuration was read from.
+	 *
+	 * @return The path.
+	 */
+	public Path getPath(){
+		return path;
+	}
+	
+	/**
+	 * Get the seed declared in the configuration.
+	 *
+	 * @return The seed.
+	 */
+	public Optional<Long> getSeed(){
+		return Optional.ofNullable(seed);
+	}
+	
+	/**
+	 * Get the seed to use when none is given.
+	 *
+	 * @return The seed declared in the configuration if it is positive, the current time otherwise.
+	 */
+	public long getSeedOrDefault(){
+		return getSeed().filter(i -> i > 0).orElseGet(System::currentTimeMillis);
+	}
+	
+	/**
+	 * Get the seed of a replication.
+	 * The seeds are derived from the seed of the configuration (or a random one chosen when it was loaded if none is declared) and the index of the replication, so replications can be run in any order with the same results.
+	 *
+	 * @param replication The index of the replication.
+	 *
+	 * @return The seed.
+	 */
+	public long getReplicationSeed(final int replication){
+		return RandomStreams.deriveSeed(replicationSeed, replication);
+	}
+	
+	/**
+	 * Get the end date of the simulation.
+	 *
+	 * @return The end date.
+	 */
+	public int getEnd(){
+		return end;
+	}
+	
+	/**
+	 * Get the templates of the elements of the environment.
+	 *
+	 * @return The templates.
+	 */
+	public List<ElementTemplate> getElementTemplates(){
+		return Collections.unmodifiableList(elementTemplates);
+	}
+	
+	/**
+	 * Get the constructors of the metric listeners to attach.
+	 *
+	 * @return The constructors.
+	 */
+	public List<Constructor<? extends MetricEventListener>> getMetricConstructors(){
+		return Collections.unmodifiableList(metricConstructors);
+	}
+	
+	/**
+	 * Get the recording policies of the metric listeners.
+	 *
+	 * @return The policies, by name of listener class.
+	 */
+	public Map<String, RecordingPolicy> getRecordingPolicies(){
+		return Collections.unmodifiableMap(recordingPolicies);
+	}
+	
+	/**
+	 * Get the grid of parameters to run the configuration with.
+	 *
+	 * @return The grid, empty if the configuration should be run as is.
+	 */
+	public Optional<ParameterGrid> getGrid(){
+		return Optional.ofNullable(grid);
+	}
+}
@@ -1,18 +1,13 @@
 package fr.mrcraftcod.simulator;
 
 import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
-import fr.mrcraftcod.simulator.metrics.MetricEventListener;
-import fr.mrcraftcod.simulator.routing.Router;
 import fr.mrcraftcod.simulator.utils.Identifiable;
-import fr.mrcraftcod.simulator.utils.JSONUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Optional;
 
 /**
  * Stores the parameters of the simulation.
@@ -43,11 +38,11 @@ public class SimulationParameters{
 	 *
 	 * @return The parameters.
 	 *
-	 * @throws SettingsParserException See {@link #fillFromJson(JSONObject)}.
+	 * @throws SettingsParserException See {@link #fillFromConfiguration(SimulationConfiguration, long)}.
 	 * @throws IOException             If the file couldn't be read.
 	 */
 	public static SimulationParameters loadFomFile(final Path path, final String name) throws SettingsParserException, IOException{
-		return new SimulationParameters(path, name).fillFromJson(new JSONObject(Files.readString(path)));
+		return SimulationConfiguration.load(path).createParameters(name);
 	}
 	
 	/**
@@ -60,40 +55,57 @@ public class SimulationParameters{
 	 * @throws SettingsParserException If the configuration itself is incorrect.
 	 */
 	public SimulationParameters fillFromJson(final JSONObject json) throws SettingsParserException{
-		environment.setSeed(Optional.of(json.optLong("seed")).filter(i -> i > 0).orElse(System.currentTimeMillis()));
-		environment.setEnd(json.getInt("end"));
-		for(final var elementObj : json.optJSONArray("environment")){
-			if(!(elementObj instanceof JSONObject)){
-				throw new SettingsParserException("\"environment\" should be a list of object");
+		final var configuration = new SimulationConfiguration(environment.getConfigurationPath(), json);
+		return fillFromConfiguration(configuration, configuration.getSeedOrDefault());
+	}
+	
+	/**
+	 * Fills this object with the elements and metric listeners described by a configuration.
+	 *
+	 * @param configuration The configuration.
+	 * @param seed          The seed to use for the random generation.
+	 *
+	 * @return This object.
+	 *
+	 * @throws SettingsParserException If an element or a metric listener couldn't be created.
+	 */
+	public SimulationParameters fillFromConfiguration(final SimulationConfiguration configuration, final long seed) throws SettingsParserException{
+		fillElementsFromConfiguration(configuration, seed);
+		for(final var constructor : configuration.getMetricConstructors()){
+			try{
+				environment.getSimulator().getMetricEventDispatcher().addListener(constructor.newInstance(environment));
+			}
+			catch(final Exception e){
+				throw new SettingsParserException("Error instantiating new class " + constructor.getDeclaringClass().getName());
 			}
-			JSONUtils.getObjects(environment, (JSONObject) elementObj).forEach(elementInstance -> {
+		}
+		return this;
+	}
+	
+	/**
+	 * Fills this object with the elements described by a configuration, without attaching any metric listener.
+	 *
+	 * @param configuration The configuration.
+	 * @param seed          The seed to use for the random generation.
+	 *
+	 * @return This object.
+	 *
+	 * @throws SettingsParserException If an element couldn't be created.
+	 */
+	public SimulationParameters fillElementsFromConfiguration(final SimulationConfiguration configuration, final long seed) throws SettingsParserException{
+		environment.setSeed(seed);
+		environment.setEnd(configuration.getEnd());
+		environment.setRecordingPolicies(configuration.getRecordingPolicies());
+		for(final var template : configuration.getElementTemplates()){
+			template.instantiate(environment).forEach(elementInstance -> {
 				if(elementInstance instanceof Identifiable){
 					environment.add((Identifiable) elementInstance);
 				}
 				else{
-					LOGGER.warn("Parsed object that isn't identifiable, won't be added to the environment: {}", elementObj);
+					LOGGER.warn("Parsed object that isn't identifiable, won't be added to the environment: {}", template);
 				}
 			});
 		}
-		if(environment.getElements(Router.class).size() > 1){
-			throw new SettingsParserException("Only one router should be declared");
-		}
-		if(json.has("metrics")){
-			final var metrics = json.getJSONArray("metrics");
-			for(var i = 0; i < metrics.length(); i++){
-				final var klassName = metrics.getString(i);
-				try{
-					@SuppressWarnings("unchecked") final var klass = (Class<MetricEventListener>) Class.forName(klassName);
-					environment.getSimulator().getMetricEventDispatcher().addListener(klass.getConstructor(Environment.class).newInstance(environment));
-				}
-				catch(final ClassNotFoundException e){
-					throw new SettingsParserException("Metric class " + klassName + " not found");
-				}
-				catch(final Exception e){
-					throw new SettingsParserException("Error instantiating new class " + klassName);
-				}
-			}
-		}
 		return this;
 	}
 	
@@ -2,6 +2,7 @@ package fr.mrcraftcod.simulator.capacity;
 
 import fr.mrcraftcod.simulator.Environment;
 import fr.mrcraftcod.simulator.utils.JSONParsable;
+import fr.mrcraftcod.simulator.utils.RandomStreams;
 import org.jetbrains.annotations.NotNull;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -42,7 +43,7 @@ public class RandomCapacity extends AbstractCapacity implements JSONParsable<Abs
 	 * @return The random capacity.
 	 */
 	private static double genRandom(final Environment environment, final int maxValue){
-		return environment.getRandom().nextDouble() * maxValue;
+		return environment.getRandom(RandomStreams.CAPACITY).nextDouble() * maxValue;
 	}
 	
 	@Override
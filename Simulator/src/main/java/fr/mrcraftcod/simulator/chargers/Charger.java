@@ -9,8 +9,12 @@ import org.jetbrains.annotations.NotNull;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class representing a charger. If a custom sensor needs to be done, extend
@@ -23,11 +27,11 @@ import java.util.List;
  * @author Thomas Couchoud
  */
 @SuppressWarnings("WeakerAccess")
-public class Charger implements JSONParsable<Charger>, Identifiable, Positionable, Rechargeable{
+public class Charger implements JSONParsable<Charger>, BinarySerializable<Charger>, Identifiable, Positionable, Rechargeable{
 	private static final Logger LOGGER = LoggerFactory.getLogger(Charger.class);
 	private final List<ChargerListener> listeners;
 	private final int ID;
-	private static int NEXT_ID = 0;
+	private static final AtomicInteger NEXT_ID = new AtomicInteger(0);
 	private double currentCapacity;
 	private double maxCapacity;
 	private double radius;
@@ -56,7 +60,7 @@ public class Charger implements JSONParsable<Charger>, Identifiable, Positionabl
 	 * @param speed             The speed of the charger.
 	 */
 	public Charger(final double currentCapacity, final double maxCapacity, final double radius, final double transmissionPower, final double speed){
-		this.ID = ++NEXT_ID;
+		this.ID = NEXT_ID.incrementAndGet();
 		this.listeners = new ArrayList<>();
 		setMaxCapacity(maxCapacity);
 		setCurrentCapacity(currentCapacity);
@@ -164,6 +168,25 @@ public class Charger implements JSONParsable<Charger>, Identifiable, Positionabl
 		return this;
 	}
 	
+	@Override
+	public void writeBinary(@NotNull final DataOutput output) throws IOException{
+		output.writeDouble(getRadius());
+		output.writeDouble(getTransmissionPower());
+		output.writeDouble(getMaxCapacity());
+		output.writeDouble(getCurrentCapacity());
+		output.writeDouble(getSpeed());
+	}
+	
+	@Override
+	public Charger fillFromBinary(@NotNull final Environment environment, @NotNull final ByteBuffer buffer){
+		setRadius(buffer.getDouble());
+		setTransmissionPower(buffer.getDouble());
+		setMaxCapacity(buffer.getDouble());
+		setCurrentCapacity(buffer.getDouble());
+		setSpeed(buffer.getDouble());
+		return this;
+	}
+	
 	@Override
 	public boolean haveSameValues(final Identifiable identifiable){
 		if(this == identifiable){
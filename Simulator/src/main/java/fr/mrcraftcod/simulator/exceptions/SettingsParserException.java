@@ -40,6 +40,18 @@ public class SettingsParserException extends RuntimeException{
 		this.klass = null;
 	}
 	
+	/**
+	 * Constructor.
+	 *
+	 * @param message The message of the exception.
+	 * @param e       The exception thrown.
+	 */
+	public SettingsParserException(final String message, final Exception e){
+		super(message, e);
+		this.json = null;
+		this.klass = null;
+	}
+	
 	/**
 	 * Get the source JSON.
 	 *
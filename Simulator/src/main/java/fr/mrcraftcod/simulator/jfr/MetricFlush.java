@@ -0,0 +1,29 @@
+package fr.mrcraftcod.simulator.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event of a flush of the metric events waiting to be dispatched.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-11.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-11
+ */
+@Name("fr.mrcraftcod.simulator.MetricFlush")
+@Label("Metric Flush")
+@Description("Dispatch of the metric events whose time has come, or closing of the metric listeners")
+@Category({"Simulator", "Metrics"})
+@StackTrace(false)
+public class MetricFlush extends Event{
+	@Label("Run Name")
+	public String runName;
+	@Label("Simulation Time")
+	public double simulationTime;
+	@Label("Event Count")
+	@Description("Number of metric events dispatched")
+	public int eventCount;
+	@Label("Closing")
+	@Description("True if the listeners were being closed")
+	public boolean closing;
+}
@@ -0,0 +1,30 @@
+package fr.mrcraftcod.simulator.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event of a phase of a routing (building stop locations, charging stops, tours, conflict zones, ...).
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-11.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-11
+ */
+@Name("fr.mrcraftcod.simulator.RoutingPhase")
+@Label("Routing Phase")
+@Description("A phase of the routing of the charge requests")
+@Category({"Simulator", "Routing"})
+@StackTrace(false)
+public class RoutingPhase extends Event{
+	@Label("Router")
+	public String router;
+	@Label("Phase")
+	public String phase;
+	@Label("Routing Round")
+	public long routingRound;
+	@Label("Simulation Time")
+	public double simulationTime;
+	@Label("Element Count")
+	@Description("Number of elements produced by the phase (stop locations, charging stops, tours, ...)")
+	public int elementCount;
+}
@@ -0,0 +1,25 @@
+package fr.mrcraftcod.simulator.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event of the execution of a simulation event.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-11.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-11
+ */
+@Name("fr.mrcraftcod.simulator.SimulationEventExecution")
+@Label("Simulation Event Execution")
+@Description("Execution of an event of the simulation")
+@Category({"Simulator", "Simulation"})
+@StackTrace(false)
+public class SimulationEventExecution extends Event{
+	@Label("Run Name")
+	public String runName;
+	@Label("Event Type")
+	public String eventType;
+	@Label("Simulation Time")
+	public double simulationTime;
+}
@@ -0,0 +1,35 @@
+package fr.mrcraftcod.simulator.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event of the run of a tour solver.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-11.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-11
+ */
+@Name("fr.mrcraftcod.simulator.TourSolverExecution")
+@Label("Tour Solver Execution")
+@Description("A run of a solver ordering the stops of a tour")
+@Category({"Simulator", "Routing"})
+@StackTrace(false)
+public class TourSolverExecution extends Event{
+	@Label("Solver")
+	public String solver;
+	@Label("Charger")
+	public String charger;
+	@Label("Stop Count")
+	public int stopCount;
+	@Label("Timeout")
+	@Timespan(Timespan.SECONDS)
+	public long timeout;
+	@Label("Simulation Time")
+	public double simulationTime;
+	@Label("Solved")
+	public boolean solved;
+	@Label("Objective")
+	@Description("Objective value of the solution found, NaN if none")
+	public double objective;
+}
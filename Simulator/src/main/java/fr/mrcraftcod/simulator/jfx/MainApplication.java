@@ -4,10 +4,16 @@ import fr.mrcraftcod.simulator.Main;
 import fr.mrcraftcod.simulator.SimulationParameters;
 import fr.mrcraftcod.simulator.jfx.tabs.MapTab;
 import fr.mrcraftcod.simulator.jfx.tabs.sensor.SensorsCapacityChartTab;
+import fr.mrcraftcod.simulator.jfx.utils.JFXUtils;
 import fr.mrcraftcod.simulator.jfx.utils.MetricEventListenerTab;
+import fr.mrcraftcod.simulator.metrics.journal.RunRecording;
+import fr.mrcraftcod.simulator.rault.utils.OrToolsLibrary;
 import fr.mrcraftcod.simulator.sensors.Sensor;
 import fr.mrcraftcod.simulator.utils.Positionable;
 import javafx.application.Application;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -23,22 +29,30 @@ import javafx.stage.Stage;
 import java.awt.Taskbar;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Main entry point for the UI.
- *
+ * <p>
+ * The UI either runs a simulation, or plays a run recorded in a journal without running the simulation.
+ * <p>
  * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-01-17.
  *
  * @author Thomas Couchoud
  * @since 2019-01-17
  */
 public class MainApplication extends Application{
+	private static final double MIN_SPEED_EXPONENT = -1;
+	private static final double MAX_SPEED_EXPONENT = 4;
 	private static SimulationParameters simulationParameters;
+	private static RunRecording recording;
 	private Stage stage;
 	private TabPane tabPane;
 	private Slider delaySlider;
+	private RecordingPlayer player;
+	private DoubleProperty animationDelay;
 	
 	/**
 	 * The main method.
@@ -51,6 +65,17 @@ public class MainApplication extends Application{
 		launch(args);
 	}
 	
+	/**
+	 * Open the UI on a recorded run.
+	 *
+	 * @param args      The args.
+	 * @param recording The recording to play.
+	 */
+	public static void replay(final String[] args, final RunRecording recording){
+		MainApplication.recording = recording;
+		launch(args);
+	}
+	
 	@Override
 	public void start(final Stage stage){
 		this.stage = stage;
@@ -69,7 +94,7 @@ public class MainApplication extends Application{
 	 * @return The scene.
 	 */
 	private Scene buildScene(){
-		return new Scene(createContent(), 640, 640);
+		return new Scene(Objects.isNull(recording) ? createContent() : createReplayContent(), 640, 640);
 	}
 	
 	/**
@@ -88,7 +113,13 @@ public class MainApplication extends Application{
 	 * @param stage The stage displayed.
 	 */
 	private void onStageDisplayed(final Stage stage){
+		if(Objects.nonNull(recording)){
+			onReplayStageDisplayed(stage);
+			return;
+		}
 		stage.setOnCloseRequest(evt -> simulationParameters.getEnvironment().getSimulator().stop());
+		//noinspection SpellCheckingInspection
+		OrToolsLibrary.getLoadError().ifPresent(e -> JFXUtils.displayExceptionAlert(e, "Simulator error", "ORTools not found", "The routing of this simulation needs ortools, which was not found. Please add library path with java argument -Djava.library.path=/path/to/folder"));
 		
 		this.tabPane.getTabs().addAll(buildTabs(simulationParameters));
 		this.stage.setMaximized(true);
@@ -147,6 +178,98 @@ public class MainApplication extends Application{
 		return root;
 	}
 	
+	/**
+	 * Method executed when the frame is displayed on a recorded run.
+	 *
+	 * @param stage The stage displayed.
+	 */
+	private void onReplayStageDisplayed(final Stage stage){
+		stage.setOnCloseRequest(evt -> player.stop());
+		
+		final var environment = recording.getEnvironment();
+		final var tabs = List.of(new SensorsCapacityChartTab(environment.getElements(Sensor.class)), new MapTab(this.getStage().getScene(), animationDelay, environment.getElements(Positionable.class)));
+		tabs.forEach(t -> environment.getSimulator().getMetricEventDispatcher().addListener(t));
+		this.tabPane.getTabs().addAll(tabs);
+		this.stage.setMaximized(true);
+		
+		player.start(tabs);
+	}
+	
+	/**
+	 * Create the frame content to play a recorded run.
+	 * The timeline slider seeks in the recording, the speed slider sets the simulation time played per second on a logarithmic scale.
+	 *
+	 * @return The content.
+	 */
+	private Parent createReplayContent(){
+		final var root = new VBox();
+		tabPane = new TabPane();
+		player = new RecordingPlayer(recording);
+		
+		final var play = new Button("Play");
+		play.setMaxWidth(Double.MAX_VALUE);
+		final var pause = new Button("Pause");
+		pause.setMaxWidth(Double.MAX_VALUE);
+		pause.setDisable(true);
+		
+		play.setOnAction(evt -> player.setRunning(true));
+		pause.setOnAction(evt -> player.setRunning(false));
+		
+		final var timeText = new Text();
+		timeText.textProperty().bind(recording.getEnvironment().getSimulator().currentTimeProperty().asString("Current simulation time: %f / " + recording.getEndTime()));
+		final var timeline = new Slider();
+		timeline.setMin(0);
+		timeline.setMax(recording.getEndTime());
+		final var speedSlider = new Slider();
+		speedSlider.setMin(MIN_SPEED_EXPONENT);
+		speedSlider.setMax(MAX_SPEED_EXPONENT);
+		speedSlider.setValue(0);
+		final var speed = new SimpleDoubleProperty();
+		speed.bind(Bindings.createDoubleBinding(() -> Math.pow(10, speedSlider.getValue()), speedSlider.valueProperty()));
+		final var speedText = new Text();
+		speedText.textProperty().bind(speed.asString("Speed: %.1f time/s"));
+		animationDelay = new SimpleDoubleProperty();
+		animationDelay.bind(Bindings.createDoubleBinding(() -> 1000 / speed.get(), speed));
+		
+		final var middleInfos = new VBox();
+		middleInfos.getChildren().addAll(timeText, timeline, speedText, speedSlider);
+		
+		final var controls = new HBox(3);
+		controls.getChildren().addAll(play, middleInfos, pause);
+		root.getChildren().addAll(tabPane, controls);
+		
+		player.speedProperty().bind(speed);
+		player.runningProperty().addListener((obs, oldValue, newValue) -> {
+			play.setDisable(newValue);
+			pause.setDisable(!newValue);
+		});
+		final var updating = new boolean[]{false};
+		player.timeProperty().addListener((obs, oldValue, newValue) -> {
+			if(!timeline.isValueChanging()){
+				updating[0] = true;
+				timeline.setValue(newValue.doubleValue());
+				updating[0] = false;
+			}
+		});
+		timeline.valueProperty().addListener((obs, oldValue, newValue) -> {
+			if(!updating[0] && !timeline.isValueChanging()){
+				player.seek(newValue.doubleValue());
+			}
+		});
+		timeline.valueChangingProperty().addListener((obs, oldValue, newValue) -> {
+			if(!newValue){
+				player.seek(timeline.getValue());
+			}
+		});
+		
+		VBox.setVgrow(tabPane, Priority.ALWAYS);
+		HBox.setHgrow(tabPane, Priority.ALWAYS);
+		HBox.setHgrow(middleInfos, Priority.ALWAYS);
+		HBox.setHgrow(play, Priority.ALWAYS);
+		HBox.setHgrow(pause, Priority.ALWAYS);
+		return root;
+	}
+	
 	/**
 	 * Build the different tabs of the frame.
 	 *
@@ -0,0 +1,183 @@
+package fr.mrcraftcod.simulator.jfx;
+
+import fr.mrcraftcod.simulator.jfx.utils.SeekableTab;
+import fr.mrcraftcod.simulator.metrics.journal.RecordingState;
+import fr.mrcraftcod.simulator.metrics.journal.RunRecording;
+import javafx.application.Platform;
+import javafx.beans.property.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays a recorded run in the UI, without running the simulation.
+ * <p>
+ * While playing, the events of the recording are dispatched to the metric listeners of its environment at the chosen speed.
+ * Seeking redraws the tabs from the state of the recording at the requested time.
+ * Both are done on a dedicated thread so that they never overlap.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-14.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-14
+ */
+public class RecordingPlayer{
+	private static final Logger LOGGER = LoggerFactory.getLogger(RecordingPlayer.class);
+	private static final long TICK_MILLIS = 40;
+	private final RunRecording recording;
+	private final List<SeekableTab> tabs;
+	private final ScheduledExecutorService executor;
+	private final DoubleProperty speed;
+	private final ReadOnlyDoubleWrapper time;
+	private final ReadOnlyBooleanWrapper running;
+	private volatile boolean playing;
+	private RecordingState state;
+	private int index;
+	private double playTime;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param recording The recording to play.
+	 */
+	public RecordingPlayer(final RunRecording recording){
+		this.recording = recording;
+		this.tabs = new CopyOnWriteArrayList<>();
+		this.executor = Executors.newSingleThreadScheduledExecutor();
+		this.speed = new SimpleDoubleProperty(1);
+		this.time = new ReadOnlyDoubleWrapper(0);
+		this.running = new ReadOnlyBooleanWrapper(false);
+		this.state = recording.getState(0);
+	}
+	
+	/**
+	 * Start the playback thread, paused at the start of the recording.
+	 *
+	 * @param tabs The tabs to redraw when seeking, they should also be listeners of the environment of the recording.
+	 */
+	public void start(final Collection<? extends SeekableTab> tabs){
+		this.tabs.addAll(tabs);
+		seek(0);
+		executor.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Stop the playback thread.
+	 */
+	public void stop(){
+		executor.shutdownNow();
+	}
+	
+	/**
+	 * Go to a simulation time.
+	 *
+	 * @param time The time.
+	 */
+	public void seek(final double time){
+		executor.execute(() -> {
+			try{
+				playTime = Math.max(0, Math.min(recording.getEndTime(), time));
+				index = recording.getIndex(playTime);
+				state = recording.getState(index);
+				state.restore();
+				recording.getEnvironment().getSimulator().currentTimeProperty().set(playTime);
+				tabs.forEach(tab -> tab.seek(recording, index, state));
+				publishTime();
+			}
+			catch(final Exception e){
+				LOGGER.error("Failed to seek to {}", time, e);
+			}
+		});
+	}
+	
+	/**
+	 * Advance the playback by one tick.
+	 */
+	private void tick(){
+		if(!playing){
+			return;
+		}
+		try{
+			playTime = Math.min(recording.getEndTime(), playTime + speed.get() * TICK_MILLIS / 1000D);
+			final var next = recording.getIndex(playTime);
+			final var simulator = recording.getEnvironment().getSimulator();
+			for(final var event : recording.getEvents(index, next)){
+				if(event.getTime() > simulator.getCurrentTime()){
+					simulator.currentTimeProperty().set(event.getTime());
+				}
+				state.apply(event);
+				state.restore(event);
+				simulator.getMetricEventDispatcher().dispatchEvent(event);
+			}
+			index = next;
+			simulator.currentTimeProperty().set(playTime);
+			if(playTime >= recording.getEndTime()){
+				setRunning(false);
+			}
+			publishTime();
+		}
+		catch(final Exception e){
+			LOGGER.error("Failed to play recording", e);
+			setRunning(false);
+		}
+	}
+	
+	/**
+	 * Publish the current time on the UI thread.
+	 */
+	private void publishTime(){
+		final var current = playTime;
+		Platform.runLater(() -> time.set(current));
+	}
+	
+	/**
+	 * Play or pause the recording.
+	 *
+	 * @param status True to play, false to pause.
+	 */
+	public void setRunning(final boolean status){
+		playing = status;
+		Platform.runLater(() -> running.set(status));
+	}
+	
+	/**
+	 * Get the speed of the playback.
+	 *
+	 * @return The simulation time played per second.
+	 */
+	public DoubleProperty speedProperty(){
+		return speed;
+	}
+	
+	/**
+	 * Get the time played, updated on the UI thread.
+	 *
+	 * @return The time property.
+	 */
+	public ReadOnlyDoubleProperty timeProperty(){
+		return time.getReadOnlyProperty();
+	}
+	
+	/**
+	 * Get if the recording is playing, updated on the UI thread.
+	 *
+	 * @return The running property.
+	 */
+	public ReadOnlyBooleanProperty runningProperty(){
+		return running.getReadOnlyProperty();
+	}
+	
+	/**
+	 * Get the recording played.
+	 *
+	 * @return The recording.
+	 */
+	public RunRecording getRecording(){
+		return recording;
+	}
+}
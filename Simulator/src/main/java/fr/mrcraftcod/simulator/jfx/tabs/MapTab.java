@@ -4,7 +4,10 @@ import fr.mrcraftcod.simulator.chargers.Charger;
 import fr.mrcraftcod.simulator.jfx.utils.Arrow;
 import fr.mrcraftcod.simulator.jfx.utils.ColorableGroup;
 import fr.mrcraftcod.simulator.jfx.utils.MetricEventListenerTab;
+import fr.mrcraftcod.simulator.jfx.utils.SeekableTab;
 import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.journal.RecordingState;
+import fr.mrcraftcod.simulator.metrics.journal.RunRecording;
 import fr.mrcraftcod.simulator.positions.Position;
 import fr.mrcraftcod.simulator.rault.metrics.events.*;
 import fr.mrcraftcod.simulator.sensors.Sensor;
@@ -23,8 +26,10 @@ import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextAlignment;
 import javafx.util.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -36,7 +41,7 @@ import java.util.Optional;
  * @author Thomas Couchoud
  * @since 2019-01-17
  */
-public class MapTab extends MetricEventListenerTab{
+public class MapTab extends MetricEventListenerTab implements SeekableTab{
 	private final static double ZOOM_FACTOR = 25;
 	private final HashMap<Positionable, ColorableGroup> elements;
 	private final HashMap<Positionable, PathTransition> transitions;
@@ -147,6 +152,22 @@ public class MapTab extends MetricEventListenerTab{
 		return element;
 	}
 	
+	@Override
+	public Collection<Class<? extends MetricEvent>> getSubscribedEvents(){
+		return List.of(
+				LrRequestMetricEvent.class,
+				LcRequestMetricEvent.class,
+				SensorChargedMetricEvent.class,
+				TourStartMetricEvent.class,
+				TourTravelMetricEvent.class,
+				TourTravelBaseMetricEvent.class,
+				TourTravelEndMetricEvent.class,
+				TourEndMetricEvent.class,
+				TourChargeMetricEvent.class,
+				TourChargeEndMetricEvent.class
+		);
+	}
+	
 	@Override
 	public void onEvent(final MetricEvent event){
 		if(event instanceof LrRequestMetricEvent){
@@ -257,6 +278,81 @@ public class MapTab extends MetricEventListenerTab{
 		// }));
 	}
 	
+	@Override
+	public void seek(final RunRecording recording, final int eventIndex, final RecordingState state){
+		final var arrows = new ArrayList<Arrow>();
+		if(delayProperty.get() > 50){
+			elements.keySet().stream().filter(e -> e instanceof Charger).map(e -> (Charger) e).forEach(charger -> {
+				var lastPos = state.getPosition(charger);
+				for(final var nextPos : state.getPlannedStops(charger)){
+					arrows.add(buildArrow(String.format("tour-arrow-%d-%d", charger.getID(), nextPos.getID()), lastPos, nextPos.getStopLocation().getPosition()));
+					lastPos = nextPos.getStopLocation().getPosition();
+				}
+				final var finalLastPos = lastPos;
+				state.getReturnPosition(charger).filter(returnPos -> !Objects.equals(finalLastPos, returnPos)).ifPresent(returnPos -> arrows.add(buildArrow(String.format("tour-arrow-%d--1", charger.getID()), finalLastPos, returnPos)));
+				state.getChargingStop(charger).ifPresent(stop -> stop.getStopLocation().getSensors().forEach(sensor -> {
+					final var arrow = buildArrow(String.format("charging-arrow-%d-%d", charger.getID(), sensor.getID()), stop.getStopLocation().getPosition(), sensor.getPosition());
+					arrow.setStrokeWidth(3);
+					arrow.setTranslateZ(-0.04);
+					arrow.setColor(Color.HOTPINK);
+					arrows.add(arrow);
+				}));
+			});
+		}
+		Platform.runLater(() -> {
+			transitions.values().forEach(PathTransition::stop);
+			elementsPane.getChildren().removeIf(n -> n instanceof Arrow);
+			elements.forEach((element, representation) -> {
+				if(element instanceof Sensor){
+					representation.setColor(getColor(state.getRequest((Sensor) element)));
+				}
+				else if(element instanceof Charger){
+					final var position = state.getPosition((Charger) element);
+					representation.setTranslateX(ZOOM_FACTOR * position.getX());
+					representation.setTranslateY(ZOOM_FACTOR * position.getY());
+					representation.setColor(getColor(state.getActivity((Charger) element)));
+				}
+			});
+			elementsPane.getChildren().addAll(arrows);
+		});
+	}
+	
+	/**
+	 * Get the color of a sensor.
+	 *
+	 * @param request The request the sensor is waiting an answer for.
+	 *
+	 * @return The color.
+	 */
+	private static Color getColor(final RecordingState.SensorRequest request){
+		switch(request){
+			case LR:
+				return Color.ORANGE;
+			case LC:
+				return Color.RED;
+			default:
+				return Color.GREEN;
+		}
+	}
+	
+	/**
+	 * Get the color of a charger.
+	 *
+	 * @param activity What the charger is doing.
+	 *
+	 * @return The color.
+	 */
+	private static Color getColor(final RecordingState.ChargerActivity activity){
+		switch(activity){
+			case TRAVELLING:
+				return Color.SLATEBLUE;
+			case CHARGING:
+				return Color.HOTPINK;
+			default:
+				return Color.CADETBLUE;
+		}
+	}
+	
 	/**
 	 * Create an arrow.
 	 *
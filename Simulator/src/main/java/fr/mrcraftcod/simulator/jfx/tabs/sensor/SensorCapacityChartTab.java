@@ -1,13 +1,18 @@
 package fr.mrcraftcod.simulator.jfx.tabs.sensor;
 
 import fr.mrcraftcod.simulator.jfx.utils.MetricEventListenerTab;
+import fr.mrcraftcod.simulator.jfx.utils.SeekableTab;
 import fr.mrcraftcod.simulator.metrics.MetricEvent;
 import fr.mrcraftcod.simulator.metrics.events.SensorCapacityMetricEvent;
+import fr.mrcraftcod.simulator.metrics.journal.RecordingState;
+import fr.mrcraftcod.simulator.metrics.journal.RunRecording;
 import fr.mrcraftcod.simulator.sensors.Sensor;
 import javafx.application.Platform;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -18,7 +23,7 @@ import java.util.Objects;
  * @author Thomas Couchoud
  * @since 2019-01-17
  */
-public class SensorCapacityChartTab extends MetricEventListenerTab{
+public class SensorCapacityChartTab extends MetricEventListenerTab implements SeekableTab{
 	
 	private final Sensor sensor;
 	private final XYChart.Series<Number, Number> series;
@@ -53,6 +58,11 @@ public class SensorCapacityChartTab extends MetricEventListenerTab{
 		this.setText(String.format("Capacity sensor[%d]", sensor.getID()));
 	}
 	
+	@Override
+	public Collection<Class<? extends MetricEvent>> getSubscribedEvents(){
+		return List.of(SensorCapacityMetricEvent.class);
+	}
+	
 	@Override
 	public void onEvent(final MetricEvent event){
 		if(event instanceof SensorCapacityMetricEvent && Objects.equals(this.sensor, ((SensorCapacityMetricEvent) event).getElement())){
@@ -60,6 +70,12 @@ public class SensorCapacityChartTab extends MetricEventListenerTab{
 		}
 	}
 	
+	@Override
+	public void seek(final RunRecording recording, final int eventIndex, final RecordingState state){
+		final var points = SensorsCapacityChartTab.getData(recording, sensor, eventIndex);
+		Platform.runLater(() -> series.getData().setAll(points));
+	}
+	
 	@Override
 	public void close(){
 	
@@ -1,15 +1,20 @@
 package fr.mrcraftcod.simulator.jfx.tabs.sensor;
 
 import fr.mrcraftcod.simulator.jfx.utils.MetricEventListenerTab;
+import fr.mrcraftcod.simulator.jfx.utils.SeekableTab;
 import fr.mrcraftcod.simulator.metrics.MetricEvent;
 import fr.mrcraftcod.simulator.metrics.events.SensorCapacityMetricEvent;
+import fr.mrcraftcod.simulator.metrics.journal.RecordingState;
+import fr.mrcraftcod.simulator.metrics.journal.RunRecording;
 import fr.mrcraftcod.simulator.sensors.Sensor;
 import javafx.application.Platform;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * Draws the capacity of several sensors in a graph.
@@ -19,7 +24,7 @@ import java.util.HashMap;
  * @author Thomas Couchoud
  * @since 2019-01-17
  */
-public class SensorsCapacityChartTab extends MetricEventListenerTab{
+public class SensorsCapacityChartTab extends MetricEventListenerTab implements SeekableTab{
 	
 	private final HashMap<Integer, Sensor> sensors;
 	private final HashMap<Integer, XYChart.Series<Number, Number>> series;
@@ -58,6 +63,11 @@ public class SensorsCapacityChartTab extends MetricEventListenerTab{
 		this.setText("Sensors capacity");
 	}
 	
+	@Override
+	public Collection<Class<? extends MetricEvent>> getSubscribedEvents(){
+		return List.of(SensorCapacityMetricEvent.class);
+	}
+	
 	@Override
 	public void onEvent(final MetricEvent event){
 		if(event instanceof SensorCapacityMetricEvent && sensors.values().contains(((SensorCapacityMetricEvent) event).getElement())){
@@ -65,6 +75,33 @@ public class SensorsCapacityChartTab extends MetricEventListenerTab{
 		}
 	}
 	
+	@Override
+	public void seek(final RunRecording recording, final int eventIndex, final RecordingState state){
+		final var data = new HashMap<Integer, List<XYChart.Data<Number, Number>>>();
+		sensors.forEach((id, sensor) -> data.put(id, getData(recording, sensor, eventIndex)));
+		Platform.runLater(() -> data.forEach((id, points) -> series.get(id).getData().setAll(points)));
+	}
+	
+	/**
+	 * Get the points of a sensor recorded before an event.
+	 *
+	 * @param recording  The recording.
+	 * @param sensor     The sensor.
+	 * @param eventIndex The index of the event.
+	 *
+	 * @return The points.
+	 */
+	static List<XYChart.Data<Number, Number>> getData(final RunRecording recording, final Sensor sensor, final int eventIndex){
+		final var points = new ArrayList<XYChart.Data<Number, Number>>();
+		recording.getCapacityHistory(sensor).ifPresent(history -> {
+			final var count = history.getCount(eventIndex);
+			for(var i = 0; i < count; i++){
+				points.add(new XYChart.Data<>(history.getTime(i), history.getValue(i)));
+			}
+		});
+		return points;
+	}
+	
 	@Override
 	public void close(){
 	
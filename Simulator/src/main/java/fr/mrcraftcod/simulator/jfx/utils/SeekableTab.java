@@ -0,0 +1,24 @@
+package fr.mrcraftcod.simulator.jfx.utils;
+
+import fr.mrcraftcod.simulator.metrics.journal.RecordingState;
+import fr.mrcraftcod.simulator.metrics.journal.RunRecording;
+
+/**
+ * A tab that can be redrawn at any point of a recorded run.
+ * Once redrawn, the tab receives the following events of the recording as metric events.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-14.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-14
+ */
+public interface SeekableTab{
+	/**
+	 * Redraw the tab as it was before an event of a recording.
+	 *
+	 * @param recording  The recording.
+	 * @param eventIndex The index of the event.
+	 * @param state      The state of the elements before this event.
+	 */
+	void seek(RunRecording recording, int eventIndex, RecordingState state);
+}
@@ -0,0 +1,231 @@
+package fr.mrcraftcod.simulator.metrics;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import fr.mrcraftcod.simulator.sensors.SensorListener;
+import org.jetbrains.annotations.NotNull;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Keeps track of the periods during which the sensors of an environment are depleted, a sensor being depleted when its capacity is 0.
+ * <p>
+ * The tracker is notified by the sensors when their capacity reaches 0 or goes back above it, so nothing is done while the sensors keep their state.
+ * The time the sensors have been depleted is kept up to date with these changes, so it is known at any time without going through the sensors.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-15.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-15
+ */
+public class DepletionTracker implements SensorListener{
+	private final Environment environment;
+	private final Map<Sensor, DepletionIntervals> intervals;
+	private double closedTime;
+	private double openStartsSum;
+	private int depletedCount;
+	
+	/**
+	 * The periods during which a sensor was depleted.
+	 */
+	public static class DepletionIntervals{
+		private double[] starts;
+		private double[] ends;
+		private int size;
+		private double closedTime;
+		
+		/**
+		 * Constructor.
+		 */
+		DepletionIntervals(){
+			this.starts = new double[4];
+			this.ends = new double[4];
+		}
+		
+		/**
+		 * Start a depletion period.
+		 *
+		 * @param time The time the sensor got depleted.
+		 */
+		void open(final double time){
+			if(size == starts.length){
+				starts = Arrays.copyOf(starts, size * 2);
+				ends = Arrays.copyOf(ends, size * 2);
+			}
+			starts[size] = time;
+			ends[size] = Double.POSITIVE_INFINITY;
+			size++;
+		}
+		
+		/**
+		 * End the current depletion period.
+		 *
+		 * @param time The time the sensor got charged.
+		 *
+		 * @return The duration of the period.
+		 */
+		double close(final double time){
+			ends[size - 1] = time;
+			final var duration = time - starts[size - 1];
+			closedTime += duration;
+			return duration;
+		}
+		
+		/**
+		 * Get if the sensor is depleted.
+		 *
+		 * @return True if the last period isn't over.
+		 */
+		public boolean isOpen(){
+			return size > 0 && ends[size - 1] == Double.POSITIVE_INFINITY;
+		}
+		
+		/**
+		 * Get the time the sensor spent depleted.
+		 *
+		 * @param time The current time.
+		 *
+		 * @return The time depleted up to the current time.
+		 */
+		public double getDepletedTime(final double time){
+			return isOpen() ? closedTime + Math.max(0, time - starts[size - 1]) : closedTime;
+		}
+		
+		/**
+		 * Get the start of a period.
+		 *
+		 * @param index The index of the period.
+		 *
+		 * @return The time the sensor got depleted.
+		 */
+		public double getStart(final int index){
+			return starts[index];
+		}
+		
+		/**
+		 * Get the end of a period.
+		 *
+		 * @param index The index of the period.
+		 *
+		 * @return The time the sensor got charged, {@link Double#POSITIVE_INFINITY} if it is still depleted.
+		 */
+		public double getEnd(final int index){
+			return ends[index];
+		}
+		
+		/**
+		 * Get the number of periods.
+		 *
+		 * @return The number of periods.
+		 */
+		public int size(){
+			return size;
+		}
+	}
+	
+	/**
+	 * Constructor, tracking the sensors currently in an environment.
+	 *
+	 * @param environment The environment.
+	 */
+	public DepletionTracker(final Environment environment){
+		this.environment = environment;
+		this.intervals = new IdentityHashMap<>();
+		final var time = environment.getSimulator().getCurrentTime();
+		environment.getElements(Sensor.class).forEach(sensor -> {
+			final var sensorIntervals = new DepletionIntervals();
+			intervals.put(sensor, sensorIntervals);
+			if(isDepleted(sensor.getCurrentCapacity())){
+				sensorIntervals.open(time);
+				openStartsSum += time;
+				depletedCount++;
+			}
+			sensor.addSensorListener(this);
+		});
+	}
+	
+	/**
+	 * Get if a capacity is a depleted one.
+	 *
+	 * @param capacity The capacity.
+	 *
+	 * @return True if depleted.
+	 */
+	private static boolean isDepleted(final double capacity){
+		return capacity <= 0;
+	}
+	
+	@Override
+	public synchronized void onSensorCurrentCapacityChange(final Environment environment, @NotNull final Sensor sensor, final double oldCurrentCapacity, final double newCurrentCapacity){
+		final var sensorIntervals = intervals.get(sensor);
+		if(Objects.isNull(sensorIntervals) || isDepleted(newCurrentCapacity) == sensorIntervals.isOpen()){
+			return;
+		}
+		final var time = environment.getSimulator().getCurrentTime();
+		if(sensorIntervals.isOpen()){
+			openStartsSum -= sensorIntervals.getStart(sensorIntervals.size() - 1);
+			closedTime += sensorIntervals.close(time);
+			depletedCount--;
+		}
+		else{
+			sensorIntervals.open(time);
+			openStartsSum += time;
+			depletedCount++;
+		}
+	}
+	
+	/**
+	 * Get the time all the sensors spent depleted, summed.
+	 *
+	 * @param time The current time.
+	 *
+	 * @return The total time depleted up to the current time.
+	 */
+	public synchronized double getTotalDepletedTime(final double time){
+		return closedTime + depletedCount * time - openStartsSum;
+	}
+	
+	/**
+	 * Get the time a sensor spent depleted.
+	 *
+	 * @param sensor The sensor.
+	 * @param time   The current time.
+	 *
+	 * @return The time depleted up to the current time, 0 if the sensor isn't tracked.
+	 */
+	public synchronized double getDepletedTime(final Sensor sensor, final double time){
+		return getIntervals(sensor).map(i -> i.getDepletedTime(time)).orElse(0D);
+	}
+	
+	/**
+	 * Get the number of sensors currently depleted.
+	 *
+	 * @return The number of sensors.
+	 */
+	public synchronized int getDepletedCount(){
+		return depletedCount;
+	}
+	
+	/**
+	 * Get the depletion periods of a sensor.
+	 *
+	 * @param sensor The sensor.
+	 *
+	 * @return The periods, empty if the sensor isn't tracked.
+	 */
+	public Optional<DepletionIntervals> getIntervals(final Sensor sensor){
+		return Optional.ofNullable(intervals.get(sensor));
+	}
+	
+	/**
+	 * Get the environment tracked.
+	 *
+	 * @return The environment.
+	 */
+	public Environment getEnvironment(){
+		return environment;
+	}
+}
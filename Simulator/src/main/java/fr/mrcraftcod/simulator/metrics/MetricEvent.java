@@ -63,7 +63,18 @@ public abstract class MetricEvent implements Comparable<MetricEvent>{
 	 * @return The metric folder.
 	 */
 	public static Path getAllMetricSaveFolder(final Environment environment){
-		return METRIC_SAVE_FOLDER.resolve(environment.getRunName());
+		return getAllMetricSaveFolder(environment.getRunName());
+	}
+	
+	/**
+	 * Get the folder of the metrics of a run.
+	 *
+	 * @param runName The name of the run.
+	 *
+	 * @return The metric folder.
+	 */
+	public static Path getAllMetricSaveFolder(final String runName){
+		return METRIC_SAVE_FOLDER.resolve(runName);
 	}
 	
 	@Override
@@ -1,6 +1,7 @@
 package fr.mrcraftcod.simulator.metrics;
 
 import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.jfr.MetricFlush;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.Closeable;
@@ -8,10 +9,15 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * Dispatches {@link MetricEvent}s to the {@link MetricEventListener}s.
  * <p>
+ * Events are only given to the listeners subscribed to their type (see {@link MetricEventListener#getSubscribedEvents()}).
+ * The listeners of each type of event are resolved the first time an event of this type is dispatched, and kept until the listeners change.
+ * <p>
  * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2018-11-22.
  *
  * @author Thomas Couchoud
@@ -20,8 +26,11 @@ import java.util.*;
 @SuppressWarnings("WeakerAccess")
 public class MetricEventDispatcher implements Closeable{
 	private static final Logger LOGGER = LoggerFactory.getLogger(MetricEventDispatcher.class);
+	private static final Object CONFIGURATION_COPY_LOCK = new Object();
 	private final List<MetricEventListener> listeners = new ArrayList<>();
+	private final Map<Class<? extends MetricEvent>, List<MetricEventListener>> dispatchTable = new ConcurrentHashMap<>();
 	private final Queue<MetricEvent> futures = new PriorityQueue<>();
+	private final ThreadLocal<Collection<MetricEvent>> threadBuffer = new ThreadLocal<>();
 	private final Environment environment;
 	private boolean closed;
 	
@@ -36,7 +45,9 @@ public class MetricEventDispatcher implements Closeable{
 		try{
 			Files.createDirectories(MetricEvent.getAllMetricSaveFolder(environment));
 			if(Objects.nonNull(environment.getConfigurationPath())){
-				Files.copy(environment.getConfigurationPath(), MetricEvent.getAllMetricSaveFolder(environment).resolve("config.json"), StandardCopyOption.REPLACE_EXISTING);
+				synchronized(CONFIGURATION_COPY_LOCK){
+					Files.copy(environment.getConfigurationPath(), MetricEvent.getAllMetricSaveFolder(environment).resolve("config.json"), StandardCopyOption.REPLACE_EXISTING);
+				}
 			}
 		}
 		catch(final IOException e){
@@ -51,6 +62,32 @@ public class MetricEventDispatcher implements Closeable{
 	 */
 	public void addListener(final MetricEventListener listener){
 		listeners.add(listener);
+		dispatchTable.clear();
+	}
+	
+	/**
+	 * Tell if some listeners will receive the events of a type.
+	 * This can be used to avoid building events nobody listens to.
+	 *
+	 * @param eventClass The type of the event.
+	 *
+	 * @return True if at least one listener is subscribed to this type, false otherwise.
+	 */
+	public boolean hasSubscribers(final Class<? extends MetricEvent> eventClass){
+		return !getSubscribers(eventClass).isEmpty();
+	}
+	
+	/**
+	 * Dispatch an event to the listeners, building it only if some listeners are subscribed to its type.
+	 *
+	 * @param eventClass The type of the event.
+	 * @param supplier   The supplier building the event.
+	 * @param <T>        The type of the event.
+	 */
+	public <T extends MetricEvent> void dispatchEvent(final Class<T> eventClass, final Supplier<? extends T> supplier){
+		if(hasSubscribers(eventClass)){
+			dispatchEvent(supplier.get());
+		}
 	}
 	
 	/**
@@ -59,12 +96,17 @@ public class MetricEventDispatcher implements Closeable{
 	 * @param event The event to dispatch.
 	 */
 	public void dispatchEvent(final MetricEvent event){
+		final var buffer = threadBuffer.get();
+		if(Objects.nonNull(buffer)){
+			buffer.add(event);
+			return;
+		}
 		if(event.getTime() <= environment.getSimulator().getCurrentTime()){
 			if(futures.isEmpty()){
 				if(event instanceof FutureValueMetricEvent){
 					((FutureValueMetricEvent) event).generateValue();
 				}
-				listeners.parallelStream().forEach(l -> l.onEvent(event));
+				deliver(event);
 			}
 			else{
 				futures.offer(event);
@@ -76,19 +118,91 @@ public class MetricEventDispatcher implements Closeable{
 		}
 	}
 	
+	/**
+	 * Keep the events dispatched from the current thread in a buffer instead of dispatching them.
+	 * This is used by the simulator to run events in parallel, the buffered events being dispatched afterwards in a deterministic order.
+	 *
+	 * @param buffer The buffer, null to dispatch the events again.
+	 */
+	public void setThreadBuffer(final Collection<MetricEvent> buffer){
+		if(Objects.isNull(buffer)){
+			threadBuffer.remove();
+		}
+		else{
+			threadBuffer.set(buffer);
+		}
+	}
+	
 	/**
 	 * Fire a dispatch to retry events that were ahead of time.
 	 */
 	public void fire(){
+		final var jfrEvent = new MetricFlush();
+		jfrEvent.begin();
+		var count = 0;
 		while(!futures.isEmpty() && futures.peek().getTime() <= environment.getSimulator().getCurrentTime()){
 			final var event = futures.poll();
 			if(event instanceof FutureValueMetricEvent){
 				((FutureValueMetricEvent) event).generateValue();
 			}
-			listeners.parallelStream().forEach(l -> l.onEvent(event));
+			deliver(event);
+			count++;
+		}
+		jfrEvent.end();
+		if(count > 0 && jfrEvent.shouldCommit()){
+			commitFlush(jfrEvent, count, false);
+		}
+	}
+	
+	/**
+	 * Commit a flight recorder event of a flush.
+	 *
+	 * @param jfrEvent The event, already ended.
+	 * @param count    The number of metric events dispatched.
+	 * @param closing  True if the listeners were being closed.
+	 */
+	private void commitFlush(final MetricFlush jfrEvent, final int count, final boolean closing){
+		jfrEvent.runName = environment.getRunName();
+		jfrEvent.simulationTime = environment.getSimulator().getCurrentTime();
+		jfrEvent.eventCount = count;
+		jfrEvent.closing = closing;
+		jfrEvent.commit();
+	}
+	
+	/**
+	 * Give an event to the listeners subscribed to its type.
+	 *
+	 * @param event The event.
+	 */
+	private void deliver(final MetricEvent event){
+		final var subscribers = getSubscribers(event.getClass());
+		if(subscribers.size() == 1){
+			subscribers.get(0).onEvent(event);
+		}
+		else if(!subscribers.isEmpty()){
+			subscribers.parallelStream().forEach(l -> l.onEvent(event));
 		}
 	}
 	
+	/**
+	 * Get the listeners subscribed to a type of event.
+	 *
+	 * @param eventClass The type of the event.
+	 *
+	 * @return The listeners.
+	 */
+	private List<MetricEventListener> getSubscribers(final Class<? extends MetricEvent> eventClass){
+		return dispatchTable.computeIfAbsent(eventClass, klass -> {
+			final var subscribers = new ArrayList<MetricEventListener>();
+			for(final var listener : listeners){
+				if(listener.getSubscribedEvents().stream().anyMatch(subscribed -> subscribed.isAssignableFrom(klass))){
+					subscribers.add(listener);
+				}
+			}
+			return subscribers;
+		});
+	}
+	
 	/**
 	 * Remove a listener.
 	 *
@@ -96,11 +210,14 @@ public class MetricEventDispatcher implements Closeable{
 	 */
 	public void removeListener(final MetricEventListener listener){
 		listeners.remove(listener);
+		dispatchTable.clear();
 	}
 	
 	@Override
 	public void close(){
 		if(!isClosed()){
+			final var jfrEvent = new MetricFlush();
+			jfrEvent.begin();
 			this.closed = true;
 			clear();
 			listeners.forEach(l -> {
@@ -111,6 +228,10 @@ public class MetricEventDispatcher implements Closeable{
 					e.printStackTrace();
 				}
 			});
+			jfrEvent.end();
+			if(jfrEvent.shouldCommit()){
+				commitFlush(jfrEvent, 0, true);
+			}
 		}
 	}
 	
@@ -123,6 +244,15 @@ public class MetricEventDispatcher implements Closeable{
 		return this.closed;
 	}
 	
+	/**
+	 * Get the number of events waiting for their time to be dispatched.
+	 *
+	 * @return The number of events.
+	 */
+	public int getFutureCount(){
+		return futures.size();
+	}
+	
 	/**
 	 * Clear the pending events.
 	 */
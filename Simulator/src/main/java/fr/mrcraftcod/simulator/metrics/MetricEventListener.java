@@ -1,6 +1,8 @@
 package fr.mrcraftcod.simulator.metrics;
 
 import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * A listener of a metric event.
@@ -19,4 +21,16 @@ public interface MetricEventListener extends Closeable{
 	 * @param event The event dispatched.
 	 */
 	void onEvent(final MetricEvent event);
+	
+	/**
+	 * Get the types of events this listener wants to receive.
+	 * Events of a subclass of one of these types are received too.
+	 * <p>
+	 * By default every event is received.
+	 *
+	 * @return The types of events to receive.
+	 */
+	default Collection<Class<? extends MetricEvent>> getSubscribedEvents(){
+		return List.of(MetricEvent.class);
+	}
 }
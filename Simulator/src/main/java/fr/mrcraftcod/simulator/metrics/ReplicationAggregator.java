@@ -0,0 +1,188 @@
+package fr.mrcraftcod.simulator.metrics;
+
+import fr.mrcraftcod.simulator.utils.QuantileSketch;
+import fr.mrcraftcod.simulator.utils.RunningStatistics;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Summarizes the results of replications as they end, without keeping the values of each replication.
+ * <p>
+ * For every metric of every configuration, the mean, variance and range are kept in a {@link RunningStatistics} and the quantiles are estimated by a {@link QuantileSketch}.
+ * Replications may be added concurrently, and the summary is written once all of them are done.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-16.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-16
+ */
+public class ReplicationAggregator{
+	/**
+	 * The confidence level of the intervals written in the summary.
+	 */
+	public static final double CONFIDENCE = 0.95;
+	private static final double[] QUANTILES = {
+			0.05,
+			0.25,
+			0.5,
+			0.75,
+			0.95
+	};
+	private final Map<String, SortedMap<String, MetricSummary>> summaries;
+	
+	/**
+	 * The summary of one metric.
+	 */
+	public static class MetricSummary{
+		private final RunningStatistics statistics;
+		private final QuantileSketch sketch;
+		
+		/**
+		 * Constructor.
+		 */
+		MetricSummary(){
+			this.statistics = new RunningStatistics();
+			this.sketch = new QuantileSketch();
+		}
+		
+		/**
+		 * Add a value.
+		 *
+		 * @param value The value.
+		 */
+		void add(final double value){
+			statistics.add(value);
+			sketch.add(value);
+		}
+		
+		/**
+		 * Add the values of another summary.
+		 *
+		 * @param other The summary to merge into this one.
+		 */
+		void merge(final MetricSummary other){
+			statistics.merge(other.statistics);
+			sketch.merge(other.sketch);
+		}
+		
+		/**
+		 * Get the mean, variance and range of the values.
+		 *
+		 * @return The statistics.
+		 */
+		public RunningStatistics getStatistics(){
+			return statistics;
+		}
+		
+		/**
+		 * Get the estimation of the quantiles of the values.
+		 *
+		 * @return The sketch.
+		 */
+		public QuantileSketch getSketch(){
+			return sketch;
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 */
+	public ReplicationAggregator(){
+		this.summaries = new TreeMap<>();
+	}
+	
+	/**
+	 * Add the results of a replication.
+	 *
+	 * @param configuration The name of the configuration.
+	 * @param values        The values measured, by metric.
+	 */
+	public synchronized void add(final String configuration, final Map<String, Double> values){
+		final var metrics = summaries.computeIfAbsent(configuration, k -> new TreeMap<>());
+		values.forEach((metric, value) -> {
+			if(Double.isFinite(value)){
+				metrics.computeIfAbsent(metric, k -> new MetricSummary()).add(value);
+			}
+		});
+	}
+	
+	/**
+	 * Add the results of another aggregator, for example one filled by another process.
+	 *
+	 * @param other The aggregator to merge into this one.
+	 */
+	public void merge(final ReplicationAggregator other){
+		final var otherSummaries = new TreeMap<String, SortedMap<String, MetricSummary>>();
+		synchronized(other){
+			other.summaries.forEach((configuration, metrics) -> otherSummaries.put(configuration, new TreeMap<>(metrics)));
+		}
+		synchronized(this){
+			otherSummaries.forEach((configuration, metrics) -> {
+				final var own = summaries.computeIfAbsent(configuration, k -> new TreeMap<>());
+				metrics.forEach((metric, summary) -> own.computeIfAbsent(metric, k -> new MetricSummary()).merge(summary));
+			});
+		}
+	}
+	
+	/**
+	 * Get the summary of a metric of a configuration.
+	 *
+	 * @param configuration The name of the configuration.
+	 * @param metric        The name of the metric.
+	 *
+	 * @return The summary, empty if the metric wasn't measured.
+	 */
+	public synchronized Optional<MetricSummary> getSummary(final String configuration, final String metric){
+		return Optional.ofNullable(summaries.getOrDefault(configuration, Collections.emptySortedMap()).get(metric));
+	}
+	
+	/**
+	 * Get the names of the metrics measured for a configuration.
+	 *
+	 * @param configuration The name of the configuration.
+	 *
+	 * @return The names of the metrics.
+	 */
+	public synchronized SortedSet<String> getMetrics(final String configuration){
+		return new TreeSet<>(summaries.getOrDefault(configuration, Collections.emptySortedMap()).keySet());
+	}
+	
+	/**
+	 * Get the names of the configurations that have results.
+	 *
+	 * @return The names of the configurations.
+	 */
+	public synchronized Set<String> getConfigurations(){
+		return new TreeSet<>(summaries.keySet());
+	}
+	
+	/**
+	 * Write a CSV with one line per configuration and metric, containing the mean, its confidence interval, the range and some quantiles of the values.
+	 *
+	 * @param path The path of the file.
+	 *
+	 * @throws IOException If the file couldn't be written.
+	 */
+	public synchronized void writeSummary(final Path path) throws IOException{
+		final var lines = new ArrayList<String>();
+		final var confidence = Math.round(CONFIDENCE * 100);
+		final var header = new ArrayList<>(List.of("configuration", "metric", "replications", "mean", "standardDeviation", "ci" + confidence + "HalfWidth", "ci" + confidence + "Low", "ci" + confidence + "High", "min", "max"));
+		for(final var quantile : QUANTILES){
+			header.add("p" + Math.round(quantile * 100));
+		}
+		lines.add(String.join(MetricEventListener.CSV_SEPARATOR, header));
+		summaries.forEach((configuration, metrics) -> metrics.forEach((metric, summary) -> {
+			final var statistics = summary.getStatistics();
+			final var mean = statistics.getMean();
+			final var halfWidth = statistics.getConfidenceHalfWidth(CONFIDENCE);
+			final var line = new ArrayList<>(List.of(configuration, metric, "" + statistics.getCount(), "" + mean, "" + statistics.getStandardDeviation(), "" + halfWidth, "" + (mean - halfWidth), "" + (mean + halfWidth), "" + statistics.getMin(), "" + statistics.getMax()));
+			for(final var quantile : QUANTILES){
+				line.add("" + summary.getSketch().getQuantile(quantile));
+			}
+			lines.add(String.join(MetricEventListener.CSV_SEPARATOR, line));
+		}));
+		Files.write(path, lines);
+	}
+}
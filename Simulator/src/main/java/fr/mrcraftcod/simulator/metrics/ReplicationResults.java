@@ -0,0 +1,49 @@
+package fr.mrcraftcod.simulator.metrics;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The values measured during one replication, filled by the metric listeners when they are closed.
+ * These are the values consolidated when several replications are run in a sweep.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-05.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-05
+ */
+public class ReplicationResults{
+	private final Map<String, Double> values;
+	
+	/**
+	 * Constructor.
+	 */
+	public ReplicationResults(){
+		this.values = new LinkedHashMap<>();
+	}
+	
+	/**
+	 * Set the value of a result.
+	 *
+	 * @param name  The name of the result.
+	 * @param value The value.
+	 */
+	public synchronized void put(final String name, final double value){
+		values.put(name, value);
+	}
+	
+	/**
+	 * Get the values measured.
+	 *
+	 * @return A copy of the values, in the order they were first set.
+	 */
+	public synchronized Map<String, Double> getValues(){
+		return new LinkedHashMap<>(values);
+	}
+	
+	@Override
+	public synchronized String toString(){
+		return new ToStringBuilder(this).append("values", values).toString();
+	}
+}
@@ -0,0 +1,147 @@
+package fr.mrcraftcod.simulator.metrics;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Decides when enough replications of a configuration were run.
+ * <p>
+ * Replications are launched until the half width of the confidence interval of the mean of every chosen metric is below a fraction of that mean, as summarized by a {@link ReplicationAggregator}.
+ * A minimum number of replications is always run so that the first intervals are meaningful, and no more replications are launched once the maximum number of replications or the time budget is reached.
+ * Without a precision, exactly the maximum number of replications is run.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-16.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-16
+ */
+public class SequentialStoppingRule{
+	/**
+	 * The number of replications run before checking the precision, if none is given.
+	 */
+	public static final int DEFAULT_MIN_REPLICATIONS = 5;
+	private final int minReplications;
+	private final int maxReplications;
+	private final double relativePrecision;
+	private final Set<String> metrics;
+	private final Duration timeBudget;
+	
+	/**
+	 * Constructor, running a fixed number of replications.
+	 *
+	 * @param replications The number of replications.
+	 */
+	public SequentialStoppingRule(final int replications){
+		this(replications, replications, Double.NaN, Set.of(), Duration.ZERO);
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param minReplications   The number of replications always run.
+	 * @param maxReplications   The maximum number of replications.
+	 * @param relativePrecision The target half width of the confidence intervals, relative to the mean, NaN to always run the maximum number of replications.
+	 * @param metrics           The names of the metrics that should reach the precision, empty for all of them.
+	 * @param timeBudget        The time after which no more replications are launched, zero for no limit.
+	 *
+	 * @throws IllegalArgumentException If the numbers of replications or the precision are incorrect.
+	 */
+	public SequentialStoppingRule(final int minReplications, final int maxReplications, final double relativePrecision, final Collection<String> metrics, final Duration timeBudget){
+		if(maxReplications <= 0){
+			throw new IllegalArgumentException("Replication count must be positive");
+		}
+		if(minReplications < 0 || minReplications > maxReplications){
+			throw new IllegalArgumentException("Minimum replication count must be between 0 and the maximum replication count");
+		}
+		if(relativePrecision <= 0){
+			throw new IllegalArgumentException("Precision must be positive");
+		}
+		if(timeBudget.isNegative()){
+			throw new IllegalArgumentException("Time budget must be positive");
+		}
+		this.minReplications = minReplications;
+		this.maxReplications = maxReplications;
+		this.relativePrecision = relativePrecision;
+		this.metrics = Set.copyOf(metrics);
+		this.timeBudget = timeBudget;
+	}
+	
+	/**
+	 * Get if a new replication should be launched.
+	 *
+	 * @param aggregator    The summary of the replications that ended.
+	 * @param configuration The name of the configuration in the summary.
+	 * @param started       The number of replications already launched.
+	 * @param elapsed       The time elapsed since the first replication was launched.
+	 *
+	 * @return True if a new replication should be launched.
+	 */
+	public boolean shouldContinue(final ReplicationAggregator aggregator, final String configuration, final int started, final Duration elapsed){
+		if(started < minReplications){
+			return true;
+		}
+		if(started >= maxReplications || isTimeBudgetExceeded(elapsed)){
+			return false;
+		}
+		return !isPrecisionReached(aggregator, configuration);
+	}
+	
+	/**
+	 * Get if the time budget is exceeded.
+	 *
+	 * @param elapsed The time elapsed since the first replication was launched.
+	 *
+	 * @return True if exceeded.
+	 */
+	public boolean isTimeBudgetExceeded(final Duration elapsed){
+		return !timeBudget.isZero() && elapsed.compareTo(timeBudget) >= 0;
+	}
+	
+	/**
+	 * Get if the confidence intervals of the metrics reached the precision.
+	 *
+	 * @param aggregator    The summary of the replications that ended.
+	 * @param configuration The name of the configuration in the summary.
+	 *
+	 * @return True if every metric reached the precision, false if there's no precision or no metric measured yet.
+	 */
+	public boolean isPrecisionReached(final ReplicationAggregator aggregator, final String configuration){
+		if(Double.isNaN(relativePrecision)){
+			return false;
+		}
+		final SortedSet<String> checked = metrics.isEmpty() ? aggregator.getMetrics(configuration) : new TreeSet<>(metrics);
+		if(checked.isEmpty()){
+			return false;
+		}
+		for(final var metric : checked){
+			final var summary = aggregator.getSummary(configuration, metric);
+			if(summary.isEmpty()){
+				return false;
+			}
+			final var statistics = summary.get().getStatistics();
+			final var halfWidth = statistics.getConfidenceHalfWidth(ReplicationAggregator.CONFIDENCE);
+			if(Double.isNaN(halfWidth) || halfWidth > relativePrecision * Math.abs(statistics.getMean())){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Get the maximum number of replications.
+	 *
+	 * @return The maximum number of replications.
+	 */
+	public int getMaxReplications(){
+		return maxReplications;
+	}
+	
+	@Override
+	public String toString(){
+		return new ToStringBuilder(this).append("minReplications", minReplications).append("maxReplications", maxReplications).append("relativePrecision", relativePrecision).append("metrics", metrics).append("timeBudget", timeBudget).toString();
+	}
+}
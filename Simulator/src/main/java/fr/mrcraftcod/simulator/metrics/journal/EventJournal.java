@@ -0,0 +1,230 @@
+package fr.mrcraftcod.simulator.metrics.journal;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.MetricEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Writes every metric event of a replication in an append-only binary journal, to be replayed later by {@link JournalReplayer}.
+ * <p>
+ * The journal is written through memory mapped regions of the file.
+ * It starts with a header describing the seed, the elements of the environment and the types of events, followed by one record per event: the tag of its type, its time and the fields written by its {@link MetricEventCodec}.
+ * A zero tag, or the end of the file, marks the end of the journal.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-13.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-13
+ */
+@SuppressWarnings("unused")
+public class EventJournal implements MetricEventListener{
+	static final int MAGIC = 0x53494D4A;
+	static final int VERSION = 1;
+	static final String FILE_NAME = "events.journal";
+	private static final Logger LOGGER = LoggerFactory.getLogger(EventJournal.class);
+	private static final int REGION_SIZE = 16 * 1024 * 1024;
+	private final Path path;
+	private final FileChannel channel;
+	private final JournalContext context;
+	private final Map<Class<? extends MetricEvent>, Byte> tags;
+	private final Set<Class<? extends MetricEvent>> skipped;
+	private ByteBuffer record;
+	private MappedByteBuffer region;
+	private long regionStart;
+	private long eventCount;
+	private boolean isClosed = false;
+	
+	/**
+	 * Constructor, writing the journal in the metric folder of the environment.
+	 *
+	 * @param environment The environment.
+	 *
+	 * @throws IOException If the journal couldn't be created.
+	 */
+	public EventJournal(final Environment environment) throws IOException{
+		this(environment, MetricEvent.getMetricSaveFolder(environment).resolve(FILE_NAME));
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param environment The environment.
+	 * @param path        The path of the journal.
+	 *
+	 * @throws IOException If the journal couldn't be created.
+	 */
+	public EventJournal(final Environment environment, final Path path) throws IOException{
+		this.path = path;
+		this.context = new JournalContext(environment);
+		this.tags = new HashMap<>();
+		this.skipped = new HashSet<>();
+		this.record = ByteBuffer.allocate(1024);
+		Files.createDirectories(path.toAbsolutePath().getParent());
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		map(0, REGION_SIZE);
+		writeHeader(environment);
+	}
+	
+	/**
+	 * Write the header of the journal.
+	 *
+	 * @param environment The environment.
+	 */
+	private void writeHeader(final Environment environment){
+		final var codecClasses = new ArrayList<>(MetricEventCodecs.getCodecClasses());
+		while(true){
+			try{
+				record.clear();
+				record.putInt(MAGIC);
+				record.putInt(VERSION);
+				record.put((byte) (Objects.isNull(environment.getSeed()) ? 0 : 1));
+				record.putLong(Objects.isNull(environment.getSeed()) ? 0 : environment.getSeed());
+				record.putInt(context.getElements().size());
+				context.getElements().forEach(element -> context.putString(record, element.getClass().getName()));
+				record.putInt(codecClasses.size());
+				for(var i = 0; i < codecClasses.size(); i++){
+					final var tag = (byte) (i + 1);
+					record.put(tag);
+					context.putString(record, codecClasses.get(i).getName());
+					tags.put(codecClasses.get(i), tag);
+				}
+				break;
+			}
+			catch(final BufferOverflowException e){
+				record = ByteBuffer.allocate(record.capacity() * 2);
+			}
+		}
+		record.flip();
+		append(record);
+	}
+	
+	@Override
+	public synchronized void onEvent(final MetricEvent event){
+		if(isClosed){
+			return;
+		}
+		final var codecClass = MetricEventCodecs.getCodecClass(event.getClass());
+		if(codecClass.isEmpty()){
+			if(skipped.add(event.getClass())){
+				LOGGER.warn("Events of type {} can't be written in the journal and will be skipped", event.getClass().getName());
+			}
+			return;
+		}
+		if(encode(event, tags.get(codecClass.get()), MetricEventCodecs.getCodec(codecClass.get()))){
+			append(record);
+			eventCount++;
+		}
+	}
+	
+	/**
+	 * Encode an event in the record buffer, growing it if needed.
+	 *
+	 * @param event The event.
+	 * @param tag   The tag of the type of the event.
+	 * @param codec The codec of the event.
+	 *
+	 * @return True if the event was encoded, false if it references something outside of the environment.
+	 */
+	private boolean encode(final MetricEvent event, final byte tag, final MetricEventCodec<MetricEvent> codec){
+		while(true){
+			try{
+				record.clear();
+				record.put(tag);
+				record.putDouble(event.getTime());
+				codec.write(event, context, record);
+				context.commitRecord();
+				record.flip();
+				return true;
+			}
+			catch(final BufferOverflowException e){
+				context.rollbackRecord();
+				record = ByteBuffer.allocate(record.capacity() * 2);
+			}
+			catch(final IllegalArgumentException e){
+				context.rollbackRecord();
+				LOGGER.warn("Skipping event {} from the journal", event, e);
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * Append an encoded record to the journal, mapping a new region if it doesn't fit in the current one.
+	 *
+	 * @param data The record.
+	 */
+	private void append(final ByteBuffer data){
+		if(region.remaining() < data.remaining()){
+			map(regionStart + region.position(), Math.max(REGION_SIZE, data.remaining()));
+		}
+		region.put(data);
+	}
+	
+	/**
+	 * Map a region of the journal.
+	 *
+	 * @param start The position of the region in the file.
+	 * @param size  The size of the region.
+	 */
+	private void map(final long start, final int size){
+		try{
+			region = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+			regionStart = start;
+		}
+		catch(final IOException e){
+			throw new IllegalStateException("Couldn't map journal " + path, e);
+		}
+	}
+	
+	/**
+	 * Get the number of events written.
+	 *
+	 * @return The number of events.
+	 */
+	public long getEventCount(){
+		return eventCount;
+	}
+	
+	/**
+	 * Get the path of the journal.
+	 *
+	 * @return The path.
+	 */
+	public Path getPath(){
+		return path;
+	}
+	
+	@Override
+	public synchronized void close(){
+		if(!isClosed){
+			isClosed = true;
+			final var end = regionStart + region.position();
+			region.force();
+			region = null;
+			try{
+				channel.truncate(end);
+			}
+			catch(final IOException e){
+				LOGGER.warn("Couldn't truncate journal {}, it will end with zeros", path, e);
+			}
+			try{
+				channel.close();
+			}
+			catch(final IOException e){
+				LOGGER.warn("Couldn't close journal {}", path, e);
+			}
+			LOGGER.info("Wrote {} events to journal {}", eventCount, path);
+		}
+	}
+}
@@ -0,0 +1,271 @@
+package fr.mrcraftcod.simulator.metrics.journal;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.chargers.Charger;
+import fr.mrcraftcod.simulator.positions.Position;
+import fr.mrcraftcod.simulator.rault.routing.ChargerTour;
+import fr.mrcraftcod.simulator.rault.routing.ChargingStop;
+import fr.mrcraftcod.simulator.rault.routing.StopLocation;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import fr.mrcraftcod.simulator.utils.Identifiable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The state shared by the records of a journal.
+ * <p>
+ * Elements are referenced by their index in {@link Environment#getElements()}, which is the same for every environment built from the same configuration and seed.
+ * Charging stops and tours are written in full the first time they appear in the journal, and as a reference afterwards, so that events about the same stop are replayed with the same object.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-13.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-13
+ */
+public class JournalContext{
+	private final Environment environment;
+	private final List<Identifiable> elements;
+	private final Map<Identifiable, Integer> elementIndices;
+	private final Map<Integer, ChargingStop> stops;
+	private final Map<ChargerTour, Integer> tourIndices;
+	private final List<ChargerTour> tours;
+	private final List<Integer> pendingStops;
+	private final List<ChargerTour> pendingTours;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param environment The environment the events are from, or are replayed in.
+	 */
+	JournalContext(final Environment environment){
+		this.environment = environment;
+		this.elements = new ArrayList<>(environment.getElements());
+		this.elementIndices = new IdentityHashMap<>();
+		for(var i = 0; i < elements.size(); i++){
+			elementIndices.put(elements.get(i), i);
+		}
+		this.stops = new HashMap<>();
+		this.tourIndices = new IdentityHashMap<>();
+		this.tours = new ArrayList<>();
+		this.pendingStops = new ArrayList<>();
+		this.pendingTours = new ArrayList<>();
+	}
+	
+	/**
+	 * Validate the stops and tours defined by the record being written.
+	 */
+	void commitRecord(){
+		pendingStops.clear();
+		pendingTours.clear();
+	}
+	
+	/**
+	 * Forget the stops and tours defined by the record being written, because it will be written again.
+	 */
+	void rollbackRecord(){
+		pendingStops.forEach(stops::remove);
+		pendingTours.forEach(tourIndices::remove);
+		commitRecord();
+	}
+	
+	/**
+	 * Write a reference to an element.
+	 *
+	 * @param buffer  The buffer to write to.
+	 * @param element The element.
+	 *
+	 * @throws IllegalArgumentException If the element isn't in the environment.
+	 */
+	public void putElement(final ByteBuffer buffer, final Identifiable element) throws IllegalArgumentException{
+		final var index = elementIndices.get(element);
+		if(Objects.isNull(index)){
+			throw new IllegalArgumentException("Element " + element.getUniqueIdentifier() + " isn't in the environment");
+		}
+		buffer.putInt(index);
+	}
+	
+	/**
+	 * Read a reference to an element.
+	 *
+	 * @param buffer The buffer to read from.
+	 * @param klass  The expected class of the element.
+	 * @param <T>    The type of the element.
+	 *
+	 * @return The element.
+	 *
+	 * @throws IllegalArgumentException If the element doesn't exist or isn't of the expected class.
+	 */
+	public <T extends Identifiable> T getElement(final ByteBuffer buffer, final Class<T> klass) throws IllegalArgumentException{
+		final var index = buffer.getInt();
+		if(index < 0 || index >= elements.size() || !klass.isInstance(elements.get(index))){
+			throw new IllegalArgumentException("Element " + index + " isn't a " + klass.getSimpleName());
+		}
+		return klass.cast(elements.get(index));
+	}
+	
+	/**
+	 * Write a position.
+	 *
+	 * @param buffer   The buffer to write to.
+	 * @param position The position.
+	 */
+	public void putPosition(final ByteBuffer buffer, final Position position){
+		buffer.putDouble(position.getX());
+		buffer.putDouble(position.getY());
+	}
+	
+	/**
+	 * Read a position.
+	 *
+	 * @param buffer The buffer to read from.
+	 *
+	 * @return The position.
+	 */
+	public Position getPosition(final ByteBuffer buffer){
+		return new Position(buffer.getDouble(), buffer.getDouble());
+	}
+	
+	/**
+	 * Write a string.
+	 *
+	 * @param buffer The buffer to write to.
+	 * @param value  The string.
+	 */
+	public void putString(final ByteBuffer buffer, final String value){
+		final var bytes = value.getBytes(StandardCharsets.UTF_8);
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+	}
+	
+	/**
+	 * Read a string.
+	 *
+	 * @param buffer The buffer to read from.
+	 *
+	 * @return The string.
+	 */
+	public String getString(final ByteBuffer buffer){
+		final var bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Write a charging stop, in full if it wasn't written before.
+	 *
+	 * @param buffer The buffer to write to.
+	 * @param stop   The charging stop.
+	 */
+	public void putChargingStop(final ByteBuffer buffer, final ChargingStop stop){
+		buffer.putInt(stop.getID());
+		if(stops.putIfAbsent(stop.getID(), stop) == null){
+			pendingStops.add(stop.getID());
+			buffer.put((byte) 1);
+			putPosition(buffer, stop.getStopLocation().getPosition());
+			buffer.putDouble(stop.getChargingTime());
+			buffer.putDouble(stop.getChargerArrivalTime());
+			buffer.putInt(Objects.isNull(stop.getCharger()) ? -1 : elementIndices.getOrDefault(stop.getCharger(), -1));
+			buffer.putInt(stop.getStopLocation().getSensors().size());
+			stop.getStopLocation().getSensors().forEach(sensor -> putElement(buffer, sensor));
+		}
+		else{
+			buffer.put((byte) 0);
+		}
+	}
+	
+	/**
+	 * Read a charging stop.
+	 *
+	 * @param buffer The buffer to read from.
+	 *
+	 * @return The charging stop, the same object for every reference to the same stop.
+	 *
+	 * @throws IllegalArgumentException If the stop is referenced before being defined.
+	 */
+	public ChargingStop getChargingStop(final ByteBuffer buffer) throws IllegalArgumentException{
+		final var id = buffer.getInt();
+		if(buffer.get() == 0){
+			return Optional.ofNullable(stops.get(id)).orElseThrow(() -> new IllegalArgumentException("Charging stop " + id + " is referenced before being defined"));
+		}
+		final var position = getPosition(buffer);
+		final var chargingTime = buffer.getDouble();
+		final var arrivalTime = buffer.getDouble();
+		final var chargerIndex = buffer.getInt();
+		final var sensors = new ArrayList<Sensor>();
+		for(var i = buffer.getInt(); i > 0; i--){
+			sensors.add(getElement(buffer, Sensor.class));
+		}
+		final var stop = new ChargingStop(new StopLocation(position, sensors), chargingTime);
+		stop.setChargerArrivalTime(arrivalTime);
+		if(chargerIndex >= 0 && chargerIndex < elements.size() && elements.get(chargerIndex) instanceof Charger){
+			stop.setCharger((Charger) elements.get(chargerIndex));
+		}
+		stops.put(id, stop);
+		return stop;
+	}
+	
+	/**
+	 * Write a tour, in full if it wasn't written before.
+	 *
+	 * @param buffer The buffer to write to.
+	 * @param tour   The tour.
+	 */
+	public void putTour(final ByteBuffer buffer, final ChargerTour tour){
+		final var index = tourIndices.get(tour);
+		if(Objects.isNull(index)){
+			tourIndices.put(tour, tourIndices.size());
+			pendingTours.add(tour);
+			buffer.putInt(-1);
+			putElement(buffer, tour.getCharger());
+			buffer.putInt(tour.getStops().size());
+			tour.getStops().forEach(stop -> putChargingStop(buffer, stop));
+		}
+		else{
+			buffer.putInt(index);
+		}
+	}
+	
+	/**
+	 * Read a tour.
+	 *
+	 * @param buffer The buffer to read from.
+	 *
+	 * @return The tour, the same object for every reference to the same tour.
+	 *
+	 * @throws IllegalArgumentException If the tour is referenced before being defined.
+	 */
+	public ChargerTour getTour(final ByteBuffer buffer) throws IllegalArgumentException{
+		final var index = buffer.getInt();
+		if(index >= 0){
+			if(index >= tours.size()){
+				throw new IllegalArgumentException("Tour " + index + " is referenced before being defined");
+			}
+			return tours.get(index);
+		}
+		final var tour = new ChargerTour(getElement(buffer, Charger.class));
+		for(var i = buffer.getInt(); i > 0; i--){
+			tour.addStop(getChargingStop(buffer));
+		}
+		tours.add(tour);
+		return tour;
+	}
+	
+	/**
+	 * Get the environment.
+	 *
+	 * @return The environment.
+	 */
+	public Environment getEnvironment(){
+		return environment;
+	}
+	
+	/**
+	 * Get the elements that can be referenced, in the order of their index.
+	 *
+	 * @return The elements.
+	 */
+	List<Identifiable> getElements(){
+		return elements;
+	}
+}
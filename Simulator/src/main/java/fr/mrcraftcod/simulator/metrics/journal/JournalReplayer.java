@@ -0,0 +1,331 @@
+package fr.mrcraftcod.simulator.metrics.journal;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.SimulationConfiguration;
+import fr.mrcraftcod.simulator.SimulationParameters;
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.MetricEventListener;
+import fr.mrcraftcod.simulator.metrics.events.SensorCapacityMetricEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Feeds the events of a journal written by {@link EventJournal} to metric listeners, without running the simulation.
+ * <p>
+ * The environment is rebuilt from the configuration and the seed of the journal so that events reference the same elements.
+ * The only state restored while replaying is the capacity of the sensors, from the {@link SensorCapacityMetricEvent}s, as it is what listeners read from the environment.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-13.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-13
+ */
+public class JournalReplayer{
+	private static final Logger LOGGER = LoggerFactory.getLogger(JournalReplayer.class);
+	private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+	
+	/**
+	 * Reads a journal through memory mapped windows.
+	 * A record is never split: when it doesn't fit in the current window, a new window is mapped from its start.
+	 */
+	private static class Reader implements Closeable{
+		private final FileChannel channel;
+		private final long size;
+		private MappedByteBuffer window;
+		private long windowStart;
+		
+		/**
+		 * Constructor.
+		 *
+		 * @param path The path of the journal.
+		 *
+		 * @throws IOException If the journal couldn't be opened.
+		 */
+		Reader(final Path path) throws IOException{
+			this.channel = FileChannel.open(path, StandardOpenOption.READ);
+			this.size = channel.size();
+			map(0, WINDOW_SIZE);
+		}
+		
+		/**
+		 * Map a window of the journal.
+		 *
+		 * @param start The position of the window in the file.
+		 * @param max   The maximum size of the window.
+		 *
+		 * @throws IOException If the window couldn't be mapped.
+		 */
+		private void map(final long start, final long max) throws IOException{
+			window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(max, size - start));
+			windowStart = start;
+		}
+		
+		/**
+		 * Map the window following a record that didn't fit, growing the window if the record is bigger than it.
+		 *
+		 * @param recordStart The position of the record in the file.
+		 *
+		 * @return True if a window was mapped, false if the end of the file was reached.
+		 *
+		 * @throws IOException If the window couldn't be mapped.
+		 */
+		boolean next(final long recordStart) throws IOException{
+			if(windowStart + window.limit() >= size){
+				return false;
+			}
+			map(recordStart, recordStart == windowStart ? Math.min(Integer.MAX_VALUE, 2L * window.limit()) : WINDOW_SIZE);
+			return true;
+		}
+		
+		/**
+		 * Get the current window.
+		 *
+		 * @return The window.
+		 */
+		ByteBuffer getBuffer(){
+			return window;
+		}
+		
+		/**
+		 * Get the position in the file.
+		 *
+		 * @return The position.
+		 */
+		long getPosition(){
+			return windowStart + window.position();
+		}
+		
+		@Override
+		public void close() throws IOException{
+			channel.close();
+		}
+	}
+	
+	private JournalReplayer(){
+	}
+	
+	/**
+	 * Replay a journal in a new environment built from a configuration.
+	 *
+	 * @param journal       The path of the journal.
+	 * @param configuration The configuration the journal was written from.
+	 * @param listeners     The constructors of the listeners to feed.
+	 * @param runName       The name of the run, used for the metric folder of the listeners.
+	 *
+	 * @return The number of events replayed.
+	 *
+	 * @throws IOException             If the journal couldn't be read.
+	 * @throws SettingsParserException If the environment or a listener couldn't be created.
+	 */
+	public static long replay(final Path journal, final SimulationConfiguration configuration, final Collection<Constructor<? extends MetricEventListener>> listeners, final String runName) throws IOException, SettingsParserException{
+		final var environment = createEnvironment(journal, configuration, runName);
+		final var dispatcher = environment.getSimulator().getMetricEventDispatcher();
+		for(final var constructor : listeners){
+			try{
+				dispatcher.addListener(constructor.newInstance(environment));
+			}
+			catch(final Exception e){
+				throw new SettingsParserException("Error instantiating new class " + constructor.getDeclaringClass().getName());
+			}
+		}
+		try{
+			return replay(journal, environment);
+		}
+		finally{
+			dispatcher.close();
+		}
+	}
+	
+	/**
+	 * Build the environment a journal was written from, without any metric listener.
+	 *
+	 * @param journal       The path of the journal.
+	 * @param configuration The configuration the journal was written from.
+	 * @param runName       The name of the run.
+	 *
+	 * @return The environment.
+	 *
+	 * @throws IOException             If the journal couldn't be read.
+	 * @throws SettingsParserException If the environment couldn't be created.
+	 */
+	public static Environment createEnvironment(final Path journal, final SimulationConfiguration configuration, final String runName) throws IOException, SettingsParserException{
+		final var seed = readSeed(journal).orElseGet(configuration::getSeedOrDefault);
+		return new SimulationParameters(configuration.getPath(), runName).fillElementsFromConfiguration(configuration, seed).getEnvironment();
+	}
+	
+	/**
+	 * Replay a journal through the metric dispatcher of an environment.
+	 * The dispatcher isn't closed.
+	 *
+	 * @param journal     The path of the journal.
+	 * @param environment The environment, with the same elements as the one the journal was written from.
+	 *
+	 * @return The number of events replayed.
+	 *
+	 * @throws IOException If the journal couldn't be read.
+	 */
+	public static long replay(final Path journal, final Environment environment) throws IOException{
+		final var simulator = environment.getSimulator();
+		final var count = read(journal, environment, event -> {
+			if(event.getTime() > simulator.getCurrentTime()){
+				simulator.currentTimeProperty().set(event.getTime());
+			}
+			if(event instanceof SensorCapacityMetricEvent){
+				final var capacityEvent = (SensorCapacityMetricEvent) event;
+				capacityEvent.getElement().setCurrentCapacity(capacityEvent.getNewValue());
+			}
+			simulator.getMetricEventDispatcher().dispatchEvent(event);
+		});
+		LOGGER.info("Replayed {} events from {}", count, journal);
+		return count;
+	}
+	
+	/**
+	 * Read the seed a journal was written with.
+	 *
+	 * @param journal The path of the journal.
+	 *
+	 * @return The seed, empty if the environment had none.
+	 *
+	 * @throws IOException If the journal couldn't be read.
+	 */
+	public static Optional<Long> readSeed(final Path journal) throws IOException{
+		try(final var reader = new Reader(journal)){
+			final var buffer = reader.getBuffer();
+			checkMagic(buffer, journal);
+			final var hasSeed = buffer.get() != 0;
+			final var seed = buffer.getLong();
+			return hasSeed ? Optional.of(seed) : Optional.empty();
+		}
+		catch(final BufferUnderflowException e){
+			throw new IOException("Journal " + journal + " is truncated", e);
+		}
+	}
+	
+	/**
+	 * Read the events of a journal.
+	 *
+	 * @param journal     The path of the journal.
+	 * @param environment The environment the events will reference, with the same elements as the one the journal was written from.
+	 * @param consumer    The consumer of the events, in the order they were written.
+	 *
+	 * @return The number of events read.
+	 *
+	 * @throws IOException              If the journal couldn't be read.
+	 * @throws IllegalArgumentException If the elements of the environment don't match the journal.
+	 */
+	public static long read(final Path journal, final Environment environment, final Consumer<MetricEvent> consumer) throws IOException, IllegalArgumentException{
+		final var context = new JournalContext(environment);
+		try(final var reader = new Reader(journal)){
+			final var codecs = readHeader(reader.getBuffer(), journal, context);
+			var count = 0L;
+			while(true){
+				final var recordStart = reader.getPosition();
+				try{
+					final var buffer = reader.getBuffer();
+					if(!buffer.hasRemaining()){
+						throw new BufferUnderflowException();
+					}
+					final var tag = buffer.get() & 0xFF;
+					if(tag == 0){
+						break;
+					}
+					final var codec = codecs.get(tag);
+					if(Objects.isNull(codec)){
+						LOGGER.warn("Unknown event tag {} in journal {}, stopping", tag, journal);
+						break;
+					}
+					consumer.accept(codec.read(context, buffer.getDouble(), buffer));
+					count++;
+				}
+				catch(final BufferUnderflowException e){
+					if(!reader.next(recordStart)){
+						if(reader.getPosition() > recordStart){
+							LOGGER.warn("Journal {} ends with a truncated record", journal);
+						}
+						break;
+					}
+				}
+			}
+			return count;
+		}
+	}
+	
+	/**
+	 * Check the start of a journal.
+	 *
+	 * @param buffer  The buffer to read from.
+	 * @param journal The path of the journal.
+	 *
+	 * @throws IOException If the file isn't a journal of a supported version.
+	 */
+	private static void checkMagic(final ByteBuffer buffer, final Path journal) throws IOException{
+		if(buffer.getInt() != EventJournal.MAGIC){
+			throw new IOException("File " + journal + " isn't an event journal");
+		}
+		final var version = buffer.getInt();
+		if(version != EventJournal.VERSION){
+			throw new IOException("Journal " + journal + " has version " + version + ", expected " + EventJournal.VERSION);
+		}
+	}
+	
+	/**
+	 * Read the header of a journal.
+	 *
+	 * @param buffer  The buffer to read from.
+	 * @param journal The path of the journal.
+	 * @param context The context of the journal.
+	 *
+	 * @return The codecs by tag, null for the types of events that aren't known anymore.
+	 *
+	 * @throws IOException              If the file isn't a journal of a supported version.
+	 * @throws IllegalArgumentException If the elements of the environment don't match the journal.
+	 */
+	private static Map<Integer, MetricEventCodec<?>> readHeader(final ByteBuffer buffer, final Path journal, final JournalContext context) throws IOException, IllegalArgumentException{
+		try{
+			checkMagic(buffer, journal);
+			buffer.get();
+			buffer.getLong();
+			final var elementCount = buffer.getInt();
+			if(elementCount != context.getElements().size()){
+				throw new IllegalArgumentException("Journal " + journal + " has " + elementCount + " elements, the environment has " + context.getElements().size());
+			}
+			for(var i = 0; i < elementCount; i++){
+				final var className = context.getString(buffer);
+				if(!Objects.equals(className, context.getElements().get(i).getClass().getName())){
+					throw new IllegalArgumentException("Element " + i + " of journal " + journal + " is a " + className + ", the environment has a " + context.getElements().get(i).getClass().getName());
+				}
+			}
+			final var knownCodecs = MetricEventCodecs.getCodecClasses().stream().collect(Collectors.toMap(Class::getName, klass -> klass));
+			final var codecs = new HashMap<Integer, MetricEventCodec<?>>();
+			for(var i = buffer.getInt(); i > 0; i--){
+				final var tag = buffer.get() & 0xFF;
+				final var className = context.getString(buffer);
+				final var klass = knownCodecs.get(className);
+				if(Objects.isNull(klass)){
+					LOGGER.warn("Events of type {} in journal {} aren't known anymore", className, journal);
+				}
+				else{
+					codecs.put(tag, MetricEventCodecs.getCodec(klass));
+				}
+			}
+			return codecs;
+		}
+		catch(final BufferUnderflowException e){
+			throw new IOException("Journal " + journal + " is truncated", e);
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package fr.mrcraftcod.simulator.metrics.journal;
+
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes and reads the fields of a type of {@link MetricEvent} in an {@link EventJournal}.
+ * The time of the event is handled by the journal, codecs only handle the other fields.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-13.
+ *
+ * @param <T> The type of the event.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-13
+ */
+public interface MetricEventCodec<T extends MetricEvent>{
+	/**
+	 * Write the fields of an event.
+	 *
+	 * @param event   The event to write.
+	 * @param context The context of the journal, used to write references to elements.
+	 * @param buffer  The buffer to write to.
+	 */
+	void write(T event, JournalContext context, ByteBuffer buffer);
+	
+	/**
+	 * Read an event.
+	 *
+	 * @param context The context of the journal, used to read references to elements.
+	 * @param time    The time of the event.
+	 * @param buffer  The buffer to read from.
+	 *
+	 * @return The event read.
+	 */
+	T read(JournalContext context, double time, ByteBuffer buffer);
+}
@@ -0,0 +1,315 @@
+package fr.mrcraftcod.simulator.metrics.journal;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.chargers.Charger;
+import fr.mrcraftcod.simulator.metrics.IdentifiableMetricEvent;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.events.SensorCapacityMetricEvent;
+import fr.mrcraftcod.simulator.metrics.events.SensorsCapacityMetricEvent;
+import fr.mrcraftcod.simulator.rault.metrics.events.*;
+import fr.mrcraftcod.simulator.rault.routing.ChargingStop;
+import fr.mrcraftcod.simulator.routing.Router;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import fr.mrcraftcod.simulator.utils.Identifiable;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The codecs of the types of {@link MetricEvent} that can be written in a journal.
+ * <p>
+ * A subclass of an event type without its own codec is written with the codec of its closest parent, for example {@link fr.mrcraftcod.simulator.metrics.events.FutureSensorCapacityMetricEvent} is replayed as a {@link SensorCapacityMetricEvent}.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-13.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-13
+ */
+public class MetricEventCodecs{
+	private static final Map<Class<? extends MetricEvent>, MetricEventCodec<?>> CODECS = new LinkedHashMap<>();
+	private static final Map<Class<?>, Optional<Class<? extends MetricEvent>>> RESOLVED = new ConcurrentHashMap<>();
+	
+	static{
+		register(SensorsCapacityMetricEvent.class, new MetricEventCodec<>(){
+			@Override
+			public void write(final SensorsCapacityMetricEvent event, final JournalContext context, final ByteBuffer buffer){
+			}
+			
+			@Override
+			public SensorsCapacityMetricEvent read(final JournalContext context, final double time, final ByteBuffer buffer){
+				return new SensorsCapacityMetricEvent(context.getEnvironment(), time);
+			}
+		});
+		register(SensorCapacityMetricEvent.class, doubleValue(Sensor.class, SensorCapacityMetricEvent::new));
+		register(SensorChargedMetricEvent.class, doubleValue(Sensor.class, SensorChargedMetricEvent::new));
+		register(ChargerDischargedMetricEvent.class, doubleValue(Charger.class, ChargerDischargedMetricEvent::new));
+		register(LrRequestMetricEvent.class, elementOnly(Sensor.class, LrRequestMetricEvent::new));
+		register(LcRequestMetricEvent.class, elementOnly(Sensor.class, LcRequestMetricEvent::new));
+		register(TourChargeMetricEvent.class, chargingStopValue(TourChargeMetricEvent::new));
+		register(TourChargeEndMetricEvent.class, chargingStopValue(TourChargeEndMetricEvent::new));
+		register(TourTravelEndMetricEvent.class, chargingStopValue(TourTravelEndMetricEvent::new));
+		register(TourStartMetricEvent.class, new MetricEventCodec<>(){
+			@Override
+			public void write(final TourStartMetricEvent event, final JournalContext context, final ByteBuffer buffer){
+				context.putElement(buffer, event.getElement());
+				context.putTour(buffer, event.getNewValue());
+			}
+			
+			@Override
+			public TourStartMetricEvent read(final JournalContext context, final double time, final ByteBuffer buffer){
+				return new TourStartMetricEvent(context.getEnvironment(), time, context.getElement(buffer, Charger.class), context.getTour(buffer));
+			}
+		});
+		register(TourEndMetricEvent.class, new MetricEventCodec<>(){
+			@Override
+			public void write(final TourEndMetricEvent event, final JournalContext context, final ByteBuffer buffer){
+				context.putElement(buffer, event.getElement());
+				context.putTour(buffer, event.getNewValue());
+			}
+			
+			@Override
+			public TourEndMetricEvent read(final JournalContext context, final double time, final ByteBuffer buffer){
+				return new TourEndMetricEvent(context.getEnvironment(), time, context.getElement(buffer, Charger.class), context.getTour(buffer));
+			}
+		});
+		register(TourTravelMetricEvent.class, new MetricEventCodec<>(){
+			@Override
+			public void write(final TourTravelMetricEvent event, final JournalContext context, final ByteBuffer buffer){
+				context.putElement(buffer, event.getElement());
+				context.putPosition(buffer, event.getNewValue().getLeft());
+				context.putChargingStop(buffer, event.getNewValue().getRight());
+			}
+			
+			@Override
+			public TourTravelMetricEvent read(final JournalContext context, final double time, final ByteBuffer buffer){
+				final var charger = context.getElement(buffer, Charger.class);
+				final var position = context.getPosition(buffer);
+				return new TourTravelMetricEvent(context.getEnvironment(), time, charger, new ImmutablePair<>(position, context.getChargingStop(buffer)));
+			}
+		});
+		register(TourTravelBaseMetricEvent.class, new MetricEventCodec<>(){
+			@Override
+			public void write(final TourTravelBaseMetricEvent event, final JournalContext context, final ByteBuffer buffer){
+				context.putElement(buffer, event.getElement());
+				context.putPosition(buffer, event.getNewValue().getLeft());
+				context.putPosition(buffer, event.getNewValue().getRight());
+			}
+			
+			@Override
+			public TourTravelBaseMetricEvent read(final JournalContext context, final double time, final ByteBuffer buffer){
+				final var charger = context.getElement(buffer, Charger.class);
+				final var from = context.getPosition(buffer);
+				return new TourTravelBaseMetricEvent(context.getEnvironment(), time, charger, new ImmutablePair<>(from, context.getPosition(buffer)));
+			}
+		});
+		register(RoutingRoundMetricEvent.class, new MetricEventCodec<>(){
+			@Override
+			public void write(final RoutingRoundMetricEvent event, final JournalContext context, final ByteBuffer buffer){
+				context.putElement(buffer, event.getElement());
+				buffer.put((byte) (event.getNewValue() ? 1 : 0));
+				buffer.putLong(event.getRoutingRound());
+				buffer.putInt(event.getRequestingSensorCount());
+				buffer.putInt(event.getTourCount());
+				buffer.putInt(event.getStopCount());
+				buffer.putInt(event.getSolverAttempts());
+				buffer.putInt(event.getTimeouts());
+				buffer.putInt(event.getFallbacks());
+				buffer.putLong(event.getWallNanos());
+			}
+			
+			@Override
+			public RoutingRoundMetricEvent read(final JournalContext context, final double time, final ByteBuffer buffer){
+				return new RoutingRoundMetricEvent(context.getEnvironment(), time, context.getElement(buffer, Router.class), buffer.get() != 0, buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getLong());
+			}
+		});
+		register(SolverAttemptMetricEvent.class, new MetricEventCodec<>(){
+			@Override
+			public void write(final SolverAttemptMetricEvent event, final JournalContext context, final ByteBuffer buffer){
+				context.putElement(buffer, event.getElement());
+				buffer.putDouble(event.getNewValue());
+				buffer.putLong(event.getRoutingRound());
+				context.putString(buffer, event.getSolverName());
+				buffer.putInt(event.getStopCount());
+				buffer.putInt(event.getAttempt());
+				buffer.putLong(event.getWallNanos());
+				buffer.put((byte) (event.isTimedOut() ? 1 : 0));
+			}
+			
+			@Override
+			public SolverAttemptMetricEvent read(final JournalContext context, final double time, final ByteBuffer buffer){
+				return new SolverAttemptMetricEvent(context.getEnvironment(), time, context.getElement(buffer, Charger.class), buffer.getDouble(), buffer.getLong(), context.getString(buffer), buffer.getInt(), buffer.getInt(), buffer.getLong(), buffer.get() != 0);
+			}
+		});
+	}
+	
+	/**
+	 * Builds an event from the values read.
+	 *
+	 * @param <E> The type of the element of the event.
+	 * @param <V> The type of the value of the event.
+	 * @param <T> The type of the event.
+	 */
+	@FunctionalInterface
+	private interface EventFactory<E, V, T>{
+		/**
+		 * Build the event.
+		 *
+		 * @param environment The environment.
+		 * @param time        The time of the event.
+		 * @param element     The element of the event.
+		 * @param value       The value of the event.
+		 *
+		 * @return The event.
+		 */
+		T create(Environment environment, double time, E element, V value);
+	}
+	
+	/**
+	 * Builds an event without value from the values read.
+	 *
+	 * @param <E> The type of the element of the event.
+	 * @param <T> The type of the event.
+	 */
+	@FunctionalInterface
+	private interface ElementEventFactory<E, T>{
+		/**
+		 * Build the event.
+		 *
+		 * @param environment The environment.
+		 * @param time        The time of the event.
+		 * @param element     The element of the event.
+		 *
+		 * @return The event.
+		 */
+		T create(Environment environment, double time, E element);
+	}
+	
+	private MetricEventCodecs(){
+	}
+	
+	/**
+	 * Register the codec of a type of event.
+	 *
+	 * @param eventClass The type of the event.
+	 * @param codec      The codec.
+	 * @param <T>        The type of the event.
+	 */
+	private static <T extends MetricEvent> void register(final Class<T> eventClass, final MetricEventCodec<T> codec){
+		CODECS.put(eventClass, codec);
+	}
+	
+	/**
+	 * Build a codec for events made of an element and a double value.
+	 *
+	 * @param elementClass The class of the element.
+	 * @param factory      How to build the event.
+	 * @param <E>          The type of the element.
+	 * @param <T>          The type of the event.
+	 *
+	 * @return The codec.
+	 */
+	private static <E extends Identifiable, T extends IdentifiableMetricEvent<Double, E>> MetricEventCodec<T> doubleValue(final Class<E> elementClass, final EventFactory<E, Double, T> factory){
+		return new MetricEventCodec<>(){
+			@Override
+			public void write(final T event, final JournalContext context, final ByteBuffer buffer){
+				context.putElement(buffer, event.getElement());
+				buffer.putDouble(event.getNewValue());
+			}
+			
+			@Override
+			public T read(final JournalContext context, final double time, final ByteBuffer buffer){
+				final var element = context.getElement(buffer, elementClass);
+				return factory.create(context.getEnvironment(), time, element, buffer.getDouble());
+			}
+		};
+	}
+	
+	/**
+	 * Build a codec for events made of an element only.
+	 *
+	 * @param elementClass The class of the element.
+	 * @param factory      How to build the event.
+	 * @param <E>          The type of the element.
+	 * @param <T>          The type of the event.
+	 *
+	 * @return The codec.
+	 */
+	private static <E extends Identifiable, T extends IdentifiableMetricEvent<?, E>> MetricEventCodec<T> elementOnly(final Class<E> elementClass, final ElementEventFactory<E, T> factory){
+		return new MetricEventCodec<>(){
+			@Override
+			public void write(final T event, final JournalContext context, final ByteBuffer buffer){
+				context.putElement(buffer, event.getElement());
+			}
+			
+			@Override
+			public T read(final JournalContext context, final double time, final ByteBuffer buffer){
+				return factory.create(context.getEnvironment(), time, context.getElement(buffer, elementClass));
+			}
+		};
+	}
+	
+	/**
+	 * Build a codec for events made of a charger and a charging stop.
+	 *
+	 * @param factory How to build the event.
+	 * @param <T>     The type of the event.
+	 *
+	 * @return The codec.
+	 */
+	private static <T extends IdentifiableMetricEvent<ChargingStop, Charger>> MetricEventCodec<T> chargingStopValue(final EventFactory<Charger, ChargingStop, T> factory){
+		return new MetricEventCodec<>(){
+			@Override
+			public void write(final T event, final JournalContext context, final ByteBuffer buffer){
+				context.putElement(buffer, event.getElement());
+				context.putChargingStop(buffer, event.getNewValue());
+			}
+			
+			@Override
+			public T read(final JournalContext context, final double time, final ByteBuffer buffer){
+				final var charger = context.getElement(buffer, Charger.class);
+				return factory.create(context.getEnvironment(), time, charger, context.getChargingStop(buffer));
+			}
+		};
+	}
+	
+	/**
+	 * Get the type of event whose codec is used to write an event of a class.
+	 *
+	 * @param eventClass The class of the event.
+	 *
+	 * @return The type having a codec, empty if the event can't be written.
+	 */
+	public static Optional<Class<? extends MetricEvent>> getCodecClass(final Class<? extends MetricEvent> eventClass){
+		return RESOLVED.computeIfAbsent(eventClass, klass -> {
+			for(Class<?> current = klass; Objects.nonNull(current) && MetricEvent.class.isAssignableFrom(current); current = current.getSuperclass()){
+				if(CODECS.containsKey(current)){
+					return Optional.of(current.asSubclass(MetricEvent.class));
+				}
+			}
+			return Optional.empty();
+		});
+	}
+	
+	/**
+	 * Get the codec of a type of event.
+	 *
+	 * @param eventClass The type of event, as returned by {@link #getCodecClass(Class)}.
+	 * @param <T>        The type of the event.
+	 *
+	 * @return The codec.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T extends MetricEvent> MetricEventCodec<T> getCodec(final Class<? extends MetricEvent> eventClass){
+		return (MetricEventCodec<T>) CODECS.get(eventClass);
+	}
+	
+	/**
+	 * Get the types of events having a codec.
+	 *
+	 * @return The types of events.
+	 */
+	static Set<Class<? extends MetricEvent>> getCodecClasses(){
+		return Collections.unmodifiableSet(CODECS.keySet());
+	}
+}
@@ -0,0 +1,318 @@
+package fr.mrcraftcod.simulator.metrics.journal;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.chargers.Charger;
+import fr.mrcraftcod.simulator.metrics.IdentifiableMetricEvent;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.events.SensorCapacityMetricEvent;
+import fr.mrcraftcod.simulator.positions.Position;
+import fr.mrcraftcod.simulator.rault.metrics.events.*;
+import fr.mrcraftcod.simulator.rault.routing.ChargingStop;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import fr.mrcraftcod.simulator.utils.Identifiable;
+import java.util.*;
+
+/**
+ * The state of the elements of a recorded run at some point, as needed to draw it: capacities and requests of the sensors, positions, activities and planned stops of the chargers.
+ * <p>
+ * The state is built by applying the events of the recording one after the other.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-14.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-14
+ */
+public class RecordingState{
+	private final Map<Sensor, Integer> sensorIndices;
+	private final Map<Charger, Integer> chargerIndices;
+	private final double[] capacities;
+	private final SensorRequest[] requests;
+	private final Position[] positions;
+	private final ChargerActivity[] activities;
+	private final List<List<ChargingStop>> plannedStops;
+	private final Position[] returnPositions;
+	private final ChargingStop[] chargingStops;
+	
+	/**
+	 * The request a sensor is waiting an answer for.
+	 */
+	public enum SensorRequest{
+		NONE, LR, LC
+	}
+	
+	/**
+	 * What a charger is doing.
+	 */
+	public enum ChargerActivity{
+		IDLE, TRAVELLING, CHARGING
+	}
+	
+	/**
+	 * Constructor, with the state of the elements of an environment before any event.
+	 *
+	 * @param environment The environment.
+	 */
+	RecordingState(final Environment environment){
+		final var sensors = environment.getElements(Sensor.class);
+		final var chargers = environment.getElements(Charger.class);
+		this.sensorIndices = new IdentityHashMap<>();
+		this.chargerIndices = new IdentityHashMap<>();
+		this.capacities = new double[sensors.size()];
+		this.requests = new SensorRequest[sensors.size()];
+		this.positions = new Position[chargers.size()];
+		this.activities = new ChargerActivity[chargers.size()];
+		this.plannedStops = new ArrayList<>(chargers.size());
+		this.returnPositions = new Position[chargers.size()];
+		this.chargingStops = new ChargingStop[chargers.size()];
+		for(var i = 0; i < sensors.size(); i++){
+			sensorIndices.put(sensors.get(i), i);
+			capacities[i] = sensors.get(i).getCurrentCapacity();
+			requests[i] = SensorRequest.NONE;
+		}
+		for(var i = 0; i < chargers.size(); i++){
+			chargerIndices.put(chargers.get(i), i);
+			positions[i] = chargers.get(i).getPosition();
+			activities[i] = ChargerActivity.IDLE;
+			plannedStops.add(List.of());
+		}
+	}
+	
+	/**
+	 * Copy constructor.
+	 *
+	 * @param state The state to copy.
+	 */
+	private RecordingState(final RecordingState state){
+		this.sensorIndices = state.sensorIndices;
+		this.chargerIndices = state.chargerIndices;
+		this.capacities = state.capacities.clone();
+		this.requests = state.requests.clone();
+		this.positions = state.positions.clone();
+		this.activities = state.activities.clone();
+		this.plannedStops = new ArrayList<>(state.plannedStops);
+		this.returnPositions = state.returnPositions.clone();
+		this.chargingStops = state.chargingStops.clone();
+	}
+	
+	/**
+	 * Copy this state.
+	 *
+	 * @return A copy that can be modified without changing this state.
+	 */
+	RecordingState copy(){
+		return new RecordingState(this);
+	}
+	
+	/**
+	 * Update the state with an event.
+	 *
+	 * @param event The event.
+	 */
+	public void apply(final MetricEvent event){
+		if(event instanceof SensorCapacityMetricEvent){
+			final var evt = (SensorCapacityMetricEvent) event;
+			getSensorIndex(evt.getElement()).ifPresent(i -> capacities[i] = evt.getNewValue());
+		}
+		else if(event instanceof LrRequestMetricEvent){
+			getSensorIndex(((LrRequestMetricEvent) event).getElement()).ifPresent(i -> requests[i] = SensorRequest.LR);
+		}
+		else if(event instanceof LcRequestMetricEvent){
+			getSensorIndex(((LcRequestMetricEvent) event).getElement()).ifPresent(i -> requests[i] = SensorRequest.LC);
+		}
+		else if(event instanceof SensorChargedMetricEvent){
+			getSensorIndex(((SensorChargedMetricEvent) event).getElement()).ifPresent(i -> requests[i] = SensorRequest.NONE);
+		}
+		else if(event instanceof TourStartMetricEvent){
+			final var evt = (TourStartMetricEvent) event;
+			getChargerIndex(evt.getElement()).ifPresent(i -> {
+				plannedStops.set(i, List.copyOf(evt.getNewValue().getStops()));
+				returnPositions[i] = positions[i];
+			});
+		}
+		else if(event instanceof TourTravelMetricEvent){
+			final var evt = (TourTravelMetricEvent) event;
+			getChargerIndex(evt.getElement()).ifPresent(i -> {
+				final var stops = new ArrayList<>(plannedStops.get(i));
+				stops.remove(evt.getNewValue().getRight());
+				plannedStops.set(i, stops);
+				positions[i] = evt.getNewValue().getRight().getStopLocation().getPosition();
+				activities[i] = ChargerActivity.TRAVELLING;
+			});
+		}
+		else if(event instanceof TourTravelBaseMetricEvent){
+			final var evt = (TourTravelBaseMetricEvent) event;
+			getChargerIndex(evt.getElement()).ifPresent(i -> {
+				returnPositions[i] = null;
+				positions[i] = evt.getNewValue().getRight();
+				activities[i] = ChargerActivity.TRAVELLING;
+			});
+		}
+		else if(event instanceof TourTravelEndMetricEvent){
+			getChargerIndex(((TourTravelEndMetricEvent) event).getElement()).ifPresent(i -> activities[i] = ChargerActivity.IDLE);
+		}
+		else if(event instanceof TourChargeMetricEvent){
+			final var evt = (TourChargeMetricEvent) event;
+			getChargerIndex(evt.getElement()).ifPresent(i -> {
+				activities[i] = ChargerActivity.CHARGING;
+				chargingStops[i] = evt.getNewValue();
+			});
+		}
+		else if(event instanceof TourChargeEndMetricEvent){
+			getChargerIndex(((TourChargeEndMetricEvent) event).getElement()).ifPresent(i -> {
+				activities[i] = ChargerActivity.IDLE;
+				chargingStops[i] = null;
+			});
+		}
+		else if(event instanceof TourEndMetricEvent){
+			getChargerIndex(((TourEndMetricEvent) event).getElement()).ifPresent(i -> {
+				activities[i] = ChargerActivity.IDLE;
+				plannedStops.set(i, List.of());
+				returnPositions[i] = null;
+			});
+		}
+	}
+	
+	/**
+	 * Write the capacities of the sensors and the positions of the chargers in the elements.
+	 */
+	public void restore(){
+		sensorIndices.forEach(this::restore);
+		chargerIndices.forEach(this::restore);
+	}
+	
+	/**
+	 * Write the capacity or the position of the element of an event in the element.
+	 *
+	 * @param event The event.
+	 */
+	public void restore(final MetricEvent event){
+		if(event instanceof IdentifiableMetricEvent){
+			final Identifiable element = ((IdentifiableMetricEvent<?, ?>) event).getElement();
+			if(element instanceof Sensor){
+				getSensorIndex((Sensor) element).ifPresent(i -> restore((Sensor) element, i));
+			}
+			else if(element instanceof Charger){
+				getChargerIndex((Charger) element).ifPresent(i -> restore((Charger) element, i));
+			}
+		}
+	}
+	
+	/**
+	 * Write the capacity of a sensor.
+	 *
+	 * @param sensor The sensor.
+	 * @param index  The index of the sensor.
+	 */
+	private void restore(final Sensor sensor, final int index){
+		sensor.setCurrentCapacity(capacities[index]);
+	}
+	
+	/**
+	 * Write the position of a charger.
+	 *
+	 * @param charger The charger.
+	 * @param index   The index of the charger.
+	 */
+	private void restore(final Charger charger, final int index){
+		charger.setPosition(positions[index]);
+	}
+	
+	/**
+	 * Get the index of a sensor.
+	 *
+	 * @param sensor The sensor.
+	 *
+	 * @return Its index, empty if it isn't tracked.
+	 */
+	private Optional<Integer> getSensorIndex(final Sensor sensor){
+		return Optional.ofNullable(sensorIndices.get(sensor));
+	}
+	
+	/**
+	 * Get the index of a charger.
+	 *
+	 * @param charger The charger.
+	 *
+	 * @return Its index, empty if it isn't tracked.
+	 */
+	private Optional<Integer> getChargerIndex(final Charger charger){
+		return Optional.ofNullable(chargerIndices.get(charger));
+	}
+	
+	/**
+	 * Get the capacity of a sensor.
+	 *
+	 * @param sensor The sensor.
+	 *
+	 * @return The capacity.
+	 */
+	public double getCapacity(final Sensor sensor){
+		return getSensorIndex(sensor).map(i -> capacities[i]).orElseGet(sensor::getCurrentCapacity);
+	}
+	
+	/**
+	 * Get the request a sensor is waiting an answer for.
+	 *
+	 * @param sensor The sensor.
+	 *
+	 * @return The request.
+	 */
+	public SensorRequest getRequest(final Sensor sensor){
+		return getSensorIndex(sensor).map(i -> requests[i]).orElse(SensorRequest.NONE);
+	}
+	
+	/**
+	 * Get the position of a charger, its destination if it is travelling.
+	 *
+	 * @param charger The charger.
+	 *
+	 * @return The position.
+	 */
+	public Position getPosition(final Charger charger){
+		return getChargerIndex(charger).map(i -> positions[i]).orElseGet(charger::getPosition);
+	}
+	
+	/**
+	 * Get what a charger is doing.
+	 *
+	 * @param charger The charger.
+	 *
+	 * @return The activity.
+	 */
+	public ChargerActivity getActivity(final Charger charger){
+		return getChargerIndex(charger).map(i -> activities[i]).orElse(ChargerActivity.IDLE);
+	}
+	
+	/**
+	 * Get the stops of its tour a charger didn't travel to yet.
+	 *
+	 * @param charger The charger.
+	 *
+	 * @return The stops, in the order of the tour.
+	 */
+	public List<ChargingStop> getPlannedStops(final Charger charger){
+		return getChargerIndex(charger).map(plannedStops::get).orElse(List.of());
+	}
+	
+	/**
+	 * Get the position a charger will go back to at the end of its tour.
+	 *
+	 * @param charger The charger.
+	 *
+	 * @return The position, empty if the charger isn't in a tour or is already going back.
+	 */
+	public Optional<Position> getReturnPosition(final Charger charger){
+		return getChargerIndex(charger).map(i -> returnPositions[i]);
+	}
+	
+	/**
+	 * Get the stop a charger is charging at.
+	 *
+	 * @param charger The charger.
+	 *
+	 * @return The stop, empty if it isn't charging.
+	 */
+	public Optional<ChargingStop> getChargingStop(final Charger charger){
+		return getChargerIndex(charger).map(i -> chargingStops[i]);
+	}
+}
@@ -0,0 +1,251 @@
+package fr.mrcraftcod.simulator.metrics.journal;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.events.SensorCapacityMetricEvent;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A recorded run loaded from a journal, that can be looked at any simulation time without running the simulation.
+ * <p>
+ * A copy of the {@link RecordingState} is kept every {@link #KEYFRAME_INTERVAL} events, so the state at any time is found with a binary search followed by at most {@link #KEYFRAME_INTERVAL} events applied on a keyframe.
+ * The capacities of each sensor are also kept apart so that charts can be rebuilt without going through every event.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-14.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-14
+ */
+public class RunRecording{
+	static final int KEYFRAME_INTERVAL = 1024;
+	private final Environment environment;
+	private final List<MetricEvent> events;
+	private final double[] times;
+	private final List<RecordingState> keyframes;
+	private final Map<Sensor, CapacityHistory> capacities;
+	
+	/**
+	 * The capacities a sensor went through.
+	 */
+	public static class CapacityHistory{
+		private int[] eventIndices;
+		private double[] times;
+		private double[] values;
+		private int size;
+		
+		/**
+		 * Constructor.
+		 */
+		CapacityHistory(){
+			this.eventIndices = new int[16];
+			this.times = new double[16];
+			this.values = new double[16];
+		}
+		
+		/**
+		 * Add a capacity.
+		 *
+		 * @param eventIndex The index of the event in the recording.
+		 * @param time       The time of the event.
+		 * @param value      The capacity.
+		 */
+		void add(final int eventIndex, final double time, final double value){
+			if(size == eventIndices.length){
+				eventIndices = Arrays.copyOf(eventIndices, size * 2);
+				times = Arrays.copyOf(times, size * 2);
+				values = Arrays.copyOf(values, size * 2);
+			}
+			eventIndices[size] = eventIndex;
+			times[size] = time;
+			values[size] = value;
+			size++;
+		}
+		
+		/**
+		 * Get the number of capacities recorded before an event.
+		 *
+		 * @param eventIndex The index of the event in the recording.
+		 *
+		 * @return The number of capacities.
+		 */
+		public int getCount(final int eventIndex){
+			final var index = Arrays.binarySearch(eventIndices, 0, size, eventIndex);
+			return index >= 0 ? index : -index - 1;
+		}
+		
+		/**
+		 * Get the time of a capacity.
+		 *
+		 * @param index The index of the capacity.
+		 *
+		 * @return The time.
+		 */
+		public double getTime(final int index){
+			return times[index];
+		}
+		
+		/**
+		 * Get a capacity.
+		 *
+		 * @param index The index of the capacity.
+		 *
+		 * @return The capacity.
+		 */
+		public double getValue(final int index){
+			return values[index];
+		}
+		
+		/**
+		 * Get the number of capacities.
+		 *
+		 * @return The number of capacities.
+		 */
+		public int size(){
+			return size;
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param environment The environment the events reference.
+	 * @param events      The events, in the order they were dispatched.
+	 */
+	RunRecording(final Environment environment, final List<MetricEvent> events){
+		this.environment = environment;
+		this.events = List.copyOf(events);
+		this.times = new double[events.size()];
+		this.keyframes = new ArrayList<>(events.size() / KEYFRAME_INTERVAL + 1);
+		this.capacities = new IdentityHashMap<>();
+		environment.getElements(Sensor.class).forEach(sensor -> capacities.put(sensor, new CapacityHistory()));
+		final var state = new RecordingState(environment);
+		var time = Double.NEGATIVE_INFINITY;
+		for(var i = 0; i < events.size(); i++){
+			if(i % KEYFRAME_INTERVAL == 0){
+				keyframes.add(state.copy());
+			}
+			final var event = events.get(i);
+			state.apply(event);
+			time = Math.max(time, event.getTime());
+			times[i] = time;
+			if(event instanceof SensorCapacityMetricEvent){
+				final var capacityEvent = (SensorCapacityMetricEvent) event;
+				final var history = capacities.get(capacityEvent.getElement());
+				if(Objects.nonNull(history)){
+					history.add(i, event.getTime(), capacityEvent.getNewValue());
+				}
+			}
+		}
+		if(keyframes.isEmpty()){
+			keyframes.add(state);
+		}
+	}
+	
+	/**
+	 * Load a journal.
+	 *
+	 * @param journal     The path of the journal.
+	 * @param environment The environment the events will reference, with the same elements as the one the journal was written from.
+	 *
+	 * @return The recording.
+	 *
+	 * @throws IOException If the journal couldn't be read.
+	 */
+	public static RunRecording load(final Path journal, final Environment environment) throws IOException{
+		final var events = new ArrayList<MetricEvent>();
+		JournalReplayer.read(journal, environment, events::add);
+		return new RunRecording(environment, events);
+	}
+	
+	/**
+	 * Get the number of events that happened at or before a time.
+	 * Events are dispatched in time order, except the ones dispatched late by the simulation that are counted with the events around them.
+	 *
+	 * @param time The simulation time.
+	 *
+	 * @return The index of the first event after the time.
+	 */
+	public int getIndex(final double time){
+		var low = 0;
+		var high = times.length;
+		while(low < high){
+			final var middle = (low + high) >>> 1;
+			if(times[middle] <= time){
+				low = middle + 1;
+			}
+			else{
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * Get the state before an event.
+	 *
+	 * @param index The index of the event, or the number of events for the state at the end.
+	 *
+	 * @return The state, that can be modified.
+	 */
+	public RecordingState getState(final int index){
+		final var keyframe = Math.min(index / KEYFRAME_INTERVAL, keyframes.size() - 1);
+		final var state = keyframes.get(keyframe).copy();
+		for(var i = keyframe * KEYFRAME_INTERVAL; i < index; i++){
+			state.apply(events.get(i));
+		}
+		return state;
+	}
+	
+	/**
+	 * Get the events between two indices.
+	 *
+	 * @param from The index of the first event.
+	 * @param to   The index after the last event.
+	 *
+	 * @return The events, in the order they were dispatched.
+	 */
+	public List<MetricEvent> getEvents(final int from, final int to){
+		return events.subList(from, to);
+	}
+	
+	/**
+	 * Get the capacities a sensor went through.
+	 *
+	 * @param sensor The sensor.
+	 *
+	 * @return The capacities.
+	 */
+	public Optional<CapacityHistory> getCapacityHistory(final Sensor sensor){
+		return Optional.ofNullable(capacities.get(sensor));
+	}
+	
+	/**
+	 * Get the environment the events reference.
+	 *
+	 * @return The environment.
+	 */
+	public Environment getEnvironment(){
+		return environment;
+	}
+	
+	/**
+	 * Get the number of events.
+	 *
+	 * @return The number of events.
+	 */
+	public int getEventCount(){
+		return events.size();
+	}
+	
+	/**
+	 * Get the time of the last event.
+	 *
+	 * @return The time.
+	 */
+	public double getEndTime(){
+		return times.length == 0 ? 0 : times[times.length - 1];
+	}
+}
@@ -1,6 +1,7 @@
 package fr.mrcraftcod.simulator.metrics.listeners;
 
 import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.metrics.DepletionTracker;
 import fr.mrcraftcod.simulator.metrics.MetricEvent;
 import fr.mrcraftcod.simulator.metrics.MetricEventListener;
 import fr.mrcraftcod.simulator.metrics.events.SensorsCapacityMetricEvent;
@@ -11,14 +12,16 @@ import org.slf4j.LoggerFactory;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.PrintWriter;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * Listen for depleted sensors and write the information into a csv file.
  * <p>
+ * The depletion of each sensor at each tick is rebuilt from the {@link DepletionTracker} of the environment when the listener is closed, only the times of the ticks are kept during the simulation.
+ * <p>
  * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2018-11-22.
  *
  * @author Thomas Couchoud
@@ -27,8 +30,10 @@ import java.util.stream.Collectors;
 public class DepletionMetricEventListener implements MetricEventListener{
 	private static final Logger LOGGER = LoggerFactory.getLogger(DepletionMetricEventListener.class);
 	private final PrintWriter outputFile;
-	private final HashMap<Sensor, Double> totals;
-	private double lastTime = 0D;
+	private final DepletionTracker tracker;
+	private final List<? extends Sensor> sensors;
+	private double[] times;
+	private int timesCount;
 	
 	/**
 	 * Constructor.
@@ -38,7 +43,9 @@ public class DepletionMetricEventListener implements MetricEventListener{
 	 * @throws FileNotFoundException If the file couldn't be opened.
 	 */
 	public DepletionMetricEventListener(final Environment environment) throws FileNotFoundException{
-		totals = new HashMap<>();
+		tracker = environment.getDepletionTracker();
+		sensors = environment.getElements(Sensor.class).stream().sorted().collect(Collectors.toList());
+		times = new double[1024];
 		final var path = MetricEvent.getMetricSaveFolder(environment).resolve("sensor").resolve("depletion.csv");
 		if(!path.getParent().toFile().mkdirs()){
 			LOGGER.error("Couldn't create folder {}", path.getParent().toFile());
@@ -46,28 +53,55 @@ public class DepletionMetricEventListener implements MetricEventListener{
 		outputFile = new PrintWriter(new FileOutputStream(path.toFile()));
 		outputFile.print("time");
 		outputFile.print(CSV_SEPARATOR);
-		outputFile.println(environment.getElements(Sensor.class).stream().sorted().map(Identifiable::getUniqueIdentifier).collect(Collectors.joining(CSV_SEPARATOR)));
+		outputFile.println(sensors.stream().map(Identifiable::getUniqueIdentifier).collect(Collectors.joining(CSV_SEPARATOR)));
 		outputFile.flush();
 	}
 	
+	@Override
+	public Collection<Class<? extends MetricEvent>> getSubscribedEvents(){
+		return List.of(SensorsCapacityMetricEvent.class);
+	}
+	
 	@Override
 	public void onEvent(final MetricEvent event){
 		if(event instanceof SensorsCapacityMetricEvent){
-			final var evt = (SensorsCapacityMetricEvent) event;
-			outputFile.print(evt.getTime());
-			outputFile.print(CSV_SEPARATOR);
-			outputFile.println(event.getEnvironment().getElements(Sensor.class).stream().sorted().map(s -> s.getCurrentCapacity() > 0 ? "0" : "1").collect(Collectors.joining(CSV_SEPARATOR)));
-			outputFile.flush();
-			event.getEnvironment().getElements(Sensor.class).forEach(s -> totals.put(s, totals.getOrDefault(s, 0D) + (event.getTime() - lastTime) * (s.getCurrentCapacity() > 0 ? 0 : 1)));
-			lastTime = event.getTime();
+			if(timesCount == times.length){
+				times = Arrays.copyOf(times, timesCount * 2);
+			}
+			times[timesCount++] = event.getTime();
 		}
 	}
 	
 	@Override
 	public void close(){
+		final var intervals = sensors.stream().map(sensor -> tracker.getIntervals(sensor).orElse(null)).collect(Collectors.toList());
+		final var positions = new int[sensors.size()];
+		final var row = new StringBuilder();
+		for(var i = 0; i < timesCount; i++){
+			final var time = times[i];
+			row.setLength(0);
+			for(var j = 0; j < intervals.size(); j++){
+				final var sensorIntervals = intervals.get(j);
+				var depleted = false;
+				if(sensorIntervals != null){
+					while(positions[j] < sensorIntervals.size() && sensorIntervals.getEnd(positions[j]) <= time){
+						positions[j]++;
+					}
+					depleted = positions[j] < sensorIntervals.size() && sensorIntervals.getStart(positions[j]) <= time;
+				}
+				if(j > 0){
+					row.append(CSV_SEPARATOR);
+				}
+				row.append(depleted ? "1" : "0");
+			}
+			outputFile.print(time);
+			outputFile.print(CSV_SEPARATOR);
+			outputFile.println(row);
+		}
+		final var end = timesCount > 0 ? times[timesCount - 1] : 0;
 		outputFile.print("total");
 		outputFile.print(CSV_SEPARATOR);
-		outputFile.println(totals.entrySet().stream().sorted(Comparator.comparing(Map.Entry::getKey)).map(s -> "" + s.getValue()).collect(Collectors.joining(CSV_SEPARATOR)));
+		outputFile.println(sensors.stream().map(sensor -> "" + tracker.getDepletedTime(sensor, end)).collect(Collectors.joining(CSV_SEPARATOR)));
 		outputFile.close();
 	}
 }
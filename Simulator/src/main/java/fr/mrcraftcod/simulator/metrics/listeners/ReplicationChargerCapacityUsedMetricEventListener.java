@@ -7,13 +7,12 @@ import fr.mrcraftcod.simulator.metrics.MetricEventListener;
 import fr.mrcraftcod.simulator.rault.metrics.events.ChargerDischargedMetricEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.StandardOpenOption;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 
 /**
- * Saves the used capacity of the chargers in a file.
+ * Saves the used capacity of the chargers in the results of the replication.
  *
  * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2018-11-22.
  *
@@ -37,6 +36,11 @@ public class ReplicationChargerCapacityUsedMetricEventListener implements Metric
 		totals = new HashMap<>();
 	}
 	
+	@Override
+	public Collection<Class<? extends MetricEvent>> getSubscribedEvents(){
+		return List.of(ChargerDischargedMetricEvent.class);
+	}
+	
 	@Override
 	public void onEvent(final MetricEvent event){
 		if(event instanceof ChargerDischargedMetricEvent){
@@ -47,13 +51,8 @@ public class ReplicationChargerCapacityUsedMetricEventListener implements Metric
 	@Override
 	public void close(){
 		if(!isClosed){
-			try{
-				Files.write(MetricEvent.getAllMetricSaveFolder(environment).resolve("usedCapacityChargers.txt"), (totals.values().stream().mapToDouble(d -> d).sum() + "\n").getBytes(), StandardOpenOption.APPEND, StandardOpenOption.CREATE);
-				isClosed = true;
-			}
-			catch(final IOException e){
-				e.printStackTrace();
-			}
+			environment.getResults().put("usedCapacityChargers", totals.values().stream().mapToDouble(d -> d).sum());
+			isClosed = true;
 		}
 	}
 }
@@ -8,13 +8,12 @@ import fr.mrcraftcod.simulator.rault.metrics.events.TourChargeMetricEvent;
 import fr.mrcraftcod.simulator.rault.metrics.events.TourTravelEndMetricEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.StandardOpenOption;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 
 /**
- * Saves the inactive times of the chargers in a file.
+ * Saves the inactive times of the chargers in the results of the replication.
  *
  * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2018-11-22.
  *
@@ -40,6 +39,14 @@ public class ReplicationTotalChargerInactiveTimeMetricEventListener implements M
 		lastTravelEnd = new HashMap<>();
 	}
 	
+	@Override
+	public Collection<Class<? extends MetricEvent>> getSubscribedEvents(){
+		return List.of(
+				TourTravelEndMetricEvent.class,
+				TourChargeMetricEvent.class
+		);
+	}
+	
 	@Override
 	public void onEvent(final MetricEvent event){
 		if(event instanceof TourTravelEndMetricEvent){
@@ -53,13 +60,8 @@ public class ReplicationTotalChargerInactiveTimeMetricEventListener implements M
 	@Override
 	public void close(){
 		if(!isClosed){
-			try{
-				Files.write(MetricEvent.getAllMetricSaveFolder(environment).resolve("inactiveChargeChargers.txt"), (totals.values().stream().mapToDouble(d -> d).sum() + "\n").getBytes(), StandardOpenOption.APPEND, StandardOpenOption.CREATE);
-				isClosed = true;
-			}
-			catch(final IOException e){
-				e.printStackTrace();
-			}
+			environment.getResults().put("inactiveChargeChargers", totals.values().stream().mapToDouble(d -> d).sum());
+			isClosed = true;
 		}
 	}
 }
@@ -0,0 +1,100 @@
+package fr.mrcraftcod.simulator.metrics.listeners;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.MetricEventListener;
+import fr.mrcraftcod.simulator.rault.metrics.events.RoutingRoundMetricEvent;
+import fr.mrcraftcod.simulator.rault.metrics.events.SolverAttemptMetricEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes the routing rounds and the solver attempts into csv files, and adds their totals to the results of the replication.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-12.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-12
+ */
+@SuppressWarnings("unused")
+public class RoutingTelemetryMetricEventListener implements MetricEventListener{
+	private static final Logger LOGGER = LoggerFactory.getLogger(RoutingTelemetryMetricEventListener.class);
+	private final Environment environment;
+	private final PrintWriter roundsFile;
+	private final PrintWriter solversFile;
+	private int routedRounds;
+	private int refusedRounds;
+	private int solverAttempts;
+	private int solverTimeouts;
+	private int solverFallbacks;
+	private long solverNanos;
+	private boolean isClosed = false;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param environment The environment.
+	 *
+	 * @throws FileNotFoundException If the files couldn't be opened.
+	 */
+	public RoutingTelemetryMetricEventListener(final Environment environment) throws FileNotFoundException{
+		this.environment = environment;
+		final var folder = MetricEvent.getMetricSaveFolder(environment).resolve("routing");
+		if(!folder.toFile().mkdirs()){
+			LOGGER.error("Couldn't create folder {}", folder.toFile());
+		}
+		roundsFile = new PrintWriter(new FileOutputStream(folder.resolve("rounds.csv").toFile()));
+		roundsFile.println(String.join(CSV_SEPARATOR, "time", "router", "round", "routed", "requestingSensors", "tours", "stops", "solverAttempts", "timeouts", "fallbacks", "wallNanos"));
+		solversFile = new PrintWriter(new FileOutputStream(folder.resolve("solvers.csv").toFile()));
+		solversFile.println(String.join(CSV_SEPARATOR, "time", "charger", "round", "solver", "stops", "attempt", "timedOut", "solved", "objective", "wallNanos"));
+	}
+	
+	@Override
+	public Collection<Class<? extends MetricEvent>> getSubscribedEvents(){
+		return List.of(RoutingRoundMetricEvent.class, SolverAttemptMetricEvent.class);
+	}
+	
+	@Override
+	public void onEvent(final MetricEvent event){
+		if(event instanceof RoutingRoundMetricEvent){
+			final var evt = (RoutingRoundMetricEvent) event;
+			if(evt.getNewValue()){
+				routedRounds++;
+				solverFallbacks += evt.getFallbacks();
+			}
+			else{
+				refusedRounds++;
+			}
+			roundsFile.println(String.join(CSV_SEPARATOR, "" + evt.getTime(), evt.getElement().getUniqueIdentifier(), "" + evt.getRoutingRound(), "" + evt.getNewValue(), "" + evt.getRequestingSensorCount(), "" + evt.getTourCount(), "" + evt.getStopCount(), "" + evt.getSolverAttempts(), "" + evt.getTimeouts(), "" + evt.getFallbacks(), "" + evt.getWallNanos()));
+		}
+		else if(event instanceof SolverAttemptMetricEvent){
+			final var evt = (SolverAttemptMetricEvent) event;
+			solverAttempts++;
+			solverNanos += evt.getWallNanos();
+			if(evt.isTimedOut()){
+				solverTimeouts++;
+			}
+			solversFile.println(String.join(CSV_SEPARATOR, "" + evt.getTime(), evt.getElement().getUniqueIdentifier(), "" + evt.getRoutingRound(), evt.getSolverName(), "" + evt.getStopCount(), "" + evt.getAttempt(), "" + evt.isTimedOut(), "" + evt.isSolved(), "" + evt.getNewValue(), "" + evt.getWallNanos()));
+		}
+	}
+	
+	@Override
+	public void close(){
+		if(!isClosed){
+			isClosed = true;
+			environment.getResults().put("routedRounds", routedRounds);
+			environment.getResults().put("refusedRounds", refusedRounds);
+			environment.getResults().put("solverAttempts", solverAttempts);
+			environment.getResults().put("solverTimeouts", solverTimeouts);
+			environment.getResults().put("solverFallbacks", solverFallbacks);
+			environment.getResults().put("solverSeconds", solverNanos / 1e9);
+			roundsFile.close();
+			solversFile.close();
+		}
+	}
+}
@@ -4,6 +4,9 @@ import fr.mrcraftcod.simulator.Environment;
 import fr.mrcraftcod.simulator.metrics.MetricEvent;
 import fr.mrcraftcod.simulator.metrics.MetricEventListener;
 import fr.mrcraftcod.simulator.metrics.events.SensorsCapacityMetricEvent;
+import fr.mrcraftcod.simulator.metrics.recording.RecordingPolicy;
+import fr.mrcraftcod.simulator.metrics.recording.SampleConsumer;
+import fr.mrcraftcod.simulator.metrics.recording.SeriesSampler;
 import fr.mrcraftcod.simulator.sensors.Sensor;
 import fr.mrcraftcod.simulator.utils.Identifiable;
 import org.slf4j.Logger;
@@ -11,12 +14,18 @@ import org.slf4j.LoggerFactory;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.PrintWriter;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
  * Listen for sensor's capacity and write them into a csv file.
  * <p>
+ * By default the capacities of all the sensors are written at every tick, one column per sensor.
+ * If a {@link RecordingPolicy} is configured for this listener, only the samples it keeps are written, one line per sample with the time, the sensor and its capacity.
+ * <p>
  * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2018-11-22.
  *
  * @author Thomas Couchoud
@@ -26,6 +35,9 @@ import java.util.stream.Collectors;
 public class SensorCapacityMetricEventListener implements MetricEventListener{
 	private static final Logger LOGGER = LoggerFactory.getLogger(SensorCapacityMetricEventListener.class);
 	private final PrintWriter outputFile;
+	private final List<? extends Sensor> sensors;
+	private final SeriesSampler[] samplers;
+	private final SampleConsumer[] consumers;
 	
 	/**
 	 * Constructor.
@@ -40,25 +52,68 @@ public class SensorCapacityMetricEventListener implements MetricEventListener{
 			LOGGER.error("Couldn't create folder {}", path.getParent().toFile());
 		}
 		outputFile = new PrintWriter(new FileOutputStream(path.toFile()));
-		outputFile.print("time");
-		outputFile.print(CSV_SEPARATOR);
-		outputFile.println(environment.getElements(Sensor.class).stream().map(Identifiable::getUniqueIdentifier).sorted().collect(Collectors.joining(CSV_SEPARATOR)));
+		sensors = environment.getElements(Sensor.class).stream().sorted(Comparator.comparing(Identifiable::getUniqueIdentifier)).collect(Collectors.toList());
+		final var policy = environment.getRecordingPolicy(SensorCapacityMetricEventListener.class);
+		if(policy.isPresent()){
+			samplers = new SeriesSampler[sensors.size()];
+			consumers = new SampleConsumer[sensors.size()];
+			for(var i = 0; i < sensors.size(); i++){
+				final var identifier = sensors.get(i).getUniqueIdentifier();
+				samplers[i] = policy.get().createSampler();
+				consumers[i] = (time, value) -> {
+					outputFile.print(time);
+					outputFile.print(CSV_SEPARATOR);
+					outputFile.print(identifier);
+					outputFile.print(CSV_SEPARATOR);
+					outputFile.println(value);
+				};
+			}
+			outputFile.print("time");
+			outputFile.print(CSV_SEPARATOR);
+			outputFile.print("sensor");
+			outputFile.print(CSV_SEPARATOR);
+			outputFile.println("capacity");
+		}
+		else{
+			samplers = null;
+			consumers = null;
+			outputFile.print("time");
+			outputFile.print(CSV_SEPARATOR);
+			outputFile.println(sensors.stream().map(Identifiable::getUniqueIdentifier).collect(Collectors.joining(CSV_SEPARATOR)));
+		}
 		outputFile.flush();
 	}
 	
+	@Override
+	public Collection<Class<? extends MetricEvent>> getSubscribedEvents(){
+		return List.of(SensorsCapacityMetricEvent.class);
+	}
+	
 	@Override
 	public void onEvent(final MetricEvent event){
 		if(event instanceof SensorsCapacityMetricEvent){
 			final var evt = (SensorsCapacityMetricEvent) event;
-			outputFile.print(evt.getTime());
-			outputFile.print(CSV_SEPARATOR);
-			outputFile.println(event.getEnvironment().getElements(Sensor.class).stream().sorted(Comparator.comparing(Identifiable::getUniqueIdentifier)).map(s -> "" + s.getCurrentCapacity()).collect(Collectors.joining(CSV_SEPARATOR)));
+			if(Objects.nonNull(samplers)){
+				for(var i = 0; i < samplers.length; i++){
+					samplers[i].accept(evt.getTime(), sensors.get(i).getCurrentCapacity(), consumers[i]);
+				}
+			}
+			else{
+				outputFile.print(evt.getTime());
+				outputFile.print(CSV_SEPARATOR);
+				outputFile.println(sensors.stream().map(s -> "" + s.getCurrentCapacity()).collect(Collectors.joining(CSV_SEPARATOR)));
+			}
 			outputFile.flush();
 		}
 	}
 	
 	@Override
 	public void close(){
+		if(Objects.nonNull(samplers)){
+			for(var i = 0; i < samplers.length; i++){
+				samplers[i].flush(consumers[i]);
+			}
+		}
 		outputFile.close();
 	}
 }
@@ -0,0 +1,104 @@
+package fr.mrcraftcod.simulator.metrics.recording;
+
+/**
+ * Base of the samplers, keeping the last sample offered and the last sample recorded.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-15.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-15
+ */
+abstract class AbstractSeriesSampler implements SeriesSampler{
+	private boolean started;
+	private double lastTime;
+	private double lastValue;
+	private double recordedTime;
+	private double recordedValue;
+	
+	@Override
+	public final void accept(final double time, final double value, final SampleConsumer consumer){
+		if(started){
+			sample(time, value, consumer);
+		}
+		else{
+			started = true;
+			record(time, value, consumer);
+		}
+		lastTime = time;
+		lastValue = value;
+	}
+	
+	@Override
+	public void flush(final SampleConsumer consumer){
+		if(started && !isLastRecorded()){
+			record(lastTime, lastValue, consumer);
+		}
+	}
+	
+	/**
+	 * Handle a sample that isn't the first of the series.
+	 *
+	 * @param time     The time of the sample.
+	 * @param value    The value of the sample.
+	 * @param consumer The consumer of the samples recorded.
+	 */
+	protected abstract void sample(double time, double value, SampleConsumer consumer);
+	
+	/**
+	 * Record a sample.
+	 *
+	 * @param time     The time of the sample.
+	 * @param value    The value of the sample.
+	 * @param consumer The consumer of the samples recorded.
+	 */
+	protected void record(final double time, final double value, final SampleConsumer consumer){
+		consumer.accept(time, value);
+		recordedTime = time;
+		recordedValue = value;
+	}
+	
+	/**
+	 * Get if the previous sample offered was recorded.
+	 *
+	 * @return True if recorded.
+	 */
+	protected boolean isLastRecorded(){
+		return recordedTime == lastTime;
+	}
+	
+	/**
+	 * Get the time of the previous sample offered.
+	 *
+	 * @return The time.
+	 */
+	protected double getLastTime(){
+		return lastTime;
+	}
+	
+	/**
+	 * Get the value of the previous sample offered.
+	 *
+	 * @return The value.
+	 */
+	protected double getLastValue(){
+		return lastValue;
+	}
+	
+	/**
+	 * Get the time of the last sample recorded.
+	 *
+	 * @return The time.
+	 */
+	protected double getRecordedTime(){
+		return recordedTime;
+	}
+	
+	/**
+	 * Get the value of the last sample recorded.
+	 *
+	 * @return The value.
+	 */
+	protected double getRecordedValue(){
+		return recordedValue;
+	}
+}
@@ -0,0 +1,47 @@
+package fr.mrcraftcod.simulator.metrics.recording;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Records a sample when its value moved by more than epsilon from the last value recorded.
+ * Holding the last recorded value until the next one gives the series within epsilon.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-15.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-15
+ */
+public class DeadbandPolicy implements RecordingPolicy{
+	private final double epsilon;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param epsilon The width of the deadband.
+	 *
+	 * @throws IllegalArgumentException If epsilon is negative.
+	 */
+	public DeadbandPolicy(final double epsilon){
+		if(!(epsilon >= 0)){
+			throw new IllegalArgumentException("Epsilon must be positive");
+		}
+		this.epsilon = epsilon;
+	}
+	
+	@Override
+	public SeriesSampler createSampler(){
+		return new AbstractSeriesSampler(){
+			@Override
+			protected void sample(final double time, final double value, final SampleConsumer consumer){
+				if(Math.abs(value - getRecordedValue()) > epsilon){
+					record(time, value, consumer);
+				}
+			}
+		};
+	}
+	
+	@Override
+	public String toString(){
+		return new ToStringBuilder(this).append("epsilon", epsilon).toString();
+	}
+}
@@ -0,0 +1,48 @@
+package fr.mrcraftcod.simulator.metrics.recording;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Records one sample every k samples.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-15.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-15
+ */
+public class EveryKthTickPolicy implements RecordingPolicy{
+	private final int k;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param k The number of samples between two recorded ones.
+	 *
+	 * @throws IllegalArgumentException If k isn't positive.
+	 */
+	public EveryKthTickPolicy(final int k){
+		if(k <= 0){
+			throw new IllegalArgumentException("k must be positive");
+		}
+		this.k = k;
+	}
+	
+	@Override
+	public SeriesSampler createSampler(){
+		return new AbstractSeriesSampler(){
+			private long count;
+			
+			@Override
+			protected void sample(final double time, final double value, final SampleConsumer consumer){
+				if(++count % k == 0){
+					record(time, value, consumer);
+				}
+			}
+		};
+	}
+	
+	@Override
+	public String toString(){
+		return new ToStringBuilder(this).append("k", k).toString();
+	}
+}
@@ -0,0 +1,59 @@
+package fr.mrcraftcod.simulator.metrics.recording;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Records only the samples where the slope of the series changes.
+ * Interpolating linearly between the recorded samples gives back every sample of the series, within the tolerance.
+ * <p>
+ * A sample is known to be a slope change only when the next one is offered, so samples are recorded one sample late.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-15.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-15
+ */
+public class PiecewiseLinearPolicy implements RecordingPolicy{
+	/**
+	 * The default tolerance, absorbing the rounding of the values.
+	 */
+	public static final double DEFAULT_TOLERANCE = 1e-9;
+	private final double tolerance;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param tolerance The difference allowed between a sample and the current segment for it to be considered on the segment.
+	 *
+	 * @throws IllegalArgumentException If the tolerance is negative.
+	 */
+	public PiecewiseLinearPolicy(final double tolerance){
+		if(!(tolerance >= 0)){
+			throw new IllegalArgumentException("Tolerance must be positive");
+		}
+		this.tolerance = tolerance;
+	}
+	
+	@Override
+	public SeriesSampler createSampler(){
+		return new AbstractSeriesSampler(){
+			private double slope;
+			
+			@Override
+			protected void sample(final double time, final double value, final SampleConsumer consumer){
+				if(isLastRecorded()){
+					slope = (value - getRecordedValue()) / (time - getRecordedTime());
+				}
+				else if(Math.abs(value - (getRecordedValue() + slope * (time - getRecordedTime()))) > tolerance){
+					record(getLastTime(), getLastValue(), consumer);
+					slope = (value - getLastValue()) / (time - getLastTime());
+				}
+			}
+		};
+	}
+	
+	@Override
+	public String toString(){
+		return new ToStringBuilder(this).append("tolerance", tolerance).toString();
+	}
+}
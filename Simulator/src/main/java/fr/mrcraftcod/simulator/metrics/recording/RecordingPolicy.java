@@ -0,0 +1,71 @@
+package fr.mrcraftcod.simulator.metrics.recording;
+
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Defines which samples of a time series a metric listener records.
+ * <p>
+ * Policies are declared per listener class in the {@code "recording"} object of the configuration, for example:
+ * <pre>
+ * "recording": {
+ *     "fr.mrcraftcod.simulator.metrics.listeners.SensorCapacityMetricEventListener": {"policy": "linear"}
+ * }
+ * </pre>
+ * The available policies are:
+ * <ul>
+ * <li>{@code {"policy": "every", "k": 10}}: see {@link EveryKthTickPolicy}</li>
+ * <li>{@code {"policy": "deadband", "epsilon": 0.5}}: see {@link DeadbandPolicy}</li>
+ * <li>{@code {"policy": "threshold", "thresholds": [0, 10]}}: see {@link ThresholdCrossingPolicy}</li>
+ * <li>{@code {"policy": "linear", "tolerance": 1e-9}}: see {@link PiecewiseLinearPolicy}, the tolerance being optional</li>
+ * </ul>
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-15.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-15
+ */
+public interface RecordingPolicy{
+	/**
+	 * Create a sampler for a new series.
+	 *
+	 * @return The sampler.
+	 */
+	SeriesSampler createSampler();
+	
+	/**
+	 * Parse a policy from its JSON declaration.
+	 *
+	 * @param json The declaration.
+	 *
+	 * @return The policy.
+	 *
+	 * @throws SettingsParserException If the declaration is incorrect.
+	 */
+	static RecordingPolicy fromJSON(final JSONObject json) throws SettingsParserException{
+		try{
+			final var policy = json.getString("policy");
+			switch(policy){
+				case "every":
+					return new EveryKthTickPolicy(json.getInt("k"));
+				case "deadband":
+					return new DeadbandPolicy(json.getDouble("epsilon"));
+				case "threshold":
+					final var thresholds = json.getJSONArray("thresholds");
+					final var values = new double[thresholds.length()];
+					for(var i = 0; i < values.length; i++){
+						values[i] = thresholds.getDouble(i);
+					}
+					return new ThresholdCrossingPolicy(values);
+				case "linear":
+					return new PiecewiseLinearPolicy(json.optDouble("tolerance", PiecewiseLinearPolicy.DEFAULT_TOLERANCE));
+				default:
+					throw new SettingsParserException("Unknown recording policy " + policy);
+			}
+		}
+		catch(final JSONException | IllegalArgumentException e){
+			throw new SettingsParserException("Invalid recording policy " + json, e);
+		}
+	}
+}
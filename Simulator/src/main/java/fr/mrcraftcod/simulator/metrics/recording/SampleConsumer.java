@@ -0,0 +1,20 @@
+package fr.mrcraftcod.simulator.metrics.recording;
+
+/**
+ * Receives the samples of a series kept by a {@link SeriesSampler}.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-15.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-15
+ */
+@FunctionalInterface
+public interface SampleConsumer{
+	/**
+	 * Called for each sample kept.
+	 *
+	 * @param time  The time of the sample.
+	 * @param value The value of the sample.
+	 */
+	void accept(double time, double value);
+}
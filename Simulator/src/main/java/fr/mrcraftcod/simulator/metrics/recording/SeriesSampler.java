@@ -0,0 +1,30 @@
+package fr.mrcraftcod.simulator.metrics.recording;
+
+/**
+ * Chooses the samples of one series that are recorded, following a {@link RecordingPolicy}.
+ * <p>
+ * The first and the last samples of a series are always recorded.
+ * As some policies can only decide if a sample is needed once they saw the next one, samples may be given to the consumer late, but always in time order.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-15.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-15
+ */
+public interface SeriesSampler{
+	/**
+	 * Offer a new sample of the series.
+	 *
+	 * @param time     The time of the sample, greater than the time of the previous one.
+	 * @param value    The value of the sample.
+	 * @param consumer The consumer of the samples recorded.
+	 */
+	void accept(double time, double value, SampleConsumer consumer);
+	
+	/**
+	 * End the series, recording the samples still held.
+	 *
+	 * @param consumer The consumer of the samples recorded.
+	 */
+	void flush(SampleConsumer consumer);
+}
@@ -0,0 +1,68 @@
+package fr.mrcraftcod.simulator.metrics.recording;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import java.util.Arrays;
+
+/**
+ * Records a sample when its value crossed one of the thresholds since the previous sample.
+ * A value equal to a threshold is considered above it.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-15.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-15
+ */
+public class ThresholdCrossingPolicy implements RecordingPolicy{
+	private final double[] thresholds;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param thresholds The thresholds.
+	 *
+	 * @throws IllegalArgumentException If no threshold is given.
+	 */
+	public ThresholdCrossingPolicy(final double... thresholds){
+		if(thresholds.length == 0){
+			throw new IllegalArgumentException("At least one threshold is needed");
+		}
+		this.thresholds = thresholds.clone();
+		Arrays.sort(this.thresholds);
+	}
+	
+	/**
+	 * Get the number of thresholds a value is above of.
+	 *
+	 * @param value The value.
+	 *
+	 * @return The number of thresholds.
+	 */
+	private int getLevel(final double value){
+		final var index = Arrays.binarySearch(thresholds, value);
+		if(index >= 0){
+			var level = index;
+			while(level < thresholds.length && thresholds[level] == value){
+				level++;
+			}
+			return level;
+		}
+		return -index - 1;
+	}
+	
+	@Override
+	public SeriesSampler createSampler(){
+		return new AbstractSeriesSampler(){
+			@Override
+			protected void sample(final double time, final double value, final SampleConsumer consumer){
+				if(getLevel(value) != getLevel(getLastValue())){
+					record(time, value, consumer);
+				}
+			}
+		};
+	}
+	
+	@Override
+	public String toString(){
+		return new ToStringBuilder(this).append("thresholds", thresholds).toString();
+	}
+}
@@ -1,6 +1,7 @@
 package fr.mrcraftcod.simulator.positions;
 
 import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.utils.RandomStreams;
 import org.jetbrains.annotations.NotNull;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -45,7 +46,7 @@ public class RandomPosition extends Position{
 	 * @return The random coordinate.
 	 */
 	private static double genRandom(final Environment environment, final double minValue, final double maxValue){
-		return environment.getRandom().nextDouble() * (maxValue - minValue) + minValue;
+		return environment.getRandom(RandomStreams.POSITION).nextDouble() * (maxValue - minValue) + minValue;
 	}
 	
 	@Override
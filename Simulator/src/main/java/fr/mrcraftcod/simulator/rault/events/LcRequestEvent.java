@@ -9,6 +9,8 @@ import fr.mrcraftcod.simulator.simulation.SimulationEvent;
 /**
  * The event of a Lc request from a sensor.
  * <p>
+ * If the routing is refused, the request is parked in the request registry and retried when a tour ends, see {@link TourEndEvent}.
+ * <p>
  * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2018-11-07.
  *
  * @author Thomas Couchoud
@@ -28,18 +30,39 @@ public class LcRequestEvent extends SimulationEvent{
 		this.sensor = sensor;
 	}
 	
+	/**
+	 * Add a new Lc request to the queue of the simulation, and track it in the request registry of the router.
+	 *
+	 * @param environment The environment.
+	 * @param time        The time of the event.
+	 * @param sensor      The sensor that made the request.
+	 */
+	public static void schedule(final Environment environment, final double time, final Sensor sensor){
+		final var event = new LcRequestEvent(time, sensor);
+		if(environment.getSimulator().getUnreadableQueue().add(event)){
+			environment.getElements(Router.class).stream().findFirst().ifPresent(router -> router.getRequestRegistry().addPendingTrigger(event));
+		}
+	}
+	
 	@Override
 	public void accept(final Environment environment){
-		LrRequestEvent.getRequestingSensors().add(getSensor());
+		final var router = environment.getElements(Router.class).stream().findFirst();
+		router.ifPresent(r -> {
+			r.getRequestRegistry().removePendingTrigger(this);
+			r.getRequestRegistry().add(getSensor());
+		});
 		environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new LcRequestMetricEvent(environment, getTime(), getSensor()));
-		environment.getElements(Router.class).stream().findFirst().map(r -> r.route(environment, LrRequestEvent.getRequestingSensors())).ifPresent(result -> {
+		router.ifPresent(r -> {
+			final var registry = r.getRequestRegistry();
+			final var startTime = System.nanoTime();
+			final var result = r.route(environment, registry.getRequestingSensors());
+			environment.getSimulator().getStatistics().recordRouting(System.nanoTime() - startTime, result);
+			registry.cancelPendingTriggers();
 			if(result){
-				LrRequestEvent.getRequestingSensors().clear();
-				environment.getSimulator().removeAllEventsOfClass(LcRequestEvent.class);
+				registry.clear();
 			}
 			else{
-				environment.getSimulator().removeAllEventsOfClass(LcRequestEvent.class);
-				environment.getSimulator().getUnreadableQueue().add(new LcRequestEvent(environment.getSimulator().getCurrentTime() + 1, sensor));
+				registry.park(getSensor());
 			}
 		});
 	}
@@ -2,12 +2,11 @@ package fr.mrcraftcod.simulator.rault.events;
 
 import fr.mrcraftcod.simulator.Environment;
 import fr.mrcraftcod.simulator.rault.metrics.events.LrRequestMetricEvent;
+import fr.mrcraftcod.simulator.routing.Router;
 import fr.mrcraftcod.simulator.sensors.Sensor;
 import fr.mrcraftcod.simulator.simulation.SimulationEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.Collection;
-import java.util.HashSet;
 
 /**
  * The event of a Lr request from a sensor.
@@ -18,7 +17,6 @@ import java.util.HashSet;
  */
 public class LrRequestEvent extends SimulationEvent{
 	private static final Logger LOGGER = LoggerFactory.getLogger(LrRequestEvent.class);
-	private static final Collection<Sensor> requestingSensors = new HashSet<>();
 	private final Sensor sensor;
 	
 	/**
@@ -36,7 +34,11 @@ public class LrRequestEvent extends SimulationEvent{
 	public void accept(final Environment environment){
 		LOGGER.debug("Registered Lr request from {}", getSensor().getUniqueIdentifier());
 		environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new LrRequestMetricEvent(environment, getTime(), getSensor()));
-		requestingSensors.add(getSensor());
+		environment.getElements(Router.class).stream().findFirst().ifPresent(router -> {
+			if(router.getRequestRegistry().add(getSensor())){
+				router.onRequestsChanged(environment);
+			}
+		});
 	}
 	
 	/**
@@ -47,13 +49,4 @@ public class LrRequestEvent extends SimulationEvent{
 	private Sensor getSensor(){
 		return sensor;
 	}
-	
-	/**
-	 * Get the requesting sensors.
-	 *
-	 * @return The requesting sensors.
-	 */
-	static Collection<Sensor> getRequestingSensors(){
-		return requestingSensors;
-	}
 }
@@ -13,10 +13,12 @@ import fr.mrcraftcod.simulator.rault.routing.RaultRouterModified;
 import fr.mrcraftcod.simulator.rault.sensors.LrLcSensor;
 import fr.mrcraftcod.simulator.routing.Router;
 import fr.mrcraftcod.simulator.sensors.Sensor;
+import fr.mrcraftcod.simulator.simulation.LocalEvent;
 import fr.mrcraftcod.simulator.simulation.SimulationEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
@@ -29,7 +31,7 @@ import java.util.concurrent.atomic.AtomicReference;
  * @author Thomas Couchoud
  */
 @SuppressWarnings("WeakerAccess")
-public class TourChargeEvent extends SimulationEvent{
+public class TourChargeEvent extends SimulationEvent implements LocalEvent{
 	private static final Logger LOGGER = LoggerFactory.getLogger(TourChargeEvent.class);
 	private final ChargerTour tour;
 	
@@ -51,6 +53,7 @@ public class TourChargeEvent extends SimulationEvent{
 			final var conflict = chargingStop.getConflictZones().stream().filter(c -> tour.getCharger().getRadius() + c.getCharger().getRadius() >= tour.getCharger().getPosition().distanceTo(c.getCharger().getPosition())).map(ChargingStop::getCharger).anyMatch(Charger::isCharging);
 			if(conflict){
 				LOGGER.trace("Charger {} in conflict, waiting", getTour().getCharger());
+				tour.setReadyTime(getTime() + 1);
 				environment.getSimulator().getUnreadableQueue().add(new TourChargeEvent(getTime() + 1, tour));
 			}
 			else{
@@ -72,8 +75,8 @@ public class TourChargeEvent extends SimulationEvent{
 						if(s instanceof LrLcSensor){
 							((LrLcSensor) s).setPlannedForCharging(false);
 						}
-						environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new SensorChargedMetricEvent(environment, getTime() + chargeTime, s, toCharge));
-						environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new FutureSensorCapacityMetricEvent(environment, getTime() + chargeTime, s, s::getCurrentCapacity));
+						environment.getSimulator().getMetricEventDispatcher().dispatchEvent(SensorChargedMetricEvent.class, () -> new SensorChargedMetricEvent(environment, getTime() + chargeTime, s, toCharge));
+						environment.getSimulator().getMetricEventDispatcher().dispatchEvent(FutureSensorCapacityMetricEvent.class, () -> new FutureSensorCapacityMetricEvent(environment, getTime() + chargeTime, s, s::getCurrentCapacity));
 					}
 				});
 				for(final var s : toAssign){
@@ -81,20 +84,44 @@ public class TourChargeEvent extends SimulationEvent{
 					final var chargeTime = chargeTimeMax.get();
 					final var toCharge = chargeTime * tour.getCharger().getReceivedPower(distance);
 					s.addCapacity(toCharge);
-					environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new SensorChargedMetricEvent(environment, getTime() + chargeTime, s, toCharge));
-					environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new FutureSensorCapacityMetricEvent(environment, getTime() + chargeTime, s, s::getCurrentCapacity));
+					environment.getSimulator().getMetricEventDispatcher().dispatchEvent(SensorChargedMetricEvent.class, () -> new SensorChargedMetricEvent(environment, getTime() + chargeTime, s, toCharge));
+					environment.getSimulator().getMetricEventDispatcher().dispatchEvent(FutureSensorCapacityMetricEvent.class, () -> new FutureSensorCapacityMetricEvent(environment, getTime() + chargeTime, s, s::getCurrentCapacity));
 				}
 				final var powerUsed = tour.getCharger().getCapacityUsed(chargeTimeMax.get());
 				tour.getCharger().removeCapacity(powerUsed);
 				LOGGER.trace("Charger {} charged sensors, will wait for charge time to end and leave at {}", tour.getCharger().getUniqueIdentifier(), getTime() + chargeTimeMax.get());
-				environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new TourChargeMetricEvent(environment, getTime(), getTour().getCharger(), chargingStop));
-				environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new ChargerDischargedMetricEvent(environment, getTime() + chargeTimeMax.get(), getTour().getCharger(), powerUsed));
-				environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new TourChargeEndMetricEvent(environment, getTime() + chargeTimeMax.get(), getTour().getCharger(), chargingStop));
+				environment.getSimulator().getMetricEventDispatcher().dispatchEvent(TourChargeMetricEvent.class, () -> new TourChargeMetricEvent(environment, getTime(), getTour().getCharger(), chargingStop));
+				environment.getSimulator().getMetricEventDispatcher().dispatchEvent(ChargerDischargedMetricEvent.class, () -> new ChargerDischargedMetricEvent(environment, getTime() + chargeTimeMax.get(), getTour().getCharger(), powerUsed));
+				environment.getSimulator().getMetricEventDispatcher().dispatchEvent(TourChargeEndMetricEvent.class, () -> new TourChargeEndMetricEvent(environment, getTime() + chargeTimeMax.get(), getTour().getCharger(), chargingStop));
+				tour.setReadyTime(getTime() + chargeTimeMax.get());
 				environment.getSimulator().getUnreadableQueue().add(new TourTravelEvent(getTime() + chargeTimeMax.get(), tour));
 			}
 		}, () -> environment.getSimulator().getUnreadableQueue().add(new TourTravelEvent(getTime(), tour)));
 	}
 	
+	@Override
+	public Object getRegion(){
+		return getTour().getRegion();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * This is the charger, the sensors of the next stop and the chargers of its conflict zones, or the chargers of every tour of the routing if the stops left in the other tours are looked at.
+	 */
+	@Override
+	public Collection<?> getFootprint(final Environment environment){
+		final var footprint = new ArrayList<Object>();
+		footprint.add(tour.getCharger());
+		Optional.ofNullable(tour.getStops().peek()).ifPresent(chargingStop -> {
+			footprint.addAll(chargingStop.getStopLocation().getSensors());
+			chargingStop.getConflictZones().stream().map(ChargingStop::getCharger).forEach(footprint::add);
+		});
+		if(Objects.nonNull(tour.getParent()) && environment.getElements(Router.class).stream().allMatch(e -> e instanceof RaultRouterModified)){
+			tour.getParent().stream().map(ChargerTour::getCharger).forEach(footprint::add);
+		}
+		return footprint;
+	}
+	
 	/**
 	 * Get the tour.
 	 *
@@ -3,6 +3,7 @@ package fr.mrcraftcod.simulator.rault.events;
 import fr.mrcraftcod.simulator.Environment;
 import fr.mrcraftcod.simulator.rault.metrics.events.TourEndMetricEvent;
 import fr.mrcraftcod.simulator.rault.routing.ChargerTour;
+import fr.mrcraftcod.simulator.routing.Router;
 import fr.mrcraftcod.simulator.simulation.SimulationEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +11,9 @@ import org.slf4j.LoggerFactory;
 /**
  * Event when a tour ends.
  * <p>
+ * The charger becoming available, the Lc request parked after a refused routing is retried.
+ * This event reads the request registry and triggers a routing, so it isn't a local event.
+ * <p>
  * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2018-11-07.
  *
  * @author Thomas Couchoud
@@ -34,6 +38,7 @@ class TourEndEvent extends SimulationEvent{
 		LOGGER.trace("Tour for charger {} ended, setting charger as available", tour.getCharger().getUniqueIdentifier());
 		environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new TourEndMetricEvent(environment, getTime(), getTour().getCharger(), getTour()));
 		tour.getCharger().setAvailable(true);
+		environment.getElements(Router.class).stream().findFirst().flatMap(router -> router.getRequestRegistry().unpark()).ifPresent(sensor -> LcRequestEvent.schedule(environment, getTime(), sensor));
 	}
 	
 	/**
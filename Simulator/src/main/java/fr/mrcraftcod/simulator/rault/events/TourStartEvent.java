@@ -3,7 +3,10 @@ package fr.mrcraftcod.simulator.rault.events;
 import fr.mrcraftcod.simulator.Environment;
 import fr.mrcraftcod.simulator.rault.metrics.events.TourStartMetricEvent;
 import fr.mrcraftcod.simulator.rault.routing.ChargerTour;
+import fr.mrcraftcod.simulator.simulation.LocalEvent;
 import fr.mrcraftcod.simulator.simulation.SimulationEvent;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Event when a tour starts.
@@ -12,7 +15,7 @@ import fr.mrcraftcod.simulator.simulation.SimulationEvent;
  *
  * @author Thomas Couchoud
  */
-public class TourStartEvent extends SimulationEvent{
+public class TourStartEvent extends SimulationEvent implements LocalEvent{
 	private final ChargerTour tour;
 	
 	/**
@@ -37,6 +40,16 @@ public class TourStartEvent extends SimulationEvent{
 		}
 	}
 	
+	@Override
+	public Object getRegion(){
+		return getTour().getRegion();
+	}
+	
+	@Override
+	public Collection<?> getFootprint(final Environment environment){
+		return List.of(getTour().getCharger());
+	}
+	
 	/**
 	 * Get the tour.
 	 *
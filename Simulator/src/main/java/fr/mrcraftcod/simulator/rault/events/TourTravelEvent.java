@@ -6,10 +6,13 @@ import fr.mrcraftcod.simulator.rault.metrics.events.TourTravelBaseMetricEvent;
 import fr.mrcraftcod.simulator.rault.metrics.events.TourTravelEndMetricEvent;
 import fr.mrcraftcod.simulator.rault.metrics.events.TourTravelMetricEvent;
 import fr.mrcraftcod.simulator.rault.routing.ChargerTour;
+import fr.mrcraftcod.simulator.simulation.LocalEvent;
 import fr.mrcraftcod.simulator.simulation.SimulationEvent;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -19,7 +22,7 @@ import java.util.Optional;
  *
  * @author Thomas Couchoud
  */
-class TourTravelEvent extends SimulationEvent{
+class TourTravelEvent extends SimulationEvent implements LocalEvent{
 	private static final Logger LOGGER = LoggerFactory.getLogger(TourTravelEvent.class);
 	private final ChargerTour tour;
 	
@@ -46,17 +49,28 @@ class TourTravelEvent extends SimulationEvent{
 			tour.getCharger().removeCapacity(tour.getCharger().getTravelConsumption(travelTime));
 			final var lastPos = tour.getCharger().getPosition();
 			tour.getCharger().setPosition(pos);
-			environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new TourTravelMetricEvent(environment, getTime(), getTour().getCharger(), new ImmutablePair<>(lastPos, nextStop)));
-			environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new TourTravelEndMetricEvent(environment, getTime() + travelTime, getTour().getCharger(), nextStop));
+			environment.getSimulator().getMetricEventDispatcher().dispatchEvent(TourTravelMetricEvent.class, () -> new TourTravelMetricEvent(environment, getTime(), getTour().getCharger(), new ImmutablePair<>(lastPos, nextStop)));
+			environment.getSimulator().getMetricEventDispatcher().dispatchEvent(TourTravelEndMetricEvent.class, () -> new TourTravelEndMetricEvent(environment, getTime() + travelTime, getTour().getCharger(), nextStop));
+			tour.setReadyTime(getTime() + travelTime);
 			environment.getSimulator().getUnreadableQueue().add(new TourChargeEvent(getTime() + travelTime, tour));
 		}, () -> {
 			final var lastPos = tour.getCharger().getPosition();
 			tour.getCharger().setPosition(new Position(0, 0));
-			environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new TourTravelBaseMetricEvent(environment, getTime(), getTour().getCharger(), new ImmutablePair<>(lastPos, new Position(0, 0))));
+			environment.getSimulator().getMetricEventDispatcher().dispatchEvent(TourTravelBaseMetricEvent.class, () -> new TourTravelBaseMetricEvent(environment, getTime(), getTour().getCharger(), new ImmutablePair<>(lastPos, new Position(0, 0))));
 			environment.getSimulator().getUnreadableQueue().add(new TourEndEvent(getTime() + tour.getCharger().getTravelTime(lastPos.distanceTo(new Position(0, 0))), tour));
 		});
 	}
 	
+	@Override
+	public Object getRegion(){
+		return getTour().getRegion();
+	}
+	
+	@Override
+	public Collection<?> getFootprint(final Environment environment){
+		return List.of(getTour().getCharger());
+	}
+	
 	/**
 	 * Get the tour.
 	 *
@@ -0,0 +1,126 @@
+package fr.mrcraftcod.simulator.rault.metrics.events;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.metrics.IdentifiableMetricEvent;
+import fr.mrcraftcod.simulator.routing.Router;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Fired after each call to a router.
+ * The value tells if the requests were routed, a router refuses to route while chargers are still on their tours.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-12.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-12
+ */
+public class RoutingRoundMetricEvent extends IdentifiableMetricEvent<Boolean, Router>{
+	private final long routingRound;
+	private final int requestingSensorCount;
+	private final int tourCount;
+	private final int stopCount;
+	private final int solverAttempts;
+	private final int timeouts;
+	private final int fallbacks;
+	private final long wallNanos;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param environment           The environment.
+	 * @param time                  The time of the event.
+	 * @param router                The router.
+	 * @param routed                True if the requests were routed.
+	 * @param routingRound          The index of the routing round, or of the next one if the requests weren't routed.
+	 * @param requestingSensorCount The number of sensors requesting a charge.
+	 * @param tourCount             The number of tours built.
+	 * @param stopCount             The number of stops in all the tours.
+	 * @param solverAttempts        The number of solver attempts.
+	 * @param timeouts              The number of solver attempts that timed out.
+	 * @param fallbacks             The number of tours that kept the order they were built with because no solver attempt found a solution.
+	 * @param wallNanos             The wall time of the routing, in nanoseconds.
+	 */
+	public RoutingRoundMetricEvent(final Environment environment, final double time, @NotNull final Router router, final boolean routed, final long routingRound, final int requestingSensorCount, final int tourCount, final int stopCount, final int solverAttempts, final int timeouts, final int fallbacks, final long wallNanos){
+		super(environment, time, router, routed);
+		this.routingRound = routingRound;
+		this.requestingSensorCount = requestingSensorCount;
+		this.tourCount = tourCount;
+		this.stopCount = stopCount;
+		this.solverAttempts = solverAttempts;
+		this.timeouts = timeouts;
+		this.fallbacks = fallbacks;
+		this.wallNanos = wallNanos;
+	}
+	
+	/**
+	 * Get the index of the routing round.
+	 *
+	 * @return The routing round.
+	 */
+	public long getRoutingRound(){
+		return routingRound;
+	}
+	
+	/**
+	 * Get the number of sensors requesting a charge.
+	 *
+	 * @return The sensor count.
+	 */
+	public int getRequestingSensorCount(){
+		return requestingSensorCount;
+	}
+	
+	/**
+	 * Get the number of tours built.
+	 *
+	 * @return The tour count.
+	 */
+	public int getTourCount(){
+		return tourCount;
+	}
+	
+	/**
+	 * Get the number of stops in all the tours.
+	 *
+	 * @return The stop count.
+	 */
+	public int getStopCount(){
+		return stopCount;
+	}
+	
+	/**
+	 * Get the number of solver attempts.
+	 *
+	 * @return The attempt count.
+	 */
+	public int getSolverAttempts(){
+		return solverAttempts;
+	}
+	
+	/**
+	 * Get the number of solver attempts that timed out.
+	 *
+	 * @return The timeout count.
+	 */
+	public int getTimeouts(){
+		return timeouts;
+	}
+	
+	/**
+	 * Get the number of tours that kept the order they were built with.
+	 *
+	 * @return The fallback count.
+	 */
+	public int getFallbacks(){
+		return fallbacks;
+	}
+	
+	/**
+	 * Get the wall time of the routing.
+	 *
+	 * @return The time in nanoseconds.
+	 */
+	public long getWallNanos(){
+		return wallNanos;
+	}
+}
@@ -0,0 +1,111 @@
+package fr.mrcraftcod.simulator.rault.metrics.events;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.chargers.Charger;
+import fr.mrcraftcod.simulator.metrics.IdentifiableMetricEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Fired after each attempt of a solver to order the stops of a tour.
+ * The value is the objective of the solution found, NaN if none was found.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-12.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-12
+ */
+public class SolverAttemptMetricEvent extends IdentifiableMetricEvent<Double, Charger>{
+	private final long routingRound;
+	private final String solverName;
+	private final int stopCount;
+	private final int attempt;
+	private final long wallNanos;
+	private final boolean timedOut;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param environment  The environment.
+	 * @param time         The time of the event.
+	 * @param charger      The charger of the tour.
+	 * @param objective    The objective of the solution found, NaN if none was found.
+	 * @param routingRound The routing round the attempt is part of.
+	 * @param solverName   The name of the solver.
+	 * @param stopCount    The number of stops in the tour.
+	 * @param attempt      The number of the attempt, starting at 1.
+	 * @param wallNanos    The wall time of the attempt, in nanoseconds.
+	 * @param timedOut     True if the solver didn't complete in time.
+	 */
+	public SolverAttemptMetricEvent(final Environment environment, final double time, @NotNull final Charger charger, final double objective, final long routingRound, @NotNull final String solverName, final int stopCount, final int attempt, final long wallNanos, final boolean timedOut){
+		super(environment, time, charger, objective);
+		this.routingRound = routingRound;
+		this.solverName = solverName;
+		this.stopCount = stopCount;
+		this.attempt = attempt;
+		this.wallNanos = wallNanos;
+		this.timedOut = timedOut;
+	}
+	
+	/**
+	 * Get the routing round the attempt is part of.
+	 *
+	 * @return The routing round.
+	 */
+	public long getRoutingRound(){
+		return routingRound;
+	}
+	
+	/**
+	 * Get the name of the solver.
+	 *
+	 * @return The solver name.
+	 */
+	public String getSolverName(){
+		return solverName;
+	}
+	
+	/**
+	 * Get the number of stops in the tour.
+	 *
+	 * @return The stop count.
+	 */
+	public int getStopCount(){
+		return stopCount;
+	}
+	
+	/**
+	 * Get the number of the attempt, starting at 1.
+	 *
+	 * @return The attempt.
+	 */
+	public int getAttempt(){
+		return attempt;
+	}
+	
+	/**
+	 * Get the wall time of the attempt.
+	 *
+	 * @return The time in nanoseconds.
+	 */
+	public long getWallNanos(){
+		return wallNanos;
+	}
+	
+	/**
+	 * Tell if the solver didn't complete in time.
+	 *
+	 * @return True if it timed out, false otherwise.
+	 */
+	public boolean isTimedOut(){
+		return timedOut;
+	}
+	
+	/**
+	 * Tell if the solver found a solution.
+	 *
+	 * @return True if a solution was found, false otherwise.
+	 */
+	public boolean isSolved(){
+		return !Double.isNaN(getNewValue());
+	}
+}
@@ -20,6 +20,8 @@ public class ChargerTour{
 	private LinkedList<ChargingStop> stops;
 	private double accumulatedTime;
 	private List<ChargerTour> parent;
+	private Object region;
+	private double readyTime;
 	
 	/**
 	 * Constructor.
@@ -152,4 +154,40 @@ public class ChargerTour{
 			throw new IllegalArgumentException("New arrival times doesn't have the same size");
 		}
 	}
+	
+	/**
+	 * Get the region of the tour, the tours of a region being the ones whose stops may be in conflict.
+	 *
+	 * @return The region, null if the tour may interact with any tour.
+	 */
+	public Object getRegion(){
+		return region;
+	}
+	
+	/**
+	 * Set the region of the tour.
+	 *
+	 * @param region The region.
+	 */
+	public void setRegion(final Object region){
+		this.region = region;
+	}
+	
+	/**
+	 * Get the time the charger ends what it is doing, the travel to the next stop or the charge of the last stop.
+	 *
+	 * @return The time of the next event of the tour.
+	 */
+	public double getReadyTime(){
+		return readyTime;
+	}
+	
+	/**
+	 * Set the time the charger ends what it is doing, when the next event of the tour is scheduled.
+	 *
+	 * @param readyTime The time of the next event of the tour.
+	 */
+	public void setReadyTime(final double readyTime){
+		this.readyTime = readyTime;
+	}
 }
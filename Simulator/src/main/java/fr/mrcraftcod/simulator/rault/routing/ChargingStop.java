@@ -5,6 +5,7 @@ import fr.mrcraftcod.simulator.sensors.Sensor;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.tuple.Pair;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represent a point to stop to charge sensors.
@@ -20,7 +21,7 @@ public class ChargingStop{
 	private final double chargingTime;
 	private final List<Pair<Double, Double>> forbiddenTimes;
 	private final Set<ChargingStop> conflictZones;
-	private static int NEXT_ID = 0;
+	private static final AtomicInteger NEXT_ID = new AtomicInteger(0);
 	private double chargerArrivalTime = 0;
 	private Charger charger;
 	
@@ -31,7 +32,7 @@ public class ChargingStop{
 	 * @param chargingTime The time to charge the location.
 	 */
 	public ChargingStop(final StopLocation stopLocation, final double chargingTime){
-		this.ID = NEXT_ID++;
+		this.ID = NEXT_ID.getAndIncrement();
 		this.stopLocation = stopLocation;
 		this.chargingTime = chargingTime;
 		this.forbiddenTimes = new LinkedList<>();
@@ -2,24 +2,34 @@ package fr.mrcraftcod.simulator.rault.routing;
 
 import fr.mrcraftcod.simulator.Environment;
 import fr.mrcraftcod.simulator.chargers.Charger;
+import fr.mrcraftcod.simulator.jfr.RoutingPhase;
 import fr.mrcraftcod.simulator.rault.events.TourStartEvent;
+import fr.mrcraftcod.simulator.rault.metrics.events.RoutingRoundMetricEvent;
+import fr.mrcraftcod.simulator.rault.metrics.events.SolverAttemptMetricEvent;
 import fr.mrcraftcod.simulator.rault.sensors.LrLcSensor;
+import fr.mrcraftcod.simulator.rault.utils.OrToolsLibrary;
 import fr.mrcraftcod.simulator.rault.utils.TSP;
 import fr.mrcraftcod.simulator.rault.utils.TSPMTW;
 import fr.mrcraftcod.simulator.rault.utils.TourSolver;
 import fr.mrcraftcod.simulator.routing.Router;
 import fr.mrcraftcod.simulator.sensors.Sensor;
 import fr.mrcraftcod.simulator.utils.Identifiable;
+import fr.mrcraftcod.simulator.utils.RandomStreams;
 import org.apache.commons.lang3.tuple.Pair;
 import org.jetbrains.annotations.NotNull;
+import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Router from Rault's paper.
@@ -32,6 +42,76 @@ import java.util.stream.Collectors;
 public class RaultRouter extends Router{
 	private static final Logger LOGGER = LoggerFactory.getLogger(RaultRouter.class);
 	private static final long TSPMTW_TIMEOUT = 60;
+	private long routingRound = 0;
+	private boolean speculative = false;
+	private boolean insertion = false;
+	private long speculativeRoundCount = 0;
+	private long insertionCount = 0;
+	private final Map<Charger, ChargerTour> activeTours = new LinkedHashMap<>();
+	private ExecutorService speculationExecutor;
+	private Speculation speculation;
+	
+	/**
+	 * Counts the solver attempts of a routing round.
+	 */
+	private static class SolverCounters{
+		private int attempts;
+		private int timeouts;
+		private int fallbacks;
+	}
+	
+	/**
+	 * The tours of a routing round, built and solved before the chargers are deployed on them.
+	 */
+	private static class RoutingPlan{
+		private final long round;
+		private final double startTime;
+		private final List<Sensor> sensors;
+		private final Collection<ChargerTour> tours;
+		private final List<ChargerTour> timedTours;
+		private final SolverCounters counters;
+		private final List<Supplier<SolverAttemptMetricEvent>> attempts;
+		
+		/**
+		 * Constructor.
+		 *
+		 * @param round     The routing round.
+		 * @param startTime The simulation time the plan was built at.
+		 * @param sensors   The sensors routed.
+		 * @param tours     The tours.
+		 */
+		private RoutingPlan(final long round, final double startTime, final List<Sensor> sensors, final Collection<ChargerTour> tours){
+			this.round = round;
+			this.startTime = startTime;
+			this.sensors = sensors;
+			this.tours = tours;
+			this.timedTours = new ArrayList<>();
+			this.counters = new SolverCounters();
+			this.attempts = new ArrayList<>();
+		}
+	}
+	
+	/**
+	 * A routing prepared and solved in the background for the requests at some point.
+	 */
+	private static class Speculation{
+		private final long round;
+		private final List<Sensor> sensors;
+		private final Future<RoutingPlan> future;
+		
+		/**
+		 * Constructor.
+		 *
+		 * @param round   The routing round.
+		 * @param sensors The sensors routed.
+		 * @param future  The plan being built, null if the speculation was cancelled before solving.
+		 */
+		private Speculation(final long round, final List<Sensor> sensors, final Future<RoutingPlan> future){
+			this.round = round;
+			this.sensors = sensors;
+			this.future = future;
+		}
+	}
 	
 	/**
 	 * Constructor.
@@ -42,38 +122,215 @@ public class RaultRouter extends Router{
 	
 	/**
 	 * Constructor used by the JSON filler.
+	 * The native library of OR-tools is loaded with the first router.
 	 *
 	 * @param environment The environment the router is in.
 	 */
 	public RaultRouter(@NotNull final Environment environment){
 		super(environment);
+		OrToolsLibrary.tryLoad();
 	}
 	
 	@Override
 	public boolean route(final Environment environment, final Collection<? extends Sensor> sensors){
+		final var startTime = System.nanoTime();
 		final var chargers = environment.getElements(Charger.class);
 		if(chargers.stream().anyMatch(c -> !c.isAvailable())){
+			if(isInsertion() && insert(environment, chargers, sensors, startTime)){
+				return true;
+			}
+			environment.getSimulator().getMetricEventDispatcher().dispatchEvent(RoutingRoundMetricEvent.class, () -> new RoutingRoundMetricEvent(environment, environment.getSimulator().getCurrentTime(), this, false, routingRound, sensors.size(), 0, 0, 0, 0, 0, System.nanoTime() - startTime));
 			return false;
 		}
 		else{
-			final var executor = Executors.newCachedThreadPool();
-			chargers.forEach(c -> c.setAvailable(false));
-			final var stopLocations = getStopLocations(environment, chargers, sensors);
-			final var chargingLocations = getChargingStops(chargers, sensors, stopLocations);
-			final var tours = buildTours(environment.getRandom(), chargers, chargingLocations);
-			tours.removeIf(tour -> {
-				if(tour.getStops().size() > 0){
-					return false;
-				}
-				tour.getCharger().setAvailable(true);
-				return true;
+			final var plan = takeSpeculation(sensors).orElseGet(() -> {
+				final var newPlan = prepare(environment, chargers, sensors, getCapacities(sensors), routingRound, environment.getSimulator().getCurrentTime());
+				solve(environment, newPlan);
+				return newPlan;
 			});
-			buildConflictZones(tours);
+			commit(environment, plan, startTime);
+			return true;
+		}
+	}
+	
+	@Override
+	public void onRequestsChanged(final Environment environment){
+		if(!isSpeculative()){
+			return;
+		}
+		cancelSpeculation();
+		final var chargers = environment.getElements(Charger.class);
+		if(chargers.stream().anyMatch(c -> !c.isAvailable())){
+			return;
+		}
+		final var sensors = getRequestRegistry().getRequestingSensors();
+		final var capacities = getCapacities(sensors);
+		final var round = routingRound;
+		final var startTime = environment.getSimulator().getCurrentTime();
+		if(Objects.isNull(speculationExecutor)){
+			final var executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				final var thread = new Thread(runnable, "speculative-routing-" + getID());
+				thread.setDaemon(true);
+				return thread;
+			});
+			executor.allowCoreThreadTimeOut(true);
+			speculationExecutor = executor;
+		}
+		speculation = new Speculation(round, sensors, speculationExecutor.submit(() -> {
+			final var plan = prepare(environment, chargers, sensors, capacities, round, startTime);
+			if(Thread.currentThread().isInterrupted()){
+				return null;
+			}
+			solve(environment, plan);
+			return plan;
+		}));
+		LOGGER.debug("Started speculative routing of {} sensors for round {}", sensors.size(), round);
+	}
+	
+	/**
+	 * Insert the sensors in the remaining stops of the tours being run, see {@link TourInsertion}.
+	 * A successful insertion is a routing round, with the tours modified and the stops inserted.
+	 *
+	 * @param environment The environment.
+	 * @param chargers    The chargers.
+	 * @param sensors     The sensors to route.
+	 * @param startTime   The {@link System#nanoTime()} the routing started at.
+	 *
+	 * @return True if every sensor is now in a tour, false if nothing was inserted.
+	 */
+	private boolean insert(final Environment environment, final Collection<? extends Charger> chargers, final Collection<? extends Sensor> sensors, final long startTime){
+		final var tours = activeTours.values().stream().filter(tour -> !tour.getCharger().isAvailable() && !tour.getStops().isEmpty()).collect(Collectors.toList());
+		if(tours.isEmpty()){
+			return false;
+		}
+		final var toInsert = sensors.stream().filter(s -> tours.stream().flatMap(tour -> tour.getStops().stream()).noneMatch(stop -> stop.contains(s))).collect(Collectors.toList());
+		final var stops = toInsert.isEmpty() ? List.<ChargingStop> of() : getChargingStops(chargers, toInsert, getCapacities(toInsert), getStopLocations(environment, chargers, toInsert));
+		if(!new TourInsertion(environment.getSimulator().getCurrentTime(), tours).insert(stops)){
+			return false;
+		}
+		stops.stream().flatMap(stop -> stop.getStopLocation().getSensors().stream()).filter(s -> s instanceof LrLcSensor).forEach(s -> ((LrLcSensor) s).setPlannedForCharging(true));
+		insertionCount++;
+		final var round = routingRound++;
+		final var tourCount = (int) stops.stream().map(ChargingStop::getCharger).distinct().count();
+		LOGGER.debug("Inserted {} stops in {} tours being run", stops.size(), tourCount);
+		environment.getSimulator().getMetricEventDispatcher().dispatchEvent(RoutingRoundMetricEvent.class, () -> new RoutingRoundMetricEvent(environment, environment.getSimulator().getCurrentTime(), this, true, round, sensors.size(), tourCount, stops.size(), 0, 0, 0, System.nanoTime() - startTime));
+		return true;
+	}
+	
+	/**
+	 * Take the speculative routing started for the sensors to route, waiting for it to be solved.
+	 *
+	 * @param sensors The sensors to route.
+	 *
+	 * @return The plan of the speculative routing, or empty if there are none, if it was started for other sensors or another round, or if it failed.
+	 */
+	private Optional<RoutingPlan> takeSpeculation(final Collection<? extends Sensor> sensors){
+		if(Objects.isNull(speculation)){
+			return Optional.empty();
+		}
+		final var current = speculation;
+		speculation = null;
+		if(current.round != routingRound || !Objects.equals(new HashSet<>(current.sensors), new HashSet<>(sensors))){
+			current.future.cancel(true);
+			LOGGER.debug("Discarded speculative routing of round {}, the requests changed", current.round);
+			return Optional.empty();
+		}
+		try{
+			final var plan = current.future.get();
+			if(Objects.nonNull(plan)){
+				speculativeRoundCount++;
+			}
+			return Optional.ofNullable(plan);
+		}
+		catch(final InterruptedException e){
+			current.future.cancel(true);
+			Thread.currentThread().interrupt();
+			LOGGER.error("Interrupted while waiting for the speculative routing", e);
+		}
+		catch(final ExecutionException | CancellationException e){
+			LOGGER.error("Speculative routing failed", e);
+		}
+		return Optional.empty();
+	}
+	
+	/**
+	 * Cancel the speculative routing being run, if any.
+	 */
+	private void cancelSpeculation(){
+		if(Objects.nonNull(speculation)){
+			speculation.future.cancel(true);
+		}
+		speculation = null;
+	}
+	
+	/**
+	 * Get the current capacities of sensors, so that a routing can be prepared outside of the simulation thread.
+	 *
+	 * @param sensors The sensors.
+	 *
+	 * @return The capacity of each sensor.
+	 */
+	private static Map<Sensor, Double> getCapacities(final Collection<? extends Sensor> sensors){
+		final var capacities = new HashMap<Sensor, Double>();
+		sensors.forEach(s -> capacities.put(s, s.getCurrentCapacity()));
+		return capacities;
+	}
+	
+	/**
+	 * Build the tours of a routing, without solving them.
+	 * Besides the given capacities, this only reads elements that don't change while the chargers are available, so it can be run outside of the simulation thread.
+	 *
+	 * @param environment The environment.
+	 * @param chargers    The chargers to use.
+	 * @param sensors     The sensors to route.
+	 * @param capacities  The capacities of the sensors to route when the routing was asked.
+	 * @param round       The routing round.
+	 * @param startTime   The simulation time the routing was asked at.
+	 *
+	 * @return The plan of the routing.
+	 */
+	private RoutingPlan prepare(final Environment environment, final Collection<? extends Charger> chargers, final Collection<? extends Sensor> sensors, final Map<Sensor, Double> capacities, final long round, final double startTime){
+		final var stopLocationsPhase = new RoutingPhase();
+		stopLocationsPhase.begin();
+		final var stopLocations = getStopLocations(environment, chargers, sensors);
+		commitPhase(stopLocationsPhase, "stopLocations", round, startTime, stopLocations.size());
+		final var chargingStopsPhase = new RoutingPhase();
+		chargingStopsPhase.begin();
+		final var chargingLocations = getChargingStops(chargers, sensors, capacities, stopLocations);
+		commitPhase(chargingStopsPhase, "chargingStops", round, startTime, chargingLocations.size());
+		final var toursPhase = new RoutingPhase();
+		toursPhase.begin();
+		final var tours = buildTours(environment.getRandom(RandomStreams.ROUTING, round), chargers, chargingLocations);
+		tours.removeIf(tour -> tour.getStops().isEmpty());
+		commitPhase(toursPhase, "tours", round, startTime, tours.size());
+		final var conflictZonesPhase = new RoutingPhase();
+		conflictZonesPhase.begin();
+		buildConflictZones(tours);
+		assignRegions(round, tours);
+		commitPhase(conflictZonesPhase, "conflictZones", round, startTime, tours.size());
+		return new RoutingPlan(round, startTime, new ArrayList<>(sensors), tours);
+	}
+	
+	/**
+	 * Solve the tours of a routing.
+	 * This only modifies the tours of the plan and can be run outside of the simulation thread, stopping early when interrupted.
+	 *
+	 * @param environment The environment.
+	 * @param plan        The plan of the routing.
+	 */
+	private void solve(final Environment environment, final RoutingPlan plan){
+		final var executor = Executors.newCachedThreadPool();
+		try{
+			final var solvingPhase = new RoutingPhase();
+			solvingPhase.begin();
 			var first = true;
-			for(final var tour : tours){
+			for(final var tour : plan.tours){
+				if(Thread.currentThread().isInterrupted()){
+					return;
+				}
 				if(first){
 					final var maxAttempts = 3;
-					final var succeeded = tryRouting(executor, maxAttempts, () -> new TSP(environment, tour), result -> {
+					final var succeeded = tryRouting(environment, plan, executor, maxAttempts, () -> new TSP(environment, tour, plan.startTime), result -> {
 						tour.newOrder(result.getLeft());
 						tour.setArrivalTimes(result.getRight());
 					});
@@ -94,9 +351,10 @@ public class RaultRouter extends Router{
 				}
 				else{
 					final var maxAttempts = 3;
-					final var succeeded = tryRouting(executor, maxAttempts, () -> new TSPMTW(environment, tour), result -> {
+					final var succeeded = tryRouting(environment, plan, executor, maxAttempts, () -> new TSPMTW(environment, tour, plan.startTime), result -> {
 						tour.newOrder(result.getLeft());
 						tour.setArrivalTimes(result.getRight());
+						plan.timedTours.add(tour);
 					});
 					if(!succeeded){
 						LOGGER.error("TSPMTW failed {} times, keeping old order", maxAttempts);
@@ -104,10 +362,58 @@ public class RaultRouter extends Router{
 				}
 				updateConflictZones(tour);
 			}
-			tours.stream().flatMap(t -> t.getStops().stream()).map(ChargingStop::getStopLocation).flatMap(s -> s.getSensors().stream()).filter(s -> s instanceof LrLcSensor).forEach(s -> ((LrLcSensor) s).setPlannedForCharging(true));
-			tours.stream().map(t -> new TourStartEvent(environment.getSimulator().getCurrentTime(), t)).forEach(e -> environment.getSimulator().getUnreadableQueue().add(e));
+			commitPhase(solvingPhase, "solving", plan.round, plan.startTime, plan.tours.size());
+		}
+		finally{
 			executor.shutdownNow();
-			return true;
+		}
+	}
+	
+	/**
+	 * Deploy the chargers on the tours of a solved routing.
+	 * If the plan was solved ahead of the routing, the arrival times found by the solver are shifted to start at the current time.
+	 *
+	 * @param environment The environment.
+	 * @param plan        The plan of the routing.
+	 * @param startTime   The {@link System#nanoTime()} the routing started at.
+	 */
+	private void commit(final Environment environment, final RoutingPlan plan, final long startTime){
+		final var tours = plan.tours;
+		final var delay = environment.getSimulator().getCurrentTime() - plan.startTime;
+		if(delay != 0){
+			plan.timedTours.forEach(tour -> tour.getStops().forEach(stop -> stop.setChargerArrivalTime(stop.getChargerArrivalTime() + delay)));
+		}
+		tours.forEach(tour -> {
+			tour.getCharger().setAvailable(false);
+			activeTours.put(tour.getCharger(), tour);
+		});
+		plan.attempts.forEach(attempt -> environment.getSimulator().getMetricEventDispatcher().dispatchEvent(SolverAttemptMetricEvent.class, attempt));
+		tours.stream().flatMap(t -> t.getStops().stream()).map(ChargingStop::getStopLocation).flatMap(s -> s.getSensors().stream()).filter(s -> s instanceof LrLcSensor).forEach(s -> ((LrLcSensor) s).setPlannedForCharging(true));
+		tours.stream().map(t -> new TourStartEvent(environment.getSimulator().getCurrentTime(), t)).forEach(e -> environment.getSimulator().getUnreadableQueue().add(e));
+		routingRound = plan.round + 1;
+		final var stopCount = tours.stream().mapToInt(t -> t.getStops().size()).sum();
+		final var counters = plan.counters;
+		environment.getSimulator().getMetricEventDispatcher().dispatchEvent(RoutingRoundMetricEvent.class, () -> new RoutingRoundMetricEvent(environment, environment.getSimulator().getCurrentTime(), this, true, plan.round, plan.sensors.size(), tours.size(), stopCount, counters.attempts, counters.timeouts, counters.fallbacks, System.nanoTime() - startTime));
+	}
+	
+	/**
+	 * Commit a flight recorder event of a routing phase, if it is being recorded.
+	 *
+	 * @param event        The event, already begun.
+	 * @param phase        The name of the phase.
+	 * @param round        The routing round.
+	 * @param time         The simulation time the routing was asked at.
+	 * @param elementCount The number of elements produced by the phase.
+	 */
+	private void commitPhase(final RoutingPhase event, final String phase, final long round, final double time, final int elementCount){
+		event.end();
+		if(event.shouldCommit()){
+			event.router = getUniqueIdentifier();
+			event.phase = phase;
+			event.routingRound = round;
+			event.simulationTime = time;
+			event.elementCount = elementCount;
+			event.commit();
 		}
 	}
 	
@@ -137,17 +443,18 @@ public class RaultRouter extends Router{
 	 *
 	 * @param chargers      The chargers to use.
 	 * @param sensors       The sensors to recharge.
+	 * @param capacities    The capacities of the sensors to recharge when the routing was asked.
 	 * @param stopLocations The stop locations.
 	 *
 	 * @return A collection of charging stops.
 	 */
 	@SuppressWarnings("Duplicates")
-	protected Collection<ChargingStop> getChargingStops(final Collection<? extends Charger> chargers, final Collection<? extends Sensor> sensors, final Collection<StopLocation> stopLocations){
+	protected Collection<ChargingStop> getChargingStops(final Collection<? extends Charger> chargers, final Collection<? extends Sensor> sensors, final Map<Sensor, Double> capacities, final Collection<StopLocation> stopLocations){
 		final var chargingStops = new ArrayList<ChargingStop>();
 		
 		final var chargingSensors = sensors.stream().map(s -> {
 			final var distance = stopLocations.stream().filter(stopLocation -> stopLocation.contains(s)).mapToDouble(stopLocation -> stopLocation.getPosition().distanceTo(s.getPosition())).max().orElse(1);
-			var chargeTime = (s.getMaxCapacity() - s.getCurrentCapacity()) / chargers.stream().min(Comparator.comparingDouble(Charger::getTransmissionPower)).map(c -> c.getReceivedPower(distance)).orElse(1D);
+			var chargeTime = (s.getMaxCapacity() - capacities.get(s)) / chargers.stream().min(Comparator.comparingDouble(Charger::getTransmissionPower)).map(c -> c.getReceivedPower(distance)).orElse(1D);
 			return new ChargingSensor(s, chargeTime);
 		}).collect(Collectors.toList());
 		
@@ -175,7 +482,7 @@ public class RaultRouter extends Router{
 	 *
 	 * @return A collection of tours.
 	 */
-	private Collection<ChargerTour> buildTours(final Random random, final Collection<? extends Charger> chargers, final Collection<ChargingStop> chargingStops){
+	private Collection<ChargerTour> buildTours(final SplittableRandom random, final Collection<? extends Charger> chargers, final Collection<ChargingStop> chargingStops){
 		final var remainingStops = new ArrayList<>(chargingStops);
 		final var tours = chargers.stream().map(ChargerTour::new).collect(Collectors.toList());
 		tours.forEach(t -> {
@@ -213,9 +520,40 @@ public class RaultRouter extends Router{
 		}))));
 	}
 	
+	/**
+	 * Group the tours in regions, two tours being in the same region if one of their stops are in conflict or share a sensor.
+	 * The events of tours in different regions can be run in parallel.
+	 *
+	 * @param round The routing round.
+	 * @param tours The tours to consider, with their conflict zones built.
+	 */
+	protected void assignRegions(final long round, final Collection<ChargerTour> tours){
+		final var toursByCharger = tours.stream().collect(Collectors.toMap(ChargerTour::getCharger, t -> t));
+		final var toursBySensor = new HashMap<Sensor, List<ChargerTour>>();
+		tours.forEach(tour -> tour.getStops().forEach(stop -> stop.getStopLocation().getSensors().forEach(s -> toursBySensor.computeIfAbsent(s, key -> new ArrayList<>()).add(tour))));
+		final var assigned = new HashSet<ChargerTour>();
+		var index = 0;
+		for(final var tour : tours){
+			if(assigned.add(tour)){
+				final var region = round + "/" + index++;
+				final var toVisit = new LinkedList<ChargerTour>();
+				toVisit.add(tour);
+				ChargerTour current;
+				while((current = toVisit.poll()) != null){
+					current.setRegion(region);
+					current.getStops().stream().flatMap(stop -> Stream.concat(stop.getConflictZones().stream().map(ChargingStop::getCharger).map(toursByCharger::get), stop.getStopLocation().getSensors().stream().flatMap(s -> toursBySensor.get(s).stream()))).filter(Objects::nonNull).filter(assigned::add).forEach(toVisit::add);
+				}
+			}
+		}
+		LOGGER.debug("Tours of routing round {} grouped in {} regions", round, index);
+	}
+	
 	/**
 	 * Perform a routing in a new thread with a timeout.
+	 * A {@link SolverAttemptMetricEvent} is kept in the plan after each attempt, to be dispatched when the routing is committed.
 	 *
+	 * @param environment    The environment.
+	 * @param plan           The plan of the routing round, whose counters are updated.
 	 * @param executor       The executor to run in.
 	 * @param maxAttempts    The number of attempts.
 	 * @param solverSupplier How to build a new solver.
@@ -223,26 +561,46 @@ public class RaultRouter extends Router{
 	 *
 	 * @return True if the solver was run successfully, false otherwise.
 	 */
-	private boolean tryRouting(final ExecutorService executor, @SuppressWarnings("SameParameterValue") final int maxAttempts, final Supplier<TourSolver> solverSupplier, final Consumer<Pair<List<Integer>, List<Double>>> resultConsumer){
+	private boolean tryRouting(final Environment environment, final RoutingPlan plan, final ExecutorService executor, @SuppressWarnings("SameParameterValue") final int maxAttempts, final Supplier<TourSolver> solverSupplier, final Consumer<Pair<List<Integer>, List<Double>>> resultConsumer){
 		var attemptCount = 0;
+		var solved = false;
 		Future<Optional<Pair<List<Integer>, List<Double>>>> tspmtwFuture;
+		final var counters = plan.counters;
 		do{
 			attemptCount++;
+			counters.attempts++;
 			final var tourSolver = solverSupplier.get();
+			final var startTime = System.nanoTime();
 			tspmtwFuture = executor.submit(tourSolver);
 			try{
 				final var resultOptional = tspmtwFuture.get(tourSolver.getTimeout() + 5, TimeUnit.SECONDS);
 				resultOptional.ifPresent(resultConsumer);
+				solved = resultOptional.isPresent();
 			}
 			catch(final TimeoutException e){
 				tspmtwFuture.cancel(true);
+				counters.timeouts++;
 				LOGGER.error("Error while running TSPMTW, did not complete in the given time of {} seconds", tourSolver.getTimeout());
 			}
-			catch(final InterruptedException | ExecutionException e){
+			catch(final InterruptedException e){
+				tspmtwFuture.cancel(true);
+				Thread.currentThread().interrupt();
+				LOGGER.debug("Interrupted while running {}", tourSolver.getSolverName());
+				return false;
+			}
+			catch(final ExecutionException e){
 				LOGGER.error("Error while running TSPMTW", e);
 			}
+			final var wallTime = System.nanoTime() - startTime;
+			final var attempt = attemptCount;
+			final var timedOut = tspmtwFuture.isCancelled();
+			final var objective = solved ? tourSolver.getObjective() : Double.NaN;
+			plan.attempts.add(() -> new SolverAttemptMetricEvent(environment, plan.startTime, tourSolver.getTour().getCharger(), objective, plan.round, tourSolver.getSolverName(), tourSolver.getTour().getStops().size(), attempt, wallTime, timedOut));
 		}
 		while(tspmtwFuture.isCancelled() && attemptCount < maxAttempts);
+		if(!solved){
+			counters.fallbacks++;
+		}
 		return !tspmtwFuture.isCancelled();
 	}
 	
@@ -263,8 +621,101 @@ public class RaultRouter extends Router{
 		}
 	}
 	
+	@Override
+	public RaultRouter fillFromJson(@NotNull final Environment environment, @NotNull final JSONObject json) throws IllegalArgumentException{
+		super.fillFromJson(environment, json);
+		setSpeculative(json.optBoolean("speculative", false));
+		setInsertion(json.optBoolean("insertion", false));
+		return this;
+	}
+	
+	@Override
+	public void writeBinary(@NotNull final DataOutput output) throws IOException{
+		super.writeBinary(output);
+		output.writeBoolean(isSpeculative());
+		output.writeBoolean(isInsertion());
+	}
+	
+	@Override
+	public RaultRouter fillFromBinary(@NotNull final Environment environment, @NotNull final ByteBuffer buffer){
+		super.fillFromBinary(environment, buffer);
+		setSpeculative(buffer.get() != 0);
+		setInsertion(buffer.get() != 0);
+		return this;
+	}
+	
 	@Override
 	public boolean haveSameValues(final Identifiable identifiable){
-		return this.getClass().isInstance(identifiable);
+		return this.getClass().isInstance(identifiable) && isSpeculative() == ((RaultRouter) identifiable).isSpeculative() && isInsertion() == ((RaultRouter) identifiable).isInsertion();
+	}
+	
+	/**
+	 * Tell if the tours are solved in the background when the Lr requests change, see {@link #onRequestsChanged(Environment)}.
+	 * <p>
+	 * The speculative tours are used by the next routing if it is for the same sensors, the capacities of the sensors and the positions of the chargers being the ones when the Lr requests changed.
+	 *
+	 * @return True if speculative routing is enabled.
+	 */
+	public boolean isSpeculative(){
+		return speculative;
+	}
+	
+	/**
+	 * Set if the tours are solved in the background when the Lr requests change.
+	 *
+	 * @param speculative True to enable speculative routing.
+	 */
+	public void setSpeculative(final boolean speculative){
+		this.speculative = speculative;
+		if(!speculative){
+			cancelSpeculation();
+		}
+	}
+	
+	/**
+	 * Tell if the sensors are inserted in the tours being run when a routing is refused because chargers are busy.
+	 * <p>
+	 * If they can't all be inserted, the routing is refused and a full routing is done once the chargers are available.
+	 *
+	 * @return True if insertion is enabled.
+	 */
+	public boolean isInsertion(){
+		return insertion;
+	}
+	
+	/**
+	 * Set if the sensors are inserted in the tours being run when a routing is refused because chargers are busy.
+	 *
+	 * @param insertion True to enable insertion.
+	 */
+	public void setInsertion(final boolean insertion){
+		this.insertion = insertion;
+	}
+	
+	/**
+	 * Get the number of routings done by inserting sensors in the tours being run.
+	 *
+	 * @return The number of routings.
+	 */
+	public long getInsertionCount(){
+		return insertionCount;
+	}
+	
+	/**
+	 * Get the last tour deployed on each charger.
+	 *
+	 * @return The tours.
+	 */
+	Collection<ChargerTour> getActiveTours(){
+		return activeTours.values();
+	}
+	
+	/**
+	 * Get the number of routing rounds that used tours solved in the background.
+	 *
+	 * @return The number of rounds.
+	 */
+	public long getSpeculativeRoundCount(){
+		return speculativeRoundCount;
 	}
 }
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -40,14 +41,24 @@ public class RaultRouterModified extends RaultRouter{
 		super(environment);
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * The tours are all in the same region as charging a stop looks at the stops left in the other tours.
+	 */
+	@Override
+	protected void assignRegions(final long round, final Collection<ChargerTour> tours){
+		final var region = round + "/0";
+		tours.forEach(tour -> tour.setRegion(region));
+	}
+	
 	@SuppressWarnings("Duplicates")
 	@Override
-	protected Collection<ChargingStop> getChargingStops(final Collection<? extends Charger> chargers, final Collection<? extends Sensor> sensors, final Collection<StopLocation> stopLocations){
+	protected Collection<ChargingStop> getChargingStops(final Collection<? extends Charger> chargers, final Collection<? extends Sensor> sensors, final Map<Sensor, Double> capacities, final Collection<StopLocation> stopLocations){
 		final var chargingStops = new ArrayList<ChargingStop>();
 		
 		final var chargingSensors = sensors.stream().map(s -> {
 			final var distance = stopLocations.stream().filter(stopLocation -> stopLocation.contains(s)).mapToDouble(stopLocation -> stopLocation.getPosition().distanceTo(s.getPosition())).max().orElse(1);
-			var chargeTime = (s.getMaxCapacity() - s.getCurrentCapacity()) / chargers.stream().min(Comparator.comparingDouble(Charger::getTransmissionPower)).map(c -> c.getReceivedPower(distance)).orElse(1D);
+			var chargeTime = (s.getMaxCapacity() - capacities.get(s)) / chargers.stream().min(Comparator.comparingDouble(Charger::getTransmissionPower)).map(c -> c.getReceivedPower(distance)).orElse(1D);
 			return new ChargingSensor(s, chargeTime);
 		}).collect(Collectors.toList());
 		
@@ -27,6 +27,17 @@ public class StopLocation{
 		this.sensors = new ArrayList<>();
 	}
 	
+	/**
+	 * Constructor.
+	 *
+	 * @param position The position of the stop location.
+	 * @param sensors  The sensors of the stop location.
+	 */
+	public StopLocation(final Position position, final Collection<? extends Sensor> sensors){
+		this.position = position;
+		this.sensors = new ArrayList<>(sensors);
+	}
+	
 	/**
 	 * Check if this location contains a sensor.
 	 *
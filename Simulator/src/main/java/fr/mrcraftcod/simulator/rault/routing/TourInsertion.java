@@ -0,0 +1,297 @@
+package fr.mrcraftcod.simulator.rault.routing;
+
+import fr.mrcraftcod.simulator.positions.Position;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Inserts new charging stops in the remaining stops of the tours being run, with the cheapest feasible insertion.
+ * <p>
+ * A stop can be inserted in a tour at any place after the stop the charger is going to, the cost being the additional travel time.
+ * An insertion is feasible if:
+ * <ul>
+ * <li>the charger has enough capacity to travel to every remaining stop, charge them and come back to the base;</li>
+ * <li>the estimated charging window of the new stop doesn't overlap the one of a stop of another tour in conflict with it, and the stops delayed by the insertion don't overlap new ones;</li>
+ * <li>every tour in conflict with the new stop or sharing one of its sensors is in the same region as the tour, so that the events of the regions stay independent.</li>
+ * </ul>
+ * The charging windows are estimated from the position of the chargers, starting when they end the travel or the charge in progress (see {@link ChargerTour#getReadyTime()}).
+ * The capacity used by the travel or the charge in progress was already removed from the charger when it started, so only the remaining stops count in the capacity needed.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-18.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-18
+ */
+class TourInsertion{
+	private static final Logger LOGGER = LoggerFactory.getLogger(TourInsertion.class);
+	private static final Position BASE = new Position(0, 0);
+	private final double time;
+	private final Collection<ChargerTour> tours;
+	private final Map<ChargingStop, Pair<Double, Double>> windows;
+	
+	/**
+	 * A place where a stop can be inserted.
+	 */
+	private static class Candidate{
+		private final ChargerTour tour;
+		private final int index;
+		private final double cost;
+		private final double arrivalTime;
+		private final Collection<ChargingStop> conflicts;
+		
+		/**
+		 * Constructor.
+		 *
+		 * @param tour        The tour.
+		 * @param index       The index of the stop in the remaining stops of the tour.
+		 * @param cost        The additional travel time.
+		 * @param arrivalTime The estimated arrival time at the stop.
+		 * @param conflicts   The stops of other tours in conflict with the stop.
+		 */
+		private Candidate(final ChargerTour tour, final int index, final double cost, final double arrivalTime, final Collection<ChargingStop> conflicts){
+			this.tour = tour;
+			this.index = index;
+			this.cost = cost;
+			this.arrivalTime = arrivalTime;
+			this.conflicts = conflicts;
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param time  The current time of the simulation.
+	 * @param tours The tours being run, with at least one remaining stop.
+	 */
+	TourInsertion(final double time, final Collection<ChargerTour> tours){
+		this.time = time;
+		this.tours = tours;
+		this.windows = new HashMap<>();
+		tours.forEach(this::updateWindows);
+	}
+	
+	/**
+	 * Insert stops in the tours.
+	 * The stops are inserted one by one, each at the cheapest feasible place.
+	 * If a stop can't be inserted, nothing is modified.
+	 *
+	 * @param stops The stops to insert.
+	 *
+	 * @return True if every stop was inserted, false otherwise.
+	 */
+	boolean insert(final Collection<ChargingStop> stops){
+		final var inserted = new ArrayList<Pair<ChargingStop, Candidate>>();
+		for(final var stop : stops){
+			final var candidate = getCheapest(stop);
+			if(candidate.isEmpty()){
+				LOGGER.debug("No feasible insertion for stop at {}", stop.getStopLocation().getPosition());
+				inserted.forEach(insertion -> remove(insertion.getLeft(), insertion.getRight()));
+				return false;
+			}
+			apply(stop, candidate.get());
+			inserted.add(Pair.of(stop, candidate.get()));
+		}
+		inserted.forEach(insertion -> {
+			final var stop = insertion.getLeft();
+			insertion.getRight().conflicts.forEach(conflict -> {
+				final var window = windows.get(conflict);
+				conflict.addForbiddenTime(stop.getChargerArrivalTime(), stop.getChargerArrivalTime() + stop.getChargingTime());
+				stop.addForbiddenTime(window.getLeft(), window.getRight());
+			});
+		});
+		return true;
+	}
+	
+	/**
+	 * Find the cheapest feasible place to insert a stop.
+	 *
+	 * @param stop The stop.
+	 *
+	 * @return The place, or empty if there are none.
+	 */
+	private Optional<Candidate> getCheapest(final ChargingStop stop){
+		Candidate best = null;
+		for(final var tour : tours){
+			final var conflicts = getConflicts(tour, stop);
+			if(!isSameRegion(tour, stop, conflicts)){
+				continue;
+			}
+			final var charger = tour.getCharger();
+			final var stops = tour.getStops();
+			for(var index = charger.isCharging() ? 0 : 1; index <= stops.size(); index++){
+				final var previous = index == 0 ? charger.getPosition() : stops.get(index - 1).getStopLocation().getPosition();
+				final var next = index == stops.size() ? BASE : stops.get(index).getStopLocation().getPosition();
+				final var position = stop.getStopLocation().getPosition();
+				final var cost = charger.getTravelTime(previous.distanceTo(position)) + charger.getTravelTime(position.distanceTo(next)) - charger.getTravelTime(previous.distanceTo(next));
+				if(Objects.nonNull(best) && best.cost <= cost){
+					continue;
+				}
+				final var newStops = new ArrayList<>(stops);
+				newStops.add(index, stop);
+				if(getRequiredCapacity(tour, newStops) > charger.getCurrentCapacity()){
+					continue;
+				}
+				final var arrivalTimes = getArrivalTimes(tour, newStops);
+				if(isWindowFeasible(newStops, arrivalTimes, index, conflicts)){
+					best = new Candidate(tour, index, cost, arrivalTimes.get(index), conflicts);
+				}
+			}
+		}
+		return Optional.ofNullable(best);
+	}
+	
+	/**
+	 * Get the stops of other tours in conflict with a stop if it is added to a tour.
+	 *
+	 * @param tour The tour.
+	 * @param stop The stop.
+	 *
+	 * @return The stops in conflict.
+	 */
+	private Collection<ChargingStop> getConflicts(final ChargerTour tour, final ChargingStop stop){
+		return tours.stream().filter(t -> !Objects.equals(t, tour)).flatMap(t -> t.getStops().stream().filter(s -> tour.getCharger().getRadius() + t.getCharger().getRadius() >= stop.getStopLocation().getPosition().distanceTo(s.getStopLocation().getPosition()))).collect(Collectors.toList());
+	}
+	
+	/**
+	 * Tell if the tours in conflict with a stop or sharing its sensors are in the same region as a tour.
+	 *
+	 * @param tour      The tour.
+	 * @param stop      The stop.
+	 * @param conflicts The stops in conflict with the stop.
+	 *
+	 * @return True if every tour involved is in the region of the tour.
+	 */
+	private boolean isSameRegion(final ChargerTour tour, final ChargingStop stop, final Collection<ChargingStop> conflicts){
+		if(Objects.isNull(tour.getRegion())){
+			return false;
+		}
+		final var sensors = stop.getStopLocation().getSensors();
+		return tours.stream().filter(t -> !Objects.equals(t, tour)).filter(t -> t.getStops().stream().anyMatch(s -> conflicts.contains(s) || sensors.stream().anyMatch(s::contains))).allMatch(t -> Objects.equals(tour.getRegion(), t.getRegion()));
+	}
+	
+	/**
+	 * Tell if the estimated charging windows of a tour with a new stop don't overlap new windows of stops in conflict.
+	 *
+	 * @param stops        The stops of the tour with the new stop.
+	 * @param arrivalTimes The estimated arrival times at the stops.
+	 * @param index        The index of the new stop.
+	 * @param conflicts    The stops of other tours in conflict with the new stop.
+	 *
+	 * @return True if no new overlap happens.
+	 */
+	private boolean isWindowFeasible(final List<ChargingStop> stops, final List<Double> arrivalTimes, final int index, final Collection<ChargingStop> conflicts){
+		final var stop = stops.get(index);
+		if(conflicts.stream().anyMatch(conflict -> overlaps(arrivalTimes.get(index), arrivalTimes.get(index) + stop.getChargingTime(), windows.get(conflict)))){
+			return false;
+		}
+		for(var i = index + 1; i < stops.size(); i++){
+			final var delayed = stops.get(i);
+			final var before = windows.get(delayed);
+			final var start = arrivalTimes.get(i);
+			if(delayed.getConflictZones().stream().map(windows::get).filter(Objects::nonNull).anyMatch(window -> overlaps(start, start + delayed.getChargingTime(), window) && !overlaps(before.getLeft(), before.getRight(), window))){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Tell if a window overlaps another one.
+	 *
+	 * @param start  The start of the window.
+	 * @param end    The end of the window.
+	 * @param window The other window.
+	 *
+	 * @return True if they overlap.
+	 */
+	private static boolean overlaps(final double start, final double end, final Pair<Double, Double> window){
+		return start < window.getRight() && window.getLeft() < end;
+	}
+	
+	/**
+	 * Estimate the arrival times at the stops of a tour.
+	 *
+	 * @param tour  The tour.
+	 * @param stops The remaining stops.
+	 *
+	 * @return The arrival times, in the order of the stops.
+	 */
+	private List<Double> getArrivalTimes(final ChargerTour tour, final List<ChargingStop> stops){
+		final var arrivalTimes = new ArrayList<Double>();
+		var currentTime = Math.max(time, tour.getReadyTime());
+		var position = tour.getCharger().getPosition();
+		for(final var stop : stops){
+			currentTime += tour.getCharger().getTravelTime(position.distanceTo(stop.getStopLocation().getPosition()));
+			arrivalTimes.add(currentTime);
+			currentTime += stop.getChargingTime();
+			position = stop.getStopLocation().getPosition();
+		}
+		return arrivalTimes;
+	}
+	
+	/**
+	 * Get the capacity a charger needs to go through the remaining stops of a tour and come back to the base.
+	 *
+	 * @param tour  The tour.
+	 * @param stops The remaining stops.
+	 *
+	 * @return The capacity needed.
+	 */
+	private static double getRequiredCapacity(final ChargerTour tour, final List<ChargingStop> stops){
+		final var charger = tour.getCharger();
+		var required = 0D;
+		var position = charger.getPosition();
+		for(final var stop : stops){
+			required += charger.getTravelConsumption(charger.getTravelTime(position.distanceTo(stop.getStopLocation().getPosition())));
+			required += charger.getCapacityUsed(stop.getChargingTime());
+			position = stop.getStopLocation().getPosition();
+		}
+		return required + charger.getTravelConsumption(charger.getTravelTime(position.distanceTo(BASE)));
+	}
+	
+	/**
+	 * Update the estimated charging windows of the stops of a tour.
+	 *
+	 * @param tour The tour.
+	 */
+	private void updateWindows(final ChargerTour tour){
+		final var arrivalTimes = getArrivalTimes(tour, tour.getStops());
+		for(var i = 0; i < arrivalTimes.size(); i++){
+			final var stop = tour.getStops().get(i);
+			windows.put(stop, Pair.of(arrivalTimes.get(i), arrivalTimes.get(i) + stop.getChargingTime()));
+		}
+	}
+	
+	/**
+	 * Insert a stop in a tour.
+	 *
+	 * @param stop      The stop.
+	 * @param candidate Where to insert it.
+	 */
+	private void apply(final ChargingStop stop, final Candidate candidate){
+		stop.setCharger(candidate.tour.getCharger());
+		stop.setChargerArrivalTime(candidate.arrivalTime);
+		candidate.tour.getStops().add(candidate.index, stop);
+		candidate.conflicts.forEach(conflict -> {
+			stop.addConflictZone(conflict);
+			conflict.addConflictZone(stop);
+		});
+		updateWindows(candidate.tour);
+	}
+	
+	/**
+	 * Remove a stop inserted in a tour.
+	 *
+	 * @param stop      The stop.
+	 * @param candidate Where it was inserted.
+	 */
+	private void remove(final ChargingStop stop, final Candidate candidate){
+		candidate.tour.getStops().remove(stop);
+		candidate.conflicts.forEach(conflict -> conflict.getConflictZones().remove(stop));
+		windows.remove(stop);
+		updateWindows(candidate.tour);
+	}
+}
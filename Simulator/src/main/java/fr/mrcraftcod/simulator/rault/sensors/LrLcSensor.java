@@ -7,6 +7,9 @@ import org.jetbrains.annotations.NotNull;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 /**
@@ -58,6 +61,21 @@ public class LrLcSensor extends Sensor{
 		return this;
 	}
 	
+	@Override
+	public void writeBinary(@NotNull final DataOutput output) throws IOException{
+		super.writeBinary(output);
+		output.writeDouble(getLr());
+		output.writeDouble(getLc());
+	}
+	
+	@Override
+	public LrLcSensor fillFromBinary(@NotNull final Environment environment, @NotNull final ByteBuffer buffer){
+		super.fillFromBinary(environment, buffer);
+		setLr(buffer.getDouble());
+		setLc(buffer.getDouble());
+		return this;
+	}
+	
 	@Override
 	public boolean haveSameValues(final Identifiable identifiable){
 		super.haveSameValues(identifiable);
@@ -40,7 +40,7 @@ public class LrLcSensorListener implements SensorListener{
 		}
 		if(!hasRequestedLc && !this.sensor.isPlannedForCharging()){
 			if(newCurrentCapacity <= this.sensor.getLc()){
-				environment.getSimulator().getUnreadableQueue().add(new LcRequestEvent(environment.getSimulator().getCurrentTime(), sensor));
+				LcRequestEvent.schedule(environment, environment.getSimulator().getCurrentTime(), sensor);
 				hasRequestedLc = true;
 			}
 		}
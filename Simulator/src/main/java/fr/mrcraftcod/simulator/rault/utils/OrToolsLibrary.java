@@ -0,0 +1,67 @@
+package fr.mrcraftcod.simulator.rault.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Loads the native library of OR-tools the first time a solver or a router using it needs it, so that simulations not routing with OR-tools never load it.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-18.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-18
+ */
+public final class OrToolsLibrary{
+	private static final Logger LOGGER = LoggerFactory.getLogger(OrToolsLibrary.class);
+	private static final String LIBRARY_NAME = "jniortools";
+	private static boolean loaded = false;
+	private static UnsatisfiedLinkError loadError = null;
+	
+	/**
+	 * Constructor.
+	 */
+	private OrToolsLibrary(){
+	}
+	
+	/**
+	 * Load the library if it wasn't tried yet.
+	 *
+	 * @return True if the library is loaded, false if it couldn't be.
+	 */
+	public static synchronized boolean tryLoad(){
+		if(!loaded && Objects.isNull(loadError)){
+			try{
+				System.loadLibrary(LIBRARY_NAME);
+				loaded = true;
+				LOGGER.debug("Loaded ORTools library");
+			}
+			catch(final UnsatisfiedLinkError e){
+				loadError = e;
+				LOGGER.error("Failed to load ORTools library, please add its folder with the java argument -Djava.library.path=/path/to/folder", e);
+			}
+		}
+		return loaded;
+	}
+	
+	/**
+	 * Load the library if it wasn't tried yet.
+	 *
+	 * @throws UnsatisfiedLinkError If the library couldn't be loaded.
+	 */
+	public static void load() throws UnsatisfiedLinkError{
+		if(!tryLoad()){
+			throw loadError;
+		}
+	}
+	
+	/**
+	 * Get the error that happened while loading the library.
+	 *
+	 * @return The error, empty if the library was loaded or wasn't needed yet.
+	 */
+	public static synchronized Optional<UnsatisfiedLinkError> getLoadError(){
+		return Optional.ofNullable(loadError);
+	}
+}
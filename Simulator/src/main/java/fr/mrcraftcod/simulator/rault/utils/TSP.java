@@ -39,9 +39,21 @@ public class TSP extends TourSolver{
 		super(environment, tour);
 	}
 	
+	/**
+	 * Constructor.
+	 *
+	 * @param environment The environment.
+	 * @param tour        The tour to route.
+	 * @param startTime   The simulation time the tour starts at.
+	 */
+	public TSP(final Environment environment, final ChargerTour tour, final double startTime){
+		super(environment, tour, startTime);
+	}
+	
 	@SuppressWarnings("Duplicates")
 	@Override
 	public Optional<Pair<List<Integer>, List<Double>>> solve(){
+		OrToolsLibrary.load();
 		//TODO: See https://github.com/google/or-tools/issues/885 should be fixed in ortools 7.0
 		@SuppressWarnings("MismatchedQueryAndUpdateOfCollection") final List<NodeEvaluator2> callbacks = new ArrayList<>();
 		
@@ -65,12 +77,13 @@ public class TSP extends TourSolver{
 		final var arrivalTimes = new ArrayList<Double>();
 		if(solution != null){
 			LOGGER.debug("TSP cost for tour of {}: {}", getTour().getCharger().getUniqueIdentifier(), solution.objectiveValue());
+			setObjective(solution.objectiveValue());
 			final var newOrder = new ArrayList<Integer>();
 			for(var node = routing.start(0); !routing.isEnd(node); node = solution.value(routing.nextVar(node))){
 				final var time = routing.cumulVar(node, "time");
 				if(node > 0){
 					newOrder.add((int) (node - 1));
-					arrivalTimes.add(getEnvironment().getSimulator().getCurrentTime() + (solution.min(time) / Callbacks.COST_MULTIPLICAND) - getTour().getStops().get((int) node - 1).getChargingTime());
+					arrivalTimes.add(getStartTime() + (solution.min(time) / Callbacks.COST_MULTIPLICAND) - getTour().getStops().get((int) node - 1).getChargingTime());
 				}
 			}
 			return Optional.of(MutablePair.of(newOrder, arrivalTimes));
@@ -82,7 +95,7 @@ public class TSP extends TourSolver{
 	}
 	
 	@Override
-	protected String getSolverName(){
+	public String getSolverName(){
 		return "TSP";
 	}
 	
@@ -39,9 +39,21 @@ public class TSPMTW extends TourSolver{
 		super(environment, tour);
 	}
 	
+	/**
+	 * Constructor.
+	 *
+	 * @param environment The environment.
+	 * @param tour        The tour to route.
+	 * @param startTime   The simulation time the tour starts at.
+	 */
+	public TSPMTW(final Environment environment, final ChargerTour tour, final double startTime){
+		super(environment, tour, startTime);
+	}
+	
 	@SuppressWarnings("Duplicates")
 	@Override
 	public Optional<Pair<List<Integer>, List<Double>>> solve(){
+		OrToolsLibrary.load();
 		LOGGER.debug("Creating model with {} stops", getTour().getStops().size());
 		
 		final var routing = new RoutingModel(getTour().getStops().size() + 1, 1, 0);
@@ -83,6 +95,7 @@ public class TSPMTW extends TourSolver{
 		
 		if(solution != null){
 			LOGGER.debug("TSPMTW cost for tour of {}: {}", getTour().getCharger().getUniqueIdentifier(), solution.objectiveValue());
+			setObjective(solution.objectiveValue());
 			
 			final var newOrder = new ArrayList<Integer>();
 			final var arrivalTimes = new ArrayList<Double>();
@@ -90,7 +103,7 @@ public class TSPMTW extends TourSolver{
 				final var time = routing.cumulVar(node, "time");
 				if(node > 0){
 					newOrder.add((int) (node - 1));
-					arrivalTimes.add(getEnvironment().getSimulator().getCurrentTime() + (solution.min(time) / Callbacks.COST_MULTIPLICAND) - getTour().getStops().get((int) node - 1).getChargingTime());
+					arrivalTimes.add(getStartTime() + (solution.min(time) / Callbacks.COST_MULTIPLICAND) - getTour().getStops().get((int) node - 1).getChargingTime());
 				}
 			}
 			return Optional.of(MutablePair.of(newOrder, arrivalTimes));
@@ -102,7 +115,7 @@ public class TSPMTW extends TourSolver{
 	}
 	
 	@Override
-	protected String getSolverName(){
+	public String getSolverName(){
 		return "TSPMTW";
 	}
 	
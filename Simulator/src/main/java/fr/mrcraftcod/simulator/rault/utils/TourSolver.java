@@ -1,6 +1,7 @@
 package fr.mrcraftcod.simulator.rault.utils;
 
 import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.jfr.TourSolverExecution;
 import fr.mrcraftcod.simulator.rault.routing.ChargerTour;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
@@ -24,24 +25,54 @@ public abstract class TourSolver implements Callable<Optional<Pair<List<Integer>
 	
 	private final Environment environment;
 	private final ChargerTour tour;
+	private final double startTime;
+	private double objective;
 	
 	/**
-	 * Constructor.
+	 * Constructor, the tour starting at the current time of the simulation.
 	 *
 	 * @param environment The environment.
 	 * @param tour        The tour to route.
 	 */
 	protected TourSolver(final Environment environment, final ChargerTour tour){
+		this(environment, tour, environment.getSimulator().getCurrentTime());
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param environment The environment.
+	 * @param tour        The tour to route.
+	 * @param startTime   The simulation time the tour starts at.
+	 */
+	protected TourSolver(final Environment environment, final ChargerTour tour, final double startTime){
 		super();
 		this.environment = environment;
 		this.tour = tour;
+		this.startTime = startTime;
+		this.objective = Double.NaN;
 	}
 	
 	@Override
 	public Optional<Pair<List<Integer>, List<Double>>> call(){
-		final var startTime = System.currentTimeMillis();
+		final var jfrEvent = new TourSolverExecution();
+		jfrEvent.begin();
+		final var startTime = System.nanoTime();
 		final var result = solve();
-		LOGGER.debug("{} executed in {}", getSolverName(), Duration.ofMillis(System.currentTimeMillis() - startTime));
+		final var duration = System.nanoTime() - startTime;
+		jfrEvent.end();
+		if(jfrEvent.shouldCommit()){
+			jfrEvent.solver = getSolverName();
+			jfrEvent.charger = tour.getCharger().getUniqueIdentifier();
+			jfrEvent.stopCount = tour.getStops().size();
+			jfrEvent.timeout = getTimeout();
+			jfrEvent.simulationTime = getStartTime();
+			jfrEvent.solved = result.isPresent();
+			jfrEvent.objective = getObjective();
+			jfrEvent.commit();
+		}
+		environment.getSimulator().getStatistics().recordSolver(duration);
+		LOGGER.debug("{} executed in {}", getSolverName(), Duration.ofNanos(duration));
 		return result;
 	}
 	
@@ -57,7 +88,7 @@ public abstract class TourSolver implements Callable<Optional<Pair<List<Integer>
 	 *
 	 * @return The name.
 	 */
-	protected abstract String getSolverName();
+	public abstract String getSolverName();
 	
 	/**
 	 * Get the environment.
@@ -76,6 +107,33 @@ public abstract class TourSolver implements Callable<Optional<Pair<List<Integer>
 	@SuppressWarnings("SameReturnValue")
 	public abstract int getTimeout();
 	
+	/**
+	 * Get the objective value of the last solution found.
+	 *
+	 * @return The objective value, NaN if no solution was found.
+	 */
+	public double getObjective(){
+		return objective;
+	}
+	
+	/**
+	 * Set the objective value of the solution found.
+	 *
+	 * @param objective The objective value.
+	 */
+	protected void setObjective(final double objective){
+		this.objective = objective;
+	}
+	
+	/**
+	 * Get the simulation time the tour starts at, the arrival times found being relative to it.
+	 *
+	 * @return The start time.
+	 */
+	public double getStartTime(){
+		return startTime;
+	}
+	
 	/**
 	 * Get the tour.
 	 *
@@ -0,0 +1,170 @@
+package fr.mrcraftcod.simulator.routing;
+
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import fr.mrcraftcod.simulator.simulation.SimulationEvent;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import java.util.*;
+
+/**
+ * The charge requests waiting to be routed by a router.
+ * <p>
+ * Each sensor gets a dense index the first time it makes a request, and the requesting sensors are kept as a {@link BitSet} over these indices.
+ * The events that will trigger a routing are also tracked here so they can be cancelled once the requests have been routed, without scanning the whole event queue.
+ * A trigger whose routing was refused can be parked until a charger becomes available, instead of being retried periodically.
+ * <p>
+ * A registry belongs to one router, and so to one environment. It isn't thread-safe and is meant to be used from the simulation thread.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-09.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-09
+ */
+public class RequestRegistry{
+	private final Map<Sensor, Integer> indices;
+	private final List<Sensor> sensors;
+	private final BitSet requesting;
+	private final List<SimulationEvent> pendingTriggers;
+	private Sensor parkedTrigger;
+	
+	/**
+	 * Constructor.
+	 */
+	public RequestRegistry(){
+		this.indices = new HashMap<>();
+		this.sensors = new ArrayList<>();
+		this.requesting = new BitSet();
+		this.pendingTriggers = new ArrayList<>();
+	}
+	
+	/**
+	 * Register a request from a sensor.
+	 *
+	 * @param sensor The sensor requesting.
+	 *
+	 * @return True if the sensor wasn't already requesting, false otherwise.
+	 */
+	public boolean add(final Sensor sensor){
+		final int index = indices.computeIfAbsent(sensor, s -> {
+			sensors.add(s);
+			return sensors.size() - 1;
+		});
+		if(requesting.get(index)){
+			return false;
+		}
+		requesting.set(index);
+		return true;
+	}
+	
+	/**
+	 * Tell if a sensor is requesting.
+	 *
+	 * @param sensor The sensor.
+	 *
+	 * @return True if it is requesting, false otherwise.
+	 */
+	public boolean contains(final Sensor sensor){
+		final var index = indices.get(sensor);
+		return Objects.nonNull(index) && requesting.get(index);
+	}
+	
+	/**
+	 * Get the requesting sensors, in the order they made their first request.
+	 *
+	 * @return A new list of the requesting sensors.
+	 */
+	public List<Sensor> getRequestingSensors(){
+		final var result = new ArrayList<Sensor>(requesting.cardinality());
+		for(var i = requesting.nextSetBit(0); i >= 0; i = requesting.nextSetBit(i + 1)){
+			result.add(sensors.get(i));
+		}
+		return result;
+	}
+	
+	/**
+	 * Get the number of requesting sensors.
+	 *
+	 * @return The number of requesting sensors.
+	 */
+	public int size(){
+		return requesting.cardinality();
+	}
+	
+	/**
+	 * Remove all the requests and the parked trigger.
+	 */
+	public void clear(){
+		requesting.clear();
+		parkedTrigger = null;
+	}
+	
+	/**
+	 * Track an event that will trigger a routing.
+	 *
+	 * @param event The event.
+	 */
+	public void addPendingTrigger(final SimulationEvent event){
+		pendingTriggers.add(event);
+	}
+	
+	/**
+	 * Stop tracking an event that will trigger a routing, usually because it is being executed.
+	 *
+	 * @param event The event.
+	 */
+	public void removePendingTrigger(final SimulationEvent event){
+		pendingTriggers.remove(event);
+	}
+	
+	/**
+	 * Cancel all the events tracked that would have triggered a routing.
+	 * The events stay in the queue but will be skipped by the simulator.
+	 */
+	public void cancelPendingTriggers(){
+		pendingTriggers.forEach(SimulationEvent::cancel);
+		pendingTriggers.clear();
+	}
+	
+	/**
+	 * Get the number of events tracked that will trigger a routing.
+	 *
+	 * @return The number of pending triggers.
+	 */
+	public int getPendingTriggerCount(){
+		return pendingTriggers.size();
+	}
+	
+	/**
+	 * Park a trigger whose routing was refused, to be retried once a charger becomes available.
+	 * Only one trigger is kept, a routing being done for every requesting sensor.
+	 *
+	 * @param sensor The sensor that made the request.
+	 */
+	public void park(final Sensor sensor){
+		parkedTrigger = sensor;
+	}
+	
+	/**
+	 * Take the parked trigger, if any, so that it is retried only once.
+	 *
+	 * @return The sensor that made the request, or empty if no trigger is parked.
+	 */
+	public Optional<Sensor> unpark(){
+		final var sensor = Optional.ofNullable(parkedTrigger);
+		parkedTrigger = null;
+		return sensor;
+	}
+	
+	/**
+	 * Tell if a trigger is parked.
+	 *
+	 * @return True if a trigger is waiting for a charger to become available.
+	 */
+	public boolean hasParkedTrigger(){
+		return Objects.nonNull(parkedTrigger);
+	}
+	
+	@Override
+	public String toString(){
+		return new ToStringBuilder(this).append("requesting", size()).append("pendingTriggers", pendingTriggers.size()).append("parkedTrigger", hasParkedTrigger()).toString();
+	}
+}
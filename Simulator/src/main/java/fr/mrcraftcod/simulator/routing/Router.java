@@ -2,13 +2,18 @@ package fr.mrcraftcod.simulator.routing;
 
 import fr.mrcraftcod.simulator.Environment;
 import fr.mrcraftcod.simulator.sensors.Sensor;
+import fr.mrcraftcod.simulator.utils.BinarySerializable;
 import fr.mrcraftcod.simulator.utils.Identifiable;
 import fr.mrcraftcod.simulator.utils.JSONParsable;
 import org.jetbrains.annotations.NotNull;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a router.
@@ -17,10 +22,11 @@ import java.util.Collection;
  *
  * @author Thomas Couchoud
  */
-public abstract class Router implements Identifiable, JSONParsable<Router>{
+public abstract class Router implements Identifiable, JSONParsable<Router>, BinarySerializable<Router>{
 	private static final Logger LOGGER = LoggerFactory.getLogger(Router.class);
 	private final int ID;
-	private static int NEXT_ID = 0;
+	private static final AtomicInteger NEXT_ID = new AtomicInteger(0);
+	private final RequestRegistry requestRegistry;
 	
 	/**
 	 * Constructor used by the JSON filler.
@@ -35,7 +41,8 @@ public abstract class Router implements Identifiable, JSONParsable<Router>{
 	 * Constructor.
 	 */
 	protected Router(){
-		this.ID = ++NEXT_ID;
+		this.ID = NEXT_ID.incrementAndGet();
+		this.requestRegistry = new RequestRegistry();
 		LOGGER.debug("New router created: {}", getUniqueIdentifier());
 	}
 	
@@ -49,11 +56,38 @@ public abstract class Router implements Identifiable, JSONParsable<Router>{
 	 */
 	public abstract boolean route(final Environment environment, final Collection<? extends Sensor> sensors);
 	
+	/**
+	 * Called when a new sensor was added to the request registry by a Lr request, before a routing is asked.
+	 * Does nothing by default.
+	 *
+	 * @param environment The environment.
+	 */
+	public void onRequestsChanged(final Environment environment){
+	}
+	
 	@Override
 	public Router fillFromJson(@NotNull final Environment environment, @NotNull final JSONObject json) throws IllegalArgumentException{
 		return this;
 	}
 	
+	@Override
+	public void writeBinary(@NotNull final DataOutput output) throws IOException{
+	}
+	
+	@Override
+	public Router fillFromBinary(@NotNull final Environment environment, @NotNull final ByteBuffer buffer){
+		return this;
+	}
+	
+	/**
+	 * Get the charge requests waiting to be routed by this router.
+	 *
+	 * @return The request registry.
+	 */
+	public RequestRegistry getRequestRegistry(){
+		return requestRegistry;
+	}
+	
 	@Override
 	public int getID(){
 		return this.ID;
@@ -9,26 +9,31 @@ import org.jetbrains.annotations.NotNull;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class representing a sensor.
  * If a custom sensor needs to be done, extend this class and change its behaviour.
  * Don't forget to override {@link #fillFromJson(Environment, JSONObject)} to get custom fields and call the super method.
+ * The same goes for {@link #writeBinary(DataOutput)} and {@link #fillFromBinary(Environment, ByteBuffer)} for the binary instances.
  * <p>
  * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2018-18-04.
  *
  * @author Thomas Couchoud
  */
 @SuppressWarnings("WeakerAccess")
-public class Sensor implements Identifiable, JSONParsable<Sensor>, Positionable, Comparable<Sensor>, Rechargeable{
+public class Sensor implements Identifiable, JSONParsable<Sensor>, BinarySerializable<Sensor>, Positionable, Comparable<Sensor>, Rechargeable{
 	private final static Logger LOGGER = LoggerFactory.getLogger(Sensor.class);
 	private final int ID;
 	private final List<SensorListener> listeners;
 	private final Environment environment;
-	private static int NEXT_ID = 0;
+	private static final AtomicInteger NEXT_ID = new AtomicInteger(0);
 	private double maxCapacity;
 	private double currentCapacity;
 	private double powerActivation;
@@ -55,7 +60,7 @@ public class Sensor implements Identifiable, JSONParsable<Sensor>, Positionable,
 	 * @param dischargeSpeed  The speed the charger is loosing energy.
 	 */
 	public Sensor(final Environment environment, final double currentCapacity, final double maxCapacity, final double powerActivation, final Position position, final double dischargeSpeed){
-		this.ID = ++NEXT_ID;
+		this.ID = NEXT_ID.incrementAndGet();
 		this.environment = environment;
 		this.listeners = new ArrayList<>();
 		setMaxCapacity(maxCapacity);
@@ -86,6 +91,27 @@ public class Sensor implements Identifiable, JSONParsable<Sensor>, Positionable,
 		return this;
 	}
 	
+	@Override
+	public void writeBinary(@NotNull final DataOutput output) throws IOException{
+		output.writeDouble(getPowerActivation());
+		output.writeDouble(getPosition().getX());
+		output.writeDouble(getPosition().getY());
+		output.writeDouble(getMaxCapacity());
+		output.writeDouble(getCurrentCapacity());
+		output.writeDouble(getDischargeSpeed());
+	}
+	
+	@Override
+	public Sensor fillFromBinary(@NotNull final Environment environment, @NotNull final ByteBuffer buffer){
+		setPowerActivation(buffer.getDouble());
+		final var x = buffer.getDouble();
+		setPosition(new Position(x, buffer.getDouble()));
+		setMaxCapacity(buffer.getDouble());
+		setCurrentCapacity(buffer.getDouble());
+		setDischargeSpeed(buffer.getDouble());
+		return this;
+	}
+	
 	/**
 	 * Get the discharge speed.
 	 *
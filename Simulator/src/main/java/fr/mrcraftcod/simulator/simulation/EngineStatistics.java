@@ -0,0 +1,382 @@
+package fr.mrcraftcod.simulator.simulation;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Performance statistics of a simulator.
+ * <p>
+ * The number of events executed and the time spent in their handler are kept per class of event.
+ * Handler times are recorded in a histogram with power of two buckets of nanoseconds, so recording is constant time and percentiles are given as the upper bound of their bucket.
+ * <p>
+ * Everything is recorded from the simulation thread, except the routing and solver times that can be recorded from any thread.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-10.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-10
+ */
+public class EngineStatistics{
+	private static final int BUCKET_COUNT = Long.SIZE;
+	private final Map<Class<? extends SimulationEvent>, EventStatistics> eventStatistics;
+	private final AtomicLong routingRounds;
+	private final AtomicLong routingNanos;
+	private final AtomicLong refusedRoutings;
+	private final AtomicLong refusedRoutingNanos;
+	private final AtomicLong solverRuns;
+	private final AtomicLong solverNanos;
+	private long startNanos;
+	private long endNanos;
+	private int peakQueueSize;
+	private int peakFutureMetricEvents;
+	
+	/**
+	 * Statistics of one class of event.
+	 */
+	public static class EventStatistics{
+		private final long[] histogram;
+		private long count;
+		private long totalNanos;
+		private long maxNanos;
+		
+		/**
+		 * Constructor.
+		 */
+		EventStatistics(){
+			this.histogram = new long[BUCKET_COUNT];
+		}
+		
+		/**
+		 * Record the execution of an event.
+		 *
+		 * @param nanos The time spent in the handler, in nanoseconds.
+		 */
+		void record(final long nanos){
+			final var value = Math.max(0, nanos);
+			count++;
+			totalNanos += value;
+			maxNanos = Math.max(maxNanos, value);
+			histogram[getBucket(value)]++;
+		}
+		
+		/**
+		 * Get the bucket of a value: bucket i holds the values in [2^(i-1);2^i[, bucket 0 holds 0.
+		 *
+		 * @param nanos The value.
+		 *
+		 * @return The index of the bucket.
+		 */
+		private static int getBucket(final long nanos){
+			return Math.min(BUCKET_COUNT - 1, BUCKET_COUNT - Long.numberOfLeadingZeros(nanos));
+		}
+		
+		/**
+		 * Get an approximation of a percentile of the handler times.
+		 *
+		 * @param percentile The percentile, in [0;1].
+		 *
+		 * @return The upper bound of the bucket holding the percentile, in nanoseconds, capped by the maximum time recorded.
+		 */
+		public long getPercentileNanos(final double percentile){
+			if(count == 0){
+				return 0;
+			}
+			final var rank = Math.max(1, (long) Math.ceil(percentile * count));
+			var seen = 0L;
+			for(var i = 0; i < histogram.length; i++){
+				seen += histogram[i];
+				if(seen >= rank){
+					return Math.min(maxNanos, i == 0 ? 0 : (1L << i) - 1);
+				}
+			}
+			return maxNanos;
+		}
+		
+		/**
+		 * Get the number of events executed.
+		 *
+		 * @return The count.
+		 */
+		public long getCount(){
+			return count;
+		}
+		
+		/**
+		 * Get the total time spent in the handler.
+		 *
+		 * @return The time in nanoseconds.
+		 */
+		public long getTotalNanos(){
+			return totalNanos;
+		}
+		
+		/**
+		 * Get the longest time spent in the handler.
+		 *
+		 * @return The time in nanoseconds.
+		 */
+		public long getMaxNanos(){
+			return maxNanos;
+		}
+		
+		/**
+		 * Get the mean time spent in the handler.
+		 *
+		 * @return The time in nanoseconds.
+		 */
+		public double getMeanNanos(){
+			return count == 0 ? 0 : (double) totalNanos / count;
+		}
+		
+		/**
+		 * Get the histogram of the handler times.
+		 *
+		 * @return The count of events per bucket, bucket i holding the times in [2^(i-1);2^i[ nanoseconds.
+		 */
+		public long[] getHistogram(){
+			return histogram.clone();
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 */
+	public EngineStatistics(){
+		this.eventStatistics = new HashMap<>();
+		this.routingRounds = new AtomicLong();
+		this.routingNanos = new AtomicLong();
+		this.refusedRoutings = new AtomicLong();
+		this.refusedRoutingNanos = new AtomicLong();
+		this.solverRuns = new AtomicLong();
+		this.solverNanos = new AtomicLong();
+	}
+	
+	/**
+	 * Mark the start of the simulation.
+	 */
+	void start(){
+		this.startNanos = System.nanoTime();
+		this.endNanos = 0;
+	}
+	
+	/**
+	 * Mark the end of the simulation.
+	 */
+	void stop(){
+		this.endNanos = System.nanoTime();
+	}
+	
+	/**
+	 * Record the execution of an event.
+	 *
+	 * @param eventClass The class of the event.
+	 * @param nanos      The time spent in its handler, in nanoseconds.
+	 */
+	void recordEvent(final Class<? extends SimulationEvent> eventClass, final long nanos){
+		eventStatistics.computeIfAbsent(eventClass, k -> new EventStatistics()).record(nanos);
+	}
+	
+	/**
+	 * Record the size of the queues.
+	 *
+	 * @param queueSize          The number of events in the queue.
+	 * @param futureMetricEvents The number of metric events waiting to be dispatched.
+	 */
+	void recordQueueSizes(final int queueSize, final int futureMetricEvents){
+		peakQueueSize = Math.max(peakQueueSize, queueSize);
+		peakFutureMetricEvents = Math.max(peakFutureMetricEvents, futureMetricEvents);
+	}
+	
+	/**
+	 * Record a call to a router.
+	 * Refused routings, when the router can't route the requests yet, are counted apart from the routing rounds.
+	 *
+	 * @param nanos  The time spent routing, in nanoseconds.
+	 * @param routed True if the requests were routed, false if the router refused them.
+	 */
+	public void recordRouting(final long nanos, final boolean routed){
+		if(routed){
+			routingRounds.incrementAndGet();
+			routingNanos.addAndGet(nanos);
+		}
+		else{
+			refusedRoutings.incrementAndGet();
+			refusedRoutingNanos.addAndGet(nanos);
+		}
+	}
+	
+	/**
+	 * Record a run of a solver.
+	 *
+	 * @param nanos The time spent in the solver, in nanoseconds.
+	 */
+	public void recordSolver(final long nanos){
+		solverRuns.incrementAndGet();
+		solverNanos.addAndGet(nanos);
+	}
+	
+	/**
+	 * Get the statistics of the events executed, by class.
+	 *
+	 * @return The statistics.
+	 */
+	public Map<Class<? extends SimulationEvent>, EventStatistics> getEventStatistics(){
+		return Collections.unmodifiableMap(eventStatistics);
+	}
+	
+	/**
+	 * Get the total number of events executed.
+	 *
+	 * @return The number of events.
+	 */
+	public long getEventCount(){
+		return eventStatistics.values().stream().mapToLong(EventStatistics::getCount).sum();
+	}
+	
+	/**
+	 * Get the wall time elapsed since the start of the simulation, or its duration if it ended.
+	 *
+	 * @return The time in nanoseconds.
+	 */
+	public long getElapsedNanos(){
+		if(startNanos == 0){
+			return 0;
+		}
+		return (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+	}
+	
+	/**
+	 * Get the number of events executed per second of wall time.
+	 *
+	 * @return The events per second.
+	 */
+	public double getEventsPerSecond(){
+		final var elapsed = getElapsedNanos();
+		return elapsed <= 0 ? 0 : getEventCount() * 1e9 / elapsed;
+	}
+	
+	/**
+	 * Get the maximum number of events that were in the queue.
+	 *
+	 * @return The peak size.
+	 */
+	public int getPeakQueueSize(){
+		return peakQueueSize;
+	}
+	
+	/**
+	 * Get the maximum number of metric events that were waiting to be dispatched.
+	 *
+	 * @return The peak backlog.
+	 */
+	public int getPeakFutureMetricEvents(){
+		return peakFutureMetricEvents;
+	}
+	
+	/**
+	 * Get the number of routing rounds.
+	 *
+	 * @return The number of rounds.
+	 */
+	public long getRoutingRounds(){
+		return routingRounds.get();
+	}
+	
+	/**
+	 * Get the wall time spent routing.
+	 *
+	 * @return The time in nanoseconds.
+	 */
+	public long getRoutingNanos(){
+		return routingNanos.get();
+	}
+	
+	/**
+	 * Get the number of refused routings.
+	 *
+	 * @return The number of refusals.
+	 */
+	public long getRefusedRoutings(){
+		return refusedRoutings.get();
+	}
+	
+	/**
+	 * Get the wall time spent in refused routings.
+	 *
+	 * @return The time in nanoseconds.
+	 */
+	public long getRefusedRoutingNanos(){
+		return refusedRoutingNanos.get();
+	}
+	
+	/**
+	 * Get the number of solver runs.
+	 *
+	 * @return The number of runs.
+	 */
+	public long getSolverRuns(){
+		return solverRuns.get();
+	}
+	
+	/**
+	 * Get the wall time spent in the solvers.
+	 *
+	 * @return The time in nanoseconds.
+	 */
+	public long getSolverNanos(){
+		return solverNanos.get();
+	}
+	
+	/**
+	 * Get the statistics as a human readable table, event classes sorted by total handler time.
+	 *
+	 * @return The table.
+	 */
+	public String toTable(){
+		final var builder = new StringBuilder();
+		builder.append(String.format("%-32s %10s %12s %12s %12s %12s %12s%n", "Event", "Count", "Total (ms)", "Mean (us)", "p50 (us)", "p99 (us)", "Max (us)"));
+		eventStatistics.entrySet().stream().sorted(Comparator.comparingLong((Map.Entry<Class<? extends SimulationEvent>, EventStatistics> e) -> e.getValue().getTotalNanos()).reversed()).forEach(e -> {
+			final var stats = e.getValue();
+			builder.append(String.format("%-32s %10d %12.3f %12.3f %12.3f %12.3f %12.3f%n", e.getKey().getSimpleName(), stats.getCount(), stats.getTotalNanos() / 1e6, stats.getMeanNanos() / 1e3, stats.getPercentileNanos(0.5) / 1e3, stats.getPercentileNanos(0.99) / 1e3, stats.getMaxNanos() / 1e3));
+		});
+		builder.append(String.format("Events: %d in %.3f s (%.1f events/s)%n", getEventCount(), getElapsedNanos() / 1e9, getEventsPerSecond()));
+		builder.append(String.format("Peak queue size: %d, peak metric backlog: %d%n", getPeakQueueSize(), getPeakFutureMetricEvents()));
+		builder.append(String.format("Routing rounds: %d (%.3f ms), refused: %d (%.3f ms), solver runs: %d (%.3f ms)", getRoutingRounds(), getRoutingNanos() / 1e6, getRefusedRoutings(), getRefusedRoutingNanos() / 1e6, getSolverRuns(), getSolverNanos() / 1e6));
+		return builder.toString();
+	}
+	
+	/**
+	 * Get the statistics as a JSON object.
+	 *
+	 * @return The JSON object.
+	 */
+	public JSONObject toJSON(){
+		final var events = new JSONObject();
+		eventStatistics.forEach((eventClass, stats) -> {
+			final var histogram = new JSONArray();
+			for(final var bucket : stats.getHistogram()){
+				histogram.put(bucket);
+			}
+			events.put(eventClass.getName(), new JSONObject().put("count", stats.getCount()).put("totalNanos", stats.getTotalNanos()).put("meanNanos", stats.getMeanNanos()).put("p50Nanos", stats.getPercentileNanos(0.5)).put("p99Nanos", stats.getPercentileNanos(0.99)).put("maxNanos", stats.getMaxNanos()).put("histogram", histogram));
+		});
+		return new JSONObject().put("events", events).put("eventCount", getEventCount()).put("elapsedNanos", getElapsedNanos()).put("eventsPerSecond", getEventsPerSecond()).put("peakQueueSize", getPeakQueueSize()).put("peakFutureMetricEvents", getPeakFutureMetricEvents()).put("routingRounds", getRoutingRounds()).put("routingNanos", getRoutingNanos()).put("refusedRoutings", getRefusedRoutings()).put("refusedRoutingNanos", getRefusedRoutingNanos()).put("solverRuns", getSolverRuns()).put("solverNanos", getSolverNanos());
+	}
+	
+	/**
+	 * Write the statistics as JSON in a file.
+	 *
+	 * @param path The path of the file.
+	 *
+	 * @throws IOException If the file couldn't be written.
+	 */
+	public void writeJSON(final Path path) throws IOException{
+		Files.createDirectories(path.getParent());
+		Files.write(path, toJSON().toString(2).getBytes(StandardCharsets.UTF_8));
+	}
+}
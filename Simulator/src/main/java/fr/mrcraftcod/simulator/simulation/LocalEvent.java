@@ -0,0 +1,42 @@
+package fr.mrcraftcod.simulator.simulation;
+
+import fr.mrcraftcod.simulator.Environment;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An event only touching the elements of one region of the environment.
+ * <p>
+ * When the simulator runs with several engine threads, the local events between two other events are run in parallel, one thread per region, the events of a region being run in their order.
+ * For this to give the same results as running them one by one, a local event must:
+ * <ul>
+ * <li>only read and modify the elements of its region, elements being in at most one region at a time;</li>
+ * <li>only schedule events of its region, or events that aren't local but happen after the next event that isn't local.</li>
+ * </ul>
+ * The events of a region happening at the same time with the same priority are also run in parallel when their footprints don't overlap.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-18.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-18
+ */
+public interface LocalEvent{
+	/**
+	 * Get the region the event is confined to.
+	 *
+	 * @return The region, compared with {@link Object#equals(Object)}, or null if the event may touch anything, in which case it is run alone.
+	 */
+	Object getRegion();
+	
+	/**
+	 * Get the elements the event reads or modifies.
+	 * Two simultaneous events of a region whose footprints share an element, compared with {@link Object#equals(Object)}, are run one after the other.
+	 *
+	 * @param environment The environment.
+	 *
+	 * @return The elements, by default the region itself so that the simultaneous events of a region are run one by one.
+	 */
+	default Collection<?> getFootprint(final Environment environment){
+		return List.of(getRegion());
+	}
+}
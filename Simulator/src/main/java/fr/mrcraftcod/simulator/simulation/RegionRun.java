@@ -0,0 +1,338 @@
+package fr.mrcraftcod.simulator.simulation;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.utils.UnreadableQueue;
+import org.jetbrains.annotations.NotNull;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+
+/**
+ * The local events of one region run during a window of the simulation, see {@link LocalEvent}.
+ * <p>
+ * The events scheduled and the metric events dispatched by the events of the region are kept, to be given to the simulator in the order the events would have been run one by one once every region of the window is done.
+ * The events of the region happening before the end of the window are run directly.
+ * <p>
+ * The events of the region happening at the same time with the same priority are run together, split in groups of events whose footprints (see {@link LocalEvent#getFootprint(Environment)}) don't overlap, the groups being run in parallel.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-18.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-18
+ */
+class RegionRun implements Callable<RegionRun>{
+	private final Simulator simulator;
+	private final Environment environment;
+	private final ForkJoinPool pool;
+	private final Object region;
+	private final int index;
+	private final PriorityQueue<SimulationEvent> pending;
+	private final List<Execution> executions;
+	private SimulationEvent bound;
+	
+	/**
+	 * An event run in a region, with what it produced.
+	 */
+	static class Execution{
+		private final SimulationEvent event;
+		private final int regionIndex;
+		private final int order;
+		private final List<SimulationEvent> scheduled;
+		private final List<MetricEvent> metrics;
+		private UnreadableQueue<SimulationEvent> queue;
+		private long duration;
+		
+		/**
+		 * Constructor.
+		 *
+		 * @param event       The event.
+		 * @param regionIndex The index of the region in the window.
+		 * @param order       The index of the event in the events run by the region.
+		 */
+		private Execution(final SimulationEvent event, final int regionIndex, final int order){
+			this.event = event;
+			this.regionIndex = regionIndex;
+			this.order = order;
+			this.scheduled = new ArrayList<>();
+			this.metrics = new ArrayList<>();
+		}
+		
+		/**
+		 * Get the event.
+		 *
+		 * @return The event.
+		 */
+		SimulationEvent getEvent(){
+			return event;
+		}
+		
+		/**
+		 * Get the index of the region in the window.
+		 *
+		 * @return The index.
+		 */
+		int getRegionIndex(){
+			return regionIndex;
+		}
+		
+		/**
+		 * Get the index of the event in the events run by the region.
+		 *
+		 * @return The index.
+		 */
+		int getOrder(){
+			return order;
+		}
+		
+		/**
+		 * Get the queue the event schedules new events in.
+		 * The queue is a view of the events scheduled by the event, read in their order and refusing events in the past like the queue of the simulator.
+		 *
+		 * @return The queue.
+		 */
+		UnreadableQueue<SimulationEvent> getQueue(){
+			if(Objects.isNull(queue)){
+				queue = new UnreadableQueue<>(new AbstractQueue<>(){
+					@Override
+					public boolean add(final SimulationEvent simulationEvent){
+						return offer(simulationEvent);
+					}
+					
+					@Override
+					public boolean offer(final SimulationEvent simulationEvent){
+						if(simulationEvent.getTime() < event.getTime()){
+							return false;
+						}
+						return scheduled.add(simulationEvent);
+					}
+					
+					@Override
+					public SimulationEvent poll(){
+						final var first = peek();
+						if(Objects.nonNull(first)){
+							scheduled.remove(first);
+						}
+						return first;
+					}
+					
+					@Override
+					public SimulationEvent peek(){
+						return scheduled.stream().min(Comparator.naturalOrder()).orElse(null);
+					}
+					
+					@NotNull
+					@Override
+					public Iterator<SimulationEvent> iterator(){
+						return scheduled.iterator();
+					}
+					
+					@Override
+					public int size(){
+						return scheduled.size();
+					}
+				});
+			}
+			return queue;
+		}
+		
+		/**
+		 * Get the events scheduled by the event that weren't run in the window.
+		 *
+		 * @return The events.
+		 */
+		List<SimulationEvent> getScheduled(){
+			return scheduled;
+		}
+		
+		/**
+		 * Get the metric events dispatched by the event.
+		 *
+		 * @return The metric events.
+		 */
+		List<MetricEvent> getMetrics(){
+			return metrics;
+		}
+		
+		/**
+		 * Get the time taken to run the event.
+		 *
+		 * @return The duration in nanoseconds.
+		 */
+		long getDuration(){
+			return duration;
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param simulator   The simulator.
+	 * @param environment The environment.
+	 * @param pool        The pool running the simultaneous events of the region.
+	 * @param region      The region.
+	 * @param index       The index of the region in the window.
+	 */
+	RegionRun(final Simulator simulator, final Environment environment, final ForkJoinPool pool, final Object region, final int index){
+		this.simulator = simulator;
+		this.environment = environment;
+		this.pool = pool;
+		this.region = region;
+		this.index = index;
+		this.pending = new PriorityQueue<>();
+		this.executions = new ArrayList<>();
+	}
+	
+	/**
+	 * Add an event of the region polled from the simulator.
+	 *
+	 * @param event The event.
+	 */
+	void add(final SimulationEvent event){
+		pending.add(event);
+	}
+	
+	/**
+	 * Set the first event that isn't local, marking the end of the window.
+	 *
+	 * @param bound The event, null if there are none.
+	 */
+	void setBound(final SimulationEvent bound){
+		this.bound = bound;
+	}
+	
+	@Override
+	public RegionRun call(){
+		SimulationEvent event;
+		while((event = pending.poll()) != null){
+			if(event.isCancelled()){
+				continue;
+			}
+			final var batch = new ArrayList<Execution>();
+			batch.add(new Execution(event, index, executions.size()));
+			while(Objects.nonNull(pending.peek()) && pending.peek().compareTo(event) == 0){
+				final var next = pending.poll();
+				if(!next.isCancelled()){
+					batch.add(new Execution(next, index, executions.size() + batch.size()));
+				}
+			}
+			if(batch.size() == 1){
+				execute(batch.get(0));
+			}
+			else{
+				runGroups(getGroups(batch));
+			}
+			for(final var execution : batch){
+				executions.add(execution);
+				execution.getScheduled().removeIf(scheduled -> {
+					if(isInWindow(scheduled)){
+						pending.add(scheduled);
+						return true;
+					}
+					return false;
+				});
+			}
+		}
+		return this;
+	}
+	
+	/**
+	 * Split simultaneous events in groups whose footprints don't overlap.
+	 *
+	 * @param batch The events.
+	 *
+	 * @return The groups, in the order of their first event, each group keeping the order of its events.
+	 */
+	private Collection<List<Execution>> getGroups(final List<Execution> batch){
+		final var parents = new int[batch.size()];
+		final var owners = new HashMap<Object, Integer>();
+		for(var i = 0; i < batch.size(); i++){
+			parents[i] = i;
+			for(final var element : ((LocalEvent) batch.get(i).getEvent()).getFootprint(environment)){
+				final var owner = owners.putIfAbsent(element, i);
+				if(Objects.nonNull(owner)){
+					parents[find(parents, i)] = find(parents, owner);
+				}
+			}
+		}
+		final var groups = new LinkedHashMap<Integer, List<Execution>>();
+		for(var i = 0; i < batch.size(); i++){
+			groups.computeIfAbsent(find(parents, i), root -> new ArrayList<>()).add(batch.get(i));
+		}
+		return groups.values();
+	}
+	
+	/**
+	 * Find the group of an event.
+	 *
+	 * @param parents The parent of each event in the groups.
+	 * @param i       The index of the event.
+	 *
+	 * @return The index of the event representing its group.
+	 */
+	private static int find(final int[] parents, int i){
+		while(parents[i] != i){
+			parents[i] = parents[parents[i]];
+			i = parents[i];
+		}
+		return i;
+	}
+	
+	/**
+	 * Run groups of events in parallel, the events of a group being run in order.
+	 *
+	 * @param groups The groups.
+	 */
+	private void runGroups(final Collection<List<Execution>> groups){
+		if(groups.size() == 1){
+			groups.iterator().next().forEach(this::execute);
+			return;
+		}
+		final var tasks = groups.stream().map(group -> ForkJoinTask.adapt(() -> group.forEach(this::execute))).collect(Collectors.toList());
+		if(ForkJoinTask.inForkJoinPool()){
+			ForkJoinTask.invokeAll(tasks);
+		}
+		else{
+			pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+		}
+	}
+	
+	/**
+	 * Run an event, keeping what it produces.
+	 *
+	 * @param execution The event.
+	 */
+	private void execute(final Execution execution){
+		simulator.setExecution(execution);
+		simulator.getMetricEventDispatcher().setThreadBuffer(execution.getMetrics());
+		try{
+			execution.duration = simulator.execute(execution.getEvent());
+		}
+		finally{
+			simulator.getMetricEventDispatcher().setThreadBuffer(null);
+			simulator.setExecution(null);
+		}
+	}
+	
+	/**
+	 * Tell if an event scheduled by the region should be run in the window.
+	 *
+	 * @param event The event.
+	 *
+	 * @return True if it is an event of the region happening before the end of the window.
+	 */
+	private boolean isInWindow(final SimulationEvent event){
+		return event instanceof LocalEvent && Objects.equals(region, ((LocalEvent) event).getRegion()) && (Objects.isNull(bound) || event.compareTo(bound) < 0);
+	}
+	
+	/**
+	 * Get the events that were run.
+	 *
+	 * @return The events with what they produced, in the order they were run.
+	 */
+	List<Execution> getExecutions(){
+		return executions;
+	}
+}
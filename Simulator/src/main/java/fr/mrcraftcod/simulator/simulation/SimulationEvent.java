@@ -15,6 +15,7 @@ import java.util.function.Consumer;
 public abstract class SimulationEvent implements Comparable<SimulationEvent>, Consumer<Environment>{
 	private final double time;
 	private final int priority;
+	private boolean cancelled;
 	
 	/**
 	 * Constructor.
@@ -34,6 +35,7 @@ public abstract class SimulationEvent implements Comparable<SimulationEvent>, Co
 	protected SimulationEvent(final double time, final int priority){
 		this.time = time;
 		this.priority = priority;
+		this.cancelled = false;
 	}
 	
 	@Override
@@ -51,6 +53,23 @@ public abstract class SimulationEvent implements Comparable<SimulationEvent>, Co
 		return time;
 	}
 	
+	/**
+	 * Cancel this event.
+	 * A cancelled event stays in the queue but is skipped by the simulator, which avoids searching for it in the queue.
+	 */
+	public void cancel(){
+		this.cancelled = true;
+	}
+	
+	/**
+	 * Tell if this event has been cancelled.
+	 *
+	 * @return True if cancelled, false otherwise.
+	 */
+	public boolean isCancelled(){
+		return cancelled;
+	}
+	
 	/**
 	 * Get the priority.
 	 *
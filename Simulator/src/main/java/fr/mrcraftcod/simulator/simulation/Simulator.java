@@ -1,6 +1,8 @@
 package fr.mrcraftcod.simulator.simulation;
 
 import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.jfr.SimulationEventExecution;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
 import fr.mrcraftcod.simulator.metrics.MetricEventDispatcher;
 import fr.mrcraftcod.simulator.simulation.events.StartEvent;
 import fr.mrcraftcod.simulator.utils.UnreadableQueue;
@@ -10,13 +12,24 @@ import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleLongProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.Objects;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 /**
  * Simulator.
  * <p>
+ * By default the events are run one by one.
+ * With several engine threads (see {@link #setEngineThreads(int)}), the {@link LocalEvent}s polled before the next event that isn't local form a window, and the regions of the window are run in parallel, as well as the simultaneous events of a region that don't touch the same elements.
+ * Once every region is done, the events they scheduled and the metric events they dispatched are given back in the order the events would have been run one by one, so that the results are the same (simultaneous events of different regions being in an unspecified order, as they are when run one by one).
+ * <p>
  * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2018-11-07.
  *
  * @author Thomas Couchoud
@@ -45,6 +58,10 @@ public class Simulator implements Runnable{
 	private final DoubleProperty currentTime = new SimpleDoubleProperty(0);
 	private final LongProperty delay = new SimpleLongProperty(0);
 	private final MetricEventDispatcher metricEventDispatcher;
+	private final EngineStatistics statistics;
+	private final ThreadLocal<RegionRun.Execution> execution = new ThreadLocal<>();
+	private Duration progressInterval;
+	private int engineThreads;
 	private boolean running;
 	private boolean stop;
 	
@@ -56,21 +73,15 @@ public class Simulator implements Runnable{
 	public Simulator(final Environment environment){
 		this.environment = environment;
 		this.metricEventDispatcher = new MetricEventDispatcher(environment);
+		this.statistics = new EngineStatistics();
+		this.progressInterval = Duration.ZERO;
+		this.engineThreads = 1;
 		this.running = true;
 		this.stop = false;
 		currentTime.set(0);
 		events.clear();
 	}
 	
-	/**
-	 * Remove all the events of a class from the queue.
-	 *
-	 * @param eventClass The class of the events to remove.
-	 */
-	public void removeAllEventsOfClass(final Class<? extends SimulationEvent> eventClass){
-		events.removeIf(elem -> Objects.equals(elem.getClass(), eventClass));
-	}
-	
 	/**
 	 * Stop the simulation by clearing the queue.
 	 */
@@ -122,33 +133,244 @@ public class Simulator implements Runnable{
 	public void run(){
 		LOGGER.info("Starting simulator");
 		events.add(new StartEvent(0));
+		final var pool = engineThreads > 1 ? new ForkJoinPool(engineThreads) : null;
+		statistics.start();
+		var nextProgress = System.nanoTime() + progressInterval.toNanos();
 		SimulationEvent event;
-		while(!stop && (event = getEvents().poll()) != null){
-			while(!running){
-				try{
-					Thread.sleep(1000);
+		try{
+			while(!stop && (event = getEvents().poll()) != null){
+				statistics.recordQueueSizes(getEvents().size() + 1, getMetricEventDispatcher().getFutureCount());
+				if(event.isCancelled()){
+					LOGGER.trace("Skipping cancelled event {}", event);
+					continue;
 				}
-				catch(final InterruptedException ignored){
+				while(!running){
+					try{
+						Thread.sleep(1000);
+					}
+					catch(final InterruptedException ignored){
+					}
+				}
+				if(Objects.nonNull(pool) && isLocal(event)){
+					runWindow(pool, event);
+				}
+				else{
+					runEvent(event);
+				}
+				final var endTime = System.nanoTime();
+				if(!progressInterval.isZero() && endTime - nextProgress >= 0){
+					nextProgress = endTime + progressInterval.toNanos();
+					logProgress();
+				}
+				if(delay.get() > 0){
+					try{
+						Thread.sleep(delay.get());
+					}
+					catch(final InterruptedException ignored){
+					}
 				}
 			}
-			LOGGER.debug("Executing event {} at time {}", event.getClass().getSimpleName(), event.getTime());
-			currentTime.set(event.getTime());
-			try{
-				event.accept(this.getEnvironment());
+		}
+		finally{
+			if(Objects.nonNull(pool)){
+				pool.shutdownNow();
+			}
+		}
+		statistics.stop();
+		LOGGER.info("Simulation ended");
+		LOGGER.info("Engine statistics:{}{}", System.lineSeparator(), statistics.toTable());
+		final var statisticsPath = MetricEvent.getMetricSaveFolder(getEnvironment()).resolve("engine-statistics.json");
+		try{
+			statistics.writeJSON(statisticsPath);
+		}
+		catch(final IOException e){
+			LOGGER.error("Failed to write engine statistics to {}", statisticsPath, e);
+		}
+	}
+	
+	/**
+	 * Run an event alone.
+	 *
+	 * @param event The event to run.
+	 */
+	private void runEvent(final SimulationEvent event){
+		LOGGER.debug("Executing event {} at time {}", event.getClass().getSimpleName(), event.getTime());
+		currentTime.set(event.getTime());
+		final var jfrEvent = new SimulationEventExecution();
+		jfrEvent.begin();
+		final var startTime = System.nanoTime();
+		try{
+			event.accept(this.getEnvironment());
+		}
+		catch(final Exception e){
+			LOGGER.error("Error in event {}", event, e);
+		}
+		getMetricEventDispatcher().fire();
+		final var endTime = System.nanoTime();
+		jfrEvent.end();
+		commitExecution(jfrEvent, event);
+		statistics.recordEvent(event.getClass(), endTime - startTime);
+	}
+	
+	/**
+	 * Run the local events up to the next event that isn't local, each region in its own thread.
+	 *
+	 * @param pool  The pool running the regions.
+	 * @param first The first local event.
+	 */
+	private void runWindow(final ForkJoinPool pool, final SimulationEvent first){
+		final var regions = new LinkedHashMap<Object, RegionRun>();
+		var event = first;
+		while(true){
+			if(!event.isCancelled()){
+				regions.computeIfAbsent(((LocalEvent) event).getRegion(), region -> new RegionRun(this, getEnvironment(), pool, region, regions.size())).add(event);
 			}
-			catch(final Exception e){
-				LOGGER.error("Error in event {}", event, e);
+			final var next = getEvents().peek();
+			if(Objects.isNull(next) || !isLocal(next)){
+				break;
 			}
-			getMetricEventDispatcher().fire();
-			if(delay.get() > 0){
-				try{
-					Thread.sleep(delay.get());
-				}
-				catch(final InterruptedException ignored){
+			event = getEvents().poll();
+		}
+		final var bound = getEvents().peek();
+		regions.values().forEach(region -> region.setBound(bound));
+		LOGGER.debug("Executing {} regions up to {}", regions.size(), bound);
+		if(regions.size() == 1){
+			regions.values().iterator().next().call();
+		}
+		else{
+			try{
+				for(final var future : pool.invokeAll(regions.values())){
+					future.get();
 				}
 			}
+			catch(final InterruptedException e){
+				Thread.currentThread().interrupt();
+				LOGGER.error("Interrupted while running a window", e);
+			}
+			catch(final ExecutionException e){
+				LOGGER.error("Error while running a window", e);
+			}
+		}
+		final var executions = regions.values().stream().flatMap(region -> region.getExecutions().stream()).sorted(Comparator.comparing(RegionRun.Execution::getEvent).thenComparingInt(RegionRun.Execution::getRegionIndex).thenComparingInt(RegionRun.Execution::getOrder)).collect(Collectors.toList());
+		for(final var execution : executions){
+			currentTime.set(execution.getEvent().getTime());
+			getEvents().addAll(execution.getScheduled());
+			execution.getMetrics().forEach(getMetricEventDispatcher()::dispatchEvent);
+			getMetricEventDispatcher().fire();
+			statistics.recordEvent(execution.getEvent().getClass(), execution.getDuration());
 		}
-		LOGGER.info("Simulation ended");
+	}
+	
+	/**
+	 * Run an event of a region, from the thread of the region.
+	 *
+	 * @param event The event to run.
+	 *
+	 * @return The time taken in nanoseconds.
+	 */
+	long execute(final SimulationEvent event){
+		LOGGER.debug("Executing event {} at time {}", event.getClass().getSimpleName(), event.getTime());
+		final var jfrEvent = new SimulationEventExecution();
+		jfrEvent.begin();
+		final var startTime = System.nanoTime();
+		try{
+			event.accept(this.getEnvironment());
+		}
+		catch(final Exception e){
+			LOGGER.error("Error in event {}", event, e);
+		}
+		final var endTime = System.nanoTime();
+		jfrEvent.end();
+		commitExecution(jfrEvent, event);
+		return endTime - startTime;
+	}
+	
+	/**
+	 * Commit a flight recorder event of the execution of an event, if it is being recorded.
+	 *
+	 * @param jfrEvent The flight recorder event, already ended.
+	 * @param event    The event that was run.
+	 */
+	private void commitExecution(final SimulationEventExecution jfrEvent, final SimulationEvent event){
+		if(jfrEvent.shouldCommit()){
+			jfrEvent.runName = getEnvironment().getRunName();
+			jfrEvent.eventType = event.getClass().getName();
+			jfrEvent.simulationTime = event.getTime();
+			jfrEvent.commit();
+		}
+	}
+	
+	/**
+	 * Tell if an event can be run in a window with other local events.
+	 *
+	 * @param event The event.
+	 *
+	 * @return True if it is a local event with a region.
+	 */
+	private static boolean isLocal(final SimulationEvent event){
+		return event instanceof LocalEvent && Objects.nonNull(((LocalEvent) event).getRegion());
+	}
+	
+	/**
+	 * Set the event of a region being run by the current thread.
+	 *
+	 * @param execution The event, null once it is done.
+	 */
+	void setExecution(final RegionRun.Execution execution){
+		if(Objects.isNull(execution)){
+			this.execution.remove();
+		}
+		else{
+			this.execution.set(execution);
+		}
+	}
+	
+	/**
+	 * Set the number of threads running the local events.
+	 *
+	 * @param engineThreads The number of threads, 1 to run every event one by one.
+	 *
+	 * @throws IllegalArgumentException If the number isn't positive.
+	 */
+	public void setEngineThreads(final int engineThreads){
+		if(engineThreads <= 0){
+			throw new IllegalArgumentException("The number of engine threads must be positive");
+		}
+		this.engineThreads = engineThreads;
+	}
+	
+	/**
+	 * Log the progress of the simulation and an estimation of the time left.
+	 */
+	private void logProgress(){
+		final var end = getEnvironment().getEnd();
+		final var time = getCurrentTime();
+		final var elapsed = Duration.ofNanos(statistics.getElapsedNanos());
+		if(end > 0 && time > 0){
+			final var eta = Duration.ofNanos((long) (statistics.getElapsedNanos() * Math.max(0, end - time) / time));
+			LOGGER.info("Progress: {}/{} ({}%), {} events/s, elapsed {}, ETA {}", String.format("%.1f", time), end, String.format("%.1f", 100 * time / end), String.format("%.1f", statistics.getEventsPerSecond()), elapsed, eta);
+		}
+		else{
+			LOGGER.info("Progress: {}, {} events/s, elapsed {}", String.format("%.1f", time), String.format("%.1f", statistics.getEventsPerSecond()), elapsed);
+		}
+	}
+	
+	/**
+	 * Get the performance statistics of the simulation.
+	 *
+	 * @return The statistics.
+	 */
+	public EngineStatistics getStatistics(){
+		return statistics;
+	}
+	
+	/**
+	 * Set how often the progress of the simulation is logged.
+	 *
+	 * @param progressInterval The wall time between two progress logs, zero to disable them.
+	 */
+	public void setProgressInterval(final Duration progressInterval){
+		this.progressInterval = Objects.requireNonNull(progressInterval);
 	}
 	
 	/**
@@ -162,10 +384,15 @@ public class Simulator implements Runnable{
 	
 	/**
 	 * Get the current time of the simulation.
+	 * When called while running a region, this is the time of the event of the region being run.
 	 *
 	 * @return The current time.
 	 */
 	public double getCurrentTime(){
+		final var regionExecution = execution.get();
+		if(Objects.nonNull(regionExecution)){
+			return regionExecution.getEvent().getTime();
+		}
 		return currentTimeProperty().get();
 	}
 	
@@ -180,10 +407,15 @@ public class Simulator implements Runnable{
 	
 	/**
 	 * Get a queue of events to add new ones.
+	 * When called while running a region, the events are given to the region.
 	 *
 	 * @return An unreadable queue of the events.
 	 */
 	public UnreadableQueue<SimulationEvent> getUnreadableQueue(){
+		final var regionExecution = execution.get();
+		if(Objects.nonNull(regionExecution)){
+			return regionExecution.getQueue();
+		}
 		return unreadableQueue;
 	}
 }
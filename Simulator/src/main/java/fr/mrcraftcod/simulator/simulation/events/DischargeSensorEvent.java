@@ -25,11 +25,15 @@ class DischargeSensorEvent extends SimulationEvent{
 	
 	@Override
 	public void accept(final Environment environment){
+		final var dispatcher = environment.getSimulator().getMetricEventDispatcher();
+		final var dispatchSensorCapacity = dispatcher.hasSubscribers(SensorCapacityMetricEvent.class);
 		environment.getElements(Sensor.class).forEach(s -> {
 			s.removeCapacity(s.getDischargeSpeed());
-			environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new SensorCapacityMetricEvent(environment, getTime(), s, s.getCurrentCapacity()));
+			if(dispatchSensorCapacity){
+				dispatcher.dispatchEvent(new SensorCapacityMetricEvent(environment, getTime(), s, s.getCurrentCapacity()));
+			}
 		});
-		environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new SensorsCapacityMetricEvent(environment, getTime()));
+		dispatcher.dispatchEvent(SensorsCapacityMetricEvent.class, () -> new SensorsCapacityMetricEvent(environment, getTime()));
 		environment.getSimulator().getUnreadableQueue().add(new DischargeSensorEvent(getTime() + 1));
 	}
 }
@@ -0,0 +1,56 @@
+package fr.mrcraftcod.simulator.sweep;
+
+import fr.mrcraftcod.simulator.metrics.SequentialStoppingRule;
+import java.time.Duration;
+
+/**
+ * The replications launched for a configuration of a sweep.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-17.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-17
+ */
+class ConfigurationRun{
+	private final String name;
+	private final SequentialStoppingRule stoppingRule;
+	private long start;
+	private int started;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param name         The name of the configuration.
+	 * @param stoppingRule The rule deciding how many replications are run.
+	 */
+	ConfigurationRun(final String name, final SequentialStoppingRule stoppingRule){
+		this.name = name;
+		this.stoppingRule = stoppingRule;
+	}
+	
+	/**
+	 * Claim the next replication to run, if the stopping rule allows it.
+	 *
+	 * @param results The results of the replications that ended.
+	 *
+	 * @return The index of the replication, -1 if no more replications should be run.
+	 */
+	synchronized int next(final SweepResults results){
+		if(started == 0){
+			start = System.nanoTime();
+		}
+		if(!stoppingRule.shouldContinue(results.getAggregator(), name, started, Duration.ofNanos(System.nanoTime() - start))){
+			return -1;
+		}
+		return started++;
+	}
+	
+	/**
+	 * Get the name of the configuration.
+	 *
+	 * @return The name.
+	 */
+	String getName(){
+		return name;
+	}
+}
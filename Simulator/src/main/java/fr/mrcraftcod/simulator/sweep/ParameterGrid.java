@@ -0,0 +1,241 @@
+package fr.mrcraftcod.simulator.sweep;
+
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import fr.mrcraftcod.simulator.utils.ElementTemplate;
+import fr.mrcraftcod.simulator.utils.JSONElementTemplate;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * A set of values to try for some parameters of the elements of a configuration, expanded to every combination of these values.
+ * <p>
+ * The grid is declared in the {@code "grid"} array of the configuration, each entry giving the values of one parameter, for example:
+ * <pre>
+ * "grid": [
+ *     {"class": "fr.mrcraftcod.simulator.chargers.Charger", "parameter": "speed", "values": [5, 10, 20]},
+ *     {"parameter": "lr", "values": [0.2, 0.5]}
+ * ]
+ * </pre>
+ * Without a class, the parameter is overridden in every element declaring it, otherwise it is set in every element of this class or one of its subclasses.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-17.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-17
+ */
+public class ParameterGrid{
+	private final List<Axis> axes;
+	
+	/**
+	 * The values of one parameter.
+	 */
+	public static class Axis{
+		private final Class<?> elementClass;
+		private final String parameter;
+		private final List<Object> values;
+		
+		/**
+		 * Constructor.
+		 *
+		 * @param elementClass The class of the elements to override the parameter in, null for every element declaring the parameter.
+		 * @param parameter    The name of the parameter.
+		 * @param values       The values of the parameter.
+		 *
+		 * @throws IllegalArgumentException If no values are given.
+		 */
+		public Axis(final Class<?> elementClass, final String parameter, final List<?> values){
+			if(values.isEmpty()){
+				throw new IllegalArgumentException("The grid parameter " + parameter + " should have at least one value");
+			}
+			this.elementClass = elementClass;
+			this.parameter = parameter;
+			this.values = List.copyOf(values);
+		}
+		
+		/**
+		 * Get if the parameter should be overridden in the elements of a template.
+		 *
+		 * @param template The template.
+		 *
+		 * @return True if the parameter applies.
+		 */
+		public boolean appliesTo(final ElementTemplate template){
+			if(Objects.nonNull(elementClass)){
+				return elementClass.isAssignableFrom(template.getElementClass());
+			}
+			return template instanceof JSONElementTemplate && Optional.ofNullable(((JSONElementTemplate) template).getJson().optJSONObject("parameters")).map(parameters -> parameters.has(parameter)).orElse(false);
+		}
+		
+		/**
+		 * Get the name of the parameter, prefixed by the class of the elements if one is given.
+		 *
+		 * @return The name.
+		 */
+		public String getName(){
+			return Objects.isNull(elementClass) ? parameter : elementClass.getSimpleName() + "." + parameter;
+		}
+		
+		/**
+		 * Get the name of the parameter in the elements.
+		 *
+		 * @return The name.
+		 */
+		public String getParameter(){
+			return parameter;
+		}
+		
+		/**
+		 * Get the values of the parameter.
+		 *
+		 * @return The values.
+		 */
+		public List<Object> getValues(){
+			return values;
+		}
+	}
+	
+	/**
+	 * A combination of values, one for each parameter of the grid.
+	 */
+	public static class Point{
+		private final Map<Axis, Object> values;
+		
+		/**
+		 * Constructor.
+		 *
+		 * @param values The value of each parameter.
+		 */
+		Point(final Map<Axis, Object> values){
+			this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+		}
+		
+		/**
+		 * Override the parameters of a template.
+		 *
+		 * @param template The template.
+		 *
+		 * @return A template with the values of the point, or the same template if no parameter applies to it.
+		 *
+		 * @throws SettingsParserException If the template can't be overridden.
+		 */
+		public ElementTemplate apply(final ElementTemplate template) throws SettingsParserException{
+			final var applying = values.keySet().stream().filter(axis -> axis.appliesTo(template)).collect(Collectors.toList());
+			if(applying.isEmpty()){
+				return template;
+			}
+			if(!(template instanceof JSONElementTemplate)){
+				throw new SettingsParserException("Grid parameters can only be applied to elements declared in JSON, not to " + template);
+			}
+			final var json = new JSONObject(((JSONElementTemplate) template).getJson().toString());
+			if(!json.has("parameters")){
+				json.put("parameters", new JSONObject());
+			}
+			for(final var axis : applying){
+				json.getJSONObject("parameters").put(axis.getParameter(), values.get(axis));
+			}
+			return new JSONElementTemplate(json);
+		}
+		
+		/**
+		 * Get a label of the values, usable in a file name, for example {@code Charger.speed=5_lr=0.2}.
+		 *
+		 * @return The label.
+		 */
+		public String getLabel(){
+			return values.entrySet().stream().map(entry -> entry.getKey().getName() + "=" + entry.getValue()).collect(Collectors.joining("_"));
+		}
+		
+		/**
+		 * Get the value of each parameter.
+		 *
+		 * @return The values.
+		 */
+		public Map<Axis, Object> getValues(){
+			return values;
+		}
+		
+		@Override
+		public String toString(){
+			return getLabel();
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param axes The parameters of the grid.
+	 */
+	public ParameterGrid(final List<Axis> axes){
+		this.axes = List.copyOf(axes);
+	}
+	
+	/**
+	 * Parse a grid from its JSON declaration.
+	 *
+	 * @param json The declaration.
+	 *
+	 * @return The grid.
+	 *
+	 * @throws SettingsParserException If the declaration is incorrect.
+	 */
+	public static ParameterGrid fromJSON(final JSONArray json) throws SettingsParserException{
+		final var axes = new ArrayList<Axis>();
+		for(var i = 0; i < json.length(); i++){
+			try{
+				final var axis = json.getJSONObject(i);
+				final var klassName = axis.optString("class");
+				final var elementClass = klassName.isBlank() ? null : Class.forName(klassName);
+				axes.add(new Axis(elementClass, axis.getString("parameter"), axis.getJSONArray("values").toList()));
+			}
+			catch(final ClassNotFoundException e){
+				throw new SettingsParserException("Grid class " + json.getJSONObject(i).optString("class") + " not found");
+			}
+			catch(final JSONException | IllegalArgumentException e){
+				throw new SettingsParserException("Invalid grid parameter " + json.opt(i), e);
+			}
+		}
+		return new ParameterGrid(axes);
+	}
+	
+	/**
+	 * Get every combination of the values of the parameters, the first parameter varying the slowest.
+	 *
+	 * @return The points of the grid.
+	 */
+	public List<Point> getPoints(){
+		final var points = new ArrayList<Point>();
+		final var indices = new int[axes.size()];
+		final var values = new LinkedHashMap<Axis, Object>();
+		for(var i = 0; i < size(); i++){
+			for(var j = 0; j < axes.size(); j++){
+				values.put(axes.get(j), axes.get(j).getValues().get(indices[j]));
+			}
+			points.add(new Point(values));
+			for(var j = axes.size() - 1; j >= 0 && ++indices[j] == axes.get(j).getValues().size(); j--){
+				indices[j] = 0;
+			}
+		}
+		return points;
+	}
+	
+	/**
+	 * Get the number of points of the grid.
+	 *
+	 * @return The number of combinations.
+	 */
+	public int size(){
+		return axes.stream().mapToInt(axis -> axis.getValues().size()).reduce(1, (a, b) -> a * b);
+	}
+	
+	/**
+	 * Get the parameters of the grid.
+	 *
+	 * @return The parameters.
+	 */
+	public List<Axis> getAxes(){
+		return axes;
+	}
+}
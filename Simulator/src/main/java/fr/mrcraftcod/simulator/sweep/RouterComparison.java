@@ -0,0 +1,252 @@
+package fr.mrcraftcod.simulator.sweep;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.SimulationConfiguration;
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.ReplicationAggregator;
+import fr.mrcraftcod.simulator.metrics.SequentialStoppingRule;
+import fr.mrcraftcod.simulator.routing.Router;
+import fr.mrcraftcod.simulator.utils.JSONElementTemplate;
+import fr.mrcraftcod.simulator.utils.JSONUtils;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * Compares several routers on the same replications of a configuration, using common random numbers.
+ * <p>
+ * For each replication, the environment is built once per router from the same seed, which gives the same elements for every router as the configuration is only parsed once and each subsystem draws from its own random stream.
+ * The router of the configuration is then replaced by the router under test, built with the parameters of the configured router, and the variants of a replication are run concurrently.
+ * The configured router is kept as is for the variant of its own class.
+ * As the variants of a replication only differ by their router, the differences of their results have a much lower variance than the results themselves, so fewer replications are needed to tell the routers apart.
+ * <p>
+ * The results of each router and the paired differences with the first router are written in {@code metrics/<runName>/compare.csv} and {@code metrics/<runName>/compare-replications.csv}.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-17.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-17
+ */
+public class RouterComparison{
+	private static final Logger LOGGER = LoggerFactory.getLogger(RouterComparison.class);
+	private final SimulationConfiguration configuration;
+	private final List<Class<? extends Router>> variants;
+	private final String runName;
+	private SequentialStoppingRule stoppingRule;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param configuration The configuration to run.
+	 * @param variants      The classes of the routers to compare, the first one being the reference.
+	 * @param replications  The number of replications.
+	 * @param runName       The name of the run.
+	 *
+	 * @throws IllegalArgumentException If less than two routers are given.
+	 */
+	public RouterComparison(final SimulationConfiguration configuration, final List<Class<? extends Router>> variants, final int replications, final String runName){
+		if(variants.size() < 2){
+			throw new IllegalArgumentException("At least two routers are needed for a comparison");
+		}
+		this.configuration = configuration;
+		this.variants = List.copyOf(variants);
+		this.runName = runName;
+		this.stoppingRule = new SequentialStoppingRule(replications);
+	}
+	
+	/**
+	 * Get the router classes from their names.
+	 *
+	 * @param classNames The names of the classes.
+	 *
+	 * @return The classes.
+	 *
+	 * @throws SettingsParserException If a class couldn't be found or isn't a router.
+	 */
+	public static List<Class<? extends Router>> getRouterClasses(final Collection<String> classNames) throws SettingsParserException{
+		final var classes = new ArrayList<Class<? extends Router>>();
+		for(final var className : classNames){
+			try{
+				classes.add(Class.forName(className).asSubclass(Router.class));
+			}
+			catch(final ClassNotFoundException e){
+				throw new SettingsParserException("Router class " + className + " not found");
+			}
+			catch(final ClassCastException e){
+				throw new SettingsParserException("Class " + className + " isn't a router");
+			}
+		}
+		return classes;
+	}
+	
+	/**
+	 * Set the rule deciding how many replications are run, replacing the fixed number of replications.
+	 * The precision is checked on the paired differences.
+	 *
+	 * @param stoppingRule The rule.
+	 */
+	public void setStoppingRule(final SequentialStoppingRule stoppingRule){
+		this.stoppingRule = stoppingRule;
+	}
+	
+	/**
+	 * Run the replications and write the results.
+	 *
+	 * @return The results, with one configuration per router and one per difference with the first router.
+	 *
+	 * @throws IOException If the results couldn't be written.
+	 */
+	public SweepResults run() throws IOException{
+		final var results = new SweepResults();
+		final var executor = Executors.newFixedThreadPool(variants.size());
+		final var start = System.nanoTime();
+		var replication = 0;
+		try{
+			for(; shouldContinue(results.getAggregator(), replication, Duration.ofNanos(System.nanoTime() - start)); replication++){
+				LOGGER.info("Comparison replication {}/{}", replication + 1, stoppingRule.getMaxReplications());
+				runReplication(executor, replication, results);
+			}
+		}
+		finally{
+			executor.shutdown();
+		}
+		LOGGER.info("Ran {} paired replications", replication);
+		for(var i = 1; i < variants.size(); i++){
+			final var difference = getDifferenceName(i);
+			for(final var metric : results.getAggregator().getMetrics(difference)){
+				results.getAggregator().getSummary(difference, metric).ifPresent(summary -> {
+					final var statistics = summary.getStatistics();
+					final var halfWidth = statistics.getConfidenceHalfWidth(ReplicationAggregator.CONFIDENCE);
+					LOGGER.info("{} {}: {} ± {}{}", difference, metric, statistics.getMean(), halfWidth, Math.abs(statistics.getMean()) > halfWidth ? " (significant)" : "");
+				});
+			}
+		}
+		final var folder = MetricEvent.getAllMetricSaveFolder(runName);
+		Files.createDirectories(folder);
+		results.writeSummary(folder.resolve("compare.csv"));
+		results.writeReplications(folder.resolve("compare-replications.csv"));
+		LOGGER.info("Comparison results written in {}", folder);
+		return results;
+	}
+	
+	/**
+	 * Get if a new replication should be launched, which is the case until every difference reached the precision.
+	 *
+	 * @param aggregator  The summary of the replications that ended.
+	 * @param replication The number of replications already launched.
+	 * @param elapsed     The time elapsed since the first replication was launched.
+	 *
+	 * @return True if a new replication should be launched.
+	 */
+	private boolean shouldContinue(final ReplicationAggregator aggregator, final int replication, final Duration elapsed){
+		return IntStream.range(1, variants.size()).anyMatch(i -> stoppingRule.shouldContinue(aggregator, getDifferenceName(i), replication, elapsed));
+	}
+	
+	/**
+	 * Run one replication with every router.
+	 *
+	 * @param executor    The executor running the variants.
+	 * @param replication The index of the replication.
+	 * @param results     The results to add to.
+	 */
+	private void runReplication(final ExecutorService executor, final int replication, final SweepResults results){
+		final var seed = configuration.getReplicationSeed(replication);
+		try{
+			final var environments = new ArrayList<Environment>();
+			for(final var variant : variants){
+				environments.add(createEnvironment(variant, seed));
+			}
+			final var futures = new ArrayList<Future<Map<String, Double>>>();
+			for(final var environment : environments){
+				futures.add(executor.submit(() -> {
+					environment.getSimulator().setRunning(true);
+					environment.getSimulator().run();
+					environment.getSimulator().stop();
+					return environment.getResults().getValues();
+				}));
+			}
+			final var values = new ArrayList<Map<String, Double>>();
+			for(final var future : futures){
+				values.add(future.get());
+			}
+			for(var i = 0; i < variants.size(); i++){
+				results.add(getName(i), replication, seed, values.get(i));
+			}
+			for(var i = 1; i < variants.size(); i++){
+				final var differences = new HashMap<String, Double>();
+				final var reference = values.get(0);
+				values.get(i).forEach((metric, value) -> Optional.ofNullable(reference.get(metric)).ifPresent(referenceValue -> differences.put(metric, value - referenceValue)));
+				results.add(getDifferenceName(i), replication, seed, differences);
+			}
+		}
+		catch(final InterruptedException e){
+			Thread.currentThread().interrupt();
+			LOGGER.error("Comparison replication {} interrupted", replication + 1, e);
+		}
+		catch(final ExecutionException | ReflectiveOperationException | SettingsParserException e){
+			LOGGER.error("Comparison replication {} failed, it will be skipped", replication + 1, e);
+		}
+	}
+	
+	/**
+	 * Build the environment of a replication for a router.
+	 *
+	 * @param variant The class of the router.
+	 * @param seed    The seed of the replication.
+	 *
+	 * @return The environment, with its router replaced by an instance of the variant filled with the parameters of the configured router, or kept if it is of the class of the variant.
+	 *
+	 * @throws ReflectiveOperationException If the router couldn't be created.
+	 * @throws SettingsParserException      If the environment couldn't be created.
+	 */
+	Environment createEnvironment(final Class<? extends Router> variant, final long seed) throws ReflectiveOperationException, SettingsParserException{
+		final var environment = configuration.createParameters(seed, runName + "/" + variant.getSimpleName()).getEnvironment();
+		if(environment.getElements(Router.class).stream().anyMatch(router -> Objects.equals(router.getClass(), variant))){
+			return environment;
+		}
+		environment.getElements().removeIf(element -> element instanceof Router);
+		environment.add(JSONUtils.getEnvironmentConstructor(variant).newInstance(environment).fillFromJson(environment, getRouterParameters()));
+		return environment;
+	}
+	
+	/**
+	 * Get the parameters of the router declared in the configuration.
+	 *
+	 * @return The parameters, empty if no router is declared.
+	 */
+	private JSONObject getRouterParameters(){
+		return configuration.getElementTemplates().stream().filter(template -> Router.class.isAssignableFrom(template.getElementClass())).filter(template -> template instanceof JSONElementTemplate).map(template -> ((JSONElementTemplate) template).getJson().optJSONObject("parameters")).filter(Objects::nonNull).findFirst().orElseGet(JSONObject::new);
+	}
+	
+	/**
+	 * Get the name of the results of a router.
+	 *
+	 * @param index The index of the router.
+	 *
+	 * @return The name.
+	 */
+	private String getName(final int index){
+		return variants.get(index).getSimpleName();
+	}
+	
+	/**
+	 * Get the name of the differences between the results of a router and the first one.
+	 *
+	 * @param index The index of the router.
+	 *
+	 * @return The name.
+	 */
+	private String getDifferenceName(final int index){
+		return getName(index) + "-" + getName(0);
+	}
+}
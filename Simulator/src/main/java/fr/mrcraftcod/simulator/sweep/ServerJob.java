@@ -0,0 +1,301 @@
+package fr.mrcraftcod.simulator.sweep;
+
+import fr.mrcraftcod.simulator.SimulationConfiguration;
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import fr.mrcraftcod.simulator.metrics.ReplicationAggregator;
+import fr.mrcraftcod.simulator.metrics.SequentialStoppingRule;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A job submitted to a {@link SimulationServer}: the replications of a configuration, or of every point of its grid.
+ * <p>
+ * The job keeps the events that happened while it ran, one per replication that ended and a last one when the job is over, so that clients can follow it from any point.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-17.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-17
+ */
+public class ServerJob{
+	private static final Logger LOGGER = LoggerFactory.getLogger(ServerJob.class);
+	private final int id;
+	private final String name;
+	private final Map<String, SimulationConfiguration> points;
+	private final SequentialStoppingRule stoppingRule;
+	private final SweepResults results;
+	private final List<JSONObject> events;
+	private final AtomicInteger done;
+	private State state;
+	private long start;
+	private long end;
+	private boolean cancelled;
+	
+	/**
+	 * The states of a job.
+	 */
+	public enum State{
+		QUEUED, RUNNING, DONE, CANCELLED
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param id            The identifier of the job.
+	 * @param name          The name of the job.
+	 * @param configuration The configuration to run.
+	 * @param stoppingRule  The rule deciding how many replications of each configuration are run.
+	 *
+	 * @throws SettingsParserException If the grid of the configuration couldn't be applied.
+	 */
+	ServerJob(final int id, final String name, final SimulationConfiguration configuration, final SequentialStoppingRule stoppingRule) throws SettingsParserException{
+		this.id = id;
+		this.name = name;
+		this.points = SweepRunner.getPoints(configuration, name);
+		this.stoppingRule = stoppingRule;
+		this.results = new SweepResults();
+		this.events = new ArrayList<>();
+		this.done = new AtomicInteger(0);
+		this.state = State.QUEUED;
+	}
+	
+	/**
+	 * Parse the rule deciding how many replications are run from the options of a job.
+	 * The options are {@code replications}, {@code precision}, {@code precisionMetrics}, {@code minReplications} and {@code timeBudget} (in seconds), with the same meaning as the options of the command line.
+	 *
+	 * @param json The options.
+	 *
+	 * @return The rule.
+	 *
+	 * @throws IllegalArgumentException If the options are incorrect.
+	 */
+	static SequentialStoppingRule getStoppingRule(final JSONObject json){
+		final var replications = json.optInt("replications", 1);
+		final var timeBudget = Duration.ofSeconds(json.optLong("timeBudget", 0));
+		if(!json.has("precision")){
+			return new SequentialStoppingRule(0, replications, Double.NaN, List.of(), timeBudget);
+		}
+		final var metrics = new ArrayList<String>();
+		final var precisionMetrics = json.optJSONArray("precisionMetrics");
+		if(Objects.nonNull(precisionMetrics)){
+			precisionMetrics.forEach(metric -> metrics.add(metric.toString()));
+		}
+		return new SequentialStoppingRule(Math.min(json.optInt("minReplications", SequentialStoppingRule.DEFAULT_MIN_REPLICATIONS), replications), replications, json.getDouble("precision"), metrics, timeBudget);
+	}
+	
+	/**
+	 * Submit the replications of the job.
+	 *
+	 * @param executor    The executor running the replications.
+	 * @param parallelism The maximum number of replications of a configuration running at the same time.
+	 * @param runName     The name of the run of the server.
+	 */
+	synchronized void start(final ExecutorService executor, final int parallelism, final String runName){
+		final var remaining = new AtomicInteger(0);
+		final var tasks = new ArrayList<Runnable>();
+		points.forEach((pointName, configuration) -> {
+			final var configurationRun = new ConfigurationRun(pointName, stoppingRule);
+			for(var i = 0; i < Math.min(parallelism, stoppingRule.getMaxReplications()); i++){
+				tasks.add(() -> {
+					try{
+						int replication;
+						while(!isCancelled() && (replication = configurationRun.next(results)) >= 0){
+							runReplication(configuration, pointName, replication, runName);
+						}
+					}
+					finally{
+						if(remaining.decrementAndGet() == 0){
+							finish();
+						}
+					}
+				});
+			}
+		});
+		remaining.set(tasks.size());
+		tasks.forEach(executor::execute);
+	}
+	
+	/**
+	 * Run one replication of a configuration.
+	 *
+	 * @param configuration The configuration.
+	 * @param pointName     The name of the configuration.
+	 * @param replication   The index of the replication.
+	 * @param runName       The name of the run of the server.
+	 */
+	private void runReplication(final SimulationConfiguration configuration, final String pointName, final int replication, final String runName){
+		markRunning();
+		final var seed = configuration.getReplicationSeed(replication);
+		try{
+			final var environment = configuration.createParameters(seed, runName + "/" + id + "/" + pointName).getEnvironment();
+			environment.getSimulator().setRunning(true);
+			environment.getSimulator().run();
+			environment.getSimulator().stop();
+			final var values = environment.getResults().getValues();
+			results.add(pointName, replication, seed, values);
+			addEvent(new JSONObject().put("configuration", pointName).put("replication", replication).put("seed", seed).put("values", toJSON(values)));
+		}
+		catch(final Exception e){
+			LOGGER.error("Replication {} of {} in job {} failed", replication + 1, pointName, id, e);
+			addEvent(new JSONObject().put("configuration", pointName).put("replication", replication).put("seed", seed).put("error", "" + e));
+		}
+	}
+	
+	/**
+	 * Mark the job as running if it is the first replication to start.
+	 */
+	private synchronized void markRunning(){
+		if(state == State.QUEUED){
+			state = State.RUNNING;
+			start = System.nanoTime();
+		}
+	}
+	
+	/**
+	 * Add an event for a replication that ended.
+	 *
+	 * @param event The event.
+	 */
+	private synchronized void addEvent(final JSONObject event){
+		event.put("done", done.incrementAndGet());
+		events.add(event);
+		notifyAll();
+	}
+	
+	/**
+	 * Mark the job as over.
+	 */
+	private synchronized void finish(){
+		if(state == State.QUEUED){
+			start = System.nanoTime();
+		}
+		end = System.nanoTime();
+		state = cancelled ? State.CANCELLED : State.DONE;
+		events.add(new JSONObject().put("state", state.name()).put("done", done.get()));
+		LOGGER.info("Job {} {} after {} replications", id, state.name().toLowerCase(), done.get());
+		notifyAll();
+	}
+	
+	/**
+	 * Ask the job to stop, the replications already running being finished.
+	 */
+	synchronized void cancel(){
+		cancelled = true;
+	}
+	
+	/**
+	 * Get if the job was asked to stop.
+	 *
+	 * @return True if cancelled.
+	 */
+	private synchronized boolean isCancelled(){
+		return cancelled;
+	}
+	
+	/**
+	 * Get if the job is over.
+	 *
+	 * @return True if every replication ended.
+	 */
+	public synchronized boolean isOver(){
+		return state == State.DONE || state == State.CANCELLED;
+	}
+	
+	/**
+	 * Wait for events to be available.
+	 *
+	 * @param from    The index of the first event wanted.
+	 * @param timeout The maximum time to wait.
+	 *
+	 * @return The events from the index, empty if none happened before the timeout.
+	 *
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	public synchronized List<JSONObject> awaitEvents(final int from, final Duration timeout) throws InterruptedException{
+		final var deadline = System.nanoTime() + timeout.toNanos();
+		while(events.size() <= from && !isOver()){
+			final var remaining = deadline - System.nanoTime();
+			if(remaining <= 0){
+				break;
+			}
+			wait(Math.max(1, remaining / 1_000_000));
+		}
+		return events.size() > from ? new ArrayList<>(events.subList(from, events.size())) : List.of();
+	}
+	
+	/**
+	 * Get the state of the job and the summary of its results.
+	 *
+	 * @return The JSON describing the job.
+	 */
+	public synchronized JSONObject toJSON(){
+		final var json = new JSONObject().put("id", id).put("name", name).put("state", state.name()).put("done", done.get()).put("maxReplications", points.size() * stoppingRule.getMaxReplications());
+		if(state != State.QUEUED){
+			json.put("elapsed", ((isOver() ? end : System.nanoTime()) - start) / 1e9);
+		}
+		final var aggregator = results.getAggregator();
+		final var configurations = new JSONObject();
+		for(final var configuration : aggregator.getConfigurations()){
+			final var metrics = new JSONObject();
+			for(final var metric : aggregator.getMetrics(configuration)){
+				aggregator.getSummary(configuration, metric).ifPresent(summary -> {
+					final var statistics = summary.getStatistics();
+					metrics.put(metric, new JSONObject().put("replications", statistics.getCount()).put("mean", toJSON(statistics.getMean())).put("sd", toJSON(statistics.getStandardDeviation())).put("ci95", toJSON(statistics.getConfidenceHalfWidth(ReplicationAggregator.CONFIDENCE))).put("min", toJSON(statistics.getMin())).put("max", toJSON(statistics.getMax())));
+				});
+			}
+			configurations.put(configuration, metrics);
+		}
+		json.put("results", configurations);
+		return json;
+	}
+	
+	/**
+	 * Convert the values of a replication to JSON.
+	 *
+	 * @param values The values.
+	 *
+	 * @return The JSON object.
+	 */
+	private static JSONObject toJSON(final Map<String, Double> values){
+		final var json = new JSONObject();
+		values.forEach((metric, value) -> json.put(metric, toJSON(value)));
+		return json;
+	}
+	
+	/**
+	 * Convert a value to JSON, where infinite and NaN values aren't allowed.
+	 *
+	 * @param value The value.
+	 *
+	 * @return The value, or {@link JSONObject#NULL} if it isn't finite.
+	 */
+	private static Object toJSON(final double value){
+		return Double.isFinite(value) ? value : JSONObject.NULL;
+	}
+	
+	/**
+	 * Get the identifier of the job.
+	 *
+	 * @return The identifier.
+	 */
+	public int getId(){
+		return id;
+	}
+	
+	/**
+	 * Get the results of the job.
+	 *
+	 * @return The results.
+	 */
+	public SweepResults getResults(){
+		return results;
+	}
+}
@@ -0,0 +1,258 @@
+package fr.mrcraftcod.simulator.sweep;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import fr.mrcraftcod.simulator.SimulationConfiguration;
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A headless server running simulation jobs sent over HTTP, so that the JVM, the native routing library and the JIT stay warm between experiments.
+ * <p>
+ * The server only listens on the loopback address and exposes:
+ * <ul>
+ * <li>{@code POST /jobs}: submit a job, the body being a JSON object with either a {@code configuration} object or the {@code path} of a configuration, and the options described in {@link ServerJob#getStoppingRule(JSONObject)}. Answers with the job.</li>
+ * <li>{@code GET /jobs}: the list of the jobs.</li>
+ * <li>{@code GET /jobs/<id>}: the state of a job and the summary of its results.</li>
+ * <li>{@code GET /jobs/<id>/events}: a stream of JSON lines, one per replication that ended, the last one giving the final state of the job.</li>
+ * <li>{@code DELETE /jobs/<id>}: cancel a job, the replications already running being finished.</li>
+ * </ul>
+ * The replications of every job share a pool with one thread per core, jobs being run in the order they were received.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-17.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-17
+ */
+public class SimulationServer{
+	private static final Logger LOGGER = LoggerFactory.getLogger(SimulationServer.class);
+	private static final Duration EVENT_POLL_INTERVAL = Duration.ofSeconds(1);
+	private static final String JOBS_PATH = "/jobs";
+	private final HttpServer server;
+	private final ExecutorService replicationExecutor;
+	private final ExecutorService requestExecutor;
+	private final int parallelism;
+	private final String runName;
+	private final Map<Integer, ServerJob> jobs;
+	private final AtomicInteger nextId;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param port        The port to listen on, 0 to use any free port.
+	 * @param parallelism The number of replications to run at the same time.
+	 * @param runName     The name of the run the metrics of the jobs are saved under.
+	 *
+	 * @throws IOException If the server couldn't be created.
+	 */
+	public SimulationServer(final int port, final int parallelism, final String runName) throws IOException{
+		if(parallelism <= 0){
+			throw new IllegalArgumentException("Parallelism must be positive");
+		}
+		this.parallelism = parallelism;
+		this.runName = runName;
+		this.jobs = new ConcurrentSkipListMap<>();
+		this.nextId = new AtomicInteger(1);
+		this.replicationExecutor = Executors.newFixedThreadPool(parallelism);
+		this.requestExecutor = Executors.newCachedThreadPool();
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		this.server.createContext(JOBS_PATH, this::handle);
+		this.server.setExecutor(requestExecutor);
+	}
+	
+	/**
+	 * Start accepting jobs.
+	 */
+	public void start(){
+		server.start();
+		LOGGER.info("Simulation server listening on http://{}:{}{}", server.getAddress().getHostString(), getPort(), JOBS_PATH);
+	}
+	
+	/**
+	 * Stop the server, cancelling the jobs.
+	 */
+	public void stop(){
+		jobs.values().forEach(ServerJob::cancel);
+		server.stop(0);
+		replicationExecutor.shutdownNow();
+		requestExecutor.shutdownNow();
+	}
+	
+	/**
+	 * Handle a request.
+	 *
+	 * @param exchange The exchange.
+	 *
+	 * @throws IOException If the answer couldn't be sent.
+	 */
+	private void handle(final HttpExchange exchange) throws IOException{
+		try{
+			final var parts = exchange.getRequestURI().getPath().substring(JOBS_PATH.length()).split("/");
+			final var method = exchange.getRequestMethod();
+			if(parts.length <= 1){
+				if("POST".equals(method)){
+					final var job = submit(new JSONObject(new JSONTokener(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))));
+					send(exchange, 201, job.toJSON());
+				}
+				else if("GET".equals(method)){
+					final var list = new JSONArray();
+					jobs.values().forEach(job -> list.put(job.toJSON()));
+					send(exchange, 200, new JSONObject().put("jobs", list));
+				}
+				else{
+					sendError(exchange, 405, "Method " + method + " not allowed");
+				}
+				return;
+			}
+			final var job = jobs.get(Integer.parseInt(parts[1]));
+			if(Objects.isNull(job) || parts.length > 3 || (parts.length == 3 && !"events".equals(parts[2]))){
+				sendError(exchange, 404, "Not found");
+			}
+			else if(parts.length == 3 && "GET".equals(method)){
+				streamEvents(exchange, job);
+			}
+			else if(parts.length == 2 && "GET".equals(method)){
+				send(exchange, 200, job.toJSON());
+			}
+			else if(parts.length == 2 && "DELETE".equals(method)){
+				job.cancel();
+				send(exchange, 200, job.toJSON());
+			}
+			else{
+				sendError(exchange, 405, "Method " + method + " not allowed");
+			}
+		}
+		catch(final NumberFormatException e){
+			sendError(exchange, 404, "Not found");
+		}
+		catch(final JSONException | IllegalArgumentException | SettingsParserException e){
+			sendError(exchange, 400, e.getMessage());
+		}
+		catch(final Exception e){
+			LOGGER.error("Failed to handle request {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+			sendError(exchange, 500, "" + e);
+		}
+		finally{
+			exchange.close();
+		}
+	}
+	
+	/**
+	 * Create a job and queue its replications.
+	 *
+	 * @param json The description of the job.
+	 *
+	 * @return The job.
+	 *
+	 * @throws Exception If the configuration couldn't be loaded.
+	 */
+	private ServerJob submit(final JSONObject json) throws Exception{
+		final SimulationConfiguration configuration;
+		final var id = nextId.getAndIncrement();
+		if(json.has("configuration")){
+			final var folder = MetricEvent.getAllMetricSaveFolder(runName).resolve("" + id);
+			Files.createDirectories(folder);
+			final var path = folder.resolve("config.json");
+			Files.writeString(path, json.getJSONObject("configuration").toString(2));
+			configuration = new SimulationConfiguration(path, json.getJSONObject("configuration"));
+		}
+		else if(json.has("path")){
+			configuration = SimulationConfiguration.load(Paths.get(json.getString("path")));
+		}
+		else{
+			throw new IllegalArgumentException("A configuration or the path of a configuration must be given");
+		}
+		final var name = json.optString("name", "job");
+		final var job = new ServerJob(id, name, configuration, ServerJob.getStoppingRule(json));
+		jobs.put(id, job);
+		job.start(replicationExecutor, parallelism, runName);
+		LOGGER.info("Job {} ({}) queued", id, name);
+		return job;
+	}
+	
+	/**
+	 * Send the events of a job as they happen, until it is over.
+	 *
+	 * @param exchange The exchange.
+	 * @param job      The job.
+	 *
+	 * @throws IOException          If the events couldn't be sent.
+	 * @throws InterruptedException If interrupted while waiting for events.
+	 */
+	private static void streamEvents(final HttpExchange exchange, final ServerJob job) throws IOException, InterruptedException{
+		exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+		exchange.sendResponseHeaders(200, 0);
+		final var output = exchange.getResponseBody();
+		var index = 0;
+		while(true){
+			final var over = job.isOver();
+			final var events = job.awaitEvents(index, EVENT_POLL_INTERVAL);
+			for(final var event : events){
+				output.write((event.toString() + "\n").getBytes(StandardCharsets.UTF_8));
+			}
+			output.flush();
+			index += events.size();
+			if(over && events.isEmpty()){
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Send a JSON answer.
+	 *
+	 * @param exchange The exchange.
+	 * @param code     The HTTP status.
+	 * @param json     The body.
+	 *
+	 * @throws IOException If the answer couldn't be sent.
+	 */
+	private static void send(final HttpExchange exchange, final int code, final JSONObject json) throws IOException{
+		final var body = json.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(code, body.length);
+		exchange.getResponseBody().write(body);
+	}
+	
+	/**
+	 * Send an error.
+	 *
+	 * @param exchange The exchange.
+	 * @param code     The HTTP status.
+	 * @param message  The message of the error.
+	 *
+	 * @throws IOException If the answer couldn't be sent.
+	 */
+	private static void sendError(final HttpExchange exchange, final int code, final String message) throws IOException{
+		send(exchange, code, new JSONObject().put("error", Objects.isNull(message) ? "" : message));
+	}
+	
+	/**
+	 * Get the port the server listens on.
+	 *
+	 * @return The port.
+	 */
+	public int getPort(){
+		return server.getAddress().getPort();
+	}
+}
@@ -0,0 +1,156 @@
+package fr.mrcraftcod.simulator.sweep;
+
+import fr.mrcraftcod.simulator.metrics.MetricEventListener;
+import fr.mrcraftcod.simulator.metrics.ReplicationAggregator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The results of all the replications of a sweep.
+ * Replications may be added concurrently, in any order.
+ * The values of each replication are kept for {@link #writeReplications(Path)}, the summary is maintained as replications are added by a {@link ReplicationAggregator}.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-05.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-05
+ */
+public class SweepResults{
+	/**
+	 * The confidence level of the intervals written in the summary.
+	 */
+	public static final double CONFIDENCE = ReplicationAggregator.CONFIDENCE;
+	private final Map<String, SortedMap<Integer, ReplicationResult>> replications;
+	private final ReplicationAggregator aggregator;
+	
+	/**
+	 * Constructor.
+	 */
+	public SweepResults(){
+		this.replications = new TreeMap<>();
+		this.aggregator = new ReplicationAggregator();
+	}
+	
+	/**
+	 * Add the results of a replication.
+	 *
+	 * @param configuration The name of the configuration.
+	 * @param replication   The index of the replication.
+	 * @param seed          The seed used by the replication.
+	 * @param values        The values measured.
+	 */
+	public synchronized void add(final String configuration, final int replication, final long seed, final Map<String, Double> values){
+		replications.computeIfAbsent(configuration, k -> new TreeMap<>()).put(replication, new ReplicationResult(seed, values));
+		aggregator.add(configuration, values);
+	}
+	
+	/**
+	 * Get the values measured for a metric of a configuration, ordered by replication.
+	 *
+	 * @param configuration The name of the configuration.
+	 * @param metric        The name of the metric.
+	 *
+	 * @return The values.
+	 */
+	public synchronized List<Double> getValues(final String configuration, final String metric){
+		final var values = new ArrayList<Double>();
+		replications.getOrDefault(configuration, new TreeMap<>()).values().forEach(r -> Optional.ofNullable(r.getValues().get(metric)).ifPresent(values::add));
+		return values;
+	}
+	
+	/**
+	 * Get the names of the metrics measured for a configuration.
+	 *
+	 * @param configuration The name of the configuration.
+	 *
+	 * @return The names of the metrics.
+	 */
+	public synchronized SortedSet<String> getMetrics(final String configuration){
+		final var metrics = new TreeSet<String>();
+		replications.getOrDefault(configuration, new TreeMap<>()).values().forEach(r -> metrics.addAll(r.getValues().keySet()));
+		return metrics;
+	}
+	
+	/**
+	 * Get the names of the configurations that have results.
+	 *
+	 * @return The names of the configurations.
+	 */
+	public synchronized Set<String> getConfigurations(){
+		return new TreeSet<>(replications.keySet());
+	}
+	
+	/**
+	 * Write a CSV with one line per configuration and metric, containing the mean, its confidence interval, the range and some quantiles of the values.
+	 *
+	 * @param path The path of the file.
+	 *
+	 * @throws IOException If the file couldn't be written.
+	 * @see ReplicationAggregator#writeSummary(Path)
+	 */
+	public void writeSummary(final Path path) throws IOException{
+		aggregator.writeSummary(path);
+	}
+	
+	/**
+	 * Get the summary of the replications.
+	 *
+	 * @return The aggregator.
+	 */
+	public ReplicationAggregator getAggregator(){
+		return aggregator;
+	}
+	
+	/**
+	 * Write a CSV with one line per replication and metric.
+	 *
+	 * @param path The path of the file.
+	 *
+	 * @throws IOException If the file couldn't be written.
+	 */
+	public synchronized void writeReplications(final Path path) throws IOException{
+		final var lines = new ArrayList<String>();
+		lines.add(String.join(MetricEventListener.CSV_SEPARATOR, "configuration", "replication", "seed", "metric", "value"));
+		replications.forEach((configuration, results) -> results.forEach((replication, result) -> result.getValues().forEach((metric, value) -> lines.add(String.join(MetricEventListener.CSV_SEPARATOR, configuration, "" + replication, "" + result.getSeed(), metric, "" + value)))));
+		Files.write(path, lines);
+	}
+	
+	/**
+	 * The results of one replication.
+	 */
+	private static class ReplicationResult{
+		private final long seed;
+		private final Map<String, Double> values;
+		
+		/**
+		 * Constructor.
+		 *
+		 * @param seed   The seed used by the replication.
+		 * @param values The values measured.
+		 */
+		ReplicationResult(final long seed, final Map<String, Double> values){
+			this.seed = seed;
+			this.values = new TreeMap<>(values);
+		}
+		
+		/**
+		 * Get the seed used by the replication.
+		 *
+		 * @return The seed.
+		 */
+		long getSeed(){
+			return seed;
+		}
+		
+		/**
+		 * Get the values measured.
+		 *
+		 * @return The values.
+		 */
+		Map<String, Double> getValues(){
+			return values;
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package fr.mrcraftcod.simulator.sweep;
+
+import fr.mrcraftcod.simulator.SimulationConfiguration;
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.SequentialStoppingRule;
+import fr.mrcraftcod.simulator.metrics.journal.EventJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs every replication of several configurations in the same JVM.
+ * <p>
+ * Each configuration gets as many jobs as the parallelism on a work-stealing pool, each job running replications of the configuration until its {@link SequentialStoppingRule} says enough were launched.
+ * The configurations are parsed once, and the seeds of the replications are derived from the seed of their configuration the same way the CLI mode does, so a sweep gives the same replications as running each configuration on its own.
+ * <p>
+ * A configuration declaring a {@link ParameterGrid} is run once per point of its grid, each point being named {@code <configurationName>/<label of the point>}.
+ * The points of a configuration use the same seeds, so a replication runs on the same topology whatever the values of the parameters.
+ * <p>
+ * The metrics of each configuration are saved under {@code metrics/<runName>/<configurationName>}, and the consolidated results are written in {@code metrics/<runName>/sweep.csv} and {@code metrics/<runName>/sweep-replications.csv}.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-05.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-05
+ */
+public class SweepRunner{
+	private static final Logger LOGGER = LoggerFactory.getLogger(SweepRunner.class);
+	private static final String GLOB_CHARACTERS = "*?[{";
+	private final List<Path> configurationPaths;
+	private final int parallelism;
+	private final String runName;
+	private SequentialStoppingRule stoppingRule;
+	private boolean journal;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param configurationPaths The paths of the configurations to run.
+	 * @param replications       The number of replications of each configuration.
+	 * @param parallelism        The number of replications to run at the same time.
+	 * @param runName            The name of the run.
+	 */
+	public SweepRunner(final List<Path> configurationPaths, final int replications, final int parallelism, final String runName){
+		if(replications <= 0){
+			throw new IllegalArgumentException("Replication count must be positive");
+		}
+		if(parallelism <= 0){
+			throw new IllegalArgumentException("Parallelism must be positive");
+		}
+		this.configurationPaths = configurationPaths;
+		this.parallelism = parallelism;
+		this.runName = runName;
+		this.stoppingRule = new SequentialStoppingRule(replications);
+	}
+	
+	/**
+	 * Set the rule deciding how many replications of each configuration are run, replacing the fixed number of replications.
+	 *
+	 * @param stoppingRule The rule.
+	 */
+	public void setStoppingRule(final SequentialStoppingRule stoppingRule){
+		this.stoppingRule = stoppingRule;
+	}
+	
+	/**
+	 * Set if the metric events of each replication should be written in a journal.
+	 *
+	 * @param journal True to write a journal, false otherwise.
+	 */
+	public void setJournal(final boolean journal){
+		this.journal = journal;
+	}
+	
+	/**
+	 * Get the files matching a glob, for example {@code instances/3-18-100-*.json}.
+	 * The part of the glob before the first wildcard is used as the folder to search in.
+	 *
+	 * @param glob The glob.
+	 *
+	 * @return The matching files, sorted.
+	 *
+	 * @throws IOException If the folder couldn't be read.
+	 */
+	public static List<Path> resolveGlob(final String glob) throws IOException{
+		final var normalized = glob.replace('\\', '/');
+		var firstWildcard = normalized.length();
+		for(final var c : GLOB_CHARACTERS.toCharArray()){
+			final var index = normalized.indexOf(c);
+			if(index >= 0){
+				firstWildcard = Math.min(firstWildcard, index);
+			}
+		}
+		final var separator = normalized.lastIndexOf('/', firstWildcard);
+		final var base = Paths.get(separator < 0 ? "." : normalized.substring(0, separator + 1));
+		final var matcher = FileSystems.getDefault().getPathMatcher("glob:" + normalized.substring(separator + 1));
+		if(!Files.isDirectory(base)){
+			return List.of();
+		}
+		try(final var files = Files.walk(base)){
+			return files.filter(Files::isRegularFile).filter(path -> matcher.matches(base.relativize(path))).sorted().collect(Collectors.toList());
+		}
+	}
+	
+	/**
+	 * Run all the replications and write the consolidated results.
+	 *
+	 * @return The results.
+	 *
+	 * @throws IOException If the results couldn't be written.
+	 */
+	public SweepResults run() throws IOException{
+		final var results = new SweepResults();
+		final var tasks = new ArrayList<ForkJoinTask<?>>();
+		final var names = new HashSet<String>();
+		final var done = new AtomicInteger(0);
+		final var total = new AtomicInteger(0);
+		final var pool = new ForkJoinPool(parallelism);
+		try{
+			for(final var path : configurationPaths){
+				final SimulationConfiguration configuration;
+				try{
+					configuration = SimulationConfiguration.load(path);
+				}
+				catch(final Exception e){
+					LOGGER.error("Failed to load configuration {}, it will be skipped", path, e);
+					continue;
+				}
+				final var name = getConfigurationName(path, names);
+				final Map<String, SimulationConfiguration> points;
+				try{
+					points = getPoints(configuration, name);
+				}
+				catch(final Exception e){
+					LOGGER.error("Failed to expand the grid of configuration {}, it will be skipped", path, e);
+					continue;
+				}
+				points.forEach((pointName, pointConfiguration) -> {
+					final var configurationRun = new ConfigurationRun(pointName, stoppingRule);
+					total.addAndGet(stoppingRule.getMaxReplications());
+					for(var i = 0; i < Math.min(parallelism, stoppingRule.getMaxReplications()); i++){
+						tasks.add(pool.submit(() -> {
+							int replication;
+							while((replication = configurationRun.next(results)) >= 0){
+								runReplication(pointConfiguration, pointName, replication, pointConfiguration.getReplicationSeed(replication), results);
+								LOGGER.info("Sweep progress {}/{}", done.incrementAndGet(), total.get());
+							}
+						}));
+					}
+				});
+			}
+			LOGGER.info("Running at most {} replications with a parallelism of {}", total.get(), parallelism);
+			tasks.forEach(ForkJoinTask::join);
+		}
+		finally{
+			pool.shutdown();
+		}
+		final var folder = MetricEvent.getAllMetricSaveFolder(runName);
+		Files.createDirectories(folder);
+		results.writeSummary(folder.resolve("sweep.csv"));
+		results.writeReplications(folder.resolve("sweep-replications.csv"));
+		LOGGER.info("Sweep results written in {}", folder);
+		return results;
+	}
+	
+	/**
+	 * Run one replication of a configuration.
+	 *
+	 * @param configuration The configuration.
+	 * @param name          The name of the configuration.
+	 * @param replication   The index of the replication.
+	 * @param seed          The seed of the replication.
+	 * @param results       The results to add to.
+	 */
+	private void runReplication(final SimulationConfiguration configuration, final String name, final int replication, final long seed, final SweepResults results){
+		try{
+			final var environment = configuration.createParameters(seed, runName + "/" + name).getEnvironment();
+			if(journal){
+				environment.getSimulator().getMetricEventDispatcher().addListener(new EventJournal(environment));
+			}
+			LOGGER.info("Starting replication {}/{} of {}", replication + 1, stoppingRule.getMaxReplications(), name);
+			environment.getSimulator().setRunning(true);
+			environment.getSimulator().run();
+			environment.getSimulator().stop();
+			results.add(name, replication, seed, environment.getResults().getValues());
+		}
+		catch(final Exception e){
+			LOGGER.error("Replication {}/{} of {} failed", replication + 1, stoppingRule.getMaxReplications(), name, e);
+		}
+	}
+	
+	/**
+	 * Get the configurations to run for a configuration, one per point of its grid or the configuration itself if it has no grid.
+	 *
+	 * @param configuration The configuration.
+	 * @param name          The name of the configuration.
+	 *
+	 * @return The configurations, by name.
+	 *
+	 * @throws SettingsParserException If the grid couldn't be applied.
+	 */
+	static Map<String, SimulationConfiguration> getPoints(final SimulationConfiguration configuration, final String name) throws SettingsParserException{
+		final var points = new LinkedHashMap<String, SimulationConfiguration>();
+		if(configuration.getGrid().isPresent()){
+			for(final var point : configuration.getGrid().get().getPoints()){
+				points.put(name + "/" + point.getLabel(), configuration.atGridPoint(point));
+			}
+			LOGGER.info("Configuration {} expanded to {} grid points", name, points.size());
+		}
+		else{
+			points.put(name, configuration);
+		}
+		return points;
+	}
+	
+	/**
+	 * Get a unique name for a configuration, from its file name.
+	 *
+	 * @param path  The path of the configuration.
+	 * @param names The names already used.
+	 *
+	 * @return The name.
+	 */
+	static String getConfigurationName(final Path path, final Set<String> names){
+		final var fileName = path.getFileName().toString();
+		final var baseName = fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf('.')) : fileName;
+		var name = baseName;
+		for(var i = 2; !names.add(name); i++){
+			name = baseName + "-" + i;
+		}
+		return name;
+	}
+}
@@ -0,0 +1,455 @@
+package fr.mrcraftcod.simulator.sweep;
+
+import fr.mrcraftcod.simulator.Main;
+import fr.mrcraftcod.simulator.SimulationConfiguration;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.SequentialStoppingRule;
+import fr.mrcraftcod.simulator.metrics.journal.EventJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every replication of several configurations in separate worker JVMs, so that a crash of a replication, for example in the native routing library, doesn't end the whole sweep.
+ * <p>
+ * The coordinator starts one worker per slot, each worker connecting back to the coordinator through a local socket.
+ * Jobs, made of a configuration and the seed of a replication, are handed to the workers one at a time, and the workers answer with the results of the replication.
+ * When a worker dies, or doesn't answer before the job timeout, it is started again and its job is retried, up to {@link #MAX_ATTEMPTS} times.
+ * The workers run with the same JVM options as the coordinator, and write a journal of their replications if the coordinator was asked to.
+ * <p>
+ * The configurations are named and expanded the same way {@link SweepRunner} does, and the consolidated results are written in {@code metrics/<runName>/sweep.csv} and {@code metrics/<runName>/sweep-replications.csv}.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-17.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-17
+ */
+public class WorkerFarm{
+	public static final Duration DEFAULT_JOB_TIMEOUT = Duration.ofHours(1);
+	static final int MAX_ATTEMPTS = 3;
+	private static final Logger LOGGER = LoggerFactory.getLogger(WorkerFarm.class);
+	private static final Duration CONNECTION_TIMEOUT = Duration.ofMinutes(1);
+	private static final String JOB = "JOB";
+	private static final String RESULT = "RESULT";
+	private static final String FAILED = "FAILED";
+	private static final String SEPARATOR = "\t";
+	private final List<Path> configurationPaths;
+	private final int workers;
+	private final String runName;
+	private SequentialStoppingRule stoppingRule;
+	private boolean journal;
+	private Duration jobTimeout;
+	
+	/**
+	 * A replication to run in a worker.
+	 */
+	private static class Job{
+		private final Path path;
+		private final String configurationName;
+		private final String name;
+		private final int replication;
+		private final long seed;
+		
+		/**
+		 * Constructor.
+		 *
+		 * @param path              The path of the configuration.
+		 * @param configurationName The name of the configuration.
+		 * @param name              The name of the configuration or of the point of its grid to run.
+		 * @param replication       The index of the replication.
+		 * @param seed              The seed of the replication.
+		 */
+		Job(final Path path, final String configurationName, final String name, final int replication, final long seed){
+			this.path = path;
+			this.configurationName = configurationName;
+			this.name = name;
+			this.replication = replication;
+			this.seed = seed;
+		}
+		
+		@Override
+		public String toString(){
+			return "replication " + (replication + 1) + " of " + name;
+		}
+	}
+	
+	/**
+	 * A configuration, or a point of its grid, to run.
+	 */
+	private static class JobSource{
+		private final Path path;
+		private final String configurationName;
+		private final SimulationConfiguration configuration;
+		private final ConfigurationRun run;
+		
+		/**
+		 * Constructor.
+		 *
+		 * @param path              The path of the configuration.
+		 * @param configurationName The name of the configuration.
+		 * @param configuration     The configuration to run.
+		 * @param run               The replications launched.
+		 */
+		JobSource(final Path path, final String configurationName, final SimulationConfiguration configuration, final ConfigurationRun run){
+			this.path = path;
+			this.configurationName = configurationName;
+			this.configuration = configuration;
+			this.run = run;
+		}
+	}
+	
+	/**
+	 * A worker JVM and its connection.
+	 */
+	private static class WorkerProcess implements Closeable{
+		private final Process process;
+		private final Socket socket;
+		private final BufferedReader reader;
+		private final PrintWriter writer;
+		private final Duration jobTimeout;
+		
+		/**
+		 * Start a worker and wait for it to connect.
+		 *
+		 * @param runName    The name of the run.
+		 * @param journal    True if the worker should write a journal of each replication.
+		 * @param jobTimeout The time a job can run before the worker is considered stuck, zero for no limit.
+		 *
+		 * @throws IOException If the worker couldn't be started or didn't connect.
+		 */
+		WorkerProcess(final String runName, final boolean journal, final Duration jobTimeout) throws IOException{
+			this.jobTimeout = jobTimeout;
+			try(final var server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())){
+				server.setSoTimeout((int) CONNECTION_TIMEOUT.toMillis());
+				this.process = new ProcessBuilder(getWorkerCommand(server.getLocalPort(), runName, journal)).inheritIO().start();
+				try{
+					this.socket = server.accept();
+					socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, jobTimeout.toMillis()));
+				}
+				catch(final IOException e){
+					process.destroyForcibly();
+					throw e;
+				}
+			}
+			this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			this.writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+		}
+		
+		/**
+		 * Run a job in the worker.
+		 *
+		 * @param job The job.
+		 *
+		 * @return The results of the replication, empty if the replication failed.
+		 *
+		 * @throws IOException If the worker died or didn't answer before the job timeout, in which case it is killed.
+		 */
+		Optional<Map<String, Double>> run(final Job job) throws IOException{
+			writer.println(String.join(SEPARATOR, JOB, job.path.toAbsolutePath().toString(), job.configurationName, job.name, "" + job.replication, "" + job.seed));
+			if(writer.checkError()){
+				throw new IOException("Failed to send the job to the worker");
+			}
+			final String line;
+			try{
+				line = reader.readLine();
+			}
+			catch(final SocketTimeoutException e){
+				process.destroyForcibly();
+				throw new IOException("The worker didn't answer in " + jobTimeout, e);
+			}
+			if(Objects.isNull(line)){
+				throw new IOException("The worker exited with code " + waitForExit());
+			}
+			final var parts = line.split(SEPARATOR);
+			if(RESULT.equals(parts[0])){
+				final var values = new HashMap<String, Double>();
+				for(var i = 1; i < parts.length; i++){
+					final var index = parts[i].lastIndexOf('=');
+					values.put(parts[i].substring(0, index), Double.parseDouble(parts[i].substring(index + 1)));
+				}
+				return Optional.of(values);
+			}
+			LOGGER.error("{} failed in the worker: {}", job, parts.length > 1 ? parts[1] : line);
+			return Optional.empty();
+		}
+		
+		/**
+		 * Wait a bit for the process to exit after its connection was closed.
+		 *
+		 * @return The exit code, or -1 if the process didn't exit.
+		 */
+		private int waitForExit(){
+			try{
+				process.waitFor(CONNECTION_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+			}
+			catch(final InterruptedException e){
+				Thread.currentThread().interrupt();
+			}
+			return process.isAlive() ? -1 : process.exitValue();
+		}
+		
+		@Override
+		public void close(){
+			try{
+				socket.close();
+			}
+			catch(final IOException e){
+				LOGGER.warn("Failed to close the worker connection", e);
+			}
+			if(process.isAlive() && waitForExit() < 0){
+				process.destroyForcibly();
+			}
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param configurationPaths The paths of the configurations to run.
+	 * @param replications       The number of replications of each configuration.
+	 * @param workers            The number of worker JVMs.
+	 * @param runName            The name of the run.
+	 */
+	public WorkerFarm(final List<Path> configurationPaths, final int replications, final int workers, final String runName){
+		if(replications <= 0){
+			throw new IllegalArgumentException("Replication count must be positive");
+		}
+		if(workers <= 0){
+			throw new IllegalArgumentException("Worker count must be positive");
+		}
+		this.configurationPaths = configurationPaths;
+		this.workers = workers;
+		this.runName = runName;
+		this.stoppingRule = new SequentialStoppingRule(replications);
+		this.journal = false;
+		this.jobTimeout = DEFAULT_JOB_TIMEOUT;
+	}
+	
+	/**
+	 * Set the rule deciding how many replications of each configuration are run, replacing the fixed number of replications.
+	 *
+	 * @param stoppingRule The rule.
+	 */
+	public void setStoppingRule(final SequentialStoppingRule stoppingRule){
+		this.stoppingRule = stoppingRule;
+	}
+	
+	/**
+	 * Set if the workers should write the metric events of each replication in a journal.
+	 *
+	 * @param journal True to write a journal, false otherwise.
+	 */
+	public void setJournal(final boolean journal){
+		this.journal = journal;
+	}
+	
+	/**
+	 * Set the time a replication can run in a worker before the worker is considered stuck, killed and started again.
+	 *
+	 * @param jobTimeout The timeout, zero for no limit.
+	 */
+	public void setJobTimeout(final Duration jobTimeout){
+		this.jobTimeout = jobTimeout;
+	}
+	
+	/**
+	 * Run all the replications in the workers and write the consolidated results.
+	 *
+	 * @return The results.
+	 *
+	 * @throws IOException If the results couldn't be written.
+	 */
+	public SweepResults run() throws IOException{
+		final var results = new SweepResults();
+		final var sources = new ArrayList<JobSource>();
+		final var names = new HashSet<String>();
+		for(final var path : configurationPaths){
+			try{
+				final var configuration = SimulationConfiguration.load(path);
+				final var name = SweepRunner.getConfigurationName(path, names);
+				SweepRunner.getPoints(configuration, name).forEach((pointName, pointConfiguration) -> sources.add(new JobSource(path, name, pointConfiguration, new ConfigurationRun(pointName, stoppingRule))));
+			}
+			catch(final Exception e){
+				LOGGER.error("Failed to load configuration {}, it will be skipped", path, e);
+			}
+		}
+		final var done = new AtomicInteger(0);
+		final var total = sources.size() * stoppingRule.getMaxReplications();
+		LOGGER.info("Running at most {} replications in {} workers", total, workers);
+		final var executor = Executors.newFixedThreadPool(workers);
+		try{
+			final var tasks = new ArrayList<Future<?>>();
+			for(var i = 0; i < workers; i++){
+				tasks.add(executor.submit(() -> {
+					WorkerProcess worker = null;
+					try{
+						Job job;
+						while(Objects.nonNull(job = nextJob(sources, results))){
+							for(var attempt = 1; ; attempt++){
+								try{
+									if(Objects.isNull(worker)){
+										worker = new WorkerProcess(runName, journal, jobTimeout);
+									}
+									final var currentJob = job;
+									worker.run(job).ifPresent(values -> results.add(currentJob.name, currentJob.replication, currentJob.seed, values));
+									break;
+								}
+								catch(final IOException e){
+									if(Objects.nonNull(worker)){
+										worker.close();
+										worker = null;
+									}
+									if(attempt >= MAX_ATTEMPTS){
+										LOGGER.error("Giving up {} after {} attempts", job, attempt, e);
+										break;
+									}
+									LOGGER.warn("Worker lost while running {}, restarting it (attempt {}/{})", job, attempt + 1, MAX_ATTEMPTS, e);
+								}
+							}
+							LOGGER.info("Sweep progress {}/{}", done.incrementAndGet(), total);
+						}
+					}
+					finally{
+						if(Objects.nonNull(worker)){
+							worker.close();
+						}
+					}
+				}));
+			}
+			for(final var task : tasks){
+				task.get();
+			}
+		}
+		catch(final Exception e){
+			LOGGER.error("Worker farm interrupted", e);
+		}
+		finally{
+			executor.shutdownNow();
+		}
+		final var folder = MetricEvent.getAllMetricSaveFolder(runName);
+		Files.createDirectories(folder);
+		results.writeSummary(folder.resolve("sweep.csv"));
+		results.writeReplications(folder.resolve("sweep-replications.csv"));
+		LOGGER.info("Sweep results written in {}", folder);
+		return results;
+	}
+	
+	/**
+	 * Get the next job to run, the configurations being run in order.
+	 *
+	 * @param sources The configurations.
+	 * @param results The results of the replications that ended.
+	 *
+	 * @return The job, or null if every replication was launched.
+	 */
+	private static Job nextJob(final List<JobSource> sources, final SweepResults results){
+		for(final var source : sources){
+			final var replication = source.run.next(results);
+			if(replication >= 0){
+				return new Job(source.path, source.configurationName, source.run.getName(), replication, source.configuration.getReplicationSeed(replication));
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Get the command starting a worker, running the same java, JVM options and module or class path as this JVM.
+	 * The debugger agent isn't forwarded, as the workers can't share its port.
+	 *
+	 * @param port    The port the worker should connect to.
+	 * @param runName The name of the run.
+	 * @param journal True if the worker should write a journal of each replication.
+	 *
+	 * @return The command.
+	 */
+	static List<String> getWorkerCommand(final int port, final String runName, final boolean journal){
+		final var command = new ArrayList<String>();
+		command.add(ProcessHandle.current().info().command().orElseGet(() -> Paths.get(System.getProperty("java.home"), "bin", "java").toString()));
+		ManagementFactory.getRuntimeMXBean().getInputArguments().stream().filter(argument -> !argument.startsWith("-agentlib:jdwp") && !argument.startsWith("-Xrunjdwp") && !argument.startsWith("-Djava.class.path=") && !argument.startsWith("-Djdk.module.")).forEach(command::add);
+		if(command.stream().noneMatch(argument -> argument.startsWith("-Djava.library.path="))){
+			Optional.ofNullable(System.getProperty("java.library.path")).ifPresent(libraryPath -> command.add("-Djava.library.path=" + libraryPath));
+		}
+		final var modulePath = System.getProperty("jdk.module.path");
+		if(Objects.nonNull(modulePath) && Main.class.getModule().isNamed()){
+			command.add("-p");
+			command.add(modulePath);
+			command.add("-m");
+			command.add(Main.class.getModule().getName() + "/" + Main.class.getName());
+		}
+		else{
+			command.add("-cp");
+			command.add(System.getProperty("java.class.path"));
+			command.add(Main.class.getName());
+		}
+		command.add("--worker-port");
+		command.add("" + port);
+		command.add("--run-name");
+		command.add(runName);
+		if(journal){
+			command.add("--journal");
+		}
+		return command;
+	}
+	
+	/**
+	 * Run the jobs sent by a coordinator until it closes the connection.
+	 *
+	 * @param port    The port of the coordinator.
+	 * @param runName The name of the run.
+	 * @param journal True to write the metric events of each replication in a journal.
+	 *
+	 * @throws IOException If the connection failed.
+	 */
+	public static void runWorker(final int port, final String runName, final boolean journal) throws IOException{
+		final var configurations = new HashMap<String, Map<String, SimulationConfiguration>>();
+		try(final var socket = new Socket(InetAddress.getLoopbackAddress(), port); final var reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)); final var writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)){
+			String line;
+			while(Objects.nonNull(line = reader.readLine())){
+				final var parts = line.split(SEPARATOR);
+				if(parts.length != 6 || !JOB.equals(parts[0])){
+					LOGGER.warn("Ignoring unknown message {}", line);
+					continue;
+				}
+				final var name = parts[3];
+				final var replication = Integer.parseInt(parts[4]);
+				final var seed = Long.parseLong(parts[5]);
+				try{
+					if(!configurations.containsKey(parts[1])){
+						configurations.put(parts[1], SweepRunner.getPoints(SimulationConfiguration.load(Paths.get(parts[1])), parts[2]));
+					}
+					final var configuration = Optional.ofNullable(configurations.get(parts[1]).get(name)).orElseThrow(() -> new IllegalArgumentException("Unknown configuration " + name));
+					final var environment = configuration.createParameters(seed, runName + "/" + name).getEnvironment();
+					if(journal){
+						environment.getSimulator().getMetricEventDispatcher().addListener(new EventJournal(environment));
+					}
+					LOGGER.info("Starting replication {} of {}", replication + 1, name);
+					environment.getSimulator().setRunning(true);
+					environment.getSimulator().run();
+					environment.getSimulator().stop();
+					final var message = new StringJoiner(SEPARATOR).add(RESULT);
+					environment.getResults().getValues().forEach((metric, value) -> message.add(metric + "=" + value));
+					writer.println(message);
+				}
+				catch(final Exception e){
+					LOGGER.error("Replication {} of {} failed", replication + 1, name, e);
+					writer.println(String.join(SEPARATOR, FAILED, ("" + e).replaceAll("\\s+", " ")));
+				}
+			}
+		}
+	}
+}
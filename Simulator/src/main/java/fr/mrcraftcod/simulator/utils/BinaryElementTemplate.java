@@ -0,0 +1,70 @@
+package fr.mrcraftcod.simulator.utils;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * An element of a binary instance, backed by its slice of the mapped file.
+ * The values are only read when the template is instantiated.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-03.
+ *
+ * @author Thomas Couchoud
+ * @see BinaryInstance
+ * @since 2019-04-03
+ */
+@SuppressWarnings("WeakerAccess")
+public class BinaryElementTemplate implements ElementTemplate{
+	private final Class<? extends BinarySerializable> elementClass;
+	private final Constructor<? extends BinarySerializable> constructor;
+	private final ByteBuffer values;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param elementClass The class of the element.
+	 * @param constructor  The constructor of the element taking an {@link Environment}.
+	 * @param values       The values of the element.
+	 */
+	public BinaryElementTemplate(final Class<? extends BinarySerializable> elementClass, final Constructor<? extends BinarySerializable> constructor, final ByteBuffer values){
+		this.elementClass = elementClass;
+		this.constructor = constructor;
+		this.values = values;
+	}
+	
+	@Override
+	public List<?> instantiate(final Environment environment) throws SettingsParserException{
+		final var buffer = values.duplicate();
+		try{
+			final var instance = constructor.newInstance(environment).fillFromBinary(environment, buffer);
+			if(buffer.hasRemaining()){
+				throw new SettingsParserException(String.format("%d bytes were left unread for an element of class %s", buffer.remaining(), elementClass.getName()));
+			}
+			return List.of(instance);
+		}
+		catch(final IllegalArgumentException | IllegalAccessException | InstantiationException | InvocationTargetException | BufferUnderflowException e){
+			throw new SettingsParserException("Failed to read binary element of class " + elementClass.getName(), e);
+		}
+	}
+	
+	@Override
+	public String toString(){
+		return new ToStringBuilder(this).append("class", elementClass.getName()).append("size", values.remaining()).toString();
+	}
+	
+	@Override
+	public int getCount(){
+		return 1;
+	}
+	
+	@Override
+	public Class<? extends BinarySerializable> getElementClass(){
+		return elementClass;
+	}
+}
@@ -0,0 +1,215 @@
+package fr.mrcraftcod.simulator.utils;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.SimulationConfiguration;
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import fr.mrcraftcod.simulator.metrics.MetricEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Reads and writes fully materialised environments as binary instances.
+ * <p>
+ * A binary instance stores the elements as they are after being parsed from a JSON configuration: random positions and capacities have already been drawn.
+ * Loading one only maps the file into memory, the values of each element are read when the element is instantiated.
+ * <p>
+ * The file is formatted as follow (big endian):
+ * <ul>
+ * <li>{@code int} magic, {@link #MAGIC}</li>
+ * <li>{@code int} version, {@link #VERSION}</li>
+ * <li>{@code byte} 1 if a seed is present, 0 otherwise</li>
+ * <li>{@code long} seed</li>
+ * <li>{@code int} end date</li>
+ * <li>{@code int} number of class names, followed by each name as an {@code int} length and its UTF-8 bytes</li>
+ * <li>{@code int} number of metric listeners, followed by the {@code int} index of each class name</li>
+ * <li>{@code int} number of elements, followed by each element as the {@code int} index of its class name, the {@code int} length of its values and the values written by {@link BinarySerializable#writeBinary(DataOutput)}</li>
+ * </ul>
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-03.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-03
+ */
+public class BinaryInstance{
+	private static final Logger LOGGER = LoggerFactory.getLogger(BinaryInstance.class);
+	/**
+	 * The first bytes of a binary instance, "SIMI".
+	 */
+	public static final int MAGIC = 0x53494D49;
+	/**
+	 * The version of the format written.
+	 */
+	public static final int VERSION = 3;
+	
+	private BinaryInstance(){
+	}
+	
+	/**
+	 * Tells if a file is a binary instance.
+	 *
+	 * @param path The path of the file.
+	 *
+	 * @return True if the file starts with {@link #MAGIC}, false otherwise.
+	 *
+	 * @throws IOException If the file couldn't be read.
+	 */
+	public static boolean isBinaryInstance(final Path path) throws IOException{
+		try(final var channel = FileChannel.open(path, StandardOpenOption.READ)){
+			final var header = ByteBuffer.allocate(Integer.BYTES);
+			while(header.hasRemaining()){
+				if(channel.read(header) < 0){
+					return false;
+				}
+			}
+			return header.flip().getInt() == MAGIC;
+		}
+	}
+	
+	/**
+	 * Write an environment as a binary instance.
+	 *
+	 * @param environment   The environment to write.
+	 * @param metricClasses The classes of the metric listeners to attach when the instance is loaded.
+	 * @param path          The path of the file to write.
+	 *
+	 * @throws IOException              If the file couldn't be written.
+	 * @throws IllegalArgumentException If an element of the environment isn't {@link BinarySerializable}.
+	 */
+	public static void write(final Environment environment, final Collection<? extends Class<?>> metricClasses, final Path path) throws IOException, IllegalArgumentException{
+		final var classNames = new LinkedHashMap<String, Integer>();
+		final var metricIndices = new ArrayList<Integer>();
+		for(final var metricClass : metricClasses){
+			metricIndices.add(classNames.computeIfAbsent(metricClass.getName(), k -> classNames.size()));
+		}
+		final var elementIndices = new ArrayList<Integer>();
+		final var elementValues = new ArrayList<byte[]>();
+		for(final var element : environment.getElements()){
+			if(!(element instanceof BinarySerializable)){
+				throw new IllegalArgumentException("Element " + element.getUniqueIdentifier() + " can't be written in a binary instance");
+			}
+			final var bytes = new ByteArrayOutputStream();
+			try(final var output = new DataOutputStream(bytes)){
+				((BinarySerializable<?>) element).writeBinary(output);
+			}
+			elementIndices.add(classNames.computeIfAbsent(element.getClass().getName(), k -> classNames.size()));
+			elementValues.add(bytes.toByteArray());
+		}
+		
+		try(final var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))){
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeBoolean(Objects.nonNull(environment.getSeed()));
+			output.writeLong(Optional.ofNullable(environment.getSeed()).orElse(0L));
+			output.writeInt(environment.getEnd());
+			output.writeInt(classNames.size());
+			for(final var className : classNames.keySet()){
+				final var bytes = className.getBytes(StandardCharsets.UTF_8);
+				output.writeInt(bytes.length);
+				output.write(bytes);
+			}
+			output.writeInt(metricIndices.size());
+			for(final var index : metricIndices){
+				output.writeInt(index);
+			}
+			output.writeInt(elementValues.size());
+			for(var i = 0; i < elementValues.size(); i++){
+				output.writeInt(elementIndices.get(i));
+				output.writeInt(elementValues.get(i).length);
+				output.write(elementValues.get(i));
+			}
+		}
+		LOGGER.info("Wrote binary instance with {} elements to {}", elementValues.size(), path);
+	}
+	
+	/**
+	 * Read a binary instance.
+	 *
+	 * @param path The path of the file.
+	 *
+	 * @return The configuration described by the file.
+	 *
+	 * @throws IOException             If the file couldn't be read.
+	 * @throws SettingsParserException If the file isn't a valid binary instance.
+	 */
+	public static SimulationConfiguration read(final Path path) throws IOException, SettingsParserException{
+		final ByteBuffer buffer;
+		try(final var channel = FileChannel.open(path, StandardOpenOption.READ)){
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		try{
+			if(buffer.getInt() != MAGIC){
+				throw new SettingsParserException("File " + path + " isn't a binary instance");
+			}
+			final var version = buffer.getInt();
+			if(version != VERSION){
+				throw new SettingsParserException("Unsupported binary instance version " + version);
+			}
+			final var hasSeed = buffer.get() != 0;
+			final var seed = buffer.getLong();
+			final var end = buffer.getInt();
+			
+			final var classNames = new String[buffer.getInt()];
+			for(var i = 0; i < classNames.length; i++){
+				final var bytes = new byte[buffer.getInt()];
+				buffer.get(bytes);
+				classNames[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+			
+			final var metricCount = buffer.getInt();
+			final var metricConstructors = new ArrayList<Constructor<? extends MetricEventListener>>(metricCount);
+			for(var i = 0; i < metricCount; i++){
+				metricConstructors.add(SimulationConfiguration.getMetricConstructor(classNames[buffer.getInt()]));
+			}
+			
+			final var elementClasses = new HashMap<String, Constructor<? extends BinarySerializable>>();
+			final var elementCount = buffer.getInt();
+			final var elementTemplates = new ArrayList<ElementTemplate>(elementCount);
+			for(var i = 0; i < elementCount; i++){
+				final var className = classNames[buffer.getInt()];
+				final var length = buffer.getInt();
+				final var constructor = elementClasses.computeIfAbsent(className, BinaryInstance::getSerializableConstructor);
+				final var values = buffer.duplicate();
+				values.limit(buffer.position() + length);
+				elementTemplates.add(new BinaryElementTemplate(constructor.getDeclaringClass(), constructor, values.slice()));
+				buffer.position(buffer.position() + length);
+			}
+			return new SimulationConfiguration(path, hasSeed ? seed : null, end, elementTemplates, metricConstructors);
+		}
+		catch(final BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e){
+			throw new SettingsParserException("Binary instance " + path + " is corrupted", e);
+		}
+	}
+	
+	/**
+	 * Get the constructor of a class that can be read from a binary instance.
+	 *
+	 * @param className The name of the class.
+	 *
+	 * @return The constructor taking an {@link Environment}.
+	 *
+	 * @throws SettingsParserException If the class couldn't be found, isn't {@link BinarySerializable} or doesn't have the constructor.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Constructor<? extends BinarySerializable> getSerializableConstructor(final String className) throws SettingsParserException{
+		try{
+			final var klass = Class.forName(className);
+			if(!BinarySerializable.class.isAssignableFrom(klass)){
+				throw new SettingsParserException("Element class " + className + " can't be read from a binary instance");
+			}
+			return JSONUtils.getEnvironmentConstructor((Class<? extends BinarySerializable>) klass);
+		}
+		catch(final ClassNotFoundException | NoSuchMethodException e){
+			throw new SettingsParserException("Element class " + className + " couldn't be loaded", e);
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package fr.mrcraftcod.simulator.utils;
+
+import fr.mrcraftcod.simulator.Environment;
+import org.jetbrains.annotations.NotNull;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Represents an element that can be written into and read back from a binary instance file.
+ * <p>
+ * Any class implementing this interface should have a constructor taking a {@link Environment} as parameter.
+ * The values read by {@link #fillFromBinary(Environment, ByteBuffer)} must be read in the same order they were written by {@link #writeBinary(DataOutput)}.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-03.
+ *
+ * @author Thomas Couchoud
+ * @see BinaryInstance
+ * @since 2019-04-03
+ */
+public interface BinarySerializable<T>{
+	/**
+	 * Write the current state of this object.
+	 *
+	 * @param output The output to write to.
+	 *
+	 * @throws IOException If the output couldn't be written.
+	 */
+	void writeBinary(@NotNull DataOutput output) throws IOException;
+	
+	/**
+	 * Read the binary values into the current object.
+	 *
+	 * @param environment The environment the object belongs to.
+	 * @param buffer      The buffer to read from, positioned at the start of the values of this object.
+	 *
+	 * @return This
+	 *
+	 * @throws IllegalArgumentException If something went wrong when reading.
+	 */
+	T fillFromBinary(@NotNull Environment environment, @NotNull ByteBuffer buffer) throws IllegalArgumentException;
+}
@@ -0,0 +1,40 @@
+package fr.mrcraftcod.simulator.utils;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import java.util.List;
+
+/**
+ * An element declaration of a configuration, that can be instantiated as many times as needed.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-02.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-02
+ */
+public interface ElementTemplate{
+	/**
+	 * Creates the objects described by this template.
+	 *
+	 * @param environment The environment the objects are in.
+	 *
+	 * @return A list of {@link #getCount()} objects.
+	 *
+	 * @throws SettingsParserException If the given parameters are incorrect.
+	 */
+	List<?> instantiate(Environment environment) throws SettingsParserException;
+	
+	/**
+	 * Get the number of objects created by each instantiation.
+	 *
+	 * @return The count.
+	 */
+	int getCount();
+	
+	/**
+	 * Get the class of the objects created.
+	 *
+	 * @return The class.
+	 */
+	Class<?> getElementClass();
+}
@@ -0,0 +1,95 @@
+package fr.mrcraftcod.simulator.utils;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.json.JSONObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A parsed JSON element declaration of a configuration, that can be instantiated as many times as needed.
+ * The class and its constructor are resolved once when the template is built, instantiating it only creates the objects and fills them.
+ * <p>
+ * The declaration is formatted as follow:
+ * {@code
+ * "count": Int; Default 1; must be positive non 0,
+ * "class": String,
+ * "parameters": JSONObject; This will be passed to {@link JSONParsable#fillFromJson(Environment, JSONObject)}
+ * }
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-02.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-02
+ */
+@SuppressWarnings("WeakerAccess")
+public class JSONElementTemplate implements ElementTemplate{
+	private final JSONObject json;
+	private final Class<? extends JSONParsable> elementClass;
+	private final Constructor<? extends JSONParsable> constructor;
+	private final JSONObject parameters;
+	private final int count;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param json The JSON declaration of the element.
+	 *
+	 * @throws SettingsParserException  If the class doesn't have a constructor taking an {@link Environment}.
+	 * @throws IllegalArgumentException If the class couldn't be found or isn't an instance of {@link JSONParsable}.
+	 */
+	public JSONElementTemplate(final JSONObject json) throws SettingsParserException, IllegalArgumentException{
+		this.json = json;
+		this.elementClass = JSONUtils.getParsableClass(Optional.of(json.optString("class")).filter(s -> !s.isBlank()).orElseThrow(() -> new IllegalStateException("No class name provided")));
+		try{
+			this.constructor = JSONUtils.getEnvironmentConstructor(elementClass);
+		}
+		catch(final NoSuchMethodException e){
+			throw new SettingsParserException(elementClass, json, e);
+		}
+		this.parameters = Optional.ofNullable(json.optJSONObject("parameters")).orElse(new JSONObject());
+		this.count = Optional.of(json.optInt("count")).filter(i -> i > 0).orElse(1);
+	}
+	
+	@Override
+	public List<JSONParsable> instantiate(final Environment environment) throws SettingsParserException{
+		final var instances = new ArrayList<JSONParsable>(count);
+		for(var i = 0; i < count; i++){
+			try{
+				instances.add((JSONParsable) constructor.newInstance(environment).fillFromJson(environment, parameters));
+			}
+			catch(final IllegalArgumentException | IllegalAccessException | InstantiationException | InvocationTargetException e){
+				throw new SettingsParserException(elementClass, json, e);
+			}
+		}
+		return instances;
+	}
+	
+	@Override
+	public String toString(){
+		return new ToStringBuilder(this).append("class", elementClass.getName()).append("count", count).toString();
+	}
+	
+	@Override
+	public int getCount(){
+		return count;
+	}
+	
+	@Override
+	public Class<? extends JSONParsable> getElementClass(){
+		return elementClass;
+	}
+	
+	/**
+	 * Get the JSON this template was built from.
+	 *
+	 * @return The JSON declaration.
+	 */
+	public JSONObject getJson(){
+		return json;
+	}
+}
@@ -5,10 +5,10 @@ import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Constructor;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * Utilities to parse JSON.
@@ -19,6 +19,8 @@ import java.util.stream.IntStream;
  */
 public class JSONUtils{
 	private static final Logger LOGGER = LoggerFactory.getLogger(JSONUtils.class);
+	private static final Map<String, Class<? extends JSONParsable>> PARSABLE_CLASSES = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, Constructor<?>> ENVIRONMENT_CONSTRUCTORS = new ConcurrentHashMap<>();
 	
 	/**
 	 * Get objects of a class from the json.
@@ -58,27 +60,59 @@ public class JSONUtils{
 	 * @throws SettingsParserException If the class couldn't be found or isn't an instance of {@link JSONParsable} or the given parameters are incorrect.
 	 */
 	public static List<JSONParsable> getObjects(final Environment environment, final JSONObject elementObj) throws SettingsParserException{
+		return new JSONElementTemplate(elementObj).instantiate(environment);
+	}
+	
+	/**
+	 * Get a class implementing {@link JSONParsable} from its name.
+	 * Lookups are cached, a class is only resolved and checked once.
+	 *
+	 * @param className The name of the class.
+	 *
+	 * @return The class.
+	 *
+	 * @throws IllegalArgumentException If the class couldn't be found or isn't an instance of {@link JSONParsable}.
+	 */
+	public static Class<? extends JSONParsable> getParsableClass(final String className) throws IllegalArgumentException{
+		final var cached = PARSABLE_CLASSES.get(className);
+		if(Objects.nonNull(cached)){
+			return cached;
+		}
 		final Class<?> elementKlass;
 		try{
-			elementKlass = Class.forName(Optional.of(elementObj.optString("class")).filter(s -> !s.isBlank()).orElseThrow(() -> new IllegalStateException("No class name provided")));
+			elementKlass = Class.forName(className);
 		}
 		catch(final ClassNotFoundException e){
-			LOGGER.error("Class from {} not found", elementObj, e);
+			LOGGER.error("Class {} not found", className, e);
 			throw new IllegalArgumentException("JSON for isn't valid");
 		}
 		if(!getAllExtendedOrImplementedTypesRecursively(elementKlass).contains(JSONParsable.class)){
 			throw new IllegalArgumentException("Element class isn't parsable from JSON");
 		}
-		@SuppressWarnings("unchecked") final var parsableClazz = (Class<JSONParsable>) elementKlass;
-		final var parameters = Optional.ofNullable(elementObj.optJSONObject("parameters")).orElse(new JSONObject());
-		return IntStream.range(0, Optional.of(elementObj.optInt("count")).filter(i -> i > 0).orElse(1)).mapToObj(i -> {
-			try{
-				return (JSONParsable) parsableClazz.getConstructor(Environment.class).newInstance(environment).fillFromJson(environment, parameters);
-			}
-			catch(final IllegalArgumentException | NoSuchMethodException | IllegalAccessException | InstantiationException | InvocationTargetException e){
-				throw new SettingsParserException(parsableClazz, elementObj, e);
-			}
-		}).collect(Collectors.toList());
+		@SuppressWarnings("unchecked") final var parsableClazz = (Class<? extends JSONParsable>) elementKlass;
+		PARSABLE_CLASSES.putIfAbsent(className, parsableClazz);
+		return parsableClazz;
+	}
+	
+	/**
+	 * Get the constructor of a class taking an {@link Environment} as its only parameter.
+	 * Lookups are cached, a constructor is only resolved once per class.
+	 *
+	 * @param klass The class to get the constructor for.
+	 * @param <T>   The type of the objects built.
+	 *
+	 * @return The constructor.
+	 *
+	 * @throws NoSuchMethodException If the class doesn't have such a constructor.
+	 */
+	public static <T> Constructor<? extends T> getEnvironmentConstructor(final Class<? extends T> klass) throws NoSuchMethodException{
+		@SuppressWarnings("unchecked") final var cached = (Constructor<? extends T>) ENVIRONMENT_CONSTRUCTORS.get(klass);
+		if(Objects.nonNull(cached)){
+			return cached;
+		}
+		final var constructor = klass.getConstructor(Environment.class);
+		ENVIRONMENT_CONSTRUCTORS.putIfAbsent(klass, constructor);
+		return constructor;
 	}
 	
 	/**
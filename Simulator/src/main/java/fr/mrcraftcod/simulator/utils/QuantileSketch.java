@@ -0,0 +1,195 @@
+package fr.mrcraftcod.simulator.utils;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import java.util.TreeMap;
+
+/**
+ * Estimates the quantiles of values without keeping the values.
+ * <p>
+ * Values are counted in buckets whose bounds grow geometrically, as in the DDSketch of C. Masson et al. (2019), so every quantile is estimated within a relative error of the value.
+ * The number of buckets grows with the logarithm of the range of the values, and two sketches with the same accuracy can be merged by adding their counts.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-16.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-16
+ */
+public class QuantileSketch{
+	/**
+	 * The relative accuracy used by default.
+	 */
+	public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+	private final double relativeAccuracy;
+	private final double gamma;
+	private final double logGamma;
+	private final TreeMap<Integer, Long> positives;
+	private final TreeMap<Integer, Long> negatives;
+	private long zeros;
+	private long count;
+	private double min;
+	private double max;
+	
+	/**
+	 * Constructor, with the default accuracy.
+	 */
+	public QuantileSketch(){
+		this(DEFAULT_RELATIVE_ACCURACY);
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param relativeAccuracy The relative error allowed on the quantiles, in ]0;1[.
+	 *
+	 * @throws IllegalArgumentException If the accuracy isn't in ]0;1[.
+	 */
+	public QuantileSketch(final double relativeAccuracy){
+		if(!(relativeAccuracy > 0 && relativeAccuracy < 1)){
+			throw new IllegalArgumentException("Relative accuracy must be in ]0;1[");
+		}
+		this.relativeAccuracy = relativeAccuracy;
+		this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+		this.logGamma = Math.log(gamma);
+		this.positives = new TreeMap<>();
+		this.negatives = new TreeMap<>();
+		this.min = Double.POSITIVE_INFINITY;
+		this.max = Double.NEGATIVE_INFINITY;
+	}
+	
+	/**
+	 * Add a value.
+	 *
+	 * @param value The value.
+	 *
+	 * @throws IllegalArgumentException If the value isn't finite.
+	 */
+	public void add(final double value){
+		if(!Double.isFinite(value)){
+			throw new IllegalArgumentException("Value must be finite");
+		}
+		if(value > Double.MIN_NORMAL){
+			positives.merge(getBucket(value), 1L, Long::sum);
+		}
+		else if(value < -Double.MIN_NORMAL){
+			negatives.merge(getBucket(-value), 1L, Long::sum);
+		}
+		else{
+			zeros++;
+		}
+		count++;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+	
+	/**
+	 * Add the values of another sketch.
+	 *
+	 * @param other The sketch to merge into this one.
+	 *
+	 * @throws IllegalArgumentException If the sketches don't have the same accuracy.
+	 */
+	public void merge(final QuantileSketch other){
+		if(other.relativeAccuracy != relativeAccuracy){
+			throw new IllegalArgumentException("Sketches must have the same accuracy to be merged");
+		}
+		other.positives.forEach((bucket, bucketCount) -> positives.merge(bucket, bucketCount, Long::sum));
+		other.negatives.forEach((bucket, bucketCount) -> negatives.merge(bucket, bucketCount, Long::sum));
+		zeros += other.zeros;
+		count += other.count;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+	
+	/**
+	 * Get the bucket of a positive value.
+	 *
+	 * @param value The value.
+	 *
+	 * @return The index of the bucket, containing the values in ]gamma^(index-1);gamma^index].
+	 */
+	private int getBucket(final double value){
+		return (int) Math.ceil(Math.log(value) / logGamma);
+	}
+	
+	/**
+	 * Get the value representing a bucket, within the relative accuracy of all the values of the bucket.
+	 *
+	 * @param bucket The index of the bucket.
+	 *
+	 * @return The value.
+	 */
+	private double getValue(final int bucket){
+		return 2 * Math.exp(bucket * logGamma) / (gamma + 1);
+	}
+	
+	/**
+	 * Estimate a quantile.
+	 *
+	 * @param quantile The quantile, in [0;1].
+	 *
+	 * @return The estimated value, NaN if there's no values.
+	 *
+	 * @throws IllegalArgumentException If the quantile isn't in [0;1].
+	 */
+	public double getQuantile(final double quantile){
+		if(!(quantile >= 0 && quantile <= 1)){
+			throw new IllegalArgumentException("Quantile must be in [0;1]");
+		}
+		if(count == 0){
+			return Double.NaN;
+		}
+		final var rank = quantile * (count - 1);
+		var seen = 0L;
+		for(final var bucket : negatives.descendingMap().entrySet()){
+			seen += bucket.getValue();
+			if(seen > rank){
+				return clamp(-getValue(bucket.getKey()));
+			}
+		}
+		seen += zeros;
+		if(seen > rank){
+			return 0;
+		}
+		for(final var bucket : positives.entrySet()){
+			seen += bucket.getValue();
+			if(seen > rank){
+				return clamp(getValue(bucket.getKey()));
+			}
+		}
+		return max;
+	}
+	
+	/**
+	 * Bound an estimation by the smallest and largest values seen.
+	 *
+	 * @param value The estimation.
+	 *
+	 * @return The bounded estimation.
+	 */
+	private double clamp(final double value){
+		return Math.max(min, Math.min(max, value));
+	}
+	
+	/**
+	 * Get the number of values.
+	 *
+	 * @return The number of values.
+	 */
+	public long getCount(){
+		return count;
+	}
+	
+	/**
+	 * Get the relative accuracy of the sketch.
+	 *
+	 * @return The relative accuracy.
+	 */
+	public double getRelativeAccuracy(){
+		return relativeAccuracy;
+	}
+	
+	@Override
+	public String toString(){
+		return new ToStringBuilder(this).append("relativeAccuracy", relativeAccuracy).append("count", count).toString();
+	}
+}
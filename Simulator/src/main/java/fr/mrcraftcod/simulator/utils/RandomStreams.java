@@ -0,0 +1,107 @@
+package fr.mrcraftcod.simulator.utils;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The random streams of an environment, all derived from its seed.
+ * <p>
+ * Each subsystem (positions, capacities, routing, ...) draws from its own stream, so the values drawn by one of them don't depend on how many values the others drew before.
+ * Independent streams can also be derived for an index inside a subsystem (a routing round, a replication, ...), which gives the same values whatever the order the indices are used in, including when they are used from several threads.
+ * <p>
+ * The streams returned are {@link SplittableRandom}, that are not thread-safe: a stream should only be used by one thread at a time, or derived per index.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-08.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-08
+ */
+public class RandomStreams{
+	/**
+	 * The subsystem generating random positions.
+	 */
+	public static final String POSITION = "position";
+	/**
+	 * The subsystem generating random capacities.
+	 */
+	public static final String CAPACITY = "capacity";
+	/**
+	 * The subsystem used by the routers.
+	 */
+	public static final String ROUTING = "routing";
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	private final long seed;
+	private final Map<String, SplittableRandom> streams;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param seed The seed all the streams are derived from.
+	 */
+	public RandomStreams(final long seed){
+		this.seed = seed;
+		this.streams = new ConcurrentHashMap<>();
+	}
+	
+	/**
+	 * Get the stream of a subsystem.
+	 * The same stream is returned for every call with the same subsystem.
+	 *
+	 * @param subsystem The name of the subsystem.
+	 *
+	 * @return The stream.
+	 */
+	public SplittableRandom get(final String subsystem){
+		return streams.computeIfAbsent(subsystem, s -> new SplittableRandom(deriveSeed(seed, s.hashCode())));
+	}
+	
+	/**
+	 * Get a new stream for an index of a subsystem.
+	 * Two calls with the same subsystem and index return streams giving the same values.
+	 *
+	 * @param subsystem The name of the subsystem.
+	 * @param index     The index inside the subsystem.
+	 *
+	 * @return A new stream.
+	 */
+	public SplittableRandom get(final String subsystem, final long index){
+		return new SplittableRandom(deriveSeed(deriveSeed(seed, subsystem.hashCode()), index));
+	}
+	
+	/**
+	 * Derive a seed from another one and an index.
+	 * Seeds derived from consecutive indices are statistically independent.
+	 *
+	 * @param seed  The seed to derive from.
+	 * @param index The index.
+	 *
+	 * @return The derived seed.
+	 */
+	public static long deriveSeed(final long seed, final long index){
+		return mix(seed + mix(index + 1) * GOLDEN_GAMMA);
+	}
+	
+	/**
+	 * The SplitMix64 finalizer, scrambles the bits of a value.
+	 *
+	 * @param value The value.
+	 *
+	 * @return The scrambled value.
+	 */
+	private static long mix(final long value){
+		var z = value;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	/**
+	 * Get the seed the streams are derived from.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed(){
+		return seed;
+	}
+}
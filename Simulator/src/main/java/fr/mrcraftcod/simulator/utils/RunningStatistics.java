@@ -0,0 +1,135 @@
+package fr.mrcraftcod.simulator.utils;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Mean, variance and range of values, updated one value at a time without keeping the values.
+ * <p>
+ * The mean and variance are updated with the algorithm of B. P. Welford (1962), which stays accurate when the values are large compared to their spread.
+ * Two statistics can be merged with the parallel variant of T. F. Chan et al. (1979), giving the same result as if all the values were added to one of them.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-16.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-16
+ */
+public class RunningStatistics{
+	private long count;
+	private double mean;
+	private double squaredDeviations;
+	private double min;
+	private double max;
+	
+	/**
+	 * Constructor.
+	 */
+	public RunningStatistics(){
+		this.min = Double.POSITIVE_INFINITY;
+		this.max = Double.NEGATIVE_INFINITY;
+	}
+	
+	/**
+	 * Add a value.
+	 *
+	 * @param value The value.
+	 */
+	public void add(final double value){
+		count++;
+		final var delta = value - mean;
+		mean += delta / count;
+		squaredDeviations += delta * (value - mean);
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+	
+	/**
+	 * Add the values of other statistics.
+	 *
+	 * @param other The statistics to merge into this one.
+	 */
+	public void merge(final RunningStatistics other){
+		if(other.count == 0){
+			return;
+		}
+		final var total = count + other.count;
+		final var delta = other.mean - mean;
+		squaredDeviations += other.squaredDeviations + delta * delta * count * other.count / total;
+		mean += delta * other.count / total;
+		count = total;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+	
+	/**
+	 * Get the number of values.
+	 *
+	 * @return The number of values.
+	 */
+	public long getCount(){
+		return count;
+	}
+	
+	/**
+	 * Get the mean of the values.
+	 *
+	 * @return The mean, NaN if there's no values.
+	 */
+	public double getMean(){
+		return count == 0 ? Double.NaN : mean;
+	}
+	
+	/**
+	 * Get the sample variance of the values.
+	 *
+	 * @return The variance, NaN if there's less than two values.
+	 */
+	public double getVariance(){
+		return count < 2 ? Double.NaN : squaredDeviations / (count - 1);
+	}
+	
+	/**
+	 * Get the sample standard deviation of the values.
+	 *
+	 * @return The standard deviation, NaN if there's less than two values.
+	 */
+	public double getStandardDeviation(){
+		return Math.sqrt(getVariance());
+	}
+	
+	/**
+	 * Get the smallest value.
+	 *
+	 * @return The smallest value, NaN if there's no values.
+	 */
+	public double getMin(){
+		return count == 0 ? Double.NaN : min;
+	}
+	
+	/**
+	 * Get the largest value.
+	 *
+	 * @return The largest value, NaN if there's no values.
+	 */
+	public double getMax(){
+		return count == 0 ? Double.NaN : max;
+	}
+	
+	/**
+	 * Get the half width of the confidence interval of the mean, using the Student's t-distribution.
+	 *
+	 * @param confidence The confidence level, for example 0.95.
+	 *
+	 * @return The half width, NaN if there's less than two values.
+	 */
+	public double getConfidenceHalfWidth(final double confidence){
+		if(count < 2){
+			return Double.NaN;
+		}
+		return StatisticsUtils.getStudentQuantile(1 - (1 - confidence) / 2, (int) Math.min(Integer.MAX_VALUE, count - 1)) * getStandardDeviation() / Math.sqrt(count);
+	}
+	
+	@Override
+	public String toString(){
+		return new ToStringBuilder(this).append("count", count).append("mean", getMean()).append("standardDeviation", getStandardDeviation()).append("min", getMin()).append("max", getMax()).toString();
+	}
+}
@@ -0,0 +1,157 @@
+package fr.mrcraftcod.simulator.utils;
+
+import java.util.Collection;
+
+/**
+ * Statistical helpers used to summarize the results of several replications.
+ * <p>
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-05.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-05
+ */
+public class StatisticsUtils{
+	private StatisticsUtils(){
+	}
+	
+	/**
+	 * Get the mean of values.
+	 *
+	 * @param values The values.
+	 *
+	 * @return The mean, NaN if there's no values.
+	 */
+	public static double getMean(final Collection<Double> values){
+		return values.stream().mapToDouble(d -> d).average().orElse(Double.NaN);
+	}
+	
+	/**
+	 * Get the sample standard deviation of values.
+	 *
+	 * @param values The values.
+	 *
+	 * @return The standard deviation, NaN if there's less than two values.
+	 */
+	public static double getStandardDeviation(final Collection<Double> values){
+		if(values.size() < 2){
+			return Double.NaN;
+		}
+		final var mean = getMean(values);
+		return Math.sqrt(values.stream().mapToDouble(d -> Math.pow(d - mean, 2)).sum() / (values.size() - 1));
+	}
+	
+	/**
+	 * Get the half width of the confidence interval of the mean of values, using the Student's t-distribution.
+	 *
+	 * @param values     The values.
+	 * @param confidence The confidence level, for example 0.95.
+	 *
+	 * @return The half width, NaN if there's less than two values.
+	 */
+	public static double getConfidenceHalfWidth(final Collection<Double> values, final double confidence){
+		if(values.size() < 2){
+			return Double.NaN;
+		}
+		return getStudentQuantile(1 - (1 - confidence) / 2, values.size() - 1) * getStandardDeviation(values) / Math.sqrt(values.size());
+	}
+	
+	/**
+	 * Get a quantile of the Student's t-distribution.
+	 * Uses the approximation of G. W. Hill (1970), Algorithm 396: Student's t-quantiles.
+	 *
+	 * @param p                The probability, in ]0.5;1[.
+	 * @param degreesOfFreedom The degrees of freedom.
+	 *
+	 * @return The value t such as P(T &lt;= t) = p.
+	 */
+	public static double getStudentQuantile(final double p, final int degreesOfFreedom){
+		if(p <= 0.5 || p >= 1){
+			throw new IllegalArgumentException("Probability must be in ]0.5;1[");
+		}
+		if(degreesOfFreedom < 1){
+			throw new IllegalArgumentException("Degrees of freedom must be positive");
+		}
+		final var twoTailed = 2 * (1 - p);
+		if(degreesOfFreedom == 1){
+			return Math.tan(Math.PI * (p - 0.5));
+		}
+		if(degreesOfFreedom == 2){
+			return Math.sqrt(2 / (twoTailed * (2 - twoTailed)) - 2);
+		}
+		final double n = degreesOfFreedom;
+		final var a = 1 / (n - 0.5);
+		final var b = 48 / (a * a);
+		var c = ((20700 * a / b - 98) * a - 16) * a + 96.36;
+		final var d = ((94.5 / (b + c) - 3) / b + 1) * Math.sqrt(a * Math.PI / 2) * n;
+		var y = Math.pow(d * twoTailed, 2 / n);
+		if(y > 0.05 + a){
+			final var x = getNormalQuantile(0.5 * twoTailed);
+			y = x * x;
+			if(n < 5){
+				c += 0.3 * (n - 4.5) * (x + 0.6);
+			}
+			c = (((0.05 * d * x - 5) * x - 7) * x - 2) * x + b + c;
+			y = (((((0.4 * y + 6.3) * y + 36) * y + 94.5) / c - y - 3) / b + 1) * x;
+			y = Math.expm1(a * y * y);
+		}
+		else{
+			y = ((1 / (((n + 6) / (n * y) - 0.089 * d - 0.822) * (n + 2) * 3) + 0.5 / (n + 4)) * y - 1) * (n + 1) / (n + 2) + 1 / y;
+		}
+		return Math.sqrt(n * y);
+	}
+	
+	/**
+	 * Get a quantile of the standard normal distribution.
+	 * Uses the rational approximation of P. J. Acklam, with a relative error lower than 1.15e-9.
+	 *
+	 * @param p The probability, in ]0;1[.
+	 *
+	 * @return The value z such as P(Z &lt;= z) = p.
+	 */
+	public static double getNormalQuantile(final double p){
+		if(p <= 0 || p >= 1){
+			throw new IllegalArgumentException("Probability must be in ]0;1[");
+		}
+		final double[] a = {
+				-3.969683028665376e+01,
+				2.209460984245205e+02,
+				-2.759285104469687e+02,
+				1.383577518672690e+02,
+				-3.066479806614716e+01,
+				2.506628277459239e+00
+		};
+		final double[] b = {
+				-5.447609879822406e+01,
+				1.615858368580409e+02,
+				-1.556989798598866e+02,
+				6.680131188771972e+01,
+				-1.328068155288572e+01
+		};
+		final double[] c = {
+				-7.784894002430293e-03,
+				-3.223964580411365e-01,
+				-2.400758277161838e+00,
+				-2.549732539343734e+00,
+				4.374664141464968e+00,
+				2.938163982698783e+00
+		};
+		final double[] d = {
+				7.784695709041462e-03,
+				3.224671290700398e-01,
+				2.445134137142996e+00,
+				3.754408661907416e+00
+		};
+		final var low = 0.02425;
+		if(p < low){
+			final var q = Math.sqrt(-2 * Math.log(p));
+			return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+		}
+		if(p <= 1 - low){
+			final var q = p - 0.5;
+			final var r = q * q;
+			return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+		}
+		final var q = Math.sqrt(-2 * Math.log(1 - p));
+		return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5]) / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+	}
+}
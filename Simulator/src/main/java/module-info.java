@@ -11,32 +11,40 @@ open module fr.mrcraftcod.simulator {
 	requires org.slf4j;
 	//noinspection Java9RedundantRequiresStatement
 	requires org.apache.logging.log4j;
+	requires java.management;
 	requires java.scripting;
+	requires jdk.jfr;
+	requires jdk.httpserver;
 	
 	requires org.apache.commons.lang3;
 	requires org.json;
 	requires ortools;
 	requires jcommander;
 	
-	requires javafx.graphics;
-	requires javafx.controls;
-	requires javafx.swing;
+	requires javafx.base;
+	requires static javafx.graphics;
+	requires static javafx.controls;
+	requires static javafx.swing;
 	
 	exports fr.mrcraftcod.simulator;
 	exports fr.mrcraftcod.simulator.capacity;
 	exports fr.mrcraftcod.simulator.chargers;
 	exports fr.mrcraftcod.simulator.exceptions;
+	exports fr.mrcraftcod.simulator.jfr;
 	exports fr.mrcraftcod.simulator.jfx;
 	exports fr.mrcraftcod.simulator.jfx.tabs;
 	exports fr.mrcraftcod.simulator.jfx.tabs.sensor;
 	exports fr.mrcraftcod.simulator.jfx.utils;
 	exports fr.mrcraftcod.simulator.metrics;
 	exports fr.mrcraftcod.simulator.metrics.events;
+	exports fr.mrcraftcod.simulator.metrics.journal;
 	exports fr.mrcraftcod.simulator.metrics.listeners;
+	exports fr.mrcraftcod.simulator.metrics.recording;
 	exports fr.mrcraftcod.simulator.positions;
 	exports fr.mrcraftcod.simulator.routing;
 	exports fr.mrcraftcod.simulator.sensors;
 	exports fr.mrcraftcod.simulator.simulation;
 	exports fr.mrcraftcod.simulator.simulation.events;
+	exports fr.mrcraftcod.simulator.sweep;
 	exports fr.mrcraftcod.simulator.utils;
 }
\ No newline at end of file
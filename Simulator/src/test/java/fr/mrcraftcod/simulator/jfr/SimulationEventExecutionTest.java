@@ -0,0 +1,35 @@
+package fr.mrcraftcod.simulator.jfr;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.simulation.events.EndEvent;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.time.Duration;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-11.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-11
+ */
+class SimulationEventExecutionTest{
+	@Test
+	void recorded(@TempDir final Path folder) throws Exception{
+		final var environment = new Environment(null, "junit-test");
+		environment.setEnd(10);
+		final var output = folder.resolve("simulation.jfr");
+		try(final var recording = new Recording()){
+			recording.enable(SimulationEventExecution.class).withThreshold(Duration.ZERO);
+			recording.start();
+			environment.getSimulator().run();
+			recording.stop();
+			recording.dump(output);
+		}
+		final var events = RecordingFile.readAllEvents(output);
+		assertTrue(events.stream().filter(e -> e.getEventType().getName().equals("fr.mrcraftcod.simulator.SimulationEventExecution")).anyMatch(e -> EndEvent.class.getName().equals(e.getString("eventType")) && e.getDouble("simulationTime") == 10));
+	}
+}
@@ -0,0 +1,74 @@
+package fr.mrcraftcod.simulator.metrics;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.positions.Position;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-15.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-15
+ */
+class DepletionTrackerTest{
+	private Environment environment;
+	private Sensor sensor1;
+	private Sensor sensor2;
+	
+	@BeforeEach
+	void setUp(){
+		environment = new Environment(null, "junit-test");
+		sensor1 = new Sensor(environment, 5, 10, 1, new Position(1, 2), 1);
+		sensor2 = new Sensor(environment, 0, 10, 1, new Position(2, 1), 1);
+		environment.add(sensor1);
+		environment.add(sensor2);
+	}
+	
+	private void setCapacity(final double time, final Sensor sensor, final double capacity){
+		environment.getSimulator().currentTimeProperty().set(time);
+		sensor.setCurrentCapacity(capacity);
+	}
+	
+	@Test
+	void depletedTime(){
+		final var tracker = environment.getDepletionTracker();
+		assertSame(tracker, environment.getDepletionTracker());
+		assertEquals(1, tracker.getDepletedCount(), "A sensor empty at the start should be depleted");
+		
+		setCapacity(2, sensor1, 3);
+		setCapacity(3, sensor1, 0);
+		setCapacity(4, sensor2, 2);
+		assertEquals(1, tracker.getDepletedCount());
+		assertEquals(4, tracker.getDepletedTime(sensor2, 10));
+		assertEquals(7, tracker.getDepletedTime(sensor1, 10));
+		assertEquals(11, tracker.getTotalDepletedTime(10));
+		
+		setCapacity(5, sensor1, 0);
+		setCapacity(6, sensor1, 4.5);
+		setCapacity(8, sensor2, 0);
+		assertEquals(1, tracker.getDepletedCount());
+		assertEquals(3, tracker.getDepletedTime(sensor1, 10));
+		assertEquals(6, tracker.getDepletedTime(sensor2, 10));
+		assertEquals(9, tracker.getTotalDepletedTime(10));
+		assertEquals(tracker.getDepletedTime(sensor1, 20) + tracker.getDepletedTime(sensor2, 20), tracker.getTotalDepletedTime(20));
+	}
+	
+	@Test
+	void intervals(){
+		final var tracker = environment.getDepletionTracker();
+		setCapacity(1, sensor2, 1);
+		setCapacity(3, sensor2, 0);
+		final var intervals = tracker.getIntervals(sensor2).orElseThrow();
+		assertEquals(2, intervals.size());
+		assertEquals(0, intervals.getStart(0));
+		assertEquals(1, intervals.getEnd(0));
+		assertEquals(3, intervals.getStart(1));
+		assertEquals(Double.POSITIVE_INFINITY, intervals.getEnd(1));
+		assertTrue(intervals.isOpen());
+		assertEquals(0, tracker.getIntervals(sensor1).orElseThrow().size());
+		assertTrue(tracker.getIntervals(new Sensor(environment, 1, 1, 1, new Position(0, 0), 1)).isEmpty(), "Sensors added later aren't tracked");
+	}
+}
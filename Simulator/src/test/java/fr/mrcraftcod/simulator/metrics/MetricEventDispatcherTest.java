@@ -0,0 +1,106 @@
+package fr.mrcraftcod.simulator.metrics;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.metrics.events.FutureSensorCapacityMetricEvent;
+import fr.mrcraftcod.simulator.metrics.events.SensorCapacityMetricEvent;
+import fr.mrcraftcod.simulator.metrics.events.SensorsCapacityMetricEvent;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-10.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-10
+ */
+class MetricEventDispatcherTest{
+	private Environment environment;
+	private MetricEventDispatcher dispatcher;
+	
+	static class RecordingListener implements MetricEventListener{
+		private final List<Class<? extends MetricEvent>> subscribed;
+		private final List<MetricEvent> received;
+		
+		@SafeVarargs
+		RecordingListener(final Class<? extends MetricEvent>... subscribed){
+			this.subscribed = List.of(subscribed);
+			this.received = new ArrayList<>();
+		}
+		
+		@Override
+		public Collection<Class<? extends MetricEvent>> getSubscribedEvents(){
+			return subscribed;
+		}
+		
+		@Override
+		public void onEvent(final MetricEvent event){
+			received.add(event);
+		}
+		
+		@Override
+		public void close(){
+		}
+	}
+	
+	@BeforeEach
+	void setUp(){
+		this.environment = new Environment(null, "junit-test");
+		this.dispatcher = environment.getSimulator().getMetricEventDispatcher();
+	}
+	
+	@Test
+	void subscriptions(){
+		final var capacity = new RecordingListener(SensorCapacityMetricEvent.class);
+		final var sensors = new RecordingListener(SensorsCapacityMetricEvent.class);
+		dispatcher.addListener(capacity);
+		dispatcher.addListener(sensors);
+		final var sensor = new Sensor(environment);
+		
+		final var capacityEvent = new SensorCapacityMetricEvent(environment, 0, sensor, 5D);
+		final var futureEvent = new FutureSensorCapacityMetricEvent(environment, 0, sensor, () -> 5D);
+		final var sensorsEvent = new SensorsCapacityMetricEvent(environment, 0);
+		dispatcher.dispatchEvent(capacityEvent);
+		dispatcher.dispatchEvent(futureEvent);
+		dispatcher.dispatchEvent(sensorsEvent);
+		
+		assertEquals(List.of(capacityEvent, futureEvent), capacity.received, "Subclasses of a subscribed type should be received");
+		assertEquals(List.of(sensorsEvent), sensors.received);
+	}
+	
+	@Test
+	void hasSubscribers(){
+		assertFalse(dispatcher.hasSubscribers(SensorCapacityMetricEvent.class));
+		final var listener = new RecordingListener(SensorCapacityMetricEvent.class);
+		dispatcher.addListener(listener);
+		assertTrue(dispatcher.hasSubscribers(SensorCapacityMetricEvent.class));
+		assertTrue(dispatcher.hasSubscribers(FutureSensorCapacityMetricEvent.class));
+		assertFalse(dispatcher.hasSubscribers(SensorsCapacityMetricEvent.class));
+		dispatcher.removeListener(listener);
+		assertFalse(dispatcher.hasSubscribers(SensorCapacityMetricEvent.class));
+		
+		dispatcher.addListener(new MetricEventListener(){
+			@Override
+			public void onEvent(final MetricEvent event){
+			}
+			
+			@Override
+			public void close(){
+			}
+		});
+		assertTrue(dispatcher.hasSubscribers(SensorsCapacityMetricEvent.class), "Listeners receive every event by default");
+	}
+	
+	@Test
+	void lazyDispatch(){
+		final var listener = new RecordingListener(SensorsCapacityMetricEvent.class);
+		dispatcher.addListener(listener);
+		dispatcher.dispatchEvent(SensorCapacityMetricEvent.class, () -> fail("Event without subscribers shouldn't be built"));
+		dispatcher.dispatchEvent(SensorsCapacityMetricEvent.class, () -> new SensorsCapacityMetricEvent(environment, 0));
+		assertEquals(1, listener.received.size());
+	}
+}
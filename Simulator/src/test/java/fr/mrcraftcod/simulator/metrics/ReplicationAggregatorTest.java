@@ -0,0 +1,62 @@
+package fr.mrcraftcod.simulator.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-16.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-16
+ */
+class ReplicationAggregatorTest{
+	@Test
+	void concurrentReplications(@TempDir final Path folder) throws Exception{
+		final var aggregator = new ReplicationAggregator();
+		final var executor = Executors.newFixedThreadPool(4);
+		for(var i = 0; i < 1000; i++){
+			final var replication = i;
+			executor.execute(() -> aggregator.add("config", Map.of("depletion", (double) replication, "used", 2D)));
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		
+		final var depletion = aggregator.getSummary("config", "depletion").orElseThrow();
+		assertEquals(1000, depletion.getStatistics().getCount());
+		assertEquals(499.5, depletion.getStatistics().getMean(), 1e-9);
+		assertEquals(0, depletion.getStatistics().getMin());
+		assertEquals(999, depletion.getStatistics().getMax());
+		assertEquals(499.5, depletion.getSketch().getQuantile(0.5), 499.5 * 0.01);
+		assertEquals(0, aggregator.getSummary("config", "used").orElseThrow().getStatistics().getStandardDeviation());
+		assertTrue(aggregator.getSummary("config", "missing").isEmpty());
+		
+		final var path = folder.resolve("summary.csv");
+		aggregator.writeSummary(path);
+		final var lines = Files.readAllLines(path);
+		assertEquals(3, lines.size());
+		assertTrue(lines.get(0).startsWith(String.join(MetricEventListener.CSV_SEPARATOR, "configuration", "metric", "replications", "mean")));
+		final var columns = lines.get(1).split(MetricEventListener.CSV_SEPARATOR);
+		assertEquals(List.of("config", "depletion", "1000"), List.of(columns).subList(0, 3));
+		assertEquals(499.5, Double.parseDouble(columns[3]), 1e-9);
+	}
+	
+	@Test
+	void merge(){
+		final var first = new ReplicationAggregator();
+		final var second = new ReplicationAggregator();
+		first.add("a", Map.of("metric", 1D));
+		second.add("a", Map.of("metric", 3D));
+		second.add("b", Map.of("metric", 5D));
+		first.merge(second);
+		assertEquals(2, first.getSummary("a", "metric").orElseThrow().getStatistics().getCount());
+		assertEquals(2, first.getSummary("a", "metric").orElseThrow().getStatistics().getMean());
+		assertEquals(5, first.getSummary("b", "metric").orElseThrow().getStatistics().getMean());
+	}
+}
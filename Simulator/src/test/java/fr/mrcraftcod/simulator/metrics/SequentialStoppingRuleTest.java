@@ -0,0 +1,64 @@
+package fr.mrcraftcod.simulator.metrics;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-16.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-16
+ */
+class SequentialStoppingRuleTest{
+	private static int runUntilStopped(final SequentialStoppingRule rule, final ReplicationAggregator aggregator, final List<Map<String, Double>> values){
+		var replication = 0;
+		while(rule.shouldContinue(aggregator, "config", replication, Duration.ZERO)){
+			aggregator.add("config", values.get(replication % values.size()));
+			replication++;
+		}
+		return replication;
+	}
+	
+	@Test
+	void fixedCount(){
+		final var aggregator = new ReplicationAggregator();
+		assertEquals(7, runUntilStopped(new SequentialStoppingRule(7), aggregator, List.of(Map.of("metric", 1D))));
+		assertFalse(new SequentialStoppingRule(7).isPrecisionReached(aggregator, "config"));
+	}
+	
+	@Test
+	void stopsOnPrecision(){
+		final var rule = new SequentialStoppingRule(5, 1000, 0.05, Set.of(), Duration.ZERO);
+		final var lowVariance = List.of(Map.of("metric", 100D), Map.of("metric", 101D), Map.of("metric", 99D));
+		assertEquals(5, runUntilStopped(rule, new ReplicationAggregator(), lowVariance), "The minimum number of replications should always be run");
+		
+		final var highVariance = List.of(Map.of("metric", 50D), Map.of("metric", 150D));
+		final var aggregator = new ReplicationAggregator();
+		final var replications = runUntilStopped(rule, aggregator, highVariance);
+		assertTrue(replications > 5 && replications < 1000, "Replications: " + replications);
+		assertTrue(rule.isPrecisionReached(aggregator, "config"));
+	}
+	
+	@Test
+	void chosenMetrics(){
+		final var values = List.of(Map.of("stable", 10D, "noisy", 1D), Map.of("stable", 10D, "noisy", 100D));
+		assertEquals(5, runUntilStopped(new SequentialStoppingRule(5, 50, 0.01, Set.of("stable"), Duration.ZERO), new ReplicationAggregator(), values));
+		assertEquals(50, runUntilStopped(new SequentialStoppingRule(5, 50, 0.01, Set.of(), Duration.ZERO), new ReplicationAggregator(), values));
+		assertEquals(50, runUntilStopped(new SequentialStoppingRule(5, 50, 0.01, Set.of("missing"), Duration.ZERO), new ReplicationAggregator(), values));
+	}
+	
+	@Test
+	void timeBudget(){
+		final var rule = new SequentialStoppingRule(2, 100, Double.NaN, Set.of(), Duration.ofMinutes(1));
+		final var aggregator = new ReplicationAggregator();
+		assertTrue(rule.shouldContinue(aggregator, "config", 1, Duration.ofHours(1)), "The minimum number of replications should always be run");
+		assertTrue(rule.shouldContinue(aggregator, "config", 2, Duration.ofSeconds(59)));
+		assertFalse(rule.shouldContinue(aggregator, "config", 2, Duration.ofMinutes(1)));
+		assertThrows(IllegalArgumentException.class, () -> new SequentialStoppingRule(5, 2, 0.1, Set.of(), Duration.ZERO));
+		assertThrows(IllegalArgumentException.class, () -> new SequentialStoppingRule(1, 2, 0, Set.of(), Duration.ZERO));
+	}
+}
@@ -0,0 +1,166 @@
+package fr.mrcraftcod.simulator.metrics.journal;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.chargers.Charger;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.MetricEventListener;
+import fr.mrcraftcod.simulator.metrics.events.FutureSensorCapacityMetricEvent;
+import fr.mrcraftcod.simulator.metrics.events.SensorCapacityMetricEvent;
+import fr.mrcraftcod.simulator.metrics.events.SensorsCapacityMetricEvent;
+import fr.mrcraftcod.simulator.positions.Position;
+import fr.mrcraftcod.simulator.rault.metrics.events.*;
+import fr.mrcraftcod.simulator.rault.routing.ChargerTour;
+import fr.mrcraftcod.simulator.rault.routing.ChargingStop;
+import fr.mrcraftcod.simulator.rault.routing.StopLocation;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-13.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-13
+ */
+class EventJournalTest{
+	private static Environment createEnvironment(){
+		final var environment = new Environment(null, "junit-test");
+		environment.setSeed(42L);
+		environment.add(new Sensor(environment, 5, 10, 1, new Position(1, 2), 1));
+		environment.add(new Sensor(environment, 5, 10, 1, new Position(3, 4), 1));
+		environment.add(new Charger(100, 100, 1, 1, 1));
+		return environment;
+	}
+	
+	private static List<MetricEvent> read(final Path path, final Environment environment) throws IOException{
+		final var events = new ArrayList<MetricEvent>();
+		JournalReplayer.read(path, environment, events::add);
+		return events;
+	}
+	
+	@Test
+	void roundTrip(@TempDir final Path folder) throws IOException{
+		final var environment = createEnvironment();
+		final var sensor = (Sensor) environment.getElements().get(0);
+		final var other = (Sensor) environment.getElements().get(1);
+		final var charger = (Charger) environment.getElements().get(2);
+		final var stop = new ChargingStop(new StopLocation(new Position(2, 3), List.of(sensor, other)), 12.5);
+		stop.setCharger(charger);
+		stop.setChargerArrivalTime(7);
+		final var tour = new ChargerTour(charger);
+		tour.addStop(stop);
+		
+		final var path = folder.resolve("events.journal");
+		final var journal = new EventJournal(environment, path);
+		journal.onEvent(new SensorCapacityMetricEvent(environment, 1, sensor, 4.5));
+		journal.onEvent(new SensorsCapacityMetricEvent(environment, 1));
+		journal.onEvent(new LcRequestMetricEvent(environment, 2, other));
+		journal.onEvent(new TourStartMetricEvent(environment, 3, charger, tour));
+		journal.onEvent(new TourTravelMetricEvent(environment, 3, charger, new ImmutablePair<>(new Position(0, 0), stop)));
+		journal.onEvent(new TourChargeMetricEvent(environment, 4, charger, stop));
+		journal.onEvent(new TourEndMetricEvent(environment, 5, charger, tour));
+		journal.onEvent(new SolverAttemptMetricEvent(environment, 5, charger, 3.5, 2, "TSP", 1, 0, 1000, false));
+		journal.close();
+		assertEquals(8, journal.getEventCount());
+		
+		final var replayEnvironment = createEnvironment();
+		final var events = read(path, replayEnvironment);
+		assertEquals(8, events.size());
+		assertEquals(List.of(SensorCapacityMetricEvent.class, SensorsCapacityMetricEvent.class, LcRequestMetricEvent.class, TourStartMetricEvent.class, TourTravelMetricEvent.class, TourChargeMetricEvent.class, TourEndMetricEvent.class, SolverAttemptMetricEvent.class), events.stream().map(Object::getClass).collect(Collectors.toList()));
+		
+		final var capacity = (SensorCapacityMetricEvent) events.get(0);
+		assertEquals(1, capacity.getTime());
+		assertSame(replayEnvironment.getElements().get(0), capacity.getElement());
+		assertEquals(4.5, capacity.getNewValue());
+		assertSame(replayEnvironment.getElements().get(1), ((LcRequestMetricEvent) events.get(2)).getElement());
+		
+		final var replayTour = ((TourStartMetricEvent) events.get(3)).getNewValue();
+		assertSame(replayEnvironment.getElements().get(2), replayTour.getCharger());
+		assertSame(replayTour, ((TourEndMetricEvent) events.get(6)).getNewValue(), "A tour should be replayed as the same object");
+		final var replayStop = replayTour.getStops().getFirst();
+		assertSame(replayStop, ((TourTravelMetricEvent) events.get(4)).getNewValue().getRight(), "A stop should be replayed as the same object");
+		assertSame(replayStop, ((TourChargeMetricEvent) events.get(5)).getNewValue());
+		assertEquals(new Position(2, 3), replayStop.getStopLocation().getPosition());
+		assertEquals(12.5, replayStop.getChargingTime());
+		assertEquals(7, replayStop.getChargerArrivalTime());
+		assertSame(replayEnvironment.getElements().get(2), replayStop.getCharger());
+		assertEquals(List.of(replayEnvironment.getElements().get(0), replayEnvironment.getElements().get(1)), replayStop.getStopLocation().getSensors());
+		assertEquals(new Position(0, 0), ((TourTravelMetricEvent) events.get(4)).getNewValue().getLeft());
+		
+		final var attempt = (SolverAttemptMetricEvent) events.get(7);
+		assertEquals(3.5, attempt.getNewValue());
+		assertEquals(2, attempt.getRoutingRound());
+		assertEquals("TSP", attempt.getSolverName());
+		assertEquals(1000, attempt.getWallNanos());
+		assertFalse(attempt.isTimedOut());
+	}
+	
+	@Test
+	void futureEventsAreWrittenAsTheirParent(@TempDir final Path folder) throws IOException{
+		final var environment = createEnvironment();
+		final var sensor = (Sensor) environment.getElements().get(0);
+		final var path = folder.resolve("events.journal");
+		final var journal = new EventJournal(environment, path);
+		final var future = new FutureSensorCapacityMetricEvent(environment, 1, sensor, () -> 2.5);
+		future.generateValue();
+		journal.onEvent(future);
+		journal.close();
+		
+		final var events = read(path, createEnvironment());
+		assertEquals(1, events.size());
+		assertEquals(SensorCapacityMetricEvent.class, events.get(0).getClass());
+		assertEquals(2.5, ((SensorCapacityMetricEvent) events.get(0)).getNewValue());
+	}
+	
+	@Test
+	void replay(@TempDir final Path folder) throws IOException{
+		final var environment = createEnvironment();
+		final var sensor = (Sensor) environment.getElements().get(0);
+		final var path = folder.resolve("events.journal");
+		final var journal = new EventJournal(environment, path);
+		journal.onEvent(new SensorCapacityMetricEvent(environment, 1, sensor, 4D));
+		journal.onEvent(new SensorCapacityMetricEvent(environment, 3, sensor, 2D));
+		journal.close();
+		
+		final var replayEnvironment = createEnvironment();
+		final var capacities = new ArrayList<Double>();
+		replayEnvironment.getSimulator().getMetricEventDispatcher().addListener(new MetricEventListener(){
+			@Override
+			public void onEvent(final MetricEvent event){
+				capacities.add(((Sensor) replayEnvironment.getElements().get(0)).getCurrentCapacity());
+			}
+			
+			@Override
+			public void close(){
+			}
+		});
+		assertEquals(2, JournalReplayer.replay(path, replayEnvironment));
+		assertEquals(List.of(4D, 2D), capacities, "Sensor capacities should be restored before dispatching");
+		assertEquals(3, replayEnvironment.getSimulator().getCurrentTime());
+		assertEquals(42L, JournalReplayer.readSeed(path).orElseThrow());
+	}
+	
+	@Test
+	void mismatchingEnvironment(@TempDir final Path folder) throws IOException{
+		final var path = folder.resolve("events.journal");
+		new EventJournal(createEnvironment(), path).close();
+		final var environment = new Environment(null, "junit-test");
+		environment.add(new Sensor(environment));
+		assertThrows(IllegalArgumentException.class, () -> read(path, environment));
+	}
+	
+	@Test
+	void notAJournal(@TempDir final Path folder) throws IOException{
+		final var path = folder.resolve("events.journal");
+		Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+		assertThrows(IOException.class, () -> read(path, createEnvironment()));
+	}
+}
@@ -0,0 +1,114 @@
+package fr.mrcraftcod.simulator.metrics.journal;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.chargers.Charger;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.events.SensorCapacityMetricEvent;
+import fr.mrcraftcod.simulator.positions.Position;
+import fr.mrcraftcod.simulator.rault.metrics.events.*;
+import fr.mrcraftcod.simulator.rault.routing.ChargerTour;
+import fr.mrcraftcod.simulator.rault.routing.ChargingStop;
+import fr.mrcraftcod.simulator.rault.routing.StopLocation;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-14.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-14
+ */
+class RunRecordingTest{
+	private Environment environment;
+	private Sensor sensor;
+	private Charger charger;
+	
+	@BeforeEach
+	void setUp(){
+		environment = new Environment(null, "junit-test");
+		sensor = new Sensor(environment, 5, 10, 1, new Position(1, 2), 1);
+		charger = new Charger(100, 100, 1, 1, 1);
+		charger.setPosition(new Position(0, 0));
+		environment.add(sensor);
+		environment.add(charger);
+	}
+	
+	@Test
+	void seekMatchesSequentialPlayback(){
+		final var events = new ArrayList<MetricEvent>();
+		for(var i = 0; i < 3 * RunRecording.KEYFRAME_INTERVAL + 10; i++){
+			events.add(new SensorCapacityMetricEvent(environment, i, sensor, (double) i));
+		}
+		final var recording = new RunRecording(environment, events);
+		assertEquals(events.size() - 1, recording.getEndTime());
+		
+		final var state = recording.getState(0);
+		for(var i = 0; i < events.size(); i += 97){
+			recording.getEvents(i == 0 ? 0 : i - 97, i).forEach(state::apply);
+			assertEquals(state.getCapacity(sensor), recording.getState(i).getCapacity(sensor), "State at " + i);
+		}
+		assertEquals(5, recording.getState(0).getCapacity(sensor), "The state before the first event should be the initial one");
+		assertEquals(2000, recording.getState(recording.getIndex(2000)).getCapacity(sensor));
+		assertEquals(events.size() - 1, recording.getState(events.size()).getCapacity(sensor));
+	}
+	
+	@Test
+	void getIndex(){
+		final var events = List.<MetricEvent> of(new SensorCapacityMetricEvent(environment, 1, sensor, 1D), new SensorCapacityMetricEvent(environment, 2, sensor, 2D), new SensorCapacityMetricEvent(environment, 2, sensor, 3D), new SensorCapacityMetricEvent(environment, 1.5, sensor, 4D), new SensorCapacityMetricEvent(environment, 4, sensor, 5D));
+		final var recording = new RunRecording(environment, events);
+		assertEquals(0, recording.getIndex(0.5));
+		assertEquals(1, recording.getIndex(1));
+		assertEquals(4, recording.getIndex(2), "Events dispatched late should be counted with the events around them");
+		assertEquals(4, recording.getIndex(3));
+		assertEquals(5, recording.getIndex(10));
+		
+		final var history = recording.getCapacityHistory(sensor).orElseThrow();
+		assertEquals(5, history.size());
+		assertEquals(0, history.getCount(0));
+		assertEquals(2, history.getCount(2));
+		assertEquals(5, history.getCount(5));
+		assertEquals(3D, history.getValue(2));
+	}
+	
+	@Test
+	void chargerState(){
+		final var stop1 = new ChargingStop(new StopLocation(new Position(1, 1), List.of(sensor)), 1);
+		final var stop2 = new ChargingStop(new StopLocation(new Position(2, 2), List.of(sensor)), 1);
+		final var tour = new ChargerTour(charger);
+		tour.addStop(stop1);
+		tour.addStop(stop2);
+		final var events = List.<MetricEvent> of(new LcRequestMetricEvent(environment, 0, sensor), new TourStartMetricEvent(environment, 1, charger, tour), new TourTravelMetricEvent(environment, 1, charger, new ImmutablePair<>(new Position(0, 0), stop1)), new TourTravelEndMetricEvent(environment, 2, charger, stop1), new TourChargeMetricEvent(environment, 2, charger, stop1), new SensorChargedMetricEvent(environment, 3, sensor, 1), new TourChargeEndMetricEvent(environment, 3, charger, stop1), new TourTravelBaseMetricEvent(environment, 4, charger, new ImmutablePair<>(new Position(1, 1), new Position(0, 0))), new TourEndMetricEvent(environment, 5, charger, tour));
+		final var recording = new RunRecording(environment, events);
+		
+		var state = recording.getState(recording.getIndex(1));
+		assertEquals(RecordingState.SensorRequest.LC, state.getRequest(sensor));
+		assertEquals(List.of(stop2), state.getPlannedStops(charger));
+		assertEquals(new Position(1, 1), state.getPosition(charger));
+		assertEquals(RecordingState.ChargerActivity.TRAVELLING, state.getActivity(charger));
+		assertEquals(new Position(0, 0), state.getReturnPosition(charger).orElseThrow());
+		
+		state = recording.getState(recording.getIndex(2));
+		assertEquals(RecordingState.ChargerActivity.CHARGING, state.getActivity(charger));
+		assertSame(stop1, state.getChargingStop(charger).orElseThrow());
+		
+		state = recording.getState(recording.getIndex(3));
+		assertEquals(RecordingState.SensorRequest.NONE, state.getRequest(sensor));
+		assertTrue(state.getChargingStop(charger).isEmpty());
+		
+		state = recording.getState(recording.getIndex(4));
+		assertTrue(state.getReturnPosition(charger).isEmpty());
+		
+		state = recording.getState(recording.getIndex(5));
+		assertEquals(RecordingState.ChargerActivity.IDLE, state.getActivity(charger));
+		assertEquals(new Position(0, 0), state.getPosition(charger));
+		assertTrue(state.getPlannedStops(charger).isEmpty());
+		
+		recording.getState(recording.getIndex(1)).restore();
+		assertEquals(new Position(1, 1), charger.getPosition(), "Restoring should move the charger to its position in the state");
+	}
+}
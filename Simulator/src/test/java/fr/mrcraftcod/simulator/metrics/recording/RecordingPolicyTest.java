@@ -0,0 +1,108 @@
+package fr.mrcraftcod.simulator.metrics.recording;
+
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-15.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-15
+ */
+class RecordingPolicyTest{
+	private static double[] dischargeSeries(){
+		final var values = new double[200];
+		var capacity = 50D;
+		for(var i = 0; i < values.length; i++){
+			values[i] = capacity;
+			if(i == 120){
+				capacity = 30;
+			}
+			else{
+				capacity = Math.max(0, capacity - 0.7);
+			}
+		}
+		return values;
+	}
+	
+	private static List<double[]> record(final RecordingPolicy policy, final double[] values){
+		final var samples = new ArrayList<double[]>();
+		final var sampler = policy.createSampler();
+		for(var i = 0; i < values.length; i++){
+			sampler.accept(i, values[i], (time, value) -> samples.add(new double[]{
+					time,
+					value
+			}));
+		}
+		sampler.flush((time, value) -> samples.add(new double[]{
+				time,
+				value
+		}));
+		for(var i = 1; i < samples.size(); i++){
+			assertTrue(samples.get(i - 1)[0] < samples.get(i)[0], "Samples should be in time order");
+		}
+		assertEquals(0, samples.get(0)[0], "The first sample should be recorded");
+		assertEquals(values.length - 1, samples.get(samples.size() - 1)[0], "The last sample should be recorded");
+		return samples;
+	}
+	
+	@Test
+	void linearReconstructsSeries(){
+		final var values = dischargeSeries();
+		final var samples = record(new PiecewiseLinearPolicy(PiecewiseLinearPolicy.DEFAULT_TOLERANCE), values);
+		assertTrue(samples.size() < 10, "Only slope changes should be recorded, got " + samples.size());
+		var segment = 0;
+		for(var i = 0; i < values.length; i++){
+			while(samples.get(segment + 1)[0] < i){
+				segment++;
+			}
+			final var start = samples.get(segment);
+			final var end = samples.get(segment + 1);
+			final var interpolated = start[1] + (end[1] - start[1]) * (i - start[0]) / (end[0] - start[0]);
+			assertEquals(values[i], interpolated, 1e-6, "Value at " + i);
+		}
+	}
+	
+	@Test
+	void deadband(){
+		final var values = dischargeSeries();
+		final var samples = record(new DeadbandPolicy(2), values);
+		assertTrue(samples.size() < values.length / 2);
+		var sample = 0;
+		for(var i = 0; i < values.length; i++){
+			while(sample + 1 < samples.size() && samples.get(sample + 1)[0] <= i){
+				sample++;
+			}
+			assertEquals(values[i], samples.get(sample)[1], 2, "Value at " + i);
+		}
+	}
+	
+	@Test
+	void everyKthTick(){
+		final var samples = record(new EveryKthTickPolicy(10), dischargeSeries());
+		assertEquals(21, samples.size());
+		assertEquals(10, samples.get(1)[0]);
+	}
+	
+	@Test
+	void thresholdCrossing(){
+		final var samples = record(new ThresholdCrossingPolicy(40, 10), dischargeSeries());
+		assertEquals(List.of(0D, 15D, 58D, 121D, 150D, 199D), samples.stream().map(s -> s[0]).collect(Collectors.toList()));
+	}
+	
+	@Test
+	void fromJSON(){
+		assertTrue(RecordingPolicy.fromJSON(new JSONObject("{\"policy\": \"every\", \"k\": 3}")) instanceof EveryKthTickPolicy);
+		assertTrue(RecordingPolicy.fromJSON(new JSONObject("{\"policy\": \"deadband\", \"epsilon\": 0.5}")) instanceof DeadbandPolicy);
+		assertTrue(RecordingPolicy.fromJSON(new JSONObject("{\"policy\": \"threshold\", \"thresholds\": [1, 2]}")) instanceof ThresholdCrossingPolicy);
+		assertTrue(RecordingPolicy.fromJSON(new JSONObject("{\"policy\": \"linear\"}")) instanceof PiecewiseLinearPolicy);
+		assertThrows(SettingsParserException.class, () -> RecordingPolicy.fromJSON(new JSONObject("{\"policy\": \"unknown\"}")));
+		assertThrows(SettingsParserException.class, () -> RecordingPolicy.fromJSON(new JSONObject("{\"policy\": \"every\", \"k\": 0}")));
+		assertThrows(SettingsParserException.class, () -> RecordingPolicy.fromJSON(new JSONObject("{\"policy\": \"deadband\"}")));
+	}
+}
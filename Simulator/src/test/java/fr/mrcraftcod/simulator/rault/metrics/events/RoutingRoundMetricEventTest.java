@@ -0,0 +1,57 @@
+package fr.mrcraftcod.simulator.rault.metrics.events;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.rault.routing.RaultRouter;
+import fr.mrcraftcod.simulator.routing.Router;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RoutingRoundMetricEventTest{
+	private Environment environment;
+	private Router router;
+	
+	static class DataProvider implements ArgumentsProvider{
+		@Override
+		public Stream<? extends Arguments> provideArguments(final ExtensionContext context){
+			return Stream.of(new Object[]{
+					0D,
+					true,
+					4
+			}, new Object[]{
+					15D,
+					false,
+					0
+			}).map(Arguments::of);
+		}
+	}
+	
+	@BeforeEach
+	void setUp(){
+		this.environment = new Environment(null, "junit-test");
+		this.router = new RaultRouter(environment);
+	}
+	
+	@ParameterizedTest
+	@ArgumentsSource(DataProvider.class)
+	void construct(final double time, final boolean routed, final int tourCount){
+		final var event = new RoutingRoundMetricEvent(environment, time, router, routed, 3, 10, tourCount, 2 * tourCount, tourCount, 1, 1, 5000);
+		assertEquals(environment, event.getEnvironment());
+		assertEquals(time, event.getTime());
+		assertEquals(router, event.getElement());
+		assertEquals(routed, event.getNewValue());
+		assertEquals(3, event.getRoutingRound());
+		assertEquals(10, event.getRequestingSensorCount());
+		assertEquals(tourCount, event.getTourCount());
+		assertEquals(2 * tourCount, event.getStopCount());
+		assertEquals(tourCount, event.getSolverAttempts());
+		assertEquals(1, event.getTimeouts());
+		assertEquals(1, event.getFallbacks());
+		assertEquals(5000, event.getWallNanos());
+	}
+}
@@ -0,0 +1,57 @@
+package fr.mrcraftcod.simulator.rault.metrics.events;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.chargers.Charger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SolverAttemptMetricEventTest{
+	private Environment environment;
+	private Charger charger;
+	
+	static class DataProvider implements ArgumentsProvider{
+		@Override
+		public Stream<? extends Arguments> provideArguments(final ExtensionContext context){
+			return Stream.of(new Object[]{
+					0D,
+					150D,
+					1,
+					false
+			}, new Object[]{
+					15D,
+					Double.NaN,
+					3,
+					true
+			}).map(Arguments::of);
+		}
+	}
+	
+	@BeforeEach
+	void setUp(){
+		this.environment = new Environment(null, "junit-test");
+		this.charger = new Charger(environment);
+	}
+	
+	@ParameterizedTest
+	@ArgumentsSource(DataProvider.class)
+	void construct(final double time, final double objective, final int attempt, final boolean timedOut){
+		final var event = new SolverAttemptMetricEvent(environment, time, charger, objective, 2, "TSP", 5, attempt, 1000, timedOut);
+		assertEquals(environment, event.getEnvironment());
+		assertEquals(time, event.getTime());
+		assertEquals(charger, event.getElement());
+		assertEquals(objective, event.getNewValue());
+		assertEquals(2, event.getRoutingRound());
+		assertEquals("TSP", event.getSolverName());
+		assertEquals(5, event.getStopCount());
+		assertEquals(attempt, event.getAttempt());
+		assertEquals(1000, event.getWallNanos());
+		assertEquals(timedOut, event.isTimedOut());
+		assertEquals(!Double.isNaN(objective), event.isSolved());
+	}
+}
@@ -0,0 +1,160 @@
+package fr.mrcraftcod.simulator.rault.routing;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.chargers.Charger;
+import fr.mrcraftcod.simulator.positions.Position;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-18.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-18
+ */
+class RaultRouterTest{
+	private Environment environment;
+	private RaultRouter router;
+	private List<Sensor> sensors;
+	private List<Charger> chargers;
+	
+	@BeforeEach
+	void setUp(){
+		environment = new Environment(null, "junit-test");
+		router = new RaultRouter(environment);
+		router.setSpeculative(true);
+		environment.add(router);
+		chargers = new ArrayList<>();
+		for(var i = 0; i < 2; i++){
+			final var charger = new Charger(10000, 10000, 1, 1, 1);
+			environment.add(charger);
+			chargers.add(charger);
+		}
+		sensors = new ArrayList<>();
+		for(var i = 0; i < 3; i++){
+			final var sensor = new Sensor(environment, 10, 100, 1, new Position(10 * i, 5), 1);
+			environment.add(sensor);
+			sensors.add(sensor);
+		}
+	}
+	
+	@Test
+	void speculationReused(){
+		router.getRequestRegistry().add(sensors.get(0));
+		router.onRequestsChanged(environment);
+		router.getRequestRegistry().add(sensors.get(1));
+		router.onRequestsChanged(environment);
+		assertTrue(router.route(environment, router.getRequestRegistry().getRequestingSensors()));
+		assertEquals(1, router.getSpeculativeRoundCount());
+		assertTrue(chargers.stream().allMatch(c -> !c.isAvailable()));
+	}
+	
+	private static List<String> getTours(final long seed, final boolean speculative){
+		final var environment = new Environment(null, "junit-test");
+		environment.setSeed(seed);
+		final var router = new RaultRouter(environment);
+		router.setSpeculative(speculative);
+		environment.add(router);
+		final var chargers = new ArrayList<Charger>();
+		for(var i = 0; i < 2; i++){
+			final var charger = new Charger(10000, 10000, 1, 1, 1);
+			environment.add(charger);
+			chargers.add(charger);
+		}
+		for(var i = 0; i < 6; i++){
+			final var sensor = new Sensor(environment, 10 * i, 100, 1, new Position(7 * i, 3 * (i % 3)), 1);
+			environment.add(sensor);
+			router.getRequestRegistry().add(sensor);
+			router.onRequestsChanged(environment);
+		}
+		assertTrue(router.route(environment, router.getRequestRegistry().getRequestingSensors()));
+		assertEquals(speculative ? 1 : 0, router.getSpeculativeRoundCount());
+		return router.getActiveTours().stream().sorted(Comparator.comparingInt(tour -> chargers.indexOf(tour.getCharger()))).map(tour -> chargers.indexOf(tour.getCharger()) + ": " + tour.getStops().stream().map(stop -> stop.getStopLocation().getPosition().getX() + " " + stop.getStopLocation().getPosition().getY() + " " + stop.getChargingTime() + " " + stop.getChargerArrivalTime()).collect(Collectors.joining(", "))).collect(Collectors.toList());
+	}
+	
+	@Test
+	void speculationSameAsInline(){
+		for(final var seed : List.of(1L, 42L, 1234L)){
+			final var inline = getTours(seed, false);
+			assertFalse(inline.isEmpty());
+			assertEquals(inline, getTours(seed, true), "A speculative routing should build the same tours as an inline one");
+		}
+	}
+	
+	@Test
+	void speculationDiscarded(){
+		router.getRequestRegistry().add(sensors.get(0));
+		router.onRequestsChanged(environment);
+		router.getRequestRegistry().add(sensors.get(1));
+		assertTrue(router.route(environment, router.getRequestRegistry().getRequestingSensors()));
+		assertEquals(0, router.getSpeculativeRoundCount());
+		assertTrue(chargers.stream().allMatch(c -> !c.isAvailable()));
+	}
+	
+	@Test
+	void noSpeculationWhenBusy(){
+		chargers.get(0).setAvailable(false);
+		router.getRequestRegistry().add(sensors.get(0));
+		router.onRequestsChanged(environment);
+		chargers.get(0).setAvailable(true);
+		assertTrue(router.route(environment, router.getRequestRegistry().getRequestingSensors()));
+		assertEquals(0, router.getSpeculativeRoundCount());
+	}
+	
+	@Test
+	void notSpeculative(){
+		router.setSpeculative(false);
+		router.getRequestRegistry().add(sensors.get(0));
+		router.onRequestsChanged(environment);
+		assertTrue(router.route(environment, router.getRequestRegistry().getRequestingSensors()));
+		assertEquals(0, router.getSpeculativeRoundCount());
+	}
+	
+	@Test
+	void insertionInBusyTour(){
+		router.setSpeculative(false);
+		router.setInsertion(true);
+		chargers.forEach(c -> c.setCurrentCapacity(c.getMaxCapacity()));
+		assertTrue(router.route(environment, List.of(sensors.get(0))));
+		final var charger = chargers.stream().filter(c -> !c.isAvailable()).findFirst().orElseThrow();
+		assertTrue(chargers.stream().anyMatch(Charger::isAvailable));
+		assertTrue(router.route(environment, List.of(sensors.get(1), sensors.get(2))));
+		assertEquals(1, router.getInsertionCount());
+		assertFalse(charger.isAvailable());
+		assertTrue(chargers.stream().anyMatch(Charger::isAvailable), "Sensors should be inserted in the tour being run");
+	}
+	
+	@Test
+	void insertionWithoutCapacity(){
+		router.setSpeculative(false);
+		router.setInsertion(true);
+		chargers.forEach(c -> c.setCurrentCapacity(0));
+		assertTrue(router.route(environment, List.of(sensors.get(0))));
+		assertFalse(router.route(environment, List.of(sensors.get(1))));
+		assertEquals(0, router.getInsertionCount());
+	}
+	
+	@Test
+	void noInsertion(){
+		router.setSpeculative(false);
+		chargers.forEach(c -> c.setCurrentCapacity(c.getMaxCapacity()));
+		assertTrue(router.route(environment, List.of(sensors.get(0))));
+		assertFalse(router.route(environment, List.of(sensors.get(1))));
+		assertEquals(0, router.getInsertionCount());
+	}
+	
+	@Test
+	void fillFromJson(){
+		assertTrue(new RaultRouter(environment).fillFromJson(environment, new JSONObject().put("speculative", true)).isSpeculative());
+		assertFalse(new RaultRouter(environment).fillFromJson(environment, new JSONObject()).isSpeculative());
+		assertTrue(new RaultRouter(environment).fillFromJson(environment, new JSONObject().put("insertion", true)).isInsertion());
+		assertFalse(router.haveSameValues(new RaultRouter(environment)));
+	}
+}
@@ -0,0 +1,63 @@
+package fr.mrcraftcod.simulator.rault.routing;
+
+import fr.mrcraftcod.simulator.chargers.Charger;
+import fr.mrcraftcod.simulator.positions.Position;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-18.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-18
+ */
+class TourInsertionTest{
+	private ChargerTour travelling;
+	private ChargerTour charging;
+	private ChargingStop stop;
+	
+	@BeforeEach
+	void setUp(){
+		travelling = getTour(new Charger(10000, 10000, 1, 1, 1), new Position(10, 0), 5);
+		charging = getTour(new Charger(0, 10000, 1, 1, 1), new Position(20, 1), 8);
+		charging.setReadyTime(22);
+		stop = new ChargingStop(new StopLocation(new Position(20, 0)), 5);
+	}
+	
+	private static ChargerTour getTour(final Charger charger, final Position position, final double chargingTime){
+		charger.setPosition(position);
+		charger.setAvailable(false);
+		final var tour = new ChargerTour(charger);
+		final var head = new ChargingStop(new StopLocation(position), chargingTime);
+		head.setCharger(charger);
+		tour.getStops().add(head);
+		tour.setRegion("r");
+		return tour;
+	}
+	
+	@Test
+	void insertionMidTravel(){
+		travelling.setReadyTime(10);
+		assertFalse(new TourInsertion(0, List.of(travelling, charging)).insert(List.of(stop)));
+		assertEquals(1, travelling.getStops().size());
+		assertTrue(stop.getConflictZones().isEmpty());
+	}
+	
+	@Test
+	void insertionAfterTravel(){
+		assertTrue(new TourInsertion(0, List.of(travelling, charging)).insert(List.of(stop)));
+		assertEquals(2, travelling.getStops().size());
+		assertSame(stop, travelling.getStops().get(1));
+		assertEquals(15, stop.getChargerArrivalTime());
+		assertTrue(stop.getConflictZones().contains(charging.getStops().get(0)));
+	}
+	
+	@Test
+	void insertionMidTravelWithoutConflict(){
+		travelling.setReadyTime(10);
+		assertTrue(new TourInsertion(0, List.of(travelling)).insert(List.of(stop)));
+		assertEquals(25, stop.getChargerArrivalTime());
+	}
+}
@@ -0,0 +1,25 @@
+package fr.mrcraftcod.simulator.rault.utils;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-18.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-18
+ */
+class OrToolsLibraryTest{
+	@Test
+	void load(){
+		final var loaded = OrToolsLibrary.tryLoad();
+		assertEquals(loaded, OrToolsLibrary.tryLoad(), "The library should only be loaded once");
+		if(loaded){
+			assertDoesNotThrow(OrToolsLibrary::load);
+			assertTrue(OrToolsLibrary.getLoadError().isEmpty());
+		}
+		else{
+			assertSame(OrToolsLibrary.getLoadError().orElseThrow(), assertThrows(UnsatisfiedLinkError.class, OrToolsLibrary::load));
+		}
+	}
+}
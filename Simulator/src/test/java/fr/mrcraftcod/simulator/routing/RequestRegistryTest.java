@@ -0,0 +1,95 @@
+package fr.mrcraftcod.simulator.routing;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.positions.Position;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import fr.mrcraftcod.simulator.simulation.SimulationEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-09.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-09
+ */
+class RequestRegistryTest{
+	private Environment environment;
+	
+	@BeforeEach
+	void setUp(){
+		this.environment = new Environment(null, "junit-test");
+	}
+	
+	@Test
+	void requests(){
+		final var registry = new RequestRegistry();
+		final var first = new Sensor(environment, 10, 10, 0, new Position(0, 0), 1);
+		final var second = new Sensor(environment, 10, 10, 0, new Position(0, 0), 1);
+		final var third = new Sensor(environment, 10, 10, 0, new Position(0, 0), 1);
+		assertTrue(registry.add(second));
+		assertTrue(registry.add(first));
+		assertFalse(registry.add(second));
+		assertTrue(registry.contains(first));
+		assertFalse(registry.contains(third));
+		assertEquals(2, registry.size());
+		assertEquals(List.of(second, first), registry.getRequestingSensors());
+		
+		registry.clear();
+		assertEquals(0, registry.size());
+		assertFalse(registry.contains(first));
+		assertTrue(registry.add(third));
+		assertTrue(registry.add(first));
+		assertEquals(List.of(first, third), registry.getRequestingSensors(), "Sensors keep the index of their first request");
+	}
+	
+	@Test
+	void pendingTriggers(){
+		final var registry = new RequestRegistry();
+		final var executed = new int[]{0};
+		final var first = new SimulationEvent(1){
+			@Override
+			public void accept(final Environment environment){
+				executed[0]++;
+			}
+		};
+		final var second = new SimulationEvent(2){
+			@Override
+			public void accept(final Environment environment){
+				executed[0]++;
+			}
+		};
+		registry.addPendingTrigger(first);
+		registry.addPendingTrigger(second);
+		registry.removePendingTrigger(first);
+		assertEquals(1, registry.getPendingTriggerCount());
+		registry.cancelPendingTriggers();
+		assertEquals(0, registry.getPendingTriggerCount());
+		assertFalse(first.isCancelled());
+		assertTrue(second.isCancelled());
+		
+		environment.setEnd(10);
+		environment.getSimulator().getUnreadableQueue().add(first);
+		environment.getSimulator().getUnreadableQueue().add(second);
+		environment.getSimulator().run();
+		assertEquals(1, executed[0], "Cancelled events shouldn't be executed");
+	}
+	
+	@Test
+	void parkedTrigger(){
+		final var registry = new RequestRegistry();
+		final var sensor = new Sensor(environment, 10, 10, 0, new Position(0, 0), 1);
+		assertFalse(registry.hasParkedTrigger());
+		assertTrue(registry.unpark().isEmpty());
+		registry.park(sensor);
+		assertTrue(registry.hasParkedTrigger());
+		assertEquals(sensor, registry.unpark().orElseThrow());
+		assertTrue(registry.unpark().isEmpty(), "A parked trigger should be retried only once");
+		
+		registry.park(sensor);
+		registry.clear();
+		assertFalse(registry.hasParkedTrigger(), "Routing the requests should drop the parked trigger");
+	}
+}
@@ -0,0 +1,41 @@
+package fr.mrcraftcod.simulator.settings;
+
+import fr.mrcraftcod.simulator.SimulationConfiguration;
+import fr.mrcraftcod.simulator.settings.settingsources.SettingsSource;
+import fr.mrcraftcod.simulator.settings.settingsources.SettingsSource1;
+import fr.mrcraftcod.simulator.settings.settingsources.SettingsSource2;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-02.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-02
+ */
+class SimulationConfigurationTest{
+	private static Stream<? extends Arguments> settingsProvider(){
+		return Stream.of(arguments(new SettingsSource1()), arguments(new SettingsSource2()));
+	}
+	
+	@ParameterizedTest(name = "Settings {0}")
+	@MethodSource("settingsProvider")
+	void createParametersSeveralTimes(final SettingsSource settingsSource) throws Exception{
+		final var configuration = SimulationConfiguration.load(settingsSource.getJSONFile());
+		final var trueEnv = settingsSource.getEnvironment();
+		for(var run = 0; run < 3; run++){
+			final var env = configuration.createParameters(trueEnv.getSeed(), "junit-test").getEnvironment();
+			assertEquals(trueEnv.getSeed(), env.getSeed(), "Seed isn't the same");
+			assertEquals(trueEnv.getEnd(), env.getEnd(), "End isn't the same");
+			assertEquals(trueEnv.getElements().size(), env.getElements().size(), "Environment doesn't have the same amount of elements");
+			for(var i = 0; i < trueEnv.getElements().size(); i++){
+				assertTrue(trueEnv.getElements().get(i).haveSameValues(env.getElements().get(i)), "Elements are not the same at index " + i + " for run " + run);
+			}
+		}
+	}
+}
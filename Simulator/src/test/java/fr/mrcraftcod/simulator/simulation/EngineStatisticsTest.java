@@ -0,0 +1,65 @@
+package fr.mrcraftcod.simulator.simulation;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.simulation.events.EndEvent;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-10.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-10
+ */
+class EngineStatisticsTest{
+	@Test
+	void percentiles(){
+		final var statistics = new EngineStatistics();
+		for(var i = 0; i < 99; i++){
+			statistics.recordEvent(EndEvent.class, 100);
+		}
+		statistics.recordEvent(EndEvent.class, 10000);
+		final var eventStatistics = statistics.getEventStatistics().get(EndEvent.class);
+		assertEquals(100, eventStatistics.getCount());
+		assertEquals(99 * 100 + 10000, eventStatistics.getTotalNanos());
+		assertEquals(10000, eventStatistics.getMaxNanos());
+		assertEquals(127, eventStatistics.getPercentileNanos(0.5), "100ns is in the bucket [64;128[");
+		assertEquals(127, eventStatistics.getPercentileNanos(0.99));
+		assertEquals(10000, eventStatistics.getPercentileNanos(1), "Percentiles are capped by the maximum");
+		assertEquals(99, eventStatistics.getHistogram()[7]);
+		assertEquals(1, eventStatistics.getHistogram()[14]);
+	}
+	
+	@Test
+	void refusedRoutings(){
+		final var statistics = new EngineStatistics();
+		statistics.recordRouting(100, true);
+		statistics.recordRouting(10, false);
+		statistics.recordRouting(20, false);
+		assertEquals(1, statistics.getRoutingRounds());
+		assertEquals(100, statistics.getRoutingNanos());
+		assertEquals(2, statistics.getRefusedRoutings());
+		assertEquals(30, statistics.getRefusedRoutingNanos());
+		assertEquals(2, statistics.toJSON().getLong("refusedRoutings"));
+	}
+	
+	@Test
+	void simulation() throws Exception{
+		final var environment = new Environment(null, "junit-test");
+		environment.setEnd(10);
+		final var simulator = environment.getSimulator();
+		simulator.run();
+		final var statistics = simulator.getStatistics();
+		assertEquals(1, statistics.getEventStatistics().get(EndEvent.class).getCount());
+		assertTrue(statistics.getEventCount() >= 2);
+		assertTrue(statistics.getPeakQueueSize() >= 1);
+		assertTrue(statistics.getElapsedNanos() > 0);
+		
+		final var json = new JSONObject(Files.readString(MetricEvent.getMetricSaveFolder(environment).resolve("engine-statistics.json")));
+		assertEquals(statistics.getEventCount(), json.getLong("eventCount"));
+		assertTrue(json.getJSONObject("events").has(EndEvent.class.getName()));
+	}
+}
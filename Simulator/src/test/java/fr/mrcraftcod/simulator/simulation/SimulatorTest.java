@@ -0,0 +1,236 @@
+package fr.mrcraftcod.simulator.simulation;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.MetricEventListener;
+import fr.mrcraftcod.simulator.metrics.events.SensorCapacityMetricEvent;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-18.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-18
+ */
+class SimulatorTest{
+	private static final int END = 5;
+	
+	static class RecordingListener implements MetricEventListener{
+		private final List<MetricEvent> received = new ArrayList<>();
+		
+		@Override
+		public Collection<Class<? extends MetricEvent>> getSubscribedEvents(){
+			return List.of(SensorCapacityMetricEvent.class);
+		}
+		
+		@Override
+		public void onEvent(final MetricEvent event){
+			received.add(event);
+		}
+		
+		@Override
+		public void close(){
+		}
+	}
+	
+	static class Run{
+		private final Map<Sensor, String> regions = new HashMap<>();
+		private final Map<String, Integer> counters = new ConcurrentHashMap<>();
+		private final Set<String> threads = ConcurrentHashMap.newKeySet();
+		private final List<Map<String, Integer>> snapshots = new ArrayList<>();
+		private final RecordingListener listener = new RecordingListener();
+	}
+	
+	static class RegionEvent extends SimulationEvent implements LocalEvent{
+		private final Run run;
+		private final Sensor sensor;
+		private final String region;
+		private final int remaining;
+		
+		RegionEvent(final double time, final Run run, final Sensor sensor, final String region, final int remaining){
+			super(time);
+			this.run = run;
+			this.sensor = sensor;
+			this.region = region;
+			this.remaining = remaining;
+		}
+		
+		@Override
+		public void accept(final Environment environment){
+			run.threads.add(Thread.currentThread().getName());
+			final var count = run.counters.merge(region, 1, Integer::sum);
+			environment.getSimulator().getMetricEventDispatcher().dispatchEvent(new SensorCapacityMetricEvent(environment, environment.getSimulator().getCurrentTime(), sensor, (double) count));
+			if(remaining > 0){
+				environment.getSimulator().getUnreadableQueue().add(new RegionEvent(getTime() + 0.25, run, sensor, region, remaining - 1));
+			}
+		}
+		
+		@Override
+		public Object getRegion(){
+			return region;
+		}
+	}
+	
+	static class SnapshotEvent extends SimulationEvent{
+		private final Run run;
+		
+		SnapshotEvent(final double time, final Run run){
+			super(time);
+			this.run = run;
+		}
+		
+		@Override
+		public void accept(final Environment environment){
+			run.snapshots.add(new TreeMap<>(run.counters));
+			environment.getSimulator().getUnreadableQueue().add(new SnapshotEvent(getTime() + 1, run));
+		}
+	}
+	
+	static class FootprintEvent extends SimulationEvent implements LocalEvent{
+		private final Object footprint;
+		private final Runnable action;
+		
+		FootprintEvent(final double time, final Object footprint, final Runnable action){
+			super(time);
+			this.footprint = footprint;
+			this.action = action;
+		}
+		
+		@Override
+		public void accept(final Environment environment){
+			action.run();
+		}
+		
+		@Override
+		public Object getRegion(){
+			return "region";
+		}
+		
+		@Override
+		public Collection<?> getFootprint(final Environment environment){
+			return List.of(footprint);
+		}
+	}
+	
+	private static Run run(final int engineThreads){
+		final var run = new Run();
+		final var environment = new Environment(null, "junit-test");
+		environment.setEnd(END);
+		final var simulator = environment.getSimulator();
+		simulator.getMetricEventDispatcher().addListener(run.listener);
+		simulator.setEngineThreads(engineThreads);
+		for(var i = 0; i < 3; i++){
+			final var sensor = new Sensor(environment);
+			run.regions.put(sensor, "region" + i);
+			simulator.getUnreadableQueue().add(new RegionEvent(0.0625 + 0.125 * i, run, sensor, "region" + i, 4 * END));
+		}
+		simulator.getUnreadableQueue().add(new SnapshotEvent(0.5, run));
+		simulator.setRunning(true);
+		simulator.run();
+		return run;
+	}
+	
+	private static List<String> getReceived(final Run run){
+		return run.listener.received.stream().map(event -> event.getTime() + " " + run.regions.get(((SensorCapacityMetricEvent) event).getElement()) + " " + ((SensorCapacityMetricEvent) event).getNewValue()).collect(Collectors.toList());
+	}
+	
+	@Test
+	void parallelSameAsSequential(){
+		final var sequential = run(1);
+		final var parallel = run(4);
+		
+		final var sequentialReceived = getReceived(sequential);
+		final var parallelReceived = getReceived(parallel);
+		assertFalse(sequentialReceived.isEmpty());
+		assertEquals(new HashSet<>(sequentialReceived), new HashSet<>(parallelReceived), "The same metric events should be dispatched");
+		assertEquals(sequentialReceived.size(), parallelReceived.size());
+		for(var i = 1; i < parallel.listener.received.size(); i++){
+			assertTrue(parallel.listener.received.get(i - 1).getTime() <= parallel.listener.received.get(i).getTime(), "Metric events should be dispatched in time order");
+		}
+		assertEquals(sequential.snapshots, parallel.snapshots, "Other events should see the same state");
+		assertEquals(sequential.counters, parallel.counters);
+		assertEquals(1, sequential.threads.size());
+		assertTrue(parallel.threads.size() > 1, "Regions should run in several threads");
+	}
+	
+	@Test
+	void simultaneousEvents(){
+		final var environment = new Environment(null, "junit-test");
+		environment.setEnd(END);
+		final var simulator = environment.getSimulator();
+		simulator.setEngineThreads(2);
+		final var barrier = new CyclicBarrier(2);
+		final var met = new AtomicInteger(0);
+		final Runnable await = () -> {
+			try{
+				barrier.await(10, TimeUnit.SECONDS);
+				met.incrementAndGet();
+			}
+			catch(final InterruptedException | BrokenBarrierException | TimeoutException ignored){
+			}
+		};
+		final var active = new AtomicInteger(0);
+		final var maxActive = new AtomicInteger(0);
+		final Runnable work = () -> {
+			maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+			try{
+				Thread.sleep(50);
+			}
+			catch(final InterruptedException ignored){
+			}
+			active.decrementAndGet();
+		};
+		simulator.getUnreadableQueue().add(new FootprintEvent(1, "a", await));
+		simulator.getUnreadableQueue().add(new FootprintEvent(1, "b", await));
+		simulator.getUnreadableQueue().add(new FootprintEvent(2, "c", work));
+		simulator.getUnreadableQueue().add(new FootprintEvent(2, "c", work));
+		simulator.setRunning(true);
+		simulator.run();
+		
+		assertEquals(2, met.get(), "Events with different footprints should run at the same time");
+		assertEquals(1, maxActive.get(), "Events with the same footprint should run one after the other");
+	}
+	
+	private static List<String> scheduleFromRegion(final int engineThreads){
+		final var environment = new Environment(null, "junit-test");
+		environment.setEnd(END);
+		final var simulator = environment.getSimulator();
+		simulator.setEngineThreads(engineThreads);
+		final var results = Collections.synchronizedList(new ArrayList<String>());
+		simulator.getUnreadableQueue().add(new FootprintEvent(1, "a", () -> {
+			final var queue = simulator.getUnreadableQueue();
+			results.add("past " + queue.add(new FootprintEvent(0.5, "a", () -> results.add("past run"))));
+			results.add("future " + queue.add(new FootprintEvent(1.5, "a", () -> results.add("future run"))));
+			results.add("all " + queue.addAll(List.of(new FootprintEvent(2.5, "a", () -> results.add("all run")))));
+			try{
+				results.add("size " + queue.size());
+			}
+			catch(final UnsupportedOperationException e){
+				results.add("size unsupported");
+			}
+		}));
+		simulator.setRunning(true);
+		simulator.run();
+		return results;
+	}
+	
+	@Test
+	void scheduleFromRegionSameAsSequential(){
+		final var sequential = scheduleFromRegion(1);
+		assertEquals(List.of("past false", "future true", "all true", "size unsupported", "future run", "all run"), sequential);
+		assertEquals(sequential, scheduleFromRegion(2), "Scheduling from a region should behave as on the simulator queue");
+	}
+	
+	@Test
+	void engineThreads(){
+		final var simulator = new Environment(null, "junit-test").getSimulator();
+		assertThrows(IllegalArgumentException.class, () -> simulator.setEngineThreads(0));
+		simulator.setEngineThreads(2);
+	}
+}
@@ -0,0 +1,61 @@
+package fr.mrcraftcod.simulator.sweep;
+
+import fr.mrcraftcod.simulator.SimulationConfiguration;
+import fr.mrcraftcod.simulator.chargers.Charger;
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-17.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-17
+ */
+class ParameterGridTest{
+	private static JSONObject getSettings() throws Exception{
+		return new JSONObject(Files.readString(Paths.get(ParameterGridTest.class.getResource("/settings/settings1.json").toURI())));
+	}
+	
+	@Test
+	void points() throws Exception{
+		final var grid = ParameterGrid.fromJSON(new JSONArray("[{\"class\": \"" + Charger.class.getName() + "\", \"parameter\": \"speed\", \"values\": [5, 10, 20]}, {\"parameter\": \"powerActivation\", \"values\": [1, 2]}]"));
+		assertEquals(6, grid.size());
+		assertEquals(List.of("Charger.speed=5_powerActivation=1", "Charger.speed=5_powerActivation=2", "Charger.speed=10_powerActivation=1", "Charger.speed=10_powerActivation=2", "Charger.speed=20_powerActivation=1", "Charger.speed=20_powerActivation=2"), grid.getPoints().stream().map(ParameterGrid.Point::getLabel).collect(Collectors.toList()));
+	}
+	
+	@Test
+	void invalid() throws Exception{
+		assertThrows(SettingsParserException.class, () -> ParameterGrid.fromJSON(new JSONArray("[{\"parameter\": \"speed\", \"values\": []}]")));
+		assertThrows(SettingsParserException.class, () -> ParameterGrid.fromJSON(new JSONArray("[{\"parameter\": \"speed\"}]")));
+		assertThrows(SettingsParserException.class, () -> ParameterGrid.fromJSON(new JSONArray("[{\"class\": \"missing.Class\", \"parameter\": \"speed\", \"values\": [1]}]")));
+		final var json = getSettings().put("grid", new JSONArray("[{\"parameter\": \"missing\", \"values\": [1]}]"));
+		assertThrows(SettingsParserException.class, () -> new SimulationConfiguration(Path.of("junit.json"), json));
+	}
+	
+	@Test
+	void sharedTopology() throws Exception{
+		final var json = getSettings().put("grid", new JSONArray("[{\"class\": \"" + Charger.class.getName() + "\", \"parameter\": \"speed\", \"values\": [5, 10]}]"));
+		json.remove("seed");
+		final var configuration = new SimulationConfiguration(Path.of("junit.json"), json);
+		final var points = configuration.getGrid().orElseThrow().getPoints();
+		final var slow = configuration.atGridPoint(points.get(0));
+		final var fast = configuration.atGridPoint(points.get(1));
+		assertTrue(slow.getGrid().isEmpty());
+		assertEquals(configuration.getReplicationSeed(3), fast.getReplicationSeed(3));
+		
+		final var slowEnvironment = slow.createParameters(slow.getReplicationSeed(3), "junit-test").getEnvironment();
+		final var fastEnvironment = fast.createParameters(fast.getReplicationSeed(3), "junit-test").getEnvironment();
+		assertTrue(slowEnvironment.getElements(Charger.class).stream().allMatch(charger -> charger.getSpeed() == 5));
+		assertTrue(fastEnvironment.getElements(Charger.class).stream().allMatch(charger -> charger.getSpeed() == 10));
+		assertEquals(slowEnvironment.getElements(Sensor.class).stream().map(Sensor::getPosition).collect(Collectors.toList()), fastEnvironment.getElements(Sensor.class).stream().map(Sensor::getPosition).collect(Collectors.toList()));
+	}
+}
@@ -0,0 +1,93 @@
+package fr.mrcraftcod.simulator.sweep;
+
+import fr.mrcraftcod.simulator.Environment;
+import fr.mrcraftcod.simulator.SimulationConfiguration;
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.rault.routing.RaultRouter;
+import fr.mrcraftcod.simulator.rault.routing.RaultRouterModified;
+import fr.mrcraftcod.simulator.routing.Router;
+import fr.mrcraftcod.simulator.sensors.Sensor;
+import fr.mrcraftcod.simulator.utils.Identifiable;
+import org.jetbrains.annotations.NotNull;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-17.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-17
+ */
+class RouterComparisonTest{
+	public static class FirstRouter extends Router{
+		public FirstRouter(@NotNull final Environment environment){
+			super(environment);
+		}
+		
+		@Override
+		public boolean haveSameValues(final Identifiable identifiable){
+			return this.getClass().isInstance(identifiable);
+		}
+		
+		@Override
+		public boolean route(final Environment environment, final Collection<? extends Sensor> sensors){
+			return false;
+		}
+	}
+	
+	public static class SecondRouter extends FirstRouter{
+		public SecondRouter(@NotNull final Environment environment){
+			super(environment);
+		}
+	}
+	
+	@Test
+	void run() throws Exception{
+		final var configuration = SimulationConfiguration.load(Paths.get(RouterComparisonTest.class.getResource("/settings/settings1.json").toURI()));
+		final var results = new RouterComparison(configuration, List.of(FirstRouter.class, SecondRouter.class), 3, "junit-compare").run();
+		assertEquals(Set.of("FirstRouter", "SecondRouter", "SecondRouter-FirstRouter"), results.getConfigurations());
+		assertEquals(results.getMetrics("FirstRouter"), results.getMetrics("SecondRouter-FirstRouter"));
+		for(final var metric : results.getMetrics("FirstRouter")){
+			assertEquals(3, results.getValues("FirstRouter", metric).size());
+			assertEquals(results.getValues("FirstRouter", metric), results.getValues("SecondRouter", metric), "Routers that do nothing should see the same replications for " + metric);
+			assertEquals(List.of(0D, 0D, 0D), results.getValues("SecondRouter-FirstRouter", metric));
+		}
+		assertTrue(Files.exists(MetricEvent.getAllMetricSaveFolder("junit-compare").resolve("compare.csv")));
+		assertEquals(1 + 3 * 3 * results.getMetrics("FirstRouter").size(), Files.readAllLines(MetricEvent.getAllMetricSaveFolder("junit-compare").resolve("compare-replications.csv")).size());
+	}
+	
+	@Test
+	void routerParameters() throws Exception{
+		final var json = new JSONObject(Files.readString(Paths.get(RouterComparisonTest.class.getResource("/settings/settings1.json").toURI())));
+		json.getJSONArray("environment").put(new JSONObject().put("class", RaultRouter.class.getName()).put("parameters", new JSONObject().put("speculative", true).put("insertion", true)));
+		final var configuration = new SimulationConfiguration(null, json);
+		final var routerComparison = new RouterComparison(configuration, List.of(RaultRouter.class, RaultRouterModified.class, FirstRouter.class), 1, "junit-compare");
+		
+		final var reference = routerComparison.createEnvironment(RaultRouter.class, 1).getElements(Router.class);
+		assertEquals(1, reference.size());
+		assertEquals(RaultRouter.class, reference.get(0).getClass());
+		assertTrue(((RaultRouter) reference.get(0)).isSpeculative(), "The configured router should be used for its own class");
+		
+		final var variant = routerComparison.createEnvironment(RaultRouterModified.class, 1).getElements(Router.class);
+		assertEquals(1, variant.size());
+		assertTrue(((RaultRouterModified) variant.get(0)).isSpeculative(), "The variant should get the parameters of the configured router");
+		assertTrue(((RaultRouterModified) variant.get(0)).isInsertion());
+		
+		assertTrue(routerComparison.createEnvironment(FirstRouter.class, 1).getElements(Router.class).stream().allMatch(FirstRouter.class::isInstance));
+	}
+	
+	@Test
+	void routerClasses() throws Exception{
+		assertEquals(List.of(FirstRouter.class, SecondRouter.class), RouterComparison.getRouterClasses(List.of(FirstRouter.class.getName(), SecondRouter.class.getName())));
+		assertThrows(SettingsParserException.class, () -> RouterComparison.getRouterClasses(List.of(String.class.getName())));
+		assertThrows(SettingsParserException.class, () -> RouterComparison.getRouterClasses(List.of("missing.Router")));
+		assertThrows(IllegalArgumentException.class, () -> new RouterComparison(null, List.of(FirstRouter.class), 1, "junit-compare"));
+	}
+}
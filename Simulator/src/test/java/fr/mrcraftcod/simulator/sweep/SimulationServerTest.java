@@ -0,0 +1,86 @@
+package fr.mrcraftcod.simulator.sweep;
+
+import fr.mrcraftcod.simulator.metrics.listeners.ReplicationTotalDepletionMetricEventListener;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-17.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-17
+ */
+class SimulationServerTest{
+	private SimulationServer server;
+	
+	@BeforeEach
+	void setUp() throws Exception{
+		server = new SimulationServer(0, 2, "junit-server");
+		server.start();
+	}
+	
+	@AfterEach
+	void tearDown(){
+		server.stop();
+	}
+	
+	private HttpURLConnection request(final String method, final String path, final JSONObject body) throws Exception{
+		final var connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+		connection.setRequestMethod(method);
+		if(Objects.nonNull(body)){
+			connection.setDoOutput(true);
+			connection.getOutputStream().write(body.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		return connection;
+	}
+	
+	private static String read(final HttpURLConnection connection) throws Exception{
+		final var stream = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+		try(final var reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))){
+			return reader.lines().collect(Collectors.joining("\n"));
+		}
+	}
+	
+	@Test
+	void runJob() throws Exception{
+		final var configuration = new JSONObject(Files.readString(Paths.get(SimulationServerTest.class.getResource("/settings/settings1.json").toURI())));
+		configuration.put("metrics", new JSONArray().put(ReplicationTotalDepletionMetricEventListener.class.getName()));
+		final var submit = request("POST", "/jobs", new JSONObject().put("configuration", configuration).put("replications", 3).put("name", "settings"));
+		assertEquals(201, submit.getResponseCode());
+		final var id = new JSONObject(read(submit)).getInt("id");
+		
+		final var events = read(request("GET", "/jobs/" + id + "/events", null)).split("\n");
+		assertEquals(4, events.length);
+		assertEquals("DONE", new JSONObject(events[3]).getString("state"));
+		assertTrue(new JSONObject(events[0]).getJSONObject("values").has("depletionTimeSensors"));
+		
+		final var job = new JSONObject(read(request("GET", "/jobs/" + id, null)));
+		assertEquals("DONE", job.getString("state"));
+		assertEquals(3, job.getInt("done"));
+		assertEquals(3, job.getJSONObject("results").getJSONObject("settings").getJSONObject("depletionTimeSensors").getInt("replications"));
+		assertEquals(1, new JSONObject(read(request("GET", "/jobs", null))).getJSONArray("jobs").length());
+	}
+	
+	@Test
+	void errors() throws Exception{
+		assertEquals(404, request("GET", "/jobs/42", null).getResponseCode());
+		assertEquals(404, request("GET", "/jobs/abc", null).getResponseCode());
+		assertEquals(405, request("PUT", "/jobs", null).getResponseCode());
+		final var missing = request("POST", "/jobs", new JSONObject().put("replications", 1));
+		assertEquals(400, missing.getResponseCode());
+		assertTrue(new JSONObject(read(missing)).has("error"));
+	}
+}
@@ -0,0 +1,65 @@
+package fr.mrcraftcod.simulator.sweep;
+
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.listeners.ReplicationTotalDepletionMetricEventListener;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-05.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-05
+ */
+class SweepRunnerTest{
+	@Test
+	void resolveGlob(@TempDir final Path folder) throws Exception{
+		Files.writeString(folder.resolve("a-5.json"), "{}");
+		Files.writeString(folder.resolve("a-25.json"), "{}");
+		Files.writeString(folder.resolve("b-5.json"), "{}");
+		Files.writeString(folder.resolve("a-5.txt"), "");
+		assertEquals(List.of(folder.resolve("a-25.json"), folder.resolve("a-5.json")), SweepRunner.resolveGlob(folder + "/a-*.json"));
+		assertEquals(3, SweepRunner.resolveGlob(folder + "/*.json").size());
+		assertTrue(SweepRunner.resolveGlob(folder + "/missing/*.json").isEmpty());
+	}
+	
+	@Test
+	void run(@TempDir final Path folder) throws Exception{
+		final var json = new JSONObject(Files.readString(Paths.get(SweepRunnerTest.class.getResource("/settings/settings1.json").toURI())));
+		json.put("metrics", new JSONArray().put(ReplicationTotalDepletionMetricEventListener.class.getName()));
+		Files.writeString(folder.resolve("first.json"), json.toString());
+		json.put("seed", 24);
+		Files.writeString(folder.resolve("second.json"), json.toString());
+		
+		final var results = new SweepRunner(SweepRunner.resolveGlob(folder + "/*.json"), 3, 2, "junit-sweep").run();
+		assertEquals(Set.of("first", "second"), results.getConfigurations());
+		for(final var configuration : results.getConfigurations()){
+			assertEquals(3, results.getValues(configuration, "depletionTimeSensors").size(), "Every replication of " + configuration + " should have a result");
+		}
+		assertTrue(Files.exists(MetricEvent.getAllMetricSaveFolder("junit-sweep").resolve("sweep.csv")));
+		assertEquals(1 + 2 * 3, Files.readAllLines(MetricEvent.getAllMetricSaveFolder("junit-sweep").resolve("sweep-replications.csv")).size());
+	}
+	
+	@Test
+	void runGrid(@TempDir final Path folder) throws Exception{
+		final var json = new JSONObject(Files.readString(Paths.get(SweepRunnerTest.class.getResource("/settings/settings1.json").toURI())));
+		json.put("metrics", new JSONArray().put(ReplicationTotalDepletionMetricEventListener.class.getName()));
+		json.put("grid", new JSONArray("[{\"parameter\": \"speed\", \"values\": [5, 10]}, {\"parameter\": \"powerActivation\", \"values\": [1, 2]}]"));
+		Files.writeString(folder.resolve("grid.json"), json.toString());
+		
+		final var results = new SweepRunner(List.of(folder.resolve("grid.json")), 2, 2, "junit-grid").run();
+		assertEquals(Set.of("grid/speed=5_powerActivation=1", "grid/speed=5_powerActivation=2", "grid/speed=10_powerActivation=1", "grid/speed=10_powerActivation=2"), results.getConfigurations());
+		for(final var configuration : results.getConfigurations()){
+			assertEquals(2, results.getValues(configuration, "depletionTimeSensors").size(), "Every replication of " + configuration + " should have a result");
+		}
+	}
+}
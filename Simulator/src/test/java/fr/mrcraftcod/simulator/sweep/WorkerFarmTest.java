@@ -0,0 +1,76 @@
+package fr.mrcraftcod.simulator.sweep;
+
+import fr.mrcraftcod.simulator.metrics.MetricEvent;
+import fr.mrcraftcod.simulator.metrics.listeners.ReplicationTotalDepletionMetricEventListener;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-17.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-17
+ */
+class WorkerFarmTest{
+	@Test
+	void workerCommand(){
+		final var command = WorkerFarm.getWorkerCommand(1234, "junit-farm", false);
+		assertTrue(command.get(0).contains("java"));
+		assertEquals(List.of("--worker-port", "1234", "--run-name", "junit-farm"), command.subList(command.size() - 4, command.size()));
+		assertTrue(command.containsAll(ManagementFactory.getRuntimeMXBean().getInputArguments().stream().filter(argument -> argument.startsWith("-X")).collect(Collectors.toList())), "Workers should run with the JVM options of the coordinator");
+		assertEquals("--journal", WorkerFarm.getWorkerCommand(1234, "junit-farm", true).get(command.size()));
+	}
+	
+	private static List<Path> writeConfiguration(final Path folder) throws Exception{
+		final var json = new JSONObject(Files.readString(Paths.get(WorkerFarmTest.class.getResource("/settings/settings1.json").toURI())));
+		json.put("metrics", new JSONArray().put(ReplicationTotalDepletionMetricEventListener.class.getName()));
+		Files.writeString(folder.resolve("first.json"), json.toString());
+		return SweepRunner.resolveGlob(folder + "/*.json");
+	}
+	
+	@Test
+	void journal(@TempDir final Path folder) throws Exception{
+		final var runName = "junit-farm-journal/" + System.currentTimeMillis();
+		final var workerFarm = new WorkerFarm(writeConfiguration(folder), 2, 1, runName);
+		workerFarm.setJournal(true);
+		workerFarm.run();
+		try(final var files = Files.walk(MetricEvent.getAllMetricSaveFolder(runName))){
+			assertEquals(2, files.filter(file -> file.getFileName().toString().equals("events.journal")).count(), "Each replication should write a journal");
+		}
+	}
+	
+	@Test
+	void stuckWorker(@TempDir final Path folder) throws Exception{
+		final var workerFarm = new WorkerFarm(writeConfiguration(folder), 1, 1, "junit-farm-timeout");
+		workerFarm.setJobTimeout(Duration.ofMillis(1));
+		assertTrue(workerFarm.run().getValues("first", "depletionTimeSensors").isEmpty(), "A worker not answering in time should be killed and its job given up");
+	}
+	
+	@Test
+	void run(@TempDir final Path folder) throws Exception{
+		final var json = new JSONObject(Files.readString(Paths.get(WorkerFarmTest.class.getResource("/settings/settings1.json").toURI())));
+		json.put("metrics", new JSONArray().put(ReplicationTotalDepletionMetricEventListener.class.getName()));
+		Files.writeString(folder.resolve("first.json"), json.toString());
+		json.put("grid", new JSONArray("[{\"parameter\": \"speed\", \"values\": [5, 10]}]"));
+		Files.writeString(folder.resolve("second.json"), json.toString());
+		final var configurations = SweepRunner.resolveGlob(folder + "/*.json");
+		
+		final var results = new WorkerFarm(configurations, 2, 2, "junit-farm").run();
+		assertEquals(Set.of("first", "second/speed=5", "second/speed=10"), results.getConfigurations());
+		final var expected = new SweepRunner(configurations, 2, 2, "junit-farm-local").run();
+		for(final var configuration : results.getConfigurations()){
+			assertEquals(expected.getValues(configuration, "depletionTimeSensors"), results.getValues(configuration, "depletionTimeSensors"), "Workers should give the same results as the local runner for " + configuration);
+		}
+	}
+}
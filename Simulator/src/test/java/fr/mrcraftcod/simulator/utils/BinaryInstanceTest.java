@@ -0,0 +1,64 @@
+package fr.mrcraftcod.simulator.utils;
+
+import fr.mrcraftcod.simulator.SimulationConfiguration;
+import fr.mrcraftcod.simulator.SimulationParameters;
+import fr.mrcraftcod.simulator.exceptions.SettingsParserException;
+import fr.mrcraftcod.simulator.settings.settingsources.SettingsSource;
+import fr.mrcraftcod.simulator.settings.settingsources.SettingsSource1;
+import fr.mrcraftcod.simulator.settings.settingsources.SettingsSource2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-03.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-03
+ */
+class BinaryInstanceTest{
+	private static Stream<? extends Arguments> settingsProvider(){
+		return Stream.of(arguments(new SettingsSource1()), arguments(new SettingsSource2()));
+	}
+	
+	@ParameterizedTest(name = "Settings {0}")
+	@MethodSource("settingsProvider")
+	void writeAndRead(final SettingsSource settingsSource, @TempDir final Path folder) throws Exception{
+		final var path = folder.resolve("instance.bin");
+		final var configuration = SimulationConfiguration.load(settingsSource.getJSONFile());
+		final var trueEnv = new SimulationParameters(settingsSource.getJSONFile(), "junit-test").fillElementsFromConfiguration(configuration, 42).getEnvironment();
+		BinaryInstance.write(trueEnv, List.of(), path);
+		
+		assertTrue(BinaryInstance.isBinaryInstance(path), "File should be detected as a binary instance");
+		assertFalse(BinaryInstance.isBinaryInstance(settingsSource.getJSONFile()), "JSON file shouldn't be detected as a binary instance");
+		
+		final var binaryConfiguration = SimulationConfiguration.load(path);
+		assertEquals(configuration.getEnd(), binaryConfiguration.getEnd(), "End isn't the same");
+		assertEquals(42L, binaryConfiguration.getSeed().orElseThrow(), "Seed isn't the same");
+		final var env = binaryConfiguration.createParameters("junit-test").getEnvironment();
+		assertEquals(trueEnv.getSeed(), env.getSeed(), "Seed isn't the same");
+		assertEquals(trueEnv.getElements().size(), env.getElements().size(), "Environment doesn't have the same amount of elements");
+		for(var i = 0; i < trueEnv.getElements().size(); i++){
+			assertTrue(trueEnv.getElements().get(i).haveSameValues(env.getElements().get(i)), "Elements are not the same at index " + i);
+		}
+	}
+	
+	@Test
+	void readCorrupted(@TempDir final Path folder) throws Exception{
+		final var path = folder.resolve("instance.bin");
+		final var trueEnv = new SettingsSource1().getEnvironment();
+		BinaryInstance.write(trueEnv, List.of(), path);
+		final var bytes = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+		assertThrows(SettingsParserException.class, () -> SimulationConfiguration.load(path), "A truncated instance should be rejected");
+	}
+}
@@ -0,0 +1,74 @@
+package fr.mrcraftcod.simulator.utils;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-16.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-16
+ */
+class QuantileSketchTest{
+	private static double getExactQuantile(final double[] sorted, final double quantile){
+		return sorted[(int) Math.floor(quantile * (sorted.length - 1))];
+	}
+	
+	@Test
+	void relativeAccuracy(){
+		final var random = new SplittableRandom(42);
+		final var values = random.doubles(10000, -100, 1000).toArray();
+		final var sketch = new QuantileSketch();
+		Arrays.stream(values).forEach(sketch::add);
+		Arrays.sort(values);
+		for(final var quantile : new double[]{
+				0,
+				0.05,
+				0.25,
+				0.5,
+				0.75,
+				0.95,
+				1
+		}){
+			final var expected = getExactQuantile(values, quantile);
+			assertEquals(expected, sketch.getQuantile(quantile), Math.abs(expected) * QuantileSketch.DEFAULT_RELATIVE_ACCURACY + 1e-9, "Quantile " + quantile);
+		}
+	}
+	
+	@Test
+	void merge(){
+		final var random = new SplittableRandom(24);
+		final var first = new QuantileSketch();
+		final var second = new QuantileSketch();
+		final var all = new QuantileSketch();
+		random.doubles(500, 0, 10).forEach(value -> {
+			first.add(value);
+			all.add(value);
+		});
+		random.doubles(1500, 5, 100).forEach(value -> {
+			second.add(value);
+			all.add(value);
+		});
+		first.merge(second);
+		assertEquals(2000, first.getCount());
+		for(var quantile = 0D; quantile <= 1; quantile += 0.1){
+			assertEquals(all.getQuantile(quantile), first.getQuantile(quantile), "Quantile " + quantile);
+		}
+		assertThrows(IllegalArgumentException.class, () -> first.merge(new QuantileSketch(0.05)));
+	}
+	
+	@Test
+	void edgeCases(){
+		final var sketch = new QuantileSketch();
+		assertTrue(Double.isNaN(sketch.getQuantile(0.5)));
+		sketch.add(0);
+		sketch.add(0);
+		sketch.add(12.5);
+		assertEquals(0, sketch.getQuantile(0.5));
+		assertEquals(12.5, sketch.getQuantile(1));
+		assertThrows(IllegalArgumentException.class, () -> sketch.add(Double.NaN));
+		assertThrows(IllegalArgumentException.class, () -> sketch.getQuantile(1.5));
+	}
+}
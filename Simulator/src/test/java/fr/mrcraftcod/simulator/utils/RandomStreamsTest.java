@@ -0,0 +1,58 @@
+package fr.mrcraftcod.simulator.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import java.util.HashSet;
+import java.util.stream.LongStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-08.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-08
+ */
+class RandomStreamsTest{
+	@ParameterizedTest
+	@ValueSource(longs = {
+			0,
+			42,
+			-5
+	})
+	void subsystemsAreIndependent(final long seed){
+		final var first = new RandomStreams(seed);
+		final var second = new RandomStreams(seed);
+		first.get(RandomStreams.CAPACITY).nextDouble();
+		first.get(RandomStreams.CAPACITY).nextDouble();
+		assertEquals(second.get(RandomStreams.POSITION).nextLong(), first.get(RandomStreams.POSITION).nextLong(), "Drawing from another subsystem shouldn't change the values");
+		assertSame(first.get(RandomStreams.ROUTING), first.get(RandomStreams.ROUTING));
+		assertNotEquals(new RandomStreams(seed).get(RandomStreams.POSITION).nextLong(), new RandomStreams(seed).get(RandomStreams.CAPACITY).nextLong());
+	}
+	
+	@Test
+	void indexedStreamsDontDependOnOrder(){
+		final var streams = new RandomStreams(42);
+		final var forward = LongStream.range(0, 10).map(i -> streams.get(RandomStreams.ROUTING, i).nextLong()).toArray();
+		final var backward = new long[10];
+		for(var i = 9; i >= 0; i--){
+			backward[i] = streams.get(RandomStreams.ROUTING, i).nextLong();
+		}
+		for(var i = 0; i < 10; i++){
+			assertEquals(forward[i], backward[i]);
+		}
+	}
+	
+	@Test
+	void derivedSeedsAreDistinct(){
+		final var seeds = new HashSet<Long>();
+		for(var i = 0; i < 10000; i++){
+			seeds.add(RandomStreams.deriveSeed(42, i));
+		}
+		assertEquals(10000, seeds.size());
+		assertEquals(RandomStreams.deriveSeed(42, 3), RandomStreams.deriveSeed(42, 3));
+		assertNotEquals(RandomStreams.deriveSeed(42, 3), RandomStreams.deriveSeed(43, 3));
+	}
+}
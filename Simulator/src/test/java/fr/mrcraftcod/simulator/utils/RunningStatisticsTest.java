@@ -0,0 +1,68 @@
+package fr.mrcraftcod.simulator.utils;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-16.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-16
+ */
+class RunningStatisticsTest{
+	@Test
+	void matchesStatisticsUtils(){
+		final var values = List.of(2D, 4D, 4D, 4D, 5D, 5D, 7D, 9D);
+		final var statistics = new RunningStatistics();
+		values.forEach(statistics::add);
+		assertEquals(8, statistics.getCount());
+		assertEquals(StatisticsUtils.getMean(values), statistics.getMean(), 1e-12);
+		assertEquals(StatisticsUtils.getStandardDeviation(values), statistics.getStandardDeviation(), 1e-12);
+		assertEquals(StatisticsUtils.getConfidenceHalfWidth(values, 0.95), statistics.getConfidenceHalfWidth(0.95), 1e-12);
+		assertEquals(2, statistics.getMin());
+		assertEquals(9, statistics.getMax());
+	}
+	
+	@Test
+	void stableWithLargeOffset(){
+		final var statistics = new RunningStatistics();
+		DoubleStream.of(4, 7, 13, 16).map(d -> d + 1e9).forEach(statistics::add);
+		assertEquals(30, statistics.getVariance(), 1e-6);
+	}
+	
+	@Test
+	void merge(){
+		final var random = new SplittableRandom(42);
+		final var values = random.doubles(1000, -50, 150).boxed().collect(Collectors.toList());
+		final var first = new RunningStatistics();
+		final var second = new RunningStatistics();
+		final var all = new RunningStatistics();
+		for(var i = 0; i < values.size(); i++){
+			(i < 300 ? first : second).add(values.get(i));
+			all.add(values.get(i));
+		}
+		first.merge(second);
+		first.merge(new RunningStatistics());
+		assertEquals(all.getCount(), first.getCount());
+		assertEquals(all.getMean(), first.getMean(), 1e-9);
+		assertEquals(all.getVariance(), first.getVariance(), 1e-6);
+		assertEquals(all.getMin(), first.getMin());
+		assertEquals(all.getMax(), first.getMax());
+	}
+	
+	@Test
+	void empty(){
+		final var statistics = new RunningStatistics();
+		assertTrue(Double.isNaN(statistics.getMean()));
+		assertTrue(Double.isNaN(statistics.getMin()));
+		statistics.add(3);
+		assertEquals(3, statistics.getMean());
+		assertTrue(Double.isNaN(statistics.getVariance()));
+		assertTrue(Double.isNaN(statistics.getConfidenceHalfWidth(0.95)));
+	}
+}
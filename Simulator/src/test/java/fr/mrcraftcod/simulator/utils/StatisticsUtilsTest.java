@@ -0,0 +1,60 @@
+package fr.mrcraftcod.simulator.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by Thomas Couchoud (MrCraftCod - zerderr@gmail.com) on 2019-04-05.
+ *
+ * @author Thomas Couchoud
+ * @since 2019-04-05
+ */
+class StatisticsUtilsTest{
+	@ParameterizedTest(name = "t({0}, {1}) = {2}")
+	@CsvSource({
+			"0.975, 1, 12.7062",
+			"0.975, 2, 4.302653",
+			"0.975, 3, 3.182446",
+			"0.975, 5, 2.570582",
+			"0.975, 10, 2.228139",
+			"0.975, 30, 2.042272",
+			"0.995, 4, 4.604095",
+			"0.95, 9, 1.833113",
+			"0.9, 3, 1.637744"
+	})
+	void studentQuantile(final double p, final int degreesOfFreedom, final double expected){
+		assertEquals(expected, StatisticsUtils.getStudentQuantile(p, degreesOfFreedom), 1e-4);
+	}
+	
+	@ParameterizedTest(name = "z({0}) = {1}")
+	@CsvSource({
+			"0.5, 0",
+			"0.975, 1.959964",
+			"0.01, -2.326348",
+			"0.999, 3.090232"
+	})
+	void normalQuantile(final double p, final double expected){
+		assertEquals(expected, StatisticsUtils.getNormalQuantile(p), 1e-6);
+	}
+	
+	@Test
+	void confidenceHalfWidth(){
+		final var values = List.of(2D, 4D, 4D, 4D, 5D, 5D, 7D, 9D);
+		assertEquals(5, StatisticsUtils.getMean(values), 1e-9);
+		assertEquals(2.138090, StatisticsUtils.getStandardDeviation(values), 1e-6);
+		assertEquals(2.364624 * 2.138090 / Math.sqrt(8), StatisticsUtils.getConfidenceHalfWidth(values, 0.95), 1e-4);
+		assertTrue(Double.isNaN(StatisticsUtils.getConfidenceHalfWidth(List.of(1D), 0.95)));
+	}
+	
+	@Test
+	void invalidArguments(){
+		assertThrows(IllegalArgumentException.class, () -> StatisticsUtils.getStudentQuantile(0.4, 3));
+		assertThrows(IllegalArgumentException.class, () -> StatisticsUtils.getStudentQuantile(0.975, 0));
+		assertThrows(IllegalArgumentException.class, () -> StatisticsUtils.getNormalQuantile(1));
+	}
+}